@@ -0,0 +1,98 @@
+package jpacman.game;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.google.common.collect.Lists;
+import jpacman.board.BoardFactory;
+import jpacman.board.Direction;
+import jpacman.level.Level;
+import jpacman.level.LevelFactory;
+import jpacman.level.MapParser;
+import jpacman.level.Player;
+import jpacman.level.PlayerFactory;
+import jpacman.npc.ghost.GhostFactory;
+import jpacman.points.PointCalculator;
+import jpacman.sprite.PacManSprites;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+
+/**
+ * Measures moving thousands of players of one game.
+ */
+@SuppressWarnings("magicnumber")
+class MultiPlayerGameBenchmark {
+
+    /**
+     * The amount of players in the game.
+     */
+    private static final int PLAYERS = 5000;
+
+    /**
+     * The sprites of the game.
+     */
+    private final PacManSprites sprites = new PacManSprites();
+
+    /**
+     * The point calculator of the game.
+     */
+    private final PointCalculator calculator = mock(PointCalculator.class);
+
+    /**
+     * Reports how long creating the game, which registers all players, and
+     * moving all players one square take, one move at a time and in a single
+     * batch.
+     *
+     * @param reporter
+     *            Receives the results.
+     */
+    @Test
+    void moves(TestReporter reporter) {
+        Level level = createLevel();
+        GameFactory factory = new GameFactory(new PlayerFactory(sprites));
+        long start = System.nanoTime();
+        Game game = factory.createMultiPlayerGame(level, PLAYERS, calculator);
+        long created = System.nanoTime() - start;
+        game.start();
+        List<Player> players = game.getPlayers();
+        List<Direction> directions = new ArrayList<>(PLAYERS);
+        for (int i = 0; i < PLAYERS; i++) {
+            directions.add(Direction.values()[i % 4]);
+        }
+        start = System.nanoTime();
+        for (int i = 0; i < PLAYERS; i++) {
+            game.move(players.get(i), directions.get(i));
+        }
+        long single = System.nanoTime() - start;
+        start = System.nanoTime();
+        game.moveAll(players, directions);
+        long batched = System.nanoTime() - start;
+        assertThat(game.getLevel().getLivingPlayerCount()).isEqualTo(PLAYERS);
+        game.dispose();
+
+        Map<String, String> results = new LinkedHashMap<>();
+        results.put("players", Integer.toString(PLAYERS));
+        results.put("create game us", Long.toString(created / 1000));
+        results.put("one by one us", Long.toString(single / 1000));
+        results.put("batched us", Long.toString(batched / 1000));
+        reporter.publishEntry(results);
+    }
+
+    /**
+     * @return A level with a few start squares, out of reach of its only
+     *         pellet.
+     */
+    private Level createLevel() {
+        return new MapParser(
+            new LevelFactory(sprites, new GhostFactory(sprites), calculator),
+            new BoardFactory(sprites)).parseMap(Lists.newArrayList(
+                "#P P P  #.#",
+                "#P P P  ###",
+                "###########"));
+    }
+}
@@ -0,0 +1,67 @@
+package jpacman.level;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import jpacman.board.BoardFactory;
+import jpacman.board.Direction;
+import jpacman.npc.ghost.GhostFactory;
+import jpacman.points.PointCalculator;
+import jpacman.sprite.PacManSprites;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+
+/**
+ * Measures forking a level.
+ */
+@SuppressWarnings("magicnumber")
+class LevelForkBenchmark {
+
+    /**
+     * The amount of forks made.
+     */
+    private static final int ROUNDS = 100_000;
+
+    /**
+     * The sprites of the game.
+     */
+    private final PacManSprites sprites = new PacManSprites();
+
+    /**
+     * The parser used to create levels.
+     */
+    private final MapParser parser = new MapParser(
+        new LevelFactory(sprites, new GhostFactory(sprites), mock(PointCalculator.class)),
+        new BoardFactory(sprites));
+
+    /**
+     * Forks the default board many times, making a move in every fork, and
+     * reports the amount of forks per second.
+     *
+     * @param reporter
+     *            Receives the results.
+     * @throws IOException
+     *             If the board could not be read.
+     */
+    @Test
+    void forks(TestReporter reporter) throws IOException {
+        Level board = parser.parseMap("/board.txt");
+        board.registerPlayer(new PlayerFactory(sprites).createPacMan());
+        LevelFork root = board.fork();
+
+        long start = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            LevelFork fork = root.fork();
+            fork.move(0, Direction.values()[i % 4]);
+        }
+        long elapsed = System.nanoTime() - start;
+
+        assertThat(root.remainingPellets()).isEqualTo(board.remainingPellets());
+        board.dispose();
+        reporter.publishEntry("forks/s",
+            Long.toString(ROUNDS * TimeUnit.SECONDS.toNanos(1) / Math.max(1L, elapsed)));
+    }
+}
@@ -0,0 +1,88 @@
+package jpacman.level;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import jpacman.board.BoardFactory;
+import jpacman.npc.ghost.GhostFactory;
+import jpacman.points.PointCalculator;
+import jpacman.sprite.PacManSprites;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+
+/**
+ * Measures writing and reading the state of a level.
+ */
+@SuppressWarnings("magicnumber")
+class LevelStateBenchmark {
+
+    /**
+     * The amount of states written and read.
+     */
+    private static final int ROUNDS = 20_000;
+
+    /**
+     * The sprites of the game.
+     */
+    private final PacManSprites sprites = new PacManSprites();
+
+    /**
+     * The parser used to create levels.
+     */
+    private final MapParser parser = new MapParser(
+        new LevelFactory(sprites, new GhostFactory(sprites), mock(PointCalculator.class)),
+        new BoardFactory(sprites));
+
+    /**
+     * Writes and reads the state of the default board many times, and reports
+     * the amount of states written and read per second.
+     *
+     * @param reporter
+     *            Receives the results.
+     * @throws IOException
+     *             If the board could not be read.
+     */
+    @Test
+    void writeAndRead(TestReporter reporter) throws IOException {
+        Level level = parser.parseMap("/board.txt");
+        level.registerPlayer(new PlayerFactory(sprites).createPacMan());
+        ByteBuffer state = ByteBuffer.allocateDirect(level.getStateSize());
+
+        long start = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            state.clear();
+            level.writeState(state);
+        }
+        long written = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            state.flip();
+            level.readState(state);
+        }
+        long read = System.nanoTime() - start;
+        assertThat(level.remainingPellets()).isEqualTo(level.getSnapshot().getPelletSlots());
+        level.dispose();
+
+        Map<String, String> results = new LinkedHashMap<>();
+        results.put("state bytes", Integer.toString(level.getStateSize()));
+        results.put("writes/s", Long.toString(perSecond(written)));
+        results.put("reads/s", Long.toString(perSecond(read)));
+        reporter.publishEntry(results);
+    }
+
+    /**
+     * @param nanos
+     *            The time all rounds took, in nanoseconds.
+     * @return The amount of rounds per second.
+     */
+    private static long perSecond(long nanos) {
+        return ROUNDS * TimeUnit.SECONDS.toNanos(1) / Math.max(1L, nanos);
+    }
+}
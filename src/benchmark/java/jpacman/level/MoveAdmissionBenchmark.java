@@ -0,0 +1,60 @@
+package jpacman.level;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import jpacman.board.BoardFactory;
+import jpacman.board.Direction;
+import jpacman.metrics.LatencyHistogram;
+import jpacman.npc.ghost.GhostFactory;
+import jpacman.points.PointCalculator;
+import jpacman.sprite.PacManSprites;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+
+/**
+ * Measures the input latency of a player while many NPCs move.
+ */
+class MoveAdmissionBenchmark {
+
+    /**
+     * Moves the player of the default board every millisecond for a second
+     * while its NPCs move, and reports the latency of the player's moves.
+     *
+     * @param reporter
+     *            Receives the results.
+     * @throws Exception
+     *             If the board could not be read or the benchmark was
+     *             interrupted.
+     */
+    @Test
+    void playerLatency(TestReporter reporter) throws Exception {
+        PacManSprites sprites = new PacManSprites();
+        MapParser parser = new MapParser(
+            new LevelFactory(sprites, new GhostFactory(sprites), mock(PointCalculator.class)),
+            new BoardFactory(sprites));
+        Level level = parser.parseMap("/board.txt");
+        Player player = new PlayerFactory(sprites).createPacMan();
+        level.registerPlayer(player);
+        level.start();
+        long end = System.nanoTime() + TimeUnit.SECONDS.toNanos(1);
+        Direction[] directions = Direction.values();
+        for (int i = 0; System.nanoTime() < end && player.isAlive(); i++) {
+            level.move(player, directions[i % directions.length]);
+            Thread.sleep(1L);
+        }
+        level.dispose();
+
+        LatencyHistogram latency = level.getPlayerMoveLatency();
+        assertThat(latency.getCount()).isPositive();
+        Map<String, String> results = new LinkedHashMap<>();
+        results.put("player input latency", latency.toString());
+        results.put("all moves", level.getMoveLatency().toString());
+        results.put("NPC moves preempted", Long.toString(level.getPreemptedNpcMoves()));
+        reporter.publishEntry(results);
+    }
+}
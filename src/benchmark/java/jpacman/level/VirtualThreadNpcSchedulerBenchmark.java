@@ -0,0 +1,160 @@
+package jpacman.level;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import jpacman.board.BoardFactory;
+import jpacman.npc.ghost.GhostFactory;
+import jpacman.points.PointCalculator;
+import jpacman.sprite.PacManSprites;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+
+/**
+ * Compares moving the NPCs of many levels at once on the default pool of
+ * threads per level to moving them on a thread each.
+ */
+@SuppressWarnings("magicnumber")
+class VirtualThreadNpcSchedulerBenchmark {
+
+    /**
+     * The amount of levels run at the same time.
+     */
+    private static final int LEVELS = 100;
+
+    /**
+     * The time the levels run, in milliseconds.
+     */
+    private static final long RUN_TIME = 1000L;
+
+    /**
+     * The sprites of the game.
+     */
+    private final PacManSprites sprites = new PacManSprites();
+
+    /**
+     * The parser used to create levels.
+     */
+    private final MapParser parser = new MapParser(
+        new LevelFactory(sprites, new GhostFactory(sprites), mock(PointCalculator.class)),
+        new BoardFactory(sprites));
+
+    /**
+     * The threads created for the NPCs.
+     */
+    private final List<Thread> created = new ArrayList<>();
+
+    /**
+     * The levels being run.
+     */
+    private final List<Level> running = new ArrayList<>();
+
+    /**
+     * Creates the threads for the NPCs, remembering them.
+     */
+    private final ThreadFactory factory = task -> {
+        Thread thread = VirtualThreads.newThreadFactoryOrPlatform("npc-loop-").newThread(task);
+        synchronized (created) {
+            created.add(thread);
+        }
+        return thread;
+    };
+
+    /**
+     * Runs many levels of the default board at the same time, first with the
+     * default pools and then with a thread per NPC, and reports the threads
+     * used and the moves made per second.
+     *
+     * @param reporter
+     *            Receives the results.
+     * @throws Exception
+     *             If the board could not be read or the benchmark was
+     *             interrupted.
+     */
+    @Test
+    void levels(TestReporter reporter) throws Exception {
+        long before = liveThreads();
+        long pooled = runLevels(false);
+        long pooledThreads = liveThreads() - before;
+        disposeAll();
+
+        long perNpc = runLevels(true);
+        disposeAll();
+        assertThat(created).hasSize(LEVELS * 4);
+
+        Map<String, String> results = new LinkedHashMap<>();
+        results.put("levels", Integer.toString(LEVELS));
+        results.put("pooled moves/s", Long.toString(pooled));
+        results.put("pooled threads", Long.toString(pooledThreads));
+        results.put("per NPC thread kind", threadKind());
+        results.put("per NPC moves/s", Long.toString(perNpc));
+        results.put("per NPC threads", Integer.toString(created.size()));
+        reporter.publishEntry(results);
+    }
+
+    /**
+     * Runs the levels for a while.
+     *
+     * @param threadPerNpc
+     *            <code>true</code> to move every NPC on a thread of its own.
+     * @return The amount of moves made per second.
+     * @throws IOException
+     *             If the board could not be read.
+     * @throws InterruptedException
+     *             If interrupted while waiting.
+     */
+    private long runLevels(boolean threadPerNpc) throws IOException, InterruptedException {
+        for (int i = 0; i < LEVELS; i++) {
+            Level level = parser.parseMap("/board.txt");
+            level.registerPlayer(new PlayerFactory(sprites).createPacMan());
+            if (threadPerNpc) {
+                level.useThreadPerNpc(factory);
+            }
+            running.add(level);
+        }
+        for (Level level : running) {
+            level.start();
+        }
+        Thread.sleep(RUN_TIME);
+        long moves = 0L;
+        for (Level level : running) {
+            moves += level.getSnapshot().getSequence();
+        }
+        return moves * TimeUnit.SECONDS.toMillis(1) / RUN_TIME;
+    }
+
+    /**
+     * Disposes all levels.
+     */
+    private void disposeAll() {
+        for (Level level : running) {
+            level.dispose();
+        }
+        running.clear();
+    }
+
+    /**
+     * @return The amount of live platform threads in the JVM.
+     */
+    private static long liveThreads() {
+        return Thread.getAllStackTraces().size();
+    }
+
+    /**
+     * @return The kind of threads used per NPC.
+     */
+    private static String threadKind() {
+        if (VirtualThreads.isAvailable()) {
+            return "virtual";
+        }
+        return "platform";
+    }
+}
@@ -0,0 +1,101 @@
+package jpacman.npc.ghost;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import jpacman.board.BoardFactory;
+import jpacman.board.Direction;
+import jpacman.clock.ManualClock;
+import jpacman.level.Level;
+import jpacman.level.LevelFactory;
+import jpacman.level.Player;
+import jpacman.level.PlayerFactory;
+import jpacman.npc.Ghost;
+import jpacman.points.DefaultPointCalculator;
+import jpacman.sprite.PacManSprites;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+
+/**
+ * Measures the path searches of the ghosts saved by reusing the path of an
+ * earlier decision.
+ */
+@SuppressWarnings("magicnumber")
+class PathMemoBenchmark {
+
+    /**
+     * The time between ticks, in milliseconds.
+     */
+    private static final long TICK = 50L;
+
+    /**
+     * The game time played, in seconds.
+     */
+    private static final long GAME_TIME = 600L;
+
+    /**
+     * Plays ten minutes of the default board in tick mode on a manual clock,
+     * with the player going back and forth and starting over when caught,
+     * and reports the searches per second of the game with the memo and
+     * without it, when every decision searched.
+     *
+     * @param reporter
+     *            Receives the results.
+     * @throws IOException
+     *             If the board could not be read.
+     */
+    @Test
+    void searches(TestReporter reporter) throws IOException {
+        PacManSprites sprites = new PacManSprites();
+        GhostFactory ghostFactory = new GhostFactory(sprites);
+        Level level = new GhostMapParser(
+            new LevelFactory(sprites, ghostFactory, new DefaultPointCalculator()),
+            new BoardFactory(sprites), ghostFactory).parseMap("/board.txt");
+        Player pacman = new PlayerFactory(sprites).createPacMan();
+        level.registerPlayer(pacman);
+        long start = System.nanoTime();
+        play(level, pacman);
+        long elapsed = System.nanoTime() - start;
+
+        long hits = 0L;
+        long searches = 0L;
+        for (Ghost ghost : level.getGhosts()) {
+            hits += ghost.getPathHits();
+            searches += ghost.getPathSearches();
+        }
+        Map<String, String> results = new LinkedHashMap<>();
+        results.put("ghosts", Integer.toString(level.getGhosts().size()));
+        results.put("searches/s without memo", Long.toString((hits + searches) / GAME_TIME));
+        results.put("searches/s with memo", Long.toString(searches / GAME_TIME));
+        results.put("hit rate %", Long.toString(100L * hits / Math.max(1L, hits + searches)));
+        results.put("real ms", Long.toString(TimeUnit.NANOSECONDS.toMillis(elapsed)));
+        reporter.publishEntry(results);
+    }
+
+    /**
+     * Plays the game time on a manual clock.
+     *
+     * @param level
+     *            The level to play.
+     * @param pacman
+     *            The player of the level.
+     */
+    private static void play(Level level, Player pacman) {
+        ManualClock clock = new ManualClock();
+        level.setClock(clock);
+        level.enableTickMode(TICK);
+        level.start();
+        for (long second = 0; second < GAME_TIME; second++) {
+            if (!pacman.isAlive()) {
+                level.reset();
+                level.start();
+            }
+            level.move(pacman, Direction.EAST);
+            clock.advance(1L, TimeUnit.SECONDS);
+            level.move(pacman, Direction.WEST);
+        }
+        level.dispose();
+    }
+}
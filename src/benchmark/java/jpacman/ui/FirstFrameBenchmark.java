@@ -0,0 +1,112 @@
+package jpacman.ui;
+
+import java.awt.Dimension;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import jpacman.board.Board;
+import jpacman.board.BoardFactory;
+import jpacman.level.Level;
+import jpacman.level.LevelFactory;
+import jpacman.level.MapParser;
+import jpacman.level.PlayerFactory;
+import jpacman.npc.ghost.GhostFactory;
+import jpacman.points.DefaultPointCalculator;
+import jpacman.sprite.PacManSprites;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+
+/**
+ * Compares the time to the first frame of the default board when sprites
+ * are loaded on first use to when they are preloaded in parallel. Frames
+ * are drawn into an off-screen image, so no display is needed.
+ */
+@SuppressWarnings("magicnumber")
+class FirstFrameBenchmark {
+
+    /**
+     * The amount of first frames measured per way of loading the sprites.
+     */
+    private static final int ROUNDS = 20;
+
+    /**
+     * Draws the first frame of a fresh set of sprites many times, loading
+     * the sprites lazily and preloading them by turns, and reports the
+     * median times in microseconds.
+     *
+     * @param reporter
+     *            Receives the results.
+     * @throws IOException
+     *             If the board could not be read.
+     */
+    @Test
+    void firstFrame(TestReporter reporter) throws IOException {
+        firstFrame(false);
+        firstFrame(true);
+        long[] lazy = new long[ROUNDS];
+        long[] preloaded = new long[ROUNDS];
+        for (int i = 0; i < ROUNDS; i++) {
+            lazy[i] = firstFrame(false);
+            preloaded[i] = firstFrame(true);
+        }
+
+        Map<String, String> results = new LinkedHashMap<>();
+        results.put("rounds", Integer.toString(ROUNDS));
+        results.put("lazy first frame us", Long.toString(median(lazy)));
+        results.put("preloaded first frame us", Long.toString(median(preloaded)));
+        reporter.publishEntry(results);
+    }
+
+    /**
+     * Creates new sprites, reads the default board with a player and draws
+     * its first frame.
+     *
+     * @param preload
+     *            <code>true</code> to preload all sprites first.
+     * @return The time it took, from creating the sprites to having drawn
+     *         the frame, in nanoseconds.
+     * @throws IOException
+     *             If the board could not be read.
+     */
+    private static long firstFrame(boolean preload) throws IOException {
+        long start = System.nanoTime();
+        PacManSprites sprites = new PacManSprites();
+        if (preload) {
+            sprites.preload();
+        }
+        Level level = new MapParser(
+            new LevelFactory(sprites, new GhostFactory(sprites), new DefaultPointCalculator()),
+            new BoardFactory(sprites)).parseMap("/board.txt");
+        level.registerPlayer(new PlayerFactory(sprites).createPacMan());
+        Board board = level.getBoard();
+        Dimension size = new Dimension(board.getWidth() * BoardRenderer.SQUARE_SIZE,
+            board.getHeight() * BoardRenderer.SQUARE_SIZE);
+        BufferedImage frame = new BufferedImage(size.width, size.height,
+            BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = frame.createGraphics();
+        try {
+            new BoardRenderer().render(level.getSnapshot(), graphics, size);
+        } finally {
+            graphics.dispose();
+        }
+        long elapsed = System.nanoTime() - start;
+        level.dispose();
+        return elapsed;
+    }
+
+    /**
+     * @param times
+     *            Times in nanoseconds.
+     * @return The median of the times in microseconds.
+     */
+    private static long median(long[] times) {
+        long[] sorted = times.clone();
+        Arrays.sort(sorted);
+        return TimeUnit.NANOSECONDS.toMicros(sorted[sorted.length / 2]);
+    }
+}
@@ -4,6 +4,13 @@ import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.assertj.core.api.Assertions.assertThat;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import jpacman.sprite.AnimatedSprite;
 import jpacman.sprite.EmptySprite;
@@ -113,4 +120,53 @@ public class SpriteTest {
         Sprite split = sprite.split(10, 10, 64, 10);
         assertThat(split).isInstanceOf(EmptySprite.class);
     }
+
+    /**
+     * Verifies that concurrent requests for the same resource all get the
+     * one loaded sprite.
+     *
+     * @throws Exception
+     *             when the sprite could not be loaded.
+     */
+    @Test
+    public void concurrentLoadsShareSprite() throws Exception {
+        SpriteStore fresh = new SpriteStore();
+        Callable<Sprite> load = () -> fresh.loadSprite("/sprite/64x64white.png");
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Sprite>> loads = new ArrayList<>();
+            for (int i = 0; i < 32; i++) {
+                loads.add(pool.submit(load));
+            }
+            for (Future<Sprite> result : loads) {
+                assertThat(result.get()).isSameAs(loads.get(0).get());
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Verifies that preloaded sprites are returned without loading again.
+     *
+     * @throws IOException
+     *             when the sprite could not be loaded.
+     */
+    @Test
+    public void preloadedSprite() throws IOException {
+        SpriteStore fresh = new SpriteStore();
+        fresh.preload(Collections.singletonList("/sprite/64x64white.png"));
+        assertThat(fresh.loadSprite("/sprite/64x64white.png"))
+            .isSameAs(fresh.loadSprite("/sprite/64x64white.png"));
+    }
+
+    /**
+     * Verifies that a missing resource fails the whole preload.
+     */
+    @Test
+    public void preloadMissing() {
+        assertThatThrownBy(() -> store.preload(
+            Collections.singletonList("/sprite/nonexistingresource.png")))
+            .isInstanceOf(IOException.class);
+    }
 }
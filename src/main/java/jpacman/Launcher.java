@@ -9,8 +9,10 @@ import jpacman.ui.PacManUI;
 import jpacman.ui.PacManUiBuilder;
 import jpacman.board.BoardFactory;
 import jpacman.board.Direction;
+import jpacman.clock.GameClock;
 import jpacman.game.Game;
 import jpacman.game.GameFactory;
+import jpacman.game.InputBuffer;
 import jpacman.level.Level;
 import jpacman.level.LevelFactory;
 import jpacman.level.MapParser;
@@ -32,8 +34,17 @@ public class Launcher {
     private static final PacManSprites SPRITE_STORE = new PacManSprites();
 
     public static final String DEFAULT_MAP = "/board.txt";
+
     private String levelMap = DEFAULT_MAP;
 
+    private GameClock clock = GameClock.system();
+
+    /**
+     * The time between applying the keys pressed, in milliseconds, or 0 to
+     * move as soon as a key is pressed.
+     */
+    private long inputInterval;
+
     private PacManUI pacManUI;
     private Game game;
 
@@ -67,13 +78,44 @@ public class Launcher {
     }
 
     /**
-     * Creates a new game using the level from {@link #makeLevel()}.
+     * Set the clock the game is played by, e.g. to run it faster than real
+     * time.
+     *
+     * @param gameClock
+     *            The clock.
+     * @return This launcher.
+     */
+    public Launcher withClock(GameClock gameClock) {
+        clock = gameClock;
+        return this;
+    }
+
+    /**
+     * Buffer the keys pressed and apply them at a fixed rate, so the user
+     * interface never waits for the game. By default a key moves the player
+     * as soon as it is pressed.
+     *
+     * @param interval
+     *            The time between applying the keys pressed, in milliseconds.
+     * @return This launcher.
+     */
+    public Launcher withInputBuffer(long interval) {
+        assert interval > 0;
+        inputInterval = interval;
+        return this;
+    }
+
+    /**
+     * Creates a new game using the level from {@link #makeLevel()}, played by
+     * the clock of this launcher.
      *
      * @return a new Game.
      */
     public Game makeGame() {
         GameFactory gf = getGameFactory();
+        getSpriteStore().setClock(clock);
         Level level = makeLevel();
+        level.setClock(clock);
         game = gf.createSinglePlayerGame(level, loadPointCalculator());
         return game;
     }
@@ -165,7 +207,13 @@ public class Launcher {
     private Action moveTowardsDirection(Direction direction) {
         return () -> {
             assert game != null;
-            getGame().move(getSinglePlayer(getGame()), direction);
+            Player player = getSinglePlayer(getGame());
+            InputBuffer input = getGame().getInputBuffer();
+            if (input == null) {
+                getGame().move(player, direction);
+            } else {
+                input.press(player, direction);
+            }
         };
     }
 
@@ -178,10 +226,17 @@ public class Launcher {
     }
 
     /**
-     * Creates and starts a JPac-Man game.
+     * Creates and starts a JPac-Man game. All sprites are decoded up front,
+     * in parallel, so that drawing the first frame does not have to wait for
+     * them one by one. The keys pressed are buffered only if
+     * {@link #withInputBuffer(long)} asked for it.
      */
     public void launch() {
+        getSpriteStore().preload();
         makeGame();
+        if (inputInterval > 0) {
+            getGame().enableInputBuffer(inputInterval);
+        }
         PacManUiBuilder builder = new PacManUiBuilder().withDefaultButtons();
         addSinglePlayerKeys(builder);
         pacManUI = builder.build(getGame());
@@ -189,14 +244,15 @@ public class Launcher {
     }
 
     /**
-     * Disposes of the UI. For more information see
-     * {@link javax.swing.JFrame#dispose()}.
+     * Disposes of the UI, and ends the game and releases its threads. For
+     * more information see {@link javax.swing.JFrame#dispose()}.
      *
      * Precondition: The game was launched first.
      */
     public void dispose() {
         assert pacManUI != null;
         pacManUI.dispose();
+        getGame().dispose();
     }
 
     /**
@@ -27,6 +27,16 @@ public abstract class Square {
      */
     private final Map<Direction, Square> neighbours;
 
+    /**
+     * The column of this square on its board.
+     */
+    private int x;
+
+    /**
+     * The row of this square on its board.
+     */
+    private int y;
+
     /**
      * Creates a new, empty square.
      */
@@ -47,6 +57,37 @@ public abstract class Square {
         return neighbours.get(direction);
     }
 
+    /**
+     * Returns the column of this square on the board it is placed on.
+     *
+     * @return The <code>x</code> position of this square.
+     */
+    public int getX() {
+        return x;
+    }
+
+    /**
+     * Returns the row of this square on the board it is placed on.
+     *
+     * @return The <code>y</code> position of this square.
+     */
+    public int getY() {
+        return y;
+    }
+
+    /**
+     * Records the position of this square on its board.
+     *
+     * @param column
+     *            The <code>x</code> position of this square.
+     * @param row
+     *            The <code>y</code> position of this square.
+     */
+    void place(int column, int row) {
+        this.x = column;
+        this.y = row;
+    }
+
     /**
      * Links this square to a neighbour in the given direction. Note that this
      * is a one-way connection.
@@ -0,0 +1,275 @@
+package jpacman.clock;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The time as the game sees it. Everything in the game that depends on time,
+ * like the moves of the NPCs, the input of the players and the animations of
+ * the sprites, reads the time from a clock and schedules its work through it,
+ * rather than using the system time directly. Replacing the clock therefore
+ * speeds up, slows down or freezes the whole game at once, and the units
+ * keep their speeds relative to each other.
+ *
+ * <p>
+ * The time of a clock has no fixed origin; like {@link System#nanoTime()} it
+ * is only meaningful compared to other times of the same clock.
+ * </p>
+ */
+public abstract class GameClock {
+
+    /**
+     * The clock following the system time.
+     */
+    private static final GameClock SYSTEM = new SystemClock();
+
+    /**
+     * The tasks repeating at a fixed rate on this clock, only kept by clocks
+     * that can change speed.
+     */
+    private final Set<Repeating> repeating = ConcurrentHashMap.newKeySet();
+
+    /**
+     * @return The clock following the system time, used unless another
+     *         clock is given.
+     */
+    public static GameClock system() {
+        return SYSTEM;
+    }
+
+    /**
+     * @return The current time of the game, in nanoseconds.
+     */
+    public abstract long nanoTime();
+
+    /**
+     * @return The current time of the game, in milliseconds.
+     */
+    public long currentTimeMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(nanoTime());
+    }
+
+    /**
+     * Converts a duration in game time to the real time it takes.
+     *
+     * @param nanos
+     *            A duration of the game, in nanoseconds.
+     * @return The time to wait for it to pass, in nanoseconds.
+     */
+    public abstract long toRealNanos(long nanos);
+
+    /**
+     * Runs a task once after a delay in game time.
+     *
+     * @param executor
+     *            The threads to run the task on.
+     * @param task
+     *            The task to run.
+     * @param delay
+     *            The delay.
+     * @param unit
+     *            The unit of the delay.
+     * @return A handle to cancel the task with.
+     */
+    public Timer schedule(ScheduledExecutorService executor, Runnable task, long delay,
+                          TimeUnit unit) {
+        ScheduledFuture<?> future = executor.schedule(task,
+            toRealNanos(unit.toNanos(delay)), TimeUnit.NANOSECONDS);
+        return () -> future.cancel(false);
+    }
+
+    /**
+     * Runs a task repeatedly, every period of game time, starting one period
+     * from now. Each run is scheduled when the previous one ends, for the
+     * real time left until it is due, so the task keeps its period in game
+     * time when the clock changes speed. A task that throws is not run
+     * again.
+     *
+     * @param executor
+     *            The threads to run the task on.
+     * @param task
+     *            The task to run.
+     * @param period
+     *            The time between runs.
+     * @param unit
+     *            The unit of the period.
+     * @return A handle to cancel the task with.
+     */
+    public Timer scheduleAtFixedRate(ScheduledExecutorService executor, Runnable task,
+                                     long period, TimeUnit unit) {
+        assert period > 0;
+        Repeating timer = new Repeating(executor, task, unit.toNanos(period));
+        if (canChangeRate()) {
+            repeating.add(timer);
+        }
+        timer.scheduleNext();
+        return timer;
+    }
+
+    /**
+     * @return <code>true</code> iff the real time a duration of this clock
+     *         takes can change, so tasks repeating at a fixed rate have to be
+     *         scheduled again when it does.
+     */
+    protected boolean canChangeRate() {
+        return false;
+    }
+
+    /**
+     * Schedules the next run of every task repeating at a fixed rate again,
+     * for when the real time until it is due changed. Only clocks that can
+     * change rate keep track of these tasks.
+     */
+    protected void rescheduleTimers() {
+        for (Repeating timer : repeating) {
+            timer.reschedule();
+        }
+    }
+
+    /**
+     * A task scheduled on a clock.
+     */
+    public interface Timer {
+
+        /**
+         * Cancels the task, unless it already started.
+         *
+         * @return <code>true</code> iff the task will no longer run.
+         */
+        boolean cancel();
+    }
+
+    /**
+     * @return The amount of tasks repeating at a fixed rate this clock keeps
+     *         track of.
+     */
+    int getTrackedTimers() {
+        return repeating.size();
+    }
+
+    /**
+     * A task repeating at a fixed rate of game time, which schedules its
+     * next run for the game time it is due.
+     */
+    private final class Repeating implements Timer, Runnable {
+
+        /**
+         * The threads to run the task on.
+         */
+        private final ScheduledExecutorService executor;
+
+        /**
+         * The task to run.
+         */
+        private final Runnable task;
+
+        /**
+         * The time between runs, in nanoseconds of game time.
+         */
+        private final long period;
+
+        /**
+         * The game time the next run is due.
+         */
+        private long due;
+
+        /**
+         * The next run, or <code>null</code> while running.
+         */
+        private ScheduledFuture<?> next;
+
+        /**
+         * Whether the task was cancelled or failed.
+         */
+        private boolean stopped;
+
+        /**
+         * Creates a new repeating task, due one period from now.
+         *
+         * @param executor
+         *            The threads to run the task on.
+         * @param task
+         *            The task to run.
+         * @param period
+         *            The time between runs, in nanoseconds.
+         */
+        Repeating(ScheduledExecutorService executor, Runnable task, long period) {
+            this.executor = executor;
+            this.task = task;
+            this.period = period;
+            this.due = nanoTime() + period;
+        }
+
+        @Override
+        public void run() {
+            synchronized (this) {
+                next = null;
+            }
+            boolean completed = false;
+            try {
+                task.run();
+                completed = true;
+            } finally {
+                if (completed) {
+                    advance();
+                } else {
+                    cancel();
+                }
+            }
+        }
+
+        /**
+         * Moves on to the next period and schedules the run due then.
+         */
+        private synchronized void advance() {
+            due += period;
+            scheduleNext();
+        }
+
+        /**
+         * Schedules the next run again if it is waiting, as the real time
+         * until it is due changed.
+         */
+        synchronized void reschedule() {
+            if (next != null && next.cancel(false)) {
+                scheduleNext();
+            }
+        }
+
+        /**
+         * Schedules the next run for the real time left until it is due, or
+         * right away if it is late.
+         */
+        synchronized void scheduleNext() {
+            if (stopped || executor.isShutdown()) {
+                stop();
+                return;
+            }
+            long real = toRealNanos(Math.max(0L, due - nanoTime()));
+            try {
+                next = executor.schedule(this, real, TimeUnit.NANOSECONDS);
+            } catch (RejectedExecutionException e) {
+                stop();
+            }
+        }
+
+        /**
+         * Stops the task for good and forgets it.
+         */
+        private void stop() {
+            stopped = true;
+            repeating.remove(this);
+        }
+
+        @Override
+        public synchronized boolean cancel() {
+            boolean waiting = !stopped && next != null && next.cancel(false);
+            stop();
+            return waiting;
+        }
+    }
+}
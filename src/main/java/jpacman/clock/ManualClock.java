@@ -0,0 +1,216 @@
+package jpacman.clock;
+
+import java.util.PriorityQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A clock that only moves when told to, for tests, replays and batch runs.
+ * Tasks scheduled on it run when the clock is advanced past their time, on
+ * the thread advancing it, in the order of their times. Advancing the clock
+ * by a minute therefore plays a minute of the game as fast as the machine
+ * allows, and the outcome does not depend on how threads happen to be
+ * scheduled.
+ *
+ * <p>
+ * Code that waits for the time to pass instead of scheduling a task, like
+ * the thread per NPC of a level, checks the time of the clock every
+ * {@link #POLL_INTERVAL} milliseconds of real time.
+ * </p>
+ */
+public final class ManualClock extends GameClock {
+
+    /**
+     * The real time waited for a manual clock to move, in milliseconds.
+     */
+    public static final long POLL_INTERVAL = 1L;
+
+    /**
+     * The scheduled tasks, earliest first.
+     */
+    private final PriorityQueue<Entry> timers = new PriorityQueue<>();
+
+    /**
+     * The current time of this clock.
+     */
+    private long now;
+
+    /**
+     * The amount of tasks scheduled so far, to run tasks scheduled for the
+     * same time in the order they were scheduled.
+     */
+    private long scheduled;
+
+    @Override
+    public synchronized long nanoTime() {
+        return now;
+    }
+
+    @Override
+    public long toRealNanos(long nanos) {
+        return Math.min(nanos, TimeUnit.MILLISECONDS.toNanos(POLL_INTERVAL));
+    }
+
+    @Override
+    public Timer schedule(ScheduledExecutorService executor, Runnable task, long delay,
+                          TimeUnit unit) {
+        return add(executor, task, unit.toNanos(delay), 0L);
+    }
+
+    @Override
+    public Timer scheduleAtFixedRate(ScheduledExecutorService executor, Runnable task,
+                                     long period, TimeUnit unit) {
+        assert period > 0;
+        long nanos = unit.toNanos(period);
+        return add(executor, task, nanos, nanos);
+    }
+
+    /**
+     * Schedules a task.
+     *
+     * @param executor
+     *            The threads the task is meant for; the task no longer runs
+     *            once they are shut down.
+     * @param task
+     *            The task to run.
+     * @param delay
+     *            The time until the first run, in nanoseconds.
+     * @param period
+     *            The time between runs in nanoseconds, or 0 to run once.
+     * @return The scheduled task.
+     */
+    private synchronized Entry add(ScheduledExecutorService executor, Runnable task,
+                                   long delay, long period) {
+        Entry entry = new Entry(executor, task, now + Math.max(0L, delay), period,
+            scheduled++);
+        timers.add(entry);
+        return entry;
+    }
+
+    /**
+     * Moves this clock forward, running every task that is due on the way,
+     * with the clock set to the time the task was due.
+     *
+     * @param amount
+     *            The time to move forward.
+     * @param unit
+     *            The unit of the time.
+     */
+    public void advance(long amount, TimeUnit unit) {
+        assert amount >= 0;
+        long target;
+        synchronized (this) {
+            target = now + unit.toNanos(amount);
+        }
+        Entry next = nextDue(target);
+        while (next != null) {
+            if (!next.executor.isShutdown()) {
+                next.task.run();
+            }
+            next = nextDue(target);
+        }
+    }
+
+    /**
+     * Takes the next task due at or before a time, and moves the clock to
+     * the time it is due, or to the target if none is.
+     *
+     * @param target
+     *            The time the clock is advancing to.
+     * @return The task, or <code>null</code>.
+     */
+    private synchronized Entry nextDue(long target) {
+        Entry next = timers.peek();
+        if (next == null || next.due > target) {
+            now = target;
+            return null;
+        }
+        timers.poll();
+        now = next.due;
+        if (next.period > 0 && !next.executor.isShutdown()) {
+            next.due += next.period;
+            next.sequence = scheduled++;
+            timers.add(next);
+        }
+        return next;
+    }
+
+    /**
+     * Cancels a task.
+     *
+     * @param entry
+     *            The task.
+     * @return <code>true</code> iff the task was still scheduled.
+     */
+    private synchronized boolean cancel(Entry entry) {
+        return timers.remove(entry);
+    }
+
+    /**
+     * A task scheduled on this clock.
+     */
+    private final class Entry implements Timer, Comparable<Entry> {
+
+        /**
+         * The threads the task is meant for.
+         */
+        private final ScheduledExecutorService executor;
+
+        /**
+         * The task to run.
+         */
+        private final Runnable task;
+
+        /**
+         * The time between runs in nanoseconds, or 0 to run once.
+         */
+        private final long period;
+
+        /**
+         * The time the task is due next.
+         */
+        private long due;
+
+        /**
+         * The order in which the task was scheduled for its time.
+         */
+        private long sequence;
+
+        /**
+         * Creates a new scheduled task.
+         *
+         * @param executor
+         *            The threads the task is meant for.
+         * @param task
+         *            The task to run.
+         * @param due
+         *            The time the task is due.
+         * @param period
+         *            The time between runs, or 0 to run once.
+         * @param sequence
+         *            The order in which the task was scheduled.
+         */
+        Entry(ScheduledExecutorService executor, Runnable task, long due, long period,
+              long sequence) {
+            this.executor = executor;
+            this.task = task;
+            this.due = due;
+            this.period = period;
+            this.sequence = sequence;
+        }
+
+        @Override
+        public boolean cancel() {
+            return ManualClock.this.cancel(this);
+        }
+
+        @Override
+        public int compareTo(Entry other) {
+            int order = Long.compare(due, other.due);
+            if (order == 0) {
+                order = Long.compare(sequence, other.sequence);
+            }
+            return order;
+        }
+    }
+}
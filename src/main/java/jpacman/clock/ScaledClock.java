@@ -0,0 +1,88 @@
+package jpacman.clock;
+
+/**
+ * A clock running at a multiple of the system time, to play or simulate
+ * games faster or slower than real time. The rate can be changed while the
+ * game runs; the time of the clock continues from where it was. Tasks
+ * repeating at a fixed rate follow the new rate right away; single delays
+ * already waited for keep the rate they were scheduled at.
+ */
+public final class ScaledClock extends GameClock {
+
+    /**
+     * The system time at which the rate was last set.
+     */
+    private long realBase;
+
+    /**
+     * The time of this clock at which the rate was last set.
+     */
+    private long gameBase;
+
+    /**
+     * The amount of game time that passes per unit of real time.
+     */
+    private double rate;
+
+    /**
+     * Creates a new clock, starting at the current system time.
+     *
+     * @param rate
+     *            The amount of game time that passes per unit of real time,
+     *            e.g. 10 to run ten times as fast.
+     */
+    public ScaledClock(double rate) {
+        assert rate > 0;
+        this.realBase = System.nanoTime();
+        this.gameBase = realBase;
+        this.rate = rate;
+    }
+
+    /**
+     * Changes the speed of this clock from now on.
+     *
+     * @param newRate
+     *            The amount of game time that passes per unit of real time.
+     */
+    public void setRate(double newRate) {
+        assert newRate > 0;
+        synchronized (this) {
+            long now = System.nanoTime();
+            gameBase = gameTime(now);
+            realBase = now;
+            rate = newRate;
+        }
+        rescheduleTimers();
+    }
+
+    /**
+     * @return The amount of game time that passes per unit of real time.
+     */
+    public synchronized double getRate() {
+        return rate;
+    }
+
+    @Override
+    protected boolean canChangeRate() {
+        return true;
+    }
+
+    @Override
+    public synchronized long nanoTime() {
+        return gameTime(System.nanoTime());
+    }
+
+    @Override
+    public synchronized long toRealNanos(long nanos) {
+        return (long) (nanos / rate);
+    }
+
+    /**
+     * @param realTime
+     *            A system time.
+     * @return The time of this clock at that system time.
+     */
+    private long gameTime(long realTime) {
+        return gameBase + (long) ((realTime - realBase) * rate);
+    }
+}
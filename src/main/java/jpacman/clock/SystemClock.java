@@ -0,0 +1,22 @@
+package jpacman.clock;
+
+/**
+ * The clock following the system time, so the game runs in real time.
+ */
+final class SystemClock extends GameClock {
+
+    @Override
+    public long nanoTime() {
+        return System.nanoTime();
+    }
+
+    @Override
+    public long currentTimeMillis() {
+        return System.currentTimeMillis();
+    }
+
+    @Override
+    public long toRealNanos(long nanos) {
+        return nanos;
+    }
+}
@@ -0,0 +1,305 @@
+package jpacman.event;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import jpacman.board.Unit;
+
+/**
+ * A bus delivering the events of a level to consumers, in the style of a
+ * disruptor. Events are written into a ring of preallocated slots, so
+ * publishing allocates nothing, and every consumer reads the ring on its own
+ * thread at its own pace. Producers never wait for consumers: while a
+ * consumer is a full ring behind, new events are dropped and counted
+ * instead, as producers typically publish while holding the locks of a
+ * move and must not stall the game for a slow consumer.
+ *
+ * <p>
+ * Any number of threads can publish at the same time: every event claims the
+ * next number if its slot is free, and a slot only becomes visible to
+ * consumers once its event has been written completely. Numbers are only
+ * given to events that are published, so consumers see no gaps. A consumer
+ * that throws an exception is removed, so it can not cause events to be
+ * dropped.
+ * </p>
+ */
+public class EventBus {
+
+    /**
+     * The longest time a blocking consumer waits for a signal, in
+     * nanoseconds, after which it checks for events anyway.
+     */
+    private static final long MAX_BLOCK = TimeUnit.MILLISECONDS.toNanos(1);
+
+    /**
+     * The slots of the ring.
+     */
+    private final LevelEvent[] ring;
+
+    /**
+     * The index mask of the ring, its size minus one.
+     */
+    private final int mask;
+
+    /**
+     * Per slot, the number of the event last published in it.
+     */
+    private final AtomicLongArray published;
+
+    /**
+     * The number of the next event to claim.
+     */
+    private final AtomicLong claimed = new AtomicLong();
+
+    /**
+     * The consumers reading the ring.
+     */
+    private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+
+    /**
+     * The amount of consumers waiting for a signal.
+     */
+    private final AtomicInteger blocked = new AtomicInteger();
+
+    /**
+     * The monitor blocking consumers wait on.
+     */
+    private final Object signal = new Object();
+
+    /**
+     * The amount of events dropped because a consumer was a full ring behind.
+     */
+    private final AtomicLong dropped = new AtomicLong();
+
+    /**
+     * The amount of consumers started so far, used to name their threads.
+     */
+    private final AtomicInteger consumerCount = new AtomicInteger();
+
+    /**
+     * Creates a new bus.
+     *
+     * @param size
+     *            The amount of slots in the ring, a power of two. A consumer
+     *            can fall this many events behind before events are dropped.
+     */
+    public EventBus(int size) {
+        assert size > 0 && Integer.bitCount(size) == 1;
+
+        this.ring = new LevelEvent[size];
+        this.mask = size - 1;
+        this.published = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            ring[i] = new LevelEvent();
+            published.set(i, -1L);
+        }
+    }
+
+    /**
+     * Publishes an event, without waiting. Does nothing if there are no
+     * consumers, and drops the event if a consumer is a full ring behind.
+     *
+     * @param type
+     *            The kind of event.
+     * @param unit
+     *            The unit that caused the event.
+     * @param other
+     *            The other unit involved, or <code>null</code>.
+     * @param x
+     *            The column the event happened on.
+     * @param y
+     *            The row the event happened on.
+     * @return <code>false</code> iff the event was dropped.
+     */
+    public boolean publish(EventType type, Unit unit, Unit other, int x, int y) {
+        if (subscriptions.isEmpty()) {
+            return true;
+        }
+        long sequence;
+        do {
+            sequence = claimed.get();
+            if (sequence - ring.length >= slowestConsumer()) {
+                dropped.incrementAndGet();
+                return false;
+            }
+        } while (!claimed.compareAndSet(sequence, sequence + 1));
+        int slot = (int) sequence & mask;
+        ring[slot].set(type, unit, other, x, y);
+        published.set(slot, sequence);
+        if (blocked.get() > 0) {
+            synchronized (signal) {
+                signal.notifyAll();
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return The amount of events dropped so far because a consumer was a
+     *         full ring behind.
+     */
+    public long getDroppedEvents() {
+        return dropped.get();
+    }
+
+    /**
+     * @return The number of the first event not yet processed by all
+     *         consumers.
+     */
+    private long slowestConsumer() {
+        long slowest = Long.MAX_VALUE;
+        for (Subscription subscription : subscriptions) {
+            slowest = Math.min(slowest, subscription.next.get());
+        }
+        return slowest;
+    }
+
+    /**
+     * Finds the last event of an uninterrupted run of published events.
+     *
+     * @param from
+     *            The number of the first event of the run.
+     * @return The number of the last event, or <code>from - 1</code> if the
+     *         first event has not been published yet.
+     */
+    private long lastPublished(long from) {
+        long last = from - 1;
+        long end = Math.min(claimed.get(), from + ring.length);
+        while (last + 1 < end && published.get((int) (last + 1) & mask) == last + 1) {
+            last++;
+        }
+        return last;
+    }
+
+    /**
+     * Waits until a producer signals, or a short while has passed.
+     */
+    void awaitSignal() {
+        blocked.incrementAndGet();
+        try {
+            synchronized (signal) {
+                TimeUnit.NANOSECONDS.timedWait(signal, MAX_BLOCK);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            blocked.decrementAndGet();
+        }
+    }
+
+    /**
+     * Starts a consumer on a new thread. It receives all events published
+     * from now on.
+     *
+     * @param consumer
+     *            The consumer to start.
+     * @param waitStrategy
+     *            The way the consumer waits for new events.
+     * @return The subscription of the consumer, to stop it.
+     */
+    public Subscription subscribe(EventConsumer consumer, WaitStrategy waitStrategy) {
+        assert consumer != null;
+        assert waitStrategy != null;
+
+        Subscription subscription = new Subscription(consumer, waitStrategy, claimed.get());
+        subscriptions.add(subscription);
+        subscription.thread.start();
+        return subscription;
+    }
+
+    /**
+     * A consumer reading the ring on its own thread.
+     */
+    public final class Subscription implements Runnable {
+
+        /**
+         * The consumer.
+         */
+        private final EventConsumer consumer;
+
+        /**
+         * The way the consumer waits for new events.
+         */
+        private final WaitStrategy waitStrategy;
+
+        /**
+         * The number of the next event to process.
+         */
+        private final AtomicLong next;
+
+        /**
+         * The thread running the consumer.
+         */
+        private final Thread thread;
+
+        /**
+         * <code>false</code> once the consumer has to stop.
+         */
+        private volatile boolean running = true;
+
+        /**
+         * Creates a new subscription.
+         *
+         * @param consumer
+         *            The consumer.
+         * @param waitStrategy
+         *            The way the consumer waits for new events.
+         * @param first
+         *            The number of the first event to process.
+         */
+        Subscription(EventConsumer consumer, WaitStrategy waitStrategy, long first) {
+            this.consumer = consumer;
+            this.waitStrategy = waitStrategy;
+            this.next = new AtomicLong(first);
+            this.thread = new Thread(this, "event-consumer-" + consumerCount.incrementAndGet());
+            thread.setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            int attempts = 0;
+            try {
+                while (running) {
+                    long first = next.get();
+                    long last = lastPublished(first);
+                    if (last < first) {
+                        waitStrategy.idle(EventBus.this, attempts++);
+                        continue;
+                    }
+                    attempts = 0;
+                    for (long sequence = first; sequence <= last; sequence++) {
+                        consumer.onEvent(ring[(int) sequence & mask], sequence,
+                            sequence == last);
+                    }
+                    next.set(last + 1);
+                }
+            } finally {
+                subscriptions.remove(this);
+            }
+        }
+
+        /**
+         * @return The number of the next event the consumer will process.
+         */
+        public long getNextSequence() {
+            return next.get();
+        }
+
+        /**
+         * Stops the consumer after its current batch and waits for its thread
+         * to end. Events are no longer dropped for want of it.
+         *
+         * @throws InterruptedException
+         *             If interrupted while waiting.
+         */
+        public void close() throws InterruptedException {
+            running = false;
+            subscriptions.remove(this);
+            thread.join();
+        }
+    }
+}
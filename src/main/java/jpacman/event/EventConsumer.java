@@ -0,0 +1,21 @@
+package jpacman.event;
+
+/**
+ * Processes the events of an {@link EventBus} on its own thread.
+ */
+public interface EventConsumer {
+
+    /**
+     * Processes an event. Events are offered in batches of all events that
+     * were available at once, so a consumer can for example flush its output
+     * only at the end of a batch.
+     *
+     * @param event
+     *            The event, only valid until this method returns.
+     * @param sequence
+     *            The number of the event on the bus.
+     * @param endOfBatch
+     *            <code>true</code> iff this is the last event available now.
+     */
+    void onEvent(LevelEvent event, long sequence, boolean endOfBatch);
+}
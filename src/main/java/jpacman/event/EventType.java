@@ -0,0 +1,27 @@
+package jpacman.event;
+
+/**
+ * The kinds of events that happen on a level.
+ */
+public enum EventType {
+
+    /**
+     * A unit moved onto another square.
+     */
+    MOVE,
+
+    /**
+     * A unit that moved collided with another unit on its new square.
+     */
+    COLLISION,
+
+    /**
+     * A player ate a pellet.
+     */
+    PELLET_EATEN,
+
+    /**
+     * A player died.
+     */
+    DEATH
+}
@@ -0,0 +1,122 @@
+package jpacman.event;
+
+import jpacman.board.Direction;
+import jpacman.board.Unit;
+
+/**
+ * An event that happened on a level. Events live in the slots of an
+ * {@link EventBus} and are reused once all consumers processed them, so a
+ * consumer must copy whatever it wants to keep before it returns.
+ */
+public final class LevelEvent {
+
+    /**
+     * The kind of event.
+     */
+    private EventType type;
+
+    /**
+     * The unit that caused the event.
+     */
+    private Unit unit;
+
+    /**
+     * The other unit involved, or <code>null</code>.
+     */
+    private Unit other;
+
+    /**
+     * The column the event happened on.
+     */
+    private int x;
+
+    /**
+     * The row the event happened on.
+     */
+    private int y;
+
+    /**
+     * The direction the unit moved in.
+     */
+    private Direction direction;
+
+    /**
+     * The time of the event, from {@link System#nanoTime()}.
+     */
+    private long time;
+
+    /**
+     * Fills this event.
+     *
+     * @param eventType
+     *            The kind of event.
+     * @param source
+     *            The unit that caused the event.
+     * @param target
+     *            The other unit involved, or <code>null</code>.
+     * @param column
+     *            The column the event happened on.
+     * @param row
+     *            The row the event happened on.
+     */
+    void set(EventType eventType, Unit source, Unit target, int column, int row) {
+        this.type = eventType;
+        this.unit = source;
+        this.other = target;
+        this.x = column;
+        this.y = row;
+        this.direction = source.getDirection();
+        this.time = System.nanoTime();
+    }
+
+    /**
+     * @return The kind of event.
+     */
+    public EventType getType() {
+        return type;
+    }
+
+    /**
+     * @return The unit that caused the event: the unit that moved, the player
+     *         that ate a pellet or the player that died.
+     */
+    public Unit getUnit() {
+        return unit;
+    }
+
+    /**
+     * @return The other unit involved: the unit collided with, the pellet
+     *         eaten or the unit that killed the player, or <code>null</code>.
+     */
+    public Unit getOther() {
+        return other;
+    }
+
+    /**
+     * @return The column the event happened on.
+     */
+    public int getX() {
+        return x;
+    }
+
+    /**
+     * @return The row the event happened on.
+     */
+    public int getY() {
+        return y;
+    }
+
+    /**
+     * @return The direction the unit faced.
+     */
+    public Direction getDirection() {
+        return direction;
+    }
+
+    /**
+     * @return The time of the event, from {@link System#nanoTime()}.
+     */
+    public long getTime() {
+        return time;
+    }
+}
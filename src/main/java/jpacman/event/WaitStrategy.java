@@ -0,0 +1,85 @@
+package jpacman.event;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * The way a consumer waits for new events, trading latency for CPU time.
+ */
+public enum WaitStrategy {
+
+    /**
+     * Keeps checking for events. Lowest latency, but occupies a core.
+     */
+    BUSY_SPIN {
+        @Override
+        void idle(EventBus bus, int attempts) {
+            // check again right away.
+        }
+    },
+
+    /**
+     * Gives up the processor between checks. Low latency, but still keeps a
+     * core busy when nothing else wants it.
+     */
+    YIELDING {
+        @Override
+        void idle(EventBus bus, int attempts) {
+            Thread.yield();
+        }
+    },
+
+    /**
+     * Spins, then yields and finally sleeps briefly between checks. A good
+     * compromise for consumers such as logging and metrics.
+     */
+    SLEEPING {
+        @Override
+        void idle(EventBus bus, int attempts) {
+            if (attempts < SPIN_ATTEMPTS) {
+                return;
+            }
+            if (attempts < SPIN_ATTEMPTS + YIELD_ATTEMPTS) {
+                Thread.yield();
+                return;
+            }
+            LockSupport.parkNanos(SLEEP);
+        }
+    },
+
+    /**
+     * Waits until a producer signals new events. Uses no CPU while idle, at
+     * the cost of a signal per event published while a consumer waits.
+     */
+    BLOCKING {
+        @Override
+        void idle(EventBus bus, int attempts) {
+            bus.awaitSignal();
+        }
+    };
+
+    /**
+     * The amount of attempts a sleeping consumer spins.
+     */
+    private static final int SPIN_ATTEMPTS = 100;
+
+    /**
+     * The amount of attempts a sleeping consumer yields after spinning.
+     */
+    private static final int YIELD_ATTEMPTS = 100;
+
+    /**
+     * The time a sleeping consumer sleeps, in nanoseconds.
+     */
+    private static final long SLEEP = TimeUnit.MICROSECONDS.toNanos(100);
+
+    /**
+     * Waits a little after a consumer found no new events.
+     *
+     * @param bus
+     *            The bus the consumer reads.
+     * @param attempts
+     *            The amount of times in a row no events were found before.
+     */
+    abstract void idle(EventBus bus, int attempts);
+}
@@ -30,6 +30,17 @@ public abstract class Game implements Level.LevelObserver {
      */
     private PointCalculator pointCalculator;
 
+    /**
+     * The buffer applying the input of the players, or <code>null</code> if
+     * moves are applied directly.
+     */
+    private volatile InputBuffer inputBuffer;
+
+    /**
+     * <code>true</code> if the threads of this game are virtual threads.
+     */
+    private volatile boolean virtualThreads;
+
     /**
      * Creates a new game.
      *
@@ -53,6 +64,9 @@ public abstract class Game implements Level.LevelObserver {
                 inProgress = true;
                 getLevel().addObserver(this);
                 getLevel().start();
+                if (inputBuffer != null) {
+                    inputBuffer.start();
+                }
             }
         }
     }
@@ -66,10 +80,27 @@ public abstract class Game implements Level.LevelObserver {
                 return;
             }
             inProgress = false;
+            if (inputBuffer != null) {
+                inputBuffer.stop();
+            }
             getLevel().stop();
         }
     }
 
+    /**
+     * Ends the game for good and releases the threads of its input buffer
+     * and its level. The game can not be started again afterwards.
+     */
+    public void dispose() {
+        synchronized (progressLock) {
+            stop();
+            if (inputBuffer != null) {
+                inputBuffer.dispose();
+            }
+        }
+        getLevel().dispose();
+    }
+
     /**
      * @return <code>true</code> iff the game is started and in progress.
      */
@@ -77,6 +108,62 @@ public abstract class Game implements Level.LevelObserver {
         return inProgress;
     }
 
+    /**
+     * Buffers the input of the players from now on, applying it at a fixed
+     * rate while the game is in progress, so pressing a key never waits for
+     * the level. Moves made through {@link #move(Player, Direction)} are
+     * still applied directly.
+     *
+     * @param tickInterval
+     *            The time between applying the input, in milliseconds.
+     * @return The input buffer, to press keys on.
+     */
+    public InputBuffer enableInputBuffer(long tickInterval) {
+        synchronized (progressLock) {
+            assert inputBuffer == null;
+            InputBuffer buffer = new InputBuffer(this, tickInterval);
+            inputBuffer = buffer;
+            if (isInProgress()) {
+                buffer.start();
+            }
+            return buffer;
+        }
+    }
+
+    /**
+     * Runs the NPCs of the level and the input buffer of this game on
+     * virtual threads, if the JVM supports them, so that a JVM can host many
+     * games without platform threads per game. Must be called before the
+     * game is first started.
+     *
+     * @return <code>true</code> iff the game runs on virtual threads.
+     */
+    public boolean enableVirtualThreads() {
+        synchronized (progressLock) {
+            if (!getLevel().enableVirtualThreads()) {
+                return false;
+            }
+            virtualThreads = true;
+            return true;
+        }
+    }
+
+    /**
+     * @return <code>true</code> iff the threads of this game are virtual
+     *         threads.
+     */
+    boolean usesVirtualThreads() {
+        return virtualThreads;
+    }
+
+    /**
+     * @return The buffer applying the input of the players, or
+     *         <code>null</code> if it was not enabled.
+     */
+    public InputBuffer getInputBuffer() {
+        return inputBuffer;
+    }
+
     /**
      * @return An immutable list of the participants of this game.
      */
@@ -103,6 +190,25 @@ public abstract class Game implements Level.LevelObserver {
         }
     }
 
+    /**
+     * Moves many players at once, each one square in its own direction, e.g.
+     * after a round of input in a multiplayer game. The level applies all
+     * moves in one go.
+     *
+     * @param players
+     *            The players to move.
+     * @param directions
+     *            Per player, the direction to move in.
+     */
+    public void moveAll(List<Player> players, List<Direction> directions) {
+        if (isInProgress()) {
+            getLevel().moveAll(players, directions);
+            for (int i = 0; i < players.size(); i++) {
+                pointCalculator.pacmanMoved(players.get(i), directions.get(i));
+            }
+        }
+    }
+
     @Override
     public void levelWon() {
         stop();
@@ -1,6 +1,11 @@
 package jpacman.game;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import jpacman.level.Level;
+import jpacman.level.LevelPool;
+import jpacman.level.Player;
 import jpacman.level.PlayerFactory;
 import jpacman.points.PointCalculator;
 
@@ -39,6 +44,48 @@ public class GameFactory {
         return new SinglePlayerGame(playerFactory.createPacMan(), level, pointCalculator);
     }
 
+    /**
+     * Creates a game with one player for a level taken from a pool. If the
+     * level was played before, its player is reused, so starting the game
+     * creates no new objects apart from the game itself. Release the level
+     * to the pool once the game is over.
+     *
+     * @param pool
+     *            The pool to take the level from.
+     * @param pointCalculator
+     *             The way to calculate points upon collisions.
+     * @return A new single player game.
+     */
+    public Game createSinglePlayerGame(LevelPool pool, PointCalculator pointCalculator) {
+        Level level = pool.acquire();
+        List<Player> players = level.getPlayers();
+        if (players.isEmpty()) {
+            return createSinglePlayerGame(level, pointCalculator);
+        }
+        return new SinglePlayerGame(players.get(0), level, pointCalculator);
+    }
+
+    /**
+     * Creates a game for a single level with many players.
+     *
+     * @param level
+     *            The level to create a game for.
+     * @param playerCount
+     *            The amount of players.
+     * @param pointCalculator
+     *             The way to calculate points upon collisions.
+     * @return A new multiplayer game.
+     */
+    public Game createMultiPlayerGame(Level level, int playerCount,
+                                      PointCalculator pointCalculator) {
+        assert playerCount > 0;
+        List<Player> players = new ArrayList<>(playerCount);
+        for (int i = 0; i < playerCount; i++) {
+            players.add(playerFactory.createPacMan());
+        }
+        return new MultiPlayerGame(players, level, pointCalculator);
+    }
+
     /**
      * Returns the player factory associated with this game factory.
      *
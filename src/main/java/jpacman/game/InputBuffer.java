@@ -0,0 +1,340 @@
+package jpacman.game;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import jpacman.board.Direction;
+import jpacman.board.Square;
+import jpacman.clock.GameClock;
+import jpacman.level.Player;
+import jpacman.level.VirtualThreads;
+import jpacman.metrics.LatencyHistogram;
+
+/**
+ * Buffers the input of the players of a game and applies it at a fixed
+ * rate. Pressing a key only records the direction the player wants to go
+ * in, so the thread handling the input, typically the event dispatch
+ * thread, never waits for the level. A thread of the buffer applies the
+ * latest direction of every player once per tick of the clock of the level,
+ * all players in one batch. Presses arriving between two ticks are
+ * coalesced: only the latest counts, so key repeat cannot flood the level
+ * with moves.
+ *
+ * <p>
+ * Optionally a turn that is not possible yet is kept for a few ticks, while
+ * the player keeps going in the direction it was going, and is made as soon
+ * as the way is free, like in the arcade game. Without that, which is the
+ * default, every direction is applied in the next tick whether the player
+ * can move or not, as a direct move would.
+ * </p>
+ */
+public final class InputBuffer {
+
+    /**
+     * The game whose players are moved.
+     */
+    private final Game game;
+
+    /**
+     * The time between ticks in milliseconds.
+     */
+    private final long tickInterval;
+
+    /**
+     * The players of the game, in order.
+     */
+    private final List<Player> players;
+
+    /**
+     * Per player, its index in the list of players.
+     */
+    private final Map<Player, Integer> indices = new HashMap<>();
+
+    /**
+     * Per player, the latest direction pressed since the last tick, or
+     * <code>null</code>.
+     */
+    private final AtomicReferenceArray<Intent> pressed;
+
+    /**
+     * Per player, the direction it wants to go in but could not yet, or
+     * <code>null</code>. Only used by the thread applying the input.
+     */
+    private final Intent[] pending;
+
+    /**
+     * Per player, the amount of ticks its pending turn is still kept. Only
+     * used by the thread applying the input.
+     */
+    private final int[] patience;
+
+    /**
+     * The time from pressing a key until the move was applied.
+     */
+    private final LatencyHistogram latency = new LatencyHistogram();
+
+    /**
+     * The amount of presses replaced by a later press before being applied.
+     */
+    private final AtomicLong coalesced = new AtomicLong();
+
+    /**
+     * The amount of ticks a turn that is not possible yet is kept.
+     */
+    private volatile int turnTicks;
+
+    /**
+     * The thread running the ticks, or <code>null</code> before the first
+     * start.
+     */
+    private ScheduledExecutorService ticker;
+
+    /**
+     * The repeating tick, or <code>null</code> while stopped.
+     */
+    private GameClock.Timer ticking;
+
+    /**
+     * Whether the thread was released for good.
+     */
+    private boolean disposed;
+
+    /**
+     * Creates a new input buffer for the players of a game.
+     *
+     * @param game
+     *            The game whose players are moved.
+     * @param tickInterval
+     *            The time between ticks in milliseconds.
+     */
+    InputBuffer(Game game, long tickInterval) {
+        assert tickInterval > 0;
+
+        this.game = game;
+        this.tickInterval = tickInterval;
+        this.players = game.getPlayers();
+        for (int i = 0; i < players.size(); i++) {
+            indices.put(players.get(i), i);
+        }
+        this.pressed = new AtomicReferenceArray<>(players.size());
+        this.pending = new Intent[players.size()];
+        this.patience = new int[players.size()];
+    }
+
+    /**
+     * Keeps turns that are not possible yet for a while, moving the player
+     * on in the direction it was going in the meantime.
+     *
+     * @param ticks
+     *            The amount of ticks a turn is kept, 0 to apply every
+     *            direction in the next tick.
+     */
+    public void setTurnWhenPossible(int ticks) {
+        assert ticks >= 0;
+        turnTicks = ticks;
+    }
+
+    /**
+     * Records the direction a player wants to go in. Never blocks.
+     *
+     * @param player
+     *            The player.
+     * @param direction
+     *            The direction to go in.
+     */
+    public void press(Player player, Direction direction) {
+        assert direction != null;
+        int index = indices.get(player);
+        long now = System.nanoTime();
+        while (true) {
+            Intent previous = pressed.get(index);
+            if (previous != null && previous.direction == direction) {
+                coalesced.incrementAndGet();
+                return;
+            }
+            if (pressed.compareAndSet(index, previous, new Intent(direction, now))) {
+                if (previous != null) {
+                    coalesced.incrementAndGet();
+                }
+                return;
+            }
+        }
+    }
+
+    /**
+     * Starts applying the input at a fixed rate, unless it already is.
+     */
+    synchronized void start() {
+        assert !disposed;
+        if (ticking != null) {
+            return;
+        }
+        if (ticker == null) {
+            ticker = Executors.newSingleThreadScheduledExecutor(threadFactory());
+        }
+        ticking = game.getLevel().getClock().scheduleAtFixedRate(ticker, this::tick,
+            tickInterval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * @return Creates the thread applying the input: a virtual thread if
+     *         the game runs on those, a platform daemon thread otherwise.
+     */
+    private ThreadFactory threadFactory() {
+        if (game.usesVirtualThreads()) {
+            return VirtualThreads.newThreadFactory("player-input-");
+        }
+        return task -> {
+            Thread thread = new Thread(task, "player-input");
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * Stops applying the input. The thread is kept for the next start.
+     */
+    synchronized void stop() {
+        if (ticking == null) {
+            return;
+        }
+        ticking.cancel();
+        ticking = null;
+    }
+
+    /**
+     * Stops applying the input for good and releases the thread. The buffer
+     * can not be started again afterwards.
+     */
+    synchronized void dispose() {
+        stop();
+        if (ticker != null) {
+            ticker.shutdownNow();
+        }
+        disposed = true;
+    }
+
+    /**
+     * Applies the latest direction of every player in one batch.
+     */
+    void tick() {
+        List<Player> moving = new ArrayList<>();
+        List<Direction> directions = new ArrayList<>();
+        List<Intent> applied = new ArrayList<>();
+        for (int i = 0; i < players.size(); i++) {
+            Direction direction = nextDirection(i, applied);
+            if (direction != null) {
+                moving.add(players.get(i));
+                directions.add(direction);
+            }
+        }
+        if (moving.isEmpty()) {
+            return;
+        }
+        game.moveAll(moving, directions);
+        long now = System.nanoTime();
+        for (Intent intent : applied) {
+            latency.record(now - intent.time);
+        }
+    }
+
+    /**
+     * Decides the direction a player moves in this tick.
+     *
+     * @param index
+     *            The index of the player.
+     * @param applied
+     *            The presses applied this tick, to add the one of the player
+     *            to if it is applied.
+     * @return The direction to move in, or <code>null</code> if the player
+     *         does not move.
+     */
+    private Direction nextDirection(int index, List<Intent> applied) {
+        Intent latest = pressed.getAndSet(index, null);
+        if (latest != null) {
+            pending[index] = latest;
+            patience[index] = turnTicks;
+        }
+        Intent intent = pending[index];
+        Player player = players.get(index);
+        if (intent == null || !player.hasSquare()) {
+            return null;
+        }
+        if (patience[index] <= 0 || canMove(player, intent.direction)) {
+            pending[index] = null;
+            applied.add(intent);
+            return intent.direction;
+        }
+        patience[index]--;
+        if (canMove(player, player.getDirection())) {
+            return player.getDirection();
+        }
+        return null;
+    }
+
+    /**
+     * @param player
+     *            A player on the board.
+     * @param direction
+     *            A direction.
+     * @return <code>true</code> iff the player can currently move in the
+     *         direction.
+     */
+    private static boolean canMove(Player player, Direction direction) {
+        Square square = player.getSquare();
+        return square.getSquareAt(direction).isAccessibleTo(player);
+    }
+
+    /**
+     * @return The time from pressing a key until the move was applied, in
+     *         nanoseconds.
+     */
+    public LatencyHistogram getLatency() {
+        return latency;
+    }
+
+    /**
+     * @return The amount of presses that were replaced by a later press
+     *         before they were applied.
+     */
+    public long getCoalesced() {
+        return coalesced.get();
+    }
+
+    /**
+     * A direction a player pressed.
+     */
+    private static final class Intent {
+
+        /**
+         * The direction to go in.
+         */
+        private final Direction direction;
+
+        /**
+         * The time it was pressed, from {@link System#nanoTime()}.
+         */
+        private final long time;
+
+        /**
+         * Creates a new intent.
+         *
+         * @param direction
+         *            The direction to go in.
+         * @param time
+         *            The time it was pressed.
+         */
+        Intent(Direction direction, long time) {
+            this.direction = direction;
+            this.time = time;
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package jpacman.game;
+
+import java.util.List;
+
+import jpacman.level.Level;
+import jpacman.level.Player;
+import jpacman.points.PointCalculator;
+
+import com.google.common.collect.ImmutableList;
+
+/**
+ * A game with any amount of players on a single level. The players share
+ * the start squares of the level, and the game is lost once all of them
+ * died.
+ */
+public class MultiPlayerGame extends Game {
+
+    /**
+     * The players of this game, in order of registration.
+     */
+    private final List<Player> players;
+
+    /**
+     * The level of this game.
+     */
+    private final Level level;
+
+    /**
+     * Create a new multiplayer game for the provided level and players.
+     *
+     * @param players
+     *            The players.
+     * @param level
+     *            The level.
+     * @param pointCalculator
+     *            The way to calculate points upon collisions.
+     */
+    protected MultiPlayerGame(List<Player> players, Level level,
+                              PointCalculator pointCalculator) {
+        super(pointCalculator);
+
+        assert players != null && !players.isEmpty();
+        assert level != null;
+
+        this.players = ImmutableList.copyOf(players);
+        this.level = level;
+        this.level.registerPlayers(this.players);
+    }
+
+    @Override
+    public List<Player> getPlayers() {
+        return players;
+    }
+
+    @Override
+    public Level getLevel() {
+        return level;
+    }
+}
@@ -0,0 +1,1210 @@
+package jpacman.level;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+
+import jpacman.board.Board;
+import jpacman.board.Direction;
+import jpacman.board.Square;
+import jpacman.board.Unit;
+import jpacman.npc.Ghost;
+import jpacman.sprite.Sprite;
+
+/**
+ * An immutable picture of the units on a level at one moment. Snapshots are
+ * published by the level after every move, so readers such as the user
+ * interface can look at a consistent state of the level without taking any
+ * locks and without holding up the units that are moving.
+ *
+ * <p>
+ * Snapshots are compact: the players and ghosts are stored as a few parallel
+ * arrays, and the pellets as a bitmap. Both are split into chunks that are
+ * shared by consecutive snapshots, so a new snapshot only copies the chunks
+ * holding a unit that moved or a pellet that was eaten, and the cost of a
+ * snapshot depends on the moves made rather than on the size of the level.
+ * The units on every cell are indexed the same way, so a reader can draw a
+ * region of the board without looking at the units elsewhere.
+ * Everything that never changes, such as the squares of the board and the
+ * positions of the pellets, is shared by all snapshots of a level.
+ * </p>
+ *
+ * <p>
+ * A snapshot never looks at the squares of the board after the level
+ * started: the level records every move as a {@link Change} while it makes
+ * the move, and the next snapshot is this one with the changes applied. A
+ * snapshot therefore shows whole moves only, even while other moves are
+ * being made.
+ * </p>
+ */
+public final class BoardSnapshot {
+
+    /**
+     * The kinds of moving units in a snapshot.
+     */
+    public enum Kind {
+
+        /**
+         * A player.
+         */
+        PLAYER,
+
+        /**
+         * A ghost.
+         */
+        GHOST
+    }
+
+    /**
+     * The cell of a unit that is not on the board.
+     */
+    private static final int NO_CELL = -1;
+
+    /**
+     * The amount of units in a chunk.
+     */
+    private static final int UNIT_CHUNK = 64;
+
+    /**
+     * The amount of pellets in a chunk, a multiple of the bits in a long.
+     */
+    private static final int PELLET_CHUNK = 1024;
+
+    /**
+     * The amount of cells in a chunk of the cell index.
+     */
+    private static final int CELL_CHUNK = 256;
+
+    /**
+     * The parts shared by all snapshots of a level.
+     */
+    private final Layout layout;
+
+    /**
+     * The number of this snapshot, increasing with every published snapshot
+     * of a level.
+     */
+    private final long sequence;
+
+    /**
+     * Per chunk of pellets, a bitmap of whether they are still on the board.
+     * Never modified once published.
+     */
+    private final long[][] pellets;
+
+    /**
+     * The amount of pellets still on the board.
+     */
+    private final int remainingPellets;
+
+    /**
+     * The amount of players, which come before the ghosts.
+     */
+    private final int playerCount;
+
+    /**
+     * The players, per chunk.
+     */
+    private final Units[] players;
+
+    /**
+     * The ghosts, per chunk.
+     */
+    private final Units[] ghosts;
+
+    /**
+     * Per chunk of cells (row by row), the units on them.
+     */
+    private final Cells[] occupants;
+
+    /**
+     * Creates a new snapshot.
+     *
+     * @param layout
+     *            The parts shared by all snapshots of the level.
+     * @param sequence
+     *            The number of this snapshot.
+     * @param parts
+     *            The pellets and units of this snapshot.
+     */
+    private BoardSnapshot(Layout layout, long sequence, Builder parts) {
+        this.layout = layout;
+        this.sequence = sequence;
+        this.pellets = parts.pellets;
+        this.remainingPellets = parts.remainingPellets;
+        this.players = parts.players;
+        this.playerCount = parts.playerCount;
+        this.ghosts = parts.ghosts;
+        this.occupants = parts.sealOccupants();
+    }
+
+    /**
+     * Takes the first snapshot of a board, finding all pellets on it.
+     *
+     * @param board
+     *            The board.
+     * @param players
+     *            The players on the board.
+     * @param ghosts
+     *            The ghosts on the board.
+     * @return The first snapshot of the board.
+     */
+    static BoardSnapshot of(Board board, List<Player> players, List<Ghost> ghosts) {
+        return restore(new Layout(board, ghosts.size()), -1L, players, ghosts);
+    }
+
+    /**
+     * Takes the snapshot following this one, applying the changes made to
+     * the level since. Only the chunks the changes touch are copied.
+     *
+     * @param changes
+     *            The changes, in the order they were made.
+     * @return The next snapshot.
+     */
+    BoardSnapshot next(List<Change> changes) {
+        Builder builder = new Builder(this);
+        for (Change change : changes) {
+            builder.apply(change);
+        }
+        return new BoardSnapshot(layout, sequence + 1, builder);
+    }
+
+    /**
+     * Takes a snapshot of a level from scratch, reading every unit and
+     * pellet from the board.
+     *
+     * @param layout
+     *            The parts shared by all snapshots of the level.
+     * @param previous
+     *            The number of the previous snapshot.
+     * @param players
+     *            The players of the level.
+     * @param ghosts
+     *            The ghosts of the level.
+     * @return The snapshot.
+     */
+    private static BoardSnapshot restore(Layout layout, long previous, List<Player> players,
+                                         List<Ghost> ghosts) {
+        Builder builder = new Builder(layout);
+        int width = layout.board.getWidth();
+        for (int i = 0; i < players.size(); i++) {
+            builder.apply(Change.of(width, -1, i, players.get(i)));
+        }
+        for (int i = 0; i < ghosts.size(); i++) {
+            builder.apply(Change.of(width, -1, -i - 1, ghosts.get(i)));
+        }
+        return new BoardSnapshot(layout, previous + 1, builder);
+    }
+
+    /**
+     * @param player
+     *            <code>true</code> for a chunk of players, <code>false</code>
+     *            for a chunk of ghosts.
+     * @param chunk
+     *            The index of the chunk.
+     * @return The chunk, or <code>null</code> if this snapshot has none.
+     */
+    private Units chunks(boolean player, int chunk) {
+        Units[] units = ghosts;
+        if (player) {
+            units = players;
+        }
+        if (chunk >= units.length) {
+            return null;
+        }
+        return units[chunk];
+    }
+
+    /**
+     * @param unit
+     *            The index of a unit, players come first.
+     * @return The chunk holding the unit.
+     */
+    private Units chunkOf(int unit) {
+        if (unit < playerCount) {
+            return players[unit / UNIT_CHUNK];
+        }
+        return ghosts[(unit - playerCount) / UNIT_CHUNK];
+    }
+
+    /**
+     * @param unit
+     *            The index of a unit, players come first.
+     * @return The position of the unit in its chunk.
+     */
+    private int slotOf(int unit) {
+        if (unit < playerCount) {
+            return unit % UNIT_CHUNK;
+        }
+        return (unit - playerCount) % UNIT_CHUNK;
+    }
+
+    /**
+     * @param unit
+     *            The index of a unit.
+     * @return The cell (row by row) of the unit, or -1.
+     */
+    private int cellOf(int unit) {
+        return chunkOf(unit).cells[slotOf(unit)];
+    }
+
+    /**
+     * @param bits
+     *            A bitmap.
+     * @param index
+     *            The index of a bit.
+     * @return <code>true</code> iff the bit is set.
+     */
+    private static boolean isSet(long[] bits, int index) {
+        return (bits[index / Long.SIZE] & (1L << index)) != 0;
+    }
+
+    /**
+     * @param items
+     *            An amount of items.
+     * @param size
+     *            The amount of items per chunk.
+     * @return The amount of chunks needed to store them.
+     */
+    private static int chunks(int items, int size) {
+        return (items + size - 1) / size;
+    }
+
+    /**
+     * @return The board this snapshot was taken of. Only the squares and their
+     *         sprites may be used, not their occupants.
+     */
+    public Board getBoard() {
+        return layout.board;
+    }
+
+    /**
+     * @return The number of this snapshot, increasing with every snapshot
+     *         published by a level.
+     */
+    public long getSequence() {
+        return sequence;
+    }
+
+    /**
+     * @return The amount of players and ghosts of the level.
+     */
+    public int getUnitCount() {
+        return playerCount + layout.ghostCount;
+    }
+
+    /**
+     * @param unit
+     *            The index of the unit, players come first.
+     * @return The kind of the unit.
+     */
+    public Kind getKind(int unit) {
+        if (unit < playerCount) {
+            return Kind.PLAYER;
+        }
+        return Kind.GHOST;
+    }
+
+    /**
+     * @param unit
+     *            The index of the unit.
+     * @return <code>true</code> iff the unit is on the board. The position
+     *         of a unit that is not is meaningless.
+     */
+    public boolean isOnBoard(int unit) {
+        return cellOf(unit) != NO_CELL;
+    }
+
+    /**
+     * @param unit
+     *            The index of the unit.
+     * @return The column the unit is on.
+     */
+    public int getX(int unit) {
+        return cellOf(unit) % layout.board.getWidth();
+    }
+
+    /**
+     * @param unit
+     *            The index of the unit.
+     * @return The row the unit is on.
+     */
+    public int getY(int unit) {
+        return cellOf(unit) / layout.board.getWidth();
+    }
+
+    /**
+     * @param unit
+     *            The index of the unit.
+     * @return The direction the unit is facing.
+     */
+    public Direction getDirection(int unit) {
+        return chunkOf(unit).directions[slotOf(unit)];
+    }
+
+    /**
+     * @param unit
+     *            The index of the unit.
+     * @return The sprite of the unit.
+     */
+    public Sprite getSprite(int unit) {
+        return chunkOf(unit).sprites[slotOf(unit)];
+    }
+
+    /**
+     * @param x
+     *            The column of a square.
+     * @param y
+     *            The row of a square.
+     * @return The amount of players and ghosts on the square.
+     */
+    public int getUnitCountAt(int x, int y) {
+        int[] units = unitsAt(x, y);
+        if (units == null) {
+            return 0;
+        }
+        return units.length;
+    }
+
+    /**
+     * @param x
+     *            The column of a square.
+     * @param y
+     *            The row of a square.
+     * @param n
+     *            The position of the unit on the square, below
+     *            {@link #getUnitCountAt(int, int)}. Players come before
+     *            ghosts, in the order of their indices.
+     * @return The index of the unit.
+     */
+    public int getUnitAt(int x, int y, int n) {
+        int unit = unitsAt(x, y)[n];
+        if (unit < 0) {
+            return playerCount - unit - 1;
+        }
+        return unit;
+    }
+
+    /**
+     * @param x
+     *            The column of a square.
+     * @param y
+     *            The row of a square.
+     * @return The index of the pellet that started on the square, which may
+     *         have been eaten since, or -1 if there was none.
+     */
+    public int getPelletAt(int x, int y) {
+        return layout.pelletIndices[y * layout.board.getWidth() + x];
+    }
+
+    /**
+     * Determines which squares may look different in this snapshot than in
+     * an earlier one, e.g. to redraw only those. Only the chunks that differ
+     * between the snapshots are compared, so this is cheap for snapshots
+     * that are close together, but it is exact for any two snapshots, also
+     * after the level was reset or restored.
+     *
+     * @param earlier
+     *            An earlier snapshot of the same level.
+     * @return The cells (row by row, in ascending order) on which a unit or
+     *         pellet appeared, disappeared or changed. All cells if the
+     *         snapshot is of another level.
+     */
+    public int[] getCellsChangedSince(BoardSnapshot earlier) {
+        Board board = layout.board;
+        if (earlier.layout != layout) {
+            int[] all = new int[board.getWidth() * board.getHeight()];
+            Arrays.setAll(all, cell -> cell);
+            return all;
+        }
+        BitSet changed = new BitSet();
+        diffUnits(players, earlier.players, changed);
+        diffUnits(ghosts, earlier.ghosts, changed);
+        for (int chunk = 0; chunk < pellets.length; chunk++) {
+            if (pellets[chunk] != earlier.pellets[chunk]) {
+                diffPellets(chunk, earlier.pellets[chunk], changed);
+            }
+        }
+        return changed.stream().toArray();
+    }
+
+    /**
+     * Marks the cells of units that differ between two snapshots.
+     *
+     * @param current
+     *            The chunks of units of this snapshot.
+     * @param earlier
+     *            The same chunks of the earlier snapshot.
+     * @param changed
+     *            The cells found so far.
+     */
+    private static void diffUnits(Units[] current, Units[] earlier, BitSet changed) {
+        Units none = new Units();
+        for (int chunk = 0; chunk < Math.max(current.length, earlier.length); chunk++) {
+            Units now = orNone(current, chunk, none);
+            Units then = orNone(earlier, chunk, none);
+            if (now == then) {
+                continue;
+            }
+            for (int slot = 0; slot < UNIT_CHUNK; slot++) {
+                if (now.cells[slot] != then.cells[slot]
+                    || now.directions[slot] != then.directions[slot]
+                    || now.sprites[slot] != then.sprites[slot]) {
+                    markCell(changed, now.cells[slot]);
+                    markCell(changed, then.cells[slot]);
+                }
+            }
+        }
+    }
+
+    /**
+     * @param chunks
+     *            Chunks of units.
+     * @param chunk
+     *            The index of a chunk.
+     * @param none
+     *            A chunk without units.
+     * @return The chunk, or the chunk without units if there is none.
+     */
+    private static Units orNone(Units[] chunks, int chunk, Units none) {
+        if (chunk >= chunks.length || chunks[chunk] == null) {
+            return none;
+        }
+        return chunks[chunk];
+    }
+
+    /**
+     * @param changed
+     *            The cells found so far.
+     * @param cell
+     *            A cell, or -1.
+     */
+    private static void markCell(BitSet changed, int cell) {
+        if (cell != NO_CELL) {
+            changed.set(cell);
+        }
+    }
+
+    /**
+     * Marks the cells of pellets that were eaten or put back in a chunk.
+     *
+     * @param chunk
+     *            The index of the chunk.
+     * @param earlier
+     *            The bitmap of the chunk in the earlier snapshot.
+     * @param changed
+     *            The cells found so far.
+     */
+    private void diffPellets(int chunk, long[] earlier, BitSet changed) {
+        long[] now = pellets[chunk];
+        for (int word = 0; word < now.length; word++) {
+            long bits = now[word] ^ earlier[word];
+            while (bits != 0) {
+                int bit = Long.numberOfTrailingZeros(bits);
+                changed.set(layout.pelletCells[chunk * PELLET_CHUNK + word * Long.SIZE + bit]);
+                bits &= bits - 1;
+            }
+        }
+    }
+
+    /**
+     * @param x
+     *            The column of a square.
+     * @param y
+     *            The row of a square.
+     * @return The units on the square, as indexed in a change, or
+     *         <code>null</code> if there are none.
+     */
+    private int[] unitsAt(int x, int y) {
+        int cell = y * layout.board.getWidth() + x;
+        Cells chunk = occupants[cell / CELL_CHUNK];
+        if (chunk == null) {
+            return null;
+        }
+        return chunk.units[cell % CELL_CHUNK];
+    }
+
+    /**
+     * @return The amount of pellets the level started with, i.e. the range of
+     *         pellet indices.
+     */
+    public int getPelletSlots() {
+        return layout.pelletCells.length;
+    }
+
+    /**
+     * @param pellet
+     *            The index of the pellet.
+     * @return <code>true</code> iff the pellet is still on the board.
+     */
+    public boolean isPelletPresent(int pellet) {
+        return isSet(pellets[pellet / PELLET_CHUNK], pellet % PELLET_CHUNK);
+    }
+
+    /**
+     * @param pellet
+     *            The index of the pellet.
+     * @return The column of the pellet.
+     */
+    public int getPelletX(int pellet) {
+        return layout.pelletCells[pellet] % layout.board.getWidth();
+    }
+
+    /**
+     * @param pellet
+     *            The index of the pellet.
+     * @return The row of the pellet.
+     */
+    public int getPelletY(int pellet) {
+        return layout.pelletCells[pellet] / layout.board.getWidth();
+    }
+
+    /**
+     * @param pellet
+     *            The index of the pellet.
+     * @return The sprite of the pellet.
+     */
+    public Sprite getPelletSprite(int pellet) {
+        return layout.pellets[pellet].getSprite();
+    }
+
+    /**
+     * @param pellet
+     *            The index of the pellet.
+     * @return The pellet, which may or may not be on the board.
+     */
+    Pellet getPellet(int pellet) {
+        return layout.pellets[pellet];
+    }
+
+    /**
+     * @param pellet
+     *            The index of the pellet.
+     * @return The square the pellet started on.
+     */
+    Square getPelletSquare(int pellet) {
+        return layout.board.squareAt(getPelletX(pellet), getPelletY(pellet));
+    }
+
+    /**
+     * @param square
+     *            A square of the board.
+     * @return The index of the pellet that started on the square, or -1.
+     */
+    int getPelletIndex(Square square) {
+        return layout.pelletAt(square);
+    }
+
+    /**
+     * Takes a snapshot after the level was changed arbitrarily, e.g.
+     * restored, reading every unit and pellet from the board. The caller
+     * makes sure nothing moves meanwhile.
+     *
+     * @param players
+     *            The players of the level.
+     * @param ghosts
+     *            The ghosts of the level.
+     * @return The next snapshot.
+     */
+    BoardSnapshot restored(List<Player> players, List<Ghost> ghosts) {
+        return restore(layout, sequence, players, ghosts);
+    }
+
+    /**
+     * @return The amount of pellets still on the board.
+     */
+    public int remainingPellets() {
+        return remainingPellets;
+    }
+
+    /**
+     * The pellets and units of a snapshot being made. Starts out sharing all
+     * chunks with an earlier snapshot, and copies a chunk the first time it
+     * is changed.
+     */
+    private static final class Builder {
+
+        /**
+         * The snapshot whose chunks are shared, or <code>null</code>.
+         */
+        private final BoardSnapshot base;
+
+        /**
+         * Per chunk of pellets, whether they are on the board.
+         */
+        private final long[][] pellets;
+
+        /**
+         * The amount of pellets on the board.
+         */
+        private int remainingPellets;
+
+        /**
+         * The amount of players.
+         */
+        private int playerCount;
+
+        /**
+         * The players, per chunk.
+         */
+        private Units[] players;
+
+        /**
+         * The ghosts, per chunk.
+         */
+        private final Units[] ghosts;
+
+        /**
+         * Per chunk of cells, the units on them.
+         */
+        private final Cells[] occupants;
+
+        /**
+         * The chunks of cells made for this snapshot.
+         */
+        private final List<Cells> written = new ArrayList<>();
+
+        /**
+         * Starts a snapshot with the pellets that are on the board and no
+         * units.
+         *
+         * @param layout
+         *            The parts shared by all snapshots of the level.
+         */
+        Builder(Layout layout) {
+            this.base = null;
+            int slots = layout.pellets.length;
+            this.pellets = new long[chunks(slots, PELLET_CHUNK)][PELLET_CHUNK / Long.SIZE];
+            for (int i = 0; i < slots; i++) {
+                if (layout.pellets[i].hasSquare()) {
+                    pellets[i / PELLET_CHUNK][i % PELLET_CHUNK / Long.SIZE] |= 1L << i;
+                    remainingPellets++;
+                }
+            }
+            this.players = new Units[0];
+            this.ghosts = new Units[chunks(layout.ghostCount, UNIT_CHUNK)];
+            Board board = layout.board;
+            this.occupants = new Cells[chunks(board.getWidth() * board.getHeight(),
+                CELL_CHUNK)];
+        }
+
+        /**
+         * Starts a snapshot that is the same as an earlier one.
+         *
+         * @param base
+         *            The earlier snapshot.
+         */
+        Builder(BoardSnapshot base) {
+            this.base = base;
+            this.pellets = base.pellets.clone();
+            this.remainingPellets = base.remainingPellets;
+            this.playerCount = base.playerCount;
+            this.players = base.players.clone();
+            this.ghosts = base.ghosts.clone();
+            this.occupants = base.occupants.clone();
+        }
+
+        /**
+         * Seals the chunks of cells this snapshot made, so they may be
+         * shared with later snapshots.
+         *
+         * @return The chunks of cells.
+         */
+        Cells[] sealOccupants() {
+            for (Cells cells : written) {
+                cells.seal();
+            }
+            return occupants;
+        }
+
+        /**
+         * Applies a change.
+         *
+         * @param change
+         *            The change.
+         */
+        void apply(Change change) {
+            eat(change.pellet);
+            for (int i = 0; i < change.units.length; i++) {
+                int unit = change.units[i];
+                Units chunk;
+                int slot;
+                if (unit >= 0) {
+                    growPlayers(unit + 1);
+                    chunk = writableUnits(players, unit / UNIT_CHUNK, true);
+                    slot = unit % UNIT_CHUNK;
+                } else {
+                    chunk = writableUnits(ghosts, (-unit - 1) / UNIT_CHUNK, false);
+                    slot = (-unit - 1) % UNIT_CHUNK;
+                }
+                int from = chunk.cells[slot];
+                chunk.set(slot, change, i);
+                relocate(unit, from, chunk.cells[slot]);
+            }
+        }
+
+        /**
+         * Removes a pellet from the board.
+         *
+         * @param pellet
+         *            The index of the pellet, or -1.
+         */
+        private void eat(int pellet) {
+            if (pellet < 0) {
+                return;
+            }
+            int chunk = pellet / PELLET_CHUNK;
+            int bit = pellet % PELLET_CHUNK;
+            if (!isSet(pellets[chunk], bit)) {
+                return;
+            }
+            if (base != null && pellets[chunk] == base.pellets[chunk]) {
+                pellets[chunk] = pellets[chunk].clone();
+            }
+            pellets[chunk][bit / Long.SIZE] &= ~(1L << bit);
+            remainingPellets--;
+        }
+
+        /**
+         * Makes room for more players.
+         *
+         * @param count
+         *            The amount of players there are at least.
+         */
+        private void growPlayers(int count) {
+            if (count > playerCount) {
+                playerCount = count;
+                players = Arrays.copyOf(players, chunks(count, UNIT_CHUNK));
+            }
+        }
+
+        /**
+         * Returns a chunk of units that may be changed, copying it if it is
+         * still shared.
+         *
+         * @param chunks
+         *            The chunks of players or ghosts.
+         * @param chunk
+         *            The index of the chunk.
+         * @param player
+         *            <code>true</code> for the chunks of players.
+         * @return The chunk.
+         */
+        private Units writableUnits(Units[] chunks, int chunk, boolean player) {
+            Units units = chunks[chunk];
+            if (units == null) {
+                units = new Units();
+            } else if (base != null && units == base.chunks(player, chunk)) {
+                units = units.copy();
+            }
+            chunks[chunk] = units;
+            return units;
+        }
+
+        /**
+         * Moves a unit in the cell index.
+         *
+         * @param unit
+         *            The unit, as indexed in a change.
+         * @param from
+         *            The cell it was on, or -1.
+         * @param to
+         *            The cell it is on now, or -1.
+         */
+        private void relocate(int unit, int from, int to) {
+            if (from == to) {
+                return;
+            }
+            if (from != NO_CELL) {
+                writableCells(from / CELL_CHUNK).remove(from % CELL_CHUNK, unit);
+            }
+            if (to != NO_CELL) {
+                writableCells(to / CELL_CHUNK).add(to % CELL_CHUNK, unit);
+            }
+        }
+
+        /**
+         * Returns a chunk of cells that may be changed, copying it if it is
+         * still shared.
+         *
+         * @param chunk
+         *            The index of the chunk.
+         * @return The chunk.
+         */
+        private Cells writableCells(int chunk) {
+            Cells cells = occupants[chunk];
+            if (cells == null) {
+                cells = new Cells();
+                written.add(cells);
+            } else if (base != null && cells == base.occupants[chunk]) {
+                cells = cells.copy();
+                written.add(cells);
+            }
+            occupants[chunk] = cells;
+            return cells;
+        }
+    }
+
+    /**
+     * A chunk of the cell index: per cell, the units on it, as indexed in a
+     * change and in the order of {@link BoardSnapshot#getUnitAt(int, int,
+     * int)}. Only modified while the snapshot it belongs to is being made,
+     * and sealed when it is done.
+     */
+    private static final class Cells {
+
+        /**
+         * Per cell, the units on it, or <code>null</code> if there are none.
+         */
+        private final int[][] units = new int[CELL_CHUNK][];
+
+        /**
+         * Per cell, the amount of units on it, while this chunk is being
+         * made, or <code>null</code> once it is sealed.
+         */
+        private int[] sizes = new int[CELL_CHUNK];
+
+        /**
+         * Per cell, whether its array was made for this chunk and may be
+         * modified in place, or <code>null</code> once it is sealed.
+         */
+        private boolean[] owned = new boolean[CELL_CHUNK];
+
+        /**
+         * @return A copy of this chunk, sharing the arrays of the cells,
+         *         which are replaced rather than modified.
+         */
+        Cells copy() {
+            Cells copy = new Cells();
+            System.arraycopy(units, 0, copy.units, 0, CELL_CHUNK);
+            for (int cell = 0; cell < CELL_CHUNK; cell++) {
+                if (units[cell] != null) {
+                    copy.sizes[cell] = units[cell].length;
+                }
+            }
+            return copy;
+        }
+
+        /**
+         * Puts a unit on a cell, players first, in the order of their
+         * indices. Arrays of this chunk grow by doubling, so putting many
+         * units on one cell takes linear time.
+         *
+         * @param cell
+         *            The position of the cell in this chunk.
+         * @param unit
+         *            The unit, as indexed in a change.
+         */
+        void add(int cell, int unit) {
+            int size = sizes[cell];
+            int[] current = units[cell];
+            int position = size;
+            while (position > 0 && order(current[position - 1]) > order(unit)) {
+                position--;
+            }
+            int[] next = current;
+            if (!owned[cell] || size == current.length) {
+                next = new int[Math.max(1, size * 2)];
+                if (size > 0) {
+                    System.arraycopy(current, 0, next, 0, size);
+                }
+            }
+            System.arraycopy(next, position, next, position + 1, size - position);
+            next[position] = unit;
+            units[cell] = next;
+            owned[cell] = true;
+            sizes[cell] = size + 1;
+        }
+
+        /**
+         * Takes a unit off a cell.
+         *
+         * @param cell
+         *            The position of the cell in this chunk.
+         * @param unit
+         *            The unit, as indexed in a change.
+         */
+        void remove(int cell, int unit) {
+            int size = sizes[cell];
+            int[] current = units[cell];
+            int position = 0;
+            while (current[position] != unit) {
+                position++;
+            }
+            sizes[cell] = size - 1;
+            if (size == 1) {
+                units[cell] = null;
+                owned[cell] = false;
+                return;
+            }
+            int[] next = current;
+            if (!owned[cell]) {
+                next = new int[size - 1];
+                System.arraycopy(current, 0, next, 0, position);
+            }
+            System.arraycopy(current, position + 1, next, position, size - position - 1);
+            units[cell] = next;
+            owned[cell] = true;
+        }
+
+        /**
+         * Trims the arrays of the cells to their units, after which this
+         * chunk is only read.
+         */
+        void seal() {
+            for (int cell = 0; cell < CELL_CHUNK; cell++) {
+                if (owned[cell] && units[cell].length != sizes[cell]) {
+                    units[cell] = Arrays.copyOf(units[cell], sizes[cell]);
+                }
+            }
+            sizes = null;
+            owned = null;
+        }
+
+        /**
+         * @param unit
+         *            A unit, as indexed in a change.
+         * @return A number that orders players before ghosts.
+         */
+        private static long order(int unit) {
+            if (unit < 0) {
+                return (long) Integer.MAX_VALUE - unit;
+            }
+            return unit;
+        }
+    }
+
+    /**
+     * A chunk of units, stored as parallel arrays. Only modified while the
+     * snapshot it belongs to is being made.
+     */
+    private static final class Units {
+
+        /**
+         * Per unit, its cell (row by row), or -1 if it is not on the board.
+         */
+        private final int[] cells = new int[UNIT_CHUNK];
+
+        /**
+         * Per unit, the direction it is facing.
+         */
+        private final Direction[] directions = new Direction[UNIT_CHUNK];
+
+        /**
+         * Per unit, the sprite it showed.
+         */
+        private final Sprite[] sprites = new Sprite[UNIT_CHUNK];
+
+        /**
+         * Creates a chunk in which no unit is on the board.
+         */
+        Units() {
+            Arrays.fill(cells, NO_CELL);
+        }
+
+        /**
+         * @return A copy of this chunk.
+         */
+        Units copy() {
+            Units copy = new Units();
+            System.arraycopy(cells, 0, copy.cells, 0, UNIT_CHUNK);
+            System.arraycopy(directions, 0, copy.directions, 0, UNIT_CHUNK);
+            System.arraycopy(sprites, 0, copy.sprites, 0, UNIT_CHUNK);
+            return copy;
+        }
+
+        /**
+         * Updates a unit of this chunk.
+         *
+         * @param slot
+         *            The position of the unit in this chunk.
+         * @param change
+         *            The change involving the unit.
+         * @param index
+         *            The position of the unit in the change.
+         */
+        void set(int slot, Change change, int index) {
+            cells[slot] = change.cells[index];
+            directions[slot] = change.directions[index];
+            sprites[slot] = change.sprites[index];
+        }
+    }
+
+    /**
+     * The effect of one move on a snapshot: the new state of the units it
+     * involved and the pellet it ate, if any. Made by the level while it
+     * holds the locks of the move, from the units themselves, so applying it
+     * later needs no locks and no access to the board.
+     */
+    static final class Change {
+
+        /**
+         * Per unit involved, its index: <code>i</code> for the i-th player,
+         * <code>-i - 1</code> for the i-th ghost.
+         */
+        private final int[] units;
+
+        /**
+         * Per unit involved, its cell, or -1 if it is not on the board.
+         */
+        private final int[] cells;
+
+        /**
+         * Per unit involved, the direction it is facing.
+         */
+        private final Direction[] directions;
+
+        /**
+         * Per unit involved, the sprite it shows.
+         */
+        private final Sprite[] sprites;
+
+        /**
+         * The index of the pellet that was eaten, or -1.
+         */
+        private final int pellet;
+
+        /**
+         * Creates a new, empty change.
+         *
+         * @param count
+         *            The amount of units involved.
+         * @param pellet
+         *            The index of the pellet that was eaten, or -1.
+         */
+        private Change(int count, int pellet) {
+            this.units = new int[count];
+            this.cells = new int[count];
+            this.directions = new Direction[count];
+            this.sprites = new Sprite[count];
+            this.pellet = pellet;
+        }
+
+        /**
+         * Records the current state of units.
+         *
+         * @param width
+         *            The width of the board.
+         * @param pellet
+         *            The index of the pellet that was eaten, or -1.
+         * @param indices
+         *            Per unit, its index: <code>i</code> for the i-th player,
+         *            <code>-i - 1</code> for the i-th ghost.
+         * @param involved
+         *            The units, in the same order.
+         * @return The change.
+         */
+        static Change of(int width, int pellet, int[] indices, List<Unit> involved) {
+            Change change = new Change(indices.length, pellet);
+            for (int i = 0; i < indices.length; i++) {
+                Unit unit = involved.get(i);
+                change.units[i] = indices[i];
+                change.cells[i] = NO_CELL;
+                if (unit.hasSquare()) {
+                    Square square = unit.getSquare();
+                    change.cells[i] = square.getY() * width + square.getX();
+                }
+                change.directions[i] = unit.getDirection();
+                change.sprites[i] = unit.getSprite();
+            }
+            return change;
+        }
+
+        /**
+         * Records the current state of a unit.
+         *
+         * @param width
+         *            The width of the board.
+         * @param pellet
+         *            The index of the pellet that was eaten, or -1.
+         * @param index
+         *            The index of the unit: <code>i</code> for the i-th
+         *            player, <code>-i - 1</code> for the i-th ghost.
+         * @param unit
+         *            The unit.
+         * @return The change.
+         */
+        static Change of(int width, int pellet, int index, Unit unit) {
+            return of(width, pellet, new int[] {index}, Collections.singletonList(unit));
+        }
+
+    }
+
+    /**
+     * The parts of a level that are the same in all its snapshots.
+     */
+    private static final class Layout {
+
+        /**
+         * The board.
+         */
+        private final Board board;
+
+        /**
+         * The amount of ghosts on the board.
+         */
+        private final int ghostCount;
+
+        /**
+         * Per pellet, the cell (row by row) it started on.
+         */
+        private final int[] pelletCells;
+
+        /**
+         * The pellets, in the order of their cells.
+         */
+        private final Pellet[] pellets;
+
+        /**
+         * Per cell (row by row), the index of the pellet that started on it,
+         * or -1.
+         */
+        private final int[] pelletIndices;
+
+        /**
+         * Finds all pellets on a board, row by row.
+         *
+         * @param board
+         *            The board.
+         * @param ghostCount
+         *            The amount of ghosts on the board.
+         */
+        Layout(Board board, int ghostCount) {
+            this.board = board;
+            this.ghostCount = ghostCount;
+            int width = board.getWidth();
+            List<Pellet> found = new ArrayList<>();
+            List<Integer> cells = new ArrayList<>();
+            this.pelletIndices = new int[width * board.getHeight()];
+            Arrays.fill(pelletIndices, -1);
+            for (int y = 0; y < board.getHeight(); y++) {
+                for (int x = 0; x < width; x++) {
+                    for (Unit unit : board.squareAt(x, y).getOccupants()) {
+                        if (unit instanceof Pellet) {
+                            pelletIndices[y * width + x] = found.size();
+                            found.add((Pellet) unit);
+                            cells.add(y * width + x);
+                            break;
+                        }
+                    }
+                }
+            }
+            this.pelletCells = new int[found.size()];
+            this.pellets = found.toArray(new Pellet[0]);
+            for (int i = 0; i < found.size(); i++) {
+                pelletCells[i] = cells.get(i);
+            }
+        }
+
+        /**
+         * @param square
+         *            A square of the board.
+         * @return The index of the pellet that started on the square, or -1.
+         */
+        int pelletAt(Square square) {
+            return pelletIndices[square.getY() * board.getWidth() + square.getX()];
+        }
+    }
+}
@@ -0,0 +1,237 @@
+package jpacman.level;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import jpacman.board.Direction;
+import jpacman.clock.GameClock;
+import jpacman.npc.Ghost;
+
+/**
+ * Moves every NPC of a level on its own schedule: after each move the NPC
+ * waits for its interval before it moves again. All NPCs of a level share a
+ * small pool of daemon threads, which is kept while the level is paused. The
+ * intervals are measured by the clock of the level.
+ */
+final class IntervalNpcScheduler implements NpcScheduler {
+
+    /**
+     * The level the NPCs are on.
+     */
+    private final Level level;
+
+    /**
+     * The tasks moving the NPCs.
+     */
+    private final List<NpcMoveTask> tasks;
+
+    /**
+     * The threads moving the NPCs.
+     */
+    private final ScheduledThreadPoolExecutor executor;
+
+    /**
+     * Creates a new scheduler.
+     *
+     * @param level
+     *            The level the NPCs are on.
+     * @param npcs
+     *            The NPCs to move.
+     */
+    IntervalNpcScheduler(Level level, List<Ghost> npcs) {
+        this.level = level;
+        this.tasks = new ArrayList<>(npcs.size());
+        for (int i = 0; i < npcs.size(); i++) {
+            tasks.add(new NpcMoveTask(npcs.get(i), i));
+        }
+        int threads = Math.max(1,
+            Math.min(npcs.size(), Runtime.getRuntime().availableProcessors()));
+        AtomicInteger count = new AtomicInteger();
+        this.executor = new ScheduledThreadPoolExecutor(threads, task -> {
+            Thread thread = new Thread(task, "npc-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.setRemoveOnCancelPolicy(true);
+    }
+
+    @Override
+    public void start() {
+        for (NpcMoveTask task : tasks) {
+            task.resume();
+        }
+    }
+
+    @Override
+    public void stop() {
+        for (NpcMoveTask task : tasks) {
+            task.suspend();
+        }
+    }
+
+    @Override
+    public void shutdown() {
+        stop();
+        executor.shutdownNow();
+    }
+
+    @Override
+    public long getRemainingDelay(int npc) {
+        return tasks.get(npc).getRemainingDelay();
+    }
+
+    @Override
+    public void setRemainingDelay(int npc, long delay) {
+        tasks.get(npc).setRemainingDelay(delay);
+    }
+
+    /**
+     * A task that moves an NPC and reschedules itself after it finished.
+     */
+    private final class NpcMoveTask implements Runnable {
+
+        /**
+         * The NPC to move.
+         */
+        private final Ghost npc;
+
+        /**
+         * The index of the NPC.
+         */
+        private final int index;
+
+        /**
+         * The time the next move is scheduled for, by the clock of the level.
+         */
+        private long due;
+
+        /**
+         * The next scheduled move, or <code>null</code>.
+         */
+        private GameClock.Timer pending;
+
+        /**
+         * The time to wait before the next move when resumed, in nanoseconds,
+         * or -1 if the first move has yet to be scheduled.
+         */
+        private long remaining = -1L;
+
+        /**
+         * <code>true</code> iff the NPC should keep moving.
+         */
+        private boolean active;
+
+        /**
+         * <code>true</code> iff the NPC is moving right now.
+         */
+        private boolean running;
+
+        /**
+         * Creates a new task.
+         *
+         * @param npc
+         *            The NPC to move.
+         * @param index
+         *            The index of the NPC.
+         */
+        NpcMoveTask(Ghost npc, int index) {
+            this.npc = npc;
+            this.index = index;
+        }
+
+        /**
+         * Schedules the next move after the remaining delay, unless the NPC
+         * is still making its previous move.
+         */
+        synchronized void resume() {
+            if (active) {
+                return;
+            }
+            active = true;
+            if (remaining < 0) {
+                remaining = TimeUnit.MILLISECONDS.toNanos(npc.getInterval() / 2);
+            }
+            if (!running) {
+                schedule();
+            }
+        }
+
+        /**
+         * Cancels the next move and remembers how long it still had to wait.
+         */
+        synchronized void suspend() {
+            if (!active) {
+                return;
+            }
+            active = false;
+            if (pending != null && pending.cancel()) {
+                remaining = Math.max(0L, due - level.getClock().nanoTime());
+            }
+            pending = null;
+        }
+
+        /**
+         * @return The time until the next move in nanoseconds, or -1 if the
+         *         first move has yet to be scheduled.
+         */
+        synchronized long getRemainingDelay() {
+            if (pending != null) {
+                return Math.max(0L, due - level.getClock().nanoTime());
+            }
+            return remaining;
+        }
+
+        /**
+         * Reschedules the next move.
+         *
+         * @param delay
+         *            The time until the next move in nanoseconds, or -1 to
+         *            wait half an interval after the next start.
+         */
+        synchronized void setRemainingDelay(long delay) {
+            remaining = delay;
+            if (pending != null && pending.cancel()) {
+                if (remaining < 0) {
+                    remaining = TimeUnit.MILLISECONDS.toNanos(npc.getInterval() / 2);
+                }
+                schedule();
+            }
+        }
+
+        /**
+         * Schedules the next move after the remaining delay.
+         */
+        private void schedule() {
+            GameClock clock = level.getClock();
+            due = clock.nanoTime() + remaining;
+            pending = clock.schedule(executor, this, remaining, TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public void run() {
+            long late;
+            synchronized (this) {
+                running = true;
+                pending = null;
+                late = Math.max(0L, level.getClock().nanoTime() - due);
+            }
+            try {
+                Direction nextMove = level.getWatchdog().nextMove(index, late);
+                if (nextMove != null) {
+                    level.move(npc, nextMove);
+                }
+            } finally {
+                synchronized (this) {
+                    running = false;
+                    remaining = TimeUnit.MILLISECONDS.toNanos(npc.getInterval());
+                    if (active && !executor.isShutdown()) {
+                        schedule();
+                    }
+                }
+            }
+        }
+    }
+}
@@ -1,17 +1,34 @@
 package jpacman.level;
 
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
+import java.util.Queue;
 import java.util.Map;
-import java.util.Map.Entry;
 import java.util.Set;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
 
+import com.google.common.collect.ImmutableList;
+
+import jpacman.clock.GameClock;
+import jpacman.event.EventBus;
+import jpacman.event.EventType;
+import jpacman.metrics.LatencyHistogram;
 import jpacman.npc.Ghost;
+import jpacman.npc.WorldQuery;
+import jpacman.random.RandomStream;
 import jpacman.board.Board;
 import jpacman.board.Direction;
 import jpacman.board.Square;
@@ -26,6 +43,12 @@ import jpacman.board.Unit;
 @SuppressWarnings("PMD.TooManyMethods")
 public class Level {
 
+    /**
+     * The amount of events the event bus can hold before it drops events for
+     * want of consumers keeping up.
+     */
+    private static final int EVENT_RING_SIZE = 1024;
+
     /**
      * The board of this level.
      */
@@ -43,15 +66,20 @@ public class Level {
     private final Object startStopLock = new Object();
 
     /**
-     * The NPCs of this level and, if they are running, their schedules.
+     * The NPCs of this level, in order.
      */
-    private final Map<Ghost, ScheduledExecutorService> npcs;
+    private final List<Ghost> npcs;
+
+    /**
+     * Per NPC, its index in the list of NPCs.
+     */
+    private final Map<Ghost, Integer> npcIndices = new HashMap<>();
 
     /**
      * <code>true</code> iff this level is currently in progress, i.e. players
      * and NPCs can move.
      */
-    private boolean inProgress;
+    private volatile boolean inProgress;
 
     /**
      * The squares from which players can start this game.
@@ -64,10 +92,39 @@ public class Level {
     private int startSquareIndex;
 
     /**
-     * The players on this level.
+     * The players on this level. Only changed, and only read, while no unit
+     * can move or under the move lock; other threads read
+     * {@link #playerView}.
      */
     private final List<Player> players;
 
+    /**
+     * An immutable copy of the players, made once per registration, which
+     * can be read from any thread.
+     */
+    private volatile List<Player> playerView = ImmutableList.of();
+
+    /**
+     * Per registered player, its index in the list of players.
+     */
+    private final Map<Player, Integer> playerIndices = new ConcurrentHashMap<>();
+
+    /**
+     * The registered players that are alive, kept up to date by observing
+     * the players.
+     */
+    private final Set<Player> livingPlayers = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Per player, the square it started on. Guarded like the players.
+     */
+    private final List<Square> playerStarts;
+
+    /**
+     * Per NPC, the square it started on.
+     */
+    private final List<Square> npcStarts;
+
     /**
      * The table of possible collisions between units.
      */
@@ -78,6 +135,132 @@ public class Level {
      */
     private final Set<LevelObserver> observers;
 
+    /**
+     * The latest published snapshot of this level. Only replaced while
+     * holding the snapshot lock.
+     */
+    private volatile BoardSnapshot snapshot;
+
+    /**
+     * The lock held while publishing a snapshot.
+     */
+    private final ReentrantLock snapshotLock = new ReentrantLock();
+
+    /**
+     * <code>true</code> iff the level changed since the latest snapshot.
+     */
+    private final AtomicBoolean snapshotDirty = new AtomicBoolean();
+
+    /**
+     * The moves made since the latest snapshot, each recorded while holding
+     * the locks of the move, in the order they were made.
+     */
+    private final Queue<BoardSnapshot.Change> changes = new ConcurrentLinkedQueue<>();
+
+    /**
+     * The amount of pellets remaining on the board.
+     */
+    private final AtomicInteger pelletCount;
+
+    /**
+     * The locks of the regions of the board, or <code>null</code> if moves
+     * are made while holding the move lock.
+     */
+    private volatile RegionLocks regionLocks;
+
+    /**
+     * The history of recent moves, or <code>null</code> if moves are not
+     * recorded. Only used while holding the move lock.
+     */
+    private volatile RewindBuffer history;
+
+    /**
+     * The parts of this level that never change, shared by all forks, or
+     * <code>null</code> until the first fork.
+     */
+    private volatile LevelFork.Topology topology;
+
+    /**
+     * The neighbours of the squares of the board, or <code>null</code> until
+     * a ghost first asks a question.
+     */
+    private volatile WorldContext.Grid grid;
+
+    /**
+     * Counts the changes to the positions and directions of the units, to
+     * know when the shared answers of the ghost AIs are out of date.
+     */
+    private final AtomicLong worldVersion = new AtomicLong();
+
+    /**
+     * The answers shared by the ghost AIs deciding on the current state, or
+     * <code>null</code> until a ghost first asks a question.
+     */
+    private volatile WorldContext worldContext;
+
+    /**
+     * The seed all random numbers of this level are derived from.
+     */
+    private volatile long seed;
+
+    /**
+     * The ticker moving the NPCs, or <code>null</code> if every NPC has its
+     * own schedule.
+     */
+    private NpcTicker npcTicker;
+
+    /**
+     * The scheduler moving the NPCs.
+     */
+    private NpcScheduler npcScheduler;
+
+    /**
+     * Decides the moves of the NPCs, keeping them on schedule.
+     */
+    private final NpcWatchdog watchdog;
+
+    /**
+     * The clock the NPCs move by.
+     */
+    private volatile GameClock clock = GameClock.system();
+
+    /**
+     * <code>true</code> iff this level was ever started.
+     */
+    private boolean started;
+
+    /**
+     * <code>true</code> iff this level released its threads.
+     */
+    private boolean disposed;
+
+    /**
+     * The bus on which moves, collisions, eaten pellets and deaths are
+     * published.
+     */
+    private final EventBus events = new EventBus(EVENT_RING_SIZE);
+
+    /**
+     * The time between requesting and applying moves.
+     */
+    private final LatencyHistogram moveLatency = new LatencyHistogram();
+
+    /**
+     * The time between requesting and applying moves of players.
+     */
+    private final LatencyHistogram playerMoveLatency = new LatencyHistogram();
+
+    /**
+     * Admits moves under the move lock one at a time, players first.
+     */
+    private final MoveAdmission admission = new MoveAdmission();
+
+    /**
+     * The queue moves are submitted to, or <code>null</code> if moves are
+     * applied directly by the thread requesting them.
+     */
+    private volatile MoveCommandQueue commandQueue;
+
     /**
      * Creates a new level for the board.
      *
@@ -98,15 +281,24 @@ public class Level {
 
         this.board = board;
         this.inProgress = false;
-        this.npcs = new HashMap<>();
-        for (Ghost ghost : ghosts) {
-            npcs.put(ghost, null);
-        }
+        this.npcs = new ArrayList<>(ghosts);
+        this.watchdog = new NpcWatchdog(this, npcs);
+        this.npcScheduler = new IntervalNpcScheduler(this, npcs);
         this.startSquares = startPositions;
         this.startSquareIndex = 0;
         this.players = new ArrayList<>();
+        this.playerStarts = new ArrayList<>();
+        this.npcStarts = new ArrayList<>();
+        for (Ghost npc : npcs) {
+            npcIndices.put(npc, npcStarts.size());
+            npcStarts.add(npc.getSquare());
+        }
         this.collisions = collisionMap;
-        this.observers = new HashSet<>();
+        this.observers = new CopyOnWriteArraySet<>();
+        this.snapshot = BoardSnapshot.of(board, players, npcs);
+        this.pelletCount = new AtomicInteger(snapshot.remainingPellets());
+        this.seed = RandomStream.randomSeed();
+        seedNpcs();
     }
 
     /**
@@ -139,16 +331,66 @@ public class Level {
      */
     public void registerPlayer(Player player) {
         assert player != null;
+        registerPlayers(Collections.singletonList(player));
+    }
+
+    /**
+     * Registers many players at once, in order, like separate calls to
+     * {@link #registerPlayer(Player)}, but the level is locked, and a
+     * snapshot published, only once for all of them.
+     *
+     * @param toRegister
+     *            The players to register.
+     */
+    public void registerPlayers(List<Player> toRegister) {
+        assert toRegister != null;
         assert !startSquares.isEmpty();
 
-        if (players.contains(player)) {
+        exclusively(() -> {
+            for (Player player : toRegister) {
+                addPlayer(player);
+            }
+            playerView = ImmutableList.copyOf(players);
+        });
+        publishSnapshot();
+    }
+
+    /**
+     * Adds a player to this level and puts it on its starting position. The
+     * caller makes sure no unit moves.
+     *
+     * @param player
+     *            The player to add.
+     */
+    private void addPlayer(Player player) {
+        if (playerIndices.putIfAbsent(player, players.size()) != null) {
             return;
         }
         players.add(player);
+        worldVersion.incrementAndGet();
+        player.addObserver(this::playerChanged);
+        playerChanged(player);
         Square square = startSquares.get(startSquareIndex);
+        playerStarts.add(square);
         player.occupy(square);
         startSquareIndex++;
         startSquareIndex %= startSquares.size();
+        changes.add(BoardSnapshot.Change.of(board.getWidth(), -1, playerIndices.get(player),
+            player));
+    }
+
+    /**
+     * Keeps track of whether a registered player is alive.
+     *
+     * @param player
+     *            The player that changed.
+     */
+    private void playerChanged(Player player) {
+        if (player.isAlive()) {
+            livingPlayers.add(player);
+        } else {
+            livingPlayers.remove(player);
+        }
     }
 
     /**
@@ -161,196 +403,1231 @@ public class Level {
     }
 
     /**
-     * Moves the unit into the given direction if possible and handles all
-     * collisions.
+     * Returns the players registered on this level.
      *
-     * @param unit
-     *            The unit to move.
-     * @param direction
-     *            The direction to move the unit in.
+     * @return An immutable list of the players, in order of registration.
      */
-    public void move(Unit unit, Direction direction) {
-        assert unit != null;
-        assert direction != null;
-        assert unit.hasSquare();
+    public List<Player> getPlayers() {
+        return playerView;
+    }
 
-        if (!isInProgress()) {
-            return;
-        }
+    /**
+     * Returns the NPCs of this level.
+     *
+     * @return An immutable list of the ghosts on this level.
+     */
+    public List<Ghost> getGhosts() {
+        return ImmutableList.copyOf(npcs);
+    }
 
-        synchronized (moveLock) {
-            unit.setDirection(direction);
-            Square location = unit.getSquare();
-            Square destination = location.getSquareAt(direction);
-
-            if (destination.isAccessibleTo(unit)) {
-                List<Unit> occupants = destination.getOccupants();
-                unit.occupy(destination);
-                for (Unit occupant : occupants) {
-                    collisions.collide(unit, occupant);
+    /**
+     * Returns the latest snapshot of this level. Snapshots are immutable and
+     * replaced after every move, so this method never blocks and the result
+     * can be inspected at leisure from any thread.
+     *
+     * @return The latest snapshot of this level.
+     */
+    public BoardSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Publishes a snapshot of the current state of this level, by applying
+     * the recorded moves to the latest snapshot. If another thread is already
+     * publishing, that thread publishes again afterwards instead, so moves
+     * never wait for each other's snapshots.
+     */
+    private void publishSnapshot() {
+        snapshotDirty.set(true);
+        while (snapshotDirty.get() && snapshotLock.tryLock()) {
+            try {
+                snapshotDirty.set(false);
+                List<BoardSnapshot.Change> made = new ArrayList<>();
+                for (BoardSnapshot.Change change = changes.poll(); change != null;
+                     change = changes.poll()) {
+                    made.add(change);
                 }
+                snapshot = snapshot.next(made);
+            } finally {
+                snapshotLock.unlock();
             }
-            updateObservers();
         }
     }
 
     /**
-     * Starts or resumes this level, allowing movement and (re)starting the
-     * NPCs.
+     * Returns the bus on which this level publishes an event for every move,
+     * collision, eaten pellet and death. Events are published while the move
+     * is made, consumers process them on their own threads. Moves never wait
+     * for a consumer; one that falls too far behind misses events instead.
+     *
+     * @return The event bus of this level.
      */
-    public void start() {
+    public EventBus getEvents() {
+        return events;
+    }
+
+    /**
+     * Returns the size of the dynamic state of this level, as written by
+     * {@link #writeState(ByteBuffer)}. The size only depends on the map and
+     * the amount of players.
+     *
+     * @return The size of the state in bytes.
+     */
+    public int getStateSize() {
+        return LevelState.size(playerView.size(), npcs.size(), snapshot.getPelletSlots(),
+            npcs.size());
+    }
+
+    /**
+     * Writes the dynamic state of this level into a buffer, at its current
+     * position: the positions and directions of all units, the scores, lives
+     * and killers of the players, the remaining pellets and the time every
+     * NPC still has to wait for its next move. Moves wait while the state is
+     * written, so the state is consistent even while the level is running.
+     * The delays of the NPCs are taken just before, as the scheduler must not
+     * be called while moves wait: it may be waiting to move the NPCs itself.
+     *
+     * @param out
+     *            The buffer to write to, with at least
+     *            {@link #getStateSize()} bytes remaining.
+     */
+    public void writeState(ByteBuffer out) {
+        assert out.remaining() >= getStateSize();
+        NpcScheduler scheduler = npcScheduler;
+        long[] delays = new long[npcs.size()];
+        for (int i = 0; i < delays.length; i++) {
+            delays[i] = scheduler.getRemainingDelay(i);
+        }
+        exclusively(() -> LevelState.write(this, delays, out));
+    }
+
+    /**
+     * Reads a state written by {@link #writeState(ByteBuffer)} of a level made
+     * from the same map, and changes this level to match it. This level must
+     * have the same amount of players registered. Moves wait while the state
+     * is read; the delays of the NPCs are passed to the scheduler right
+     * after.
+     *
+     * @param in
+     *            The buffer to read from, at its current position.
+     * @throws IllegalArgumentException
+     *             If the state does not belong to a level like this one.
+     */
+    public void readState(ByteBuffer in) {
+        long[][] delays = new long[1][];
+        exclusively(() -> {
+            delays[0] = LevelState.read(this, in);
+            forgetHistory();
+            restoreSnapshot();
+        });
+        NpcScheduler scheduler = npcScheduler;
+        for (int i = 0; i < delays[0].length; i++) {
+            scheduler.setRemainingDelay(i, delays[0][i]);
+        }
+        updateObservers();
+    }
+
+    /**
+     * Stops this level and puts it back in the state it was in before it
+     * started, so it can be played again without parsing its map: all
+     * pellets return to the board, the NPCs and players return to the
+     * squares they started on, and the players come back to life with no
+     * points. The players stay registered, but the observers are removed, as
+     * they belong to the game that was played.
+     */
+    public void reset() {
         synchronized (startStopLock) {
-            if (isInProgress()) {
-                return;
+            assert !disposed;
+            stop();
+            exclusively(() -> {
+                BoardSnapshot current = snapshot;
+                for (int i = 0; i < current.getPelletSlots(); i++) {
+                    if (!current.getPellet(i).hasSquare()) {
+                        current.getPellet(i).occupy(current.getPelletSquare(i));
+                    }
+                }
+                for (int i = 0; i < npcs.size(); i++) {
+                    resetUnit(npcs.get(i), npcStarts.get(i));
+                }
+                for (int i = 0; i < players.size(); i++) {
+                    Player player = players.get(i);
+                    resetUnit(player, playerStarts.get(i));
+                    player.addPoints(-player.getScore());
+                    player.setAlive(true);
+                }
+                seedNpcs();
+                forgetHistory();
+                restoreSnapshot();
+            });
+            for (int i = 0; i < npcs.size(); i++) {
+                npcScheduler.setRemainingDelay(i, -1L);
             }
-            startNPCs();
-            inProgress = true;
-            updateObservers();
+            observers.clear();
         }
     }
 
     /**
-     * Stops or pauses this level, no longer allowing any movement on the board
-     * and stopping all NPCs.
+     * Starts recording the changes made by moves, so the level can be
+     * rewound to any of the recent moves. Every move is a tick, and takes
+     * one change plus one per player it involves. Only the given amount of
+     * changes is kept, in memory allocated up front, so the oldest tick that
+     * can be rewound to advances as the game goes on. Recording cannot be
+     * combined with region locking.
+     *
+     * @param changes
+     *            The amount of changes to keep.
      */
-    public void stop() {
+    public void enableRewind(int changes) {
         synchronized (startStopLock) {
-            if (!isInProgress()) {
-                return;
-            }
-            stopNPCs();
-            inProgress = false;
+            assert regionLocks == null;
+            assert history == null;
+            history = new RewindBuffer(changes);
         }
     }
 
     /**
-     * Starts all NPC movement scheduling.
+     * @return The current tick: the amount of moves made since recording
+     *         started, minus the ones rewound.
+     * @throws IllegalStateException
+     *             If rewinding is not enabled.
      */
-    private void startNPCs() {
-        for (final Ghost npc : npcs.keySet()) {
-            ScheduledExecutorService service = Executors.newSingleThreadScheduledExecutor();
+    public long getTick() {
+        RewindBuffer moves = recordedMoves();
+        synchronized (moveLock) {
+            return moves.getTick();
+        }
+    }
 
-            service.schedule(new NpcMoveTask(service, npc),
-                npc.getInterval() / 2, TimeUnit.MILLISECONDS);
+    /**
+     * @return The oldest tick the level can still be rewound to.
+     * @throws IllegalStateException
+     *             If rewinding is not enabled.
+     */
+    public long getOldestTick() {
+        RewindBuffer moves = recordedMoves();
+        synchronized (moveLock) {
+            return moves.getOldestTick();
+        }
+    }
 
-            npcs.put(npc, service);
+    /**
+     * Finds the tick the level was at at some time, e.g. to rewind the last
+     * few seconds.
+     *
+     * @param nanoTime
+     *            A time, as given by {@link GameClock#nanoTime()} of the
+     *            clock of this level.
+     * @return The tick at that time, or the oldest tick if that is later.
+     * @throws IllegalStateException
+     *             If rewinding is not enabled.
+     */
+    public long getTickAt(long nanoTime) {
+        RewindBuffer moves = recordedMoves();
+        synchronized (moveLock) {
+            return moves.getTickAt(nanoTime);
         }
     }
 
     /**
-     * Stops all NPC movement scheduling and interrupts any movements being
-     * executed.
+     * @return The recorded moves.
+     * @throws IllegalStateException
+     *             If rewinding is not enabled.
      */
-    private void stopNPCs() {
-        for (Entry<Ghost, ScheduledExecutorService> entry : npcs.entrySet()) {
-            ScheduledExecutorService schedule = entry.getValue();
-            assert schedule != null;
-            schedule.shutdownNow();
+    private RewindBuffer recordedMoves() {
+        RewindBuffer moves = history;
+        if (moves == null) {
+            throw new IllegalStateException("Rewinding is not enabled on this level");
         }
+        return moves;
     }
 
     /**
-     * Returns whether this level is in progress, i.e. whether moves can be made
-     * on the board.
+     * Undoes all moves made after a tick, newest first: the units go back
+     * to where they came from, eaten pellets return and the scores, lives
+     * and killers of the players are restored. The NPCs keep their timers,
+     * and the level keeps running if it was. The rewound moves are
+     * forgotten; new moves are recorded from the tick rewound to.
      *
-     * @return <code>true</code> iff this level is in progress.
+     * @param tick
+     *            The tick to go back to, between {@link #getOldestTick()}
+     *            and {@link #getTick()}.
+     * @throws IllegalStateException
+     *             If rewinding is not enabled.
      */
-    public boolean isInProgress() {
-        return inProgress;
+    public void rewind(long tick) {
+        RewindBuffer moves = recordedMoves();
+        exclusively(() -> {
+            moves.rewind(tick, new RewindBuffer.Undo() {
+                @Override
+                public void move(boolean player, int unit, int cell, Direction direction,
+                                 int pellet) {
+                    Unit moved;
+                    if (player) {
+                        moved = players.get(unit);
+                    } else {
+                        moved = npcs.get(unit);
+                    }
+                    moved.occupy(board.squareAt(cell % board.getWidth(), cell / board.getWidth()));
+                    moved.setDirection(direction);
+                    if (pellet >= 0) {
+                        snapshot.getPellet(pellet).occupy(snapshot.getPelletSquare(pellet));
+                    }
+                }
+
+                @Override
+                public void player(int player, int score, boolean alive, int killer) {
+                    undoPlayer(players.get(player), score, alive, killer);
+                }
+            });
+            restoreSnapshot();
+        });
+        updateObservers();
     }
 
     /**
-     * Updates the observers about the state of this level.
+     * Restores the state a player had before a move.
+     *
+     * @param player
+     *            The player.
+     * @param score
+     *            The score it had.
+     * @param alive
+     *            Whether it was alive.
+     * @param killer
+     *            The index of the NPC that had killed it, or -1.
      */
-    private void updateObservers() {
-        if (!isAnyPlayerAlive()) {
-            for (LevelObserver observer : observers) {
-                observer.levelLost();
-            }
+    private void undoPlayer(Player player, int score, boolean alive, int killer) {
+        player.addPoints(score - player.getScore());
+        if (player.isAlive() != alive) {
+            player.setAlive(alive);
         }
-        if (remainingPellets() == 0) {
-            for (LevelObserver observer : observers) {
-                observer.levelWon();
-            }
+        player.setKiller(null);
+        if (killer >= 0) {
+            player.setKiller(npcs.get(killer));
         }
     }
 
     /**
-     * Returns <code>true</code> iff at least one of the players in this level
-     * is alive.
+     * Puts a unit back on the square it started on, facing east like a new
+     * unit.
      *
-     * @return <code>true</code> if at least one of the registered players is
-     *         alive.
+     * @param unit
+     *            The unit.
+     * @param start
+     *            The square it started on.
      */
-    public boolean isAnyPlayerAlive() {
-        for (Player player : players) {
-            if (player.isAlive()) {
-                return true;
-            }
+    private static void resetUnit(Unit unit, Square start) {
+        unit.occupy(start);
+        unit.setDirection(Direction.EAST);
+    }
+
+    /**
+     * Forgets the recorded moves, if any, after the units were put in place
+     * other than by moves.
+     */
+    private void forgetHistory() {
+        RewindBuffer moves = history;
+        if (moves != null) {
+            moves.clear();
         }
-        return false;
     }
 
     /**
-     * Counts the pellets remaining on the board.
-     *
-     * @return The amount of pellets remaining on the board.
+     * Replaces the snapshot and the pellet count after the units were put in
+     * place directly, rather than moved. The caller makes sure no unit moves.
      */
-    public int remainingPellets() {
-        Board board = getBoard();
-        int pellets = 0;
-        for (int x = 0; x < board.getWidth(); x++) {
-            for (int y = 0; y < board.getHeight(); y++) {
-                for (Unit unit : board.squareAt(x, y).getOccupants()) {
-                    if (unit instanceof Pellet) {
-                        pellets++;
-                    }
-                }
-            }
+    private void restoreSnapshot() {
+        worldVersion.incrementAndGet();
+        snapshotLock.lock();
+        try {
+            changes.clear();
+            snapshot = snapshot.restored(players, npcs);
+        } finally {
+            snapshotLock.unlock();
         }
-        assert pellets >= 0;
-        return pellets;
+        pelletCount.set(snapshot.remainingPellets());
     }
 
     /**
-     * A task that moves an NPC and reschedules itself after it finished.
+     * Makes an independent copy of the dynamic state of this level, to try
+     * out moves without affecting the level. Moves wait while the copy is
+     * made. The parts of the level that never change are shared by all
+     * forks.
      *
-     * @author Jeroen Roosen
+     * @return The fork.
      */
-    private final class NpcMoveTask implements Runnable {
+    public LevelFork fork() {
+        LevelFork.Topology shared = topology;
+        if (shared == null) {
+            shared = new LevelFork.Topology(board, snapshot);
+            topology = shared;
+        }
+        LevelFork.Topology forkTopology = shared;
+        LevelFork[] fork = new LevelFork[1];
+        exclusively(() -> fork[0] = new LevelFork(forkTopology, players, npcs, snapshot));
+        return fork[0];
+    }
 
-        /**
-         * The service executing the task.
-         */
-        private final ScheduledExecutorService service;
+    /**
+     * Seeds the random numbers of this level. Every NPC gets a stream of its
+     * own, split from a stream with this seed in the order of the NPCs, so
+     * in tick mode, where the NPCs move in a fixed order, the same seed and
+     * the same player moves at the same times of the clock give the same
+     * game. Resetting the level starts the streams over.
+     *
+     * @param newSeed
+     *            The seed.
+     */
+    public void setSeed(long newSeed) {
+        synchronized (startStopLock) {
+            assert !isInProgress();
+            seed = newSeed;
+            seedNpcs();
+        }
+    }
 
-        /**
-         * The NPC to move.
-         */
-        private final Ghost npc;
+    /**
+     * @return The seed the random numbers of this level are derived from,
+     *         chosen at random unless set.
+     */
+    public long getSeed() {
+        return seed;
+    }
 
-        /**
-         * Creates a new task.
-         *
-         * @param service
-         *            The service that executes the task.
-         * @param npc
-         *            The NPC to move.
-         */
-        NpcMoveTask(ScheduledExecutorService service, Ghost npc) {
-            this.service = service;
-            this.npc = npc;
+    /**
+     * Gives every NPC a new stream of random numbers derived from the seed.
+     */
+    private void seedNpcs() {
+        RandomStream root = new RandomStream(seed);
+        for (Ghost npc : npcs) {
+            npc.setRandom(root.split());
         }
+    }
 
-        @Override
-        public void run() {
-            Direction nextMove = npc.nextMove();
-            if (nextMove != null) {
-                move(npc, nextMove);
-            }
-            long interval = npc.getInterval();
-            service.schedule(this, interval, TimeUnit.MILLISECONDS);
+    /**
+     * Gives the answers to the questions of the ghost AIs for the current
+     * state of this level. In tick mode the answers are shared by all ghosts
+     * asking until a unit moves, so ghosts deciding in the same tick search
+     * the board once between them rather than once each. Otherwise every
+     * move of a unit changes the state before the next ghost decides, so
+     * each question is answered by a search of its own, which stops at the
+     * nearest unit rather than covering the whole board.
+     *
+     * @return The answers for the current state.
+     */
+    WorldQuery worldQuery() {
+        if (npcTicker == null) {
+            return WorldQuery.direct();
+        }
+        long version = worldVersion.get();
+        WorldContext current = worldContext;
+        if (current == null || current.getVersion() != version) {
+            WorldContext.Grid shared = grid;
+            if (shared == null) {
+                shared = new WorldContext.Grid(board);
+                grid = shared;
+            }
+            current = new WorldContext(shared, version, playerView, npcs);
+            worldContext = current;
+        }
+        return current;
+    }
+
+    /**
+     * Runs an action while no unit can move.
+     *
+     * @param action
+     *            The action to run.
+     */
+    private void exclusively(Runnable action) {
+        synchronized (moveLock) {
+            RegionLocks locks = regionLocks;
+            if (locks == null) {
+                action.run();
+                return;
+            }
+            locks.lockAll();
+            try {
+                action.run();
+            } finally {
+                locks.unlockAll();
+            }
+        }
+    }
+
+    /**
+     * @return The players of this level, in order of registration, without
+     *         copying them; the list is immutable.
+     */
+    List<Player> registeredPlayers() {
+        return playerView;
+    }
+
+    /**
+     * @return The NPCs of this level, in order.
+     */
+    List<Ghost> npcs() {
+        return npcs;
+    }
+
+    /**
+     * Makes this level apply all moves on a single simulation thread, instead
+     * of on the threads requesting them. Moves are queued without blocking
+     * and applied in batches, so the user interface and the NPCs no longer
+     * contend for the move lock. Must be called while the level is stopped.
+     */
+    public void enableCommandQueue() {
+        synchronized (startStopLock) {
+            assert !isInProgress();
+            assert regionLocks == null;
+            if (commandQueue == null) {
+                commandQueue = new MoveCommandQueue(this);
+            }
+        }
+    }
+
+    /**
+     * Makes this level lock only the regions of the board a move leaves and
+     * enters, instead of the whole level, so moves in different parts of a
+     * large board can be made at the same time. Can not be combined with the
+     * command queue. Must be called while the level is stopped.
+     *
+     * @param regionSize
+     *            The width and height of a region, in squares.
+     */
+    public void enableRegionLocking(int regionSize) {
+        assert regionSize > 0;
+        synchronized (startStopLock) {
+            assert !isInProgress();
+            assert commandQueue == null;
+            assert npcTicker == null;
+            assert history == null;
+            regionLocks = new RegionLocks(board.getWidth(), board.getHeight(), regionSize);
+        }
+    }
+
+    /**
+     * Makes this level move its NPCs in ticks: every tick, all NPCs whose
+     * move is due decide on their move in parallel, while no unit can move,
+     * after which their moves are applied in the order of the NPCs. Can not
+     * be combined with region locking. Must be called before the level is
+     * first started.
+     *
+     * @param tickInterval
+     *            The time between ticks in milliseconds.
+     */
+    public void enableTickMode(long tickInterval) {
+        synchronized (startStopLock) {
+            assert !isInProgress();
+            assert regionLocks == null;
+            assert !started;
+            npcScheduler.shutdown();
+            npcTicker = new NpcTicker(this, npcs, tickInterval);
+            npcScheduler = npcTicker;
+        }
+    }
+
+    /**
+     * Lets the NPCs move by another clock, e.g. to run the level faster than
+     * real time or to advance it by hand. The moves recorded for rewinding
+     * are timed by the clock as well. Only while the level is not in
+     * progress.
+     *
+     * @param gameClock
+     *            The clock.
+     */
+    public void setClock(GameClock gameClock) {
+        synchronized (startStopLock) {
+            assert gameClock != null;
+            assert !isInProgress();
+            clock = gameClock;
+        }
+    }
+
+    /**
+     * @return The clock the NPCs of this level move by.
+     */
+    public GameClock getClock() {
+        return clock;
+    }
+
+    /**
+     * Moves every NPC on a virtual thread of its own, which sleeps until its
+     * next move is due, instead of on the pool of platform threads the
+     * level has by default. This makes it feasible to run very many levels
+     * in one JVM. Virtual threads need Java 21 or later; on older JVMs the
+     * level keeps its pool.
+     *
+     * @return <code>true</code> iff the NPCs will move on virtual threads.
+     */
+    public boolean enableVirtualThreads() {
+        synchronized (startStopLock) {
+            assert !started;
+            assert npcTicker == null;
+            if (!VirtualThreads.isAvailable()) {
+                return false;
+            }
+            useThreadPerNpc(VirtualThreads.newThreadFactory("npc-"));
+            return true;
+        }
+    }
+
+    /**
+     * Moves every NPC on a thread of its own, created by the given factory.
+     *
+     * @param threadFactory
+     *            Creates the threads moving the NPCs.
+     */
+    void useThreadPerNpc(ThreadFactory threadFactory) {
+        synchronized (startStopLock) {
+            assert !started;
+            npcScheduler.shutdown();
+            npcScheduler = new VirtualThreadNpcScheduler(this, npcs, threadFactory);
+        }
+    }
+
+    /**
+     * Returns the watchdog deciding the moves of the NPCs, to set its
+     * budgets and read how late the NPCs move and how long their AIs take.
+     *
+     * @return The watchdog of this level.
+     */
+    public NpcWatchdog getWatchdog() {
+        return watchdog;
+    }
+
+    /**
+     * Returns the time the NPCs took to decide on their moves per tick, which
+     * is only recorded in tick mode.
+     *
+     * @return The decision times of all ticks so far.
+     */
+    public LatencyHistogram getNpcDecisionTime() {
+        if (npcTicker == null) {
+            return new LatencyHistogram();
+        }
+        return npcTicker.getDecisionTime();
+    }
+
+    /**
+     * Returns the time between requesting and applying moves, which includes
+     * waiting for the move lock or the simulation thread.
+     *
+     * @return The latencies of all moves on this level.
+     */
+    public LatencyHistogram getMoveLatency() {
+        return moveLatency;
+    }
+
+    /**
+     * Returns the time between requesting and applying moves of players,
+     * the input latency of the game. Player moves take precedence over NPC
+     * moves: a player move waits at most for the one move, batch of queued
+     * moves or NPC tick that is being applied when it arrives, never for
+     * NPC moves that arrived before it but have not started yet. With
+     * region locking, moves only wait for moves in the same regions.
+     *
+     * @return The latencies of the moves of players on this level.
+     */
+    public LatencyHistogram getPlayerMoveLatency() {
+        return playerMoveLatency;
+    }
+
+    /**
+     * @return The amount of NPC moves that had to wait because a player
+     *         move took precedence.
+     */
+    public long getPreemptedNpcMoves() {
+        return admission.getPreempted();
+    }
+
+    /**
+     * Moves the unit into the given direction if possible and handles all
+     * collisions. If the command queue is enabled, the move is only queued
+     * and applied later by the simulation thread.
+     *
+     * @param unit
+     *            The unit to move.
+     * @param direction
+     *            The direction to move the unit in.
+     */
+    public void move(Unit unit, Direction direction) {
+        submitMove(unit, direction);
+    }
+
+    /**
+     * Moves the unit into the given direction if possible and handles all
+     * collisions, like {@link #move(Unit, Direction)}, and reports when the
+     * move was applied.
+     *
+     * @param unit
+     *            The unit to move.
+     * @param direction
+     *            The direction to move the unit in.
+     * @return A future completed with <code>true</code> once the unit moved,
+     *         or with <code>false</code> if it could not move or the move was
+     *         refused. The future is already complete unless the command queue
+     *         is enabled.
+     */
+    public CompletableFuture<Boolean> submitMove(Unit unit, Direction direction) {
+        assert unit != null;
+        assert direction != null;
+        assert unit.hasSquare();
+
+        if (!isInProgress()) {
+            return CompletableFuture.completedFuture(false);
+        }
+        MoveCommandQueue queue = commandQueue;
+        if (queue != null) {
+            return queue.submit(unit, direction);
+        }
+
+        long requested = System.nanoTime();
+        boolean moved;
+        RegionLocks locks = regionLocks;
+        if (locks == null) {
+            moved = applyAdmitted(unit, direction);
+        } else {
+            moved = applyMove(unit, direction, locks);
+        }
+        recordLatency(unit, System.nanoTime() - requested);
+        publishSnapshot();
+        updateObservers();
+        return CompletableFuture.completedFuture(moved);
+    }
+
+    /**
+     * Moves a unit once its move is admitted, players first, while holding
+     * the move lock.
+     *
+     * @param unit
+     *            The unit to move.
+     * @param direction
+     *            The direction to move the unit in.
+     * @return <code>true</code> iff the unit moved.
+     */
+    private boolean applyAdmitted(Unit unit, Direction direction) {
+        admission.enter(unit instanceof Player);
+        try {
+            synchronized (moveLock) {
+                return applyMove(unit, direction);
+            }
+        } finally {
+            admission.exit();
+        }
+    }
+
+    /**
+     * Records the time between requesting and applying a move.
+     *
+     * @param unit
+     *            The unit that moved.
+     * @param latency
+     *            The time in nanoseconds.
+     */
+    private void recordLatency(Unit unit, long latency) {
+        moveLatency.record(latency);
+        if (unit instanceof Player) {
+            playerMoveLatency.record(latency);
+        }
+    }
+
+    /**
+     * Moves many units at once, e.g. all players of a multiplayer game
+     * after a round of input. The moves are applied in order, like separate
+     * calls to {@link #move(Unit, Direction)}, but the level is locked, and
+     * a snapshot published and the observers updated, only once for the
+     * whole batch. If the command queue is enabled, the moves are queued.
+     *
+     * @param units
+     *            The units to move.
+     * @param directions
+     *            Per unit, the direction to move it in.
+     */
+    public void moveAll(List<? extends Unit> units, List<Direction> directions) {
+        assert units.size() == directions.size();
+        if (!isInProgress()) {
+            return;
+        }
+        MoveCommandQueue queue = commandQueue;
+        if (queue != null) {
+            for (int i = 0; i < units.size(); i++) {
+                queue.submit(units.get(i), directions.get(i));
+            }
+            return;
+        }
+        long requested = System.nanoTime();
+        admission.enter(anyPlayer(units));
+        try {
+            exclusively(() -> applyAll(units, directions));
+        } finally {
+            admission.exit();
+        }
+        long latency = System.nanoTime() - requested;
+        for (Unit unit : units) {
+            recordLatency(unit, latency);
+        }
+        publishSnapshot();
+        updateObservers();
+    }
+
+    /**
+     * Applies moves in order. The caller makes sure no other unit moves.
+     *
+     * @param units
+     *            The units to move.
+     * @param directions
+     *            Per unit, the direction to move it in.
+     */
+    private void applyAll(List<? extends Unit> units, List<Direction> directions) {
+        for (int i = 0; i < units.size(); i++) {
+            Unit unit = units.get(i);
+            if (isInProgress() && unit.hasSquare()) {
+                applyMove(unit, directions.get(i));
+            }
+        }
+    }
+
+    /**
+     * Lets NPCs decide on their moves in parallel and then applies those
+     * moves in order. The move lock is held throughout, so all NPCs see the
+     * same board and no other move can interfere.
+     *
+     * @param moving
+     *            The indices of the NPCs to move, in the order their moves
+     *            are applied.
+     * @param late
+     *            Per NPC to move, how late its move is in nanoseconds.
+     * @param deciders
+     *            The threads to run the AIs on.
+     * @param decisionTime
+     *            Records the time it took all AIs to decide.
+     */
+    void tickNpcs(int[] moving, long[] late, Executor deciders, LatencyHistogram decisionTime) {
+        admission.enter(false);
+        try {
+            decideAndMove(moving, late, deciders, decisionTime);
+        } finally {
+            admission.exit();
+        }
+        publishSnapshot();
+        updateObservers();
+    }
+
+    /**
+     * Lets NPCs decide on their moves in parallel and then applies those
+     * moves in order, while holding the move lock.
+     *
+     * @param moving
+     *            The indices of the NPCs to move.
+     * @param late
+     *            Per NPC to move, how late its move is in nanoseconds.
+     * @param deciders
+     *            The threads to run the AIs on.
+     * @param decisionTime
+     *            Records the time it took all AIs to decide.
+     */
+    private void decideAndMove(int[] moving, long[] late, Executor deciders,
+                               LatencyHistogram decisionTime) {
+        synchronized (moveLock) {
+            if (!isInProgress()) {
+                return;
+            }
+            long start = System.nanoTime();
+            List<CompletableFuture<Direction>> decisions = new ArrayList<>(moving.length);
+            for (int i = 0; i < moving.length; i++) {
+                int npc = moving[i];
+                long lateness = late[i];
+                decisions.add(CompletableFuture.supplyAsync(
+                    () -> watchdog.nextMove(npc, lateness), deciders));
+            }
+            CompletableFuture.allOf(decisions.toArray(new CompletableFuture<?>[0])).join();
+            decisionTime.record(System.nanoTime() - start);
+            for (int i = 0; i < moving.length; i++) {
+                Direction direction = decisions.get(i).join();
+                Ghost npc = npcs.get(moving[i]);
+                if (direction != null && npc.hasSquare()) {
+                    applyMove(npc, direction);
+                }
+            }
+        }
+    }
+
+    /**
+     * Moves the unit while holding the locks of the regions it leaves and
+     * enters. If another thread moved the unit before the locks were taken,
+     * the regions are determined again.
+     *
+     * @param unit
+     *            The unit to move.
+     * @param direction
+     *            The direction to move the unit in.
+     * @param locks
+     *            The locks of the regions.
+     * @return <code>true</code> iff the unit moved.
+     */
+    private boolean applyMove(Unit unit, Direction direction, RegionLocks locks) {
+        while (true) {
+            Square source = unit.getSquare();
+            int first = locks.regionOf(source);
+            int second = locks.regionOf(source.getSquareAt(direction));
+            locks.lock(first, second);
+            try {
+                if (unit.getSquare() == source) {
+                    return applyMove(unit, direction);
+                }
+            } finally {
+                locks.unlock(first, second);
+            }
+        }
+    }
+
+    /**
+     * Applies a batch of queued moves while holding the move lock once, and
+     * publishes a single snapshot afterwards.
+     *
+     * @param batch
+     *            The moves to apply, in order.
+     */
+    void applyMoves(List<MoveCommand> batch) {
+        admission.enter(anyPlayerMove(batch));
+        try {
+            synchronized (moveLock) {
+                for (MoveCommand command : batch) {
+                    Unit unit = command.getUnit();
+                    if (isInProgress() && unit.hasSquare()) {
+                        command.setMoved(applyMove(unit, command.getDirection()));
+                    }
+                    recordLatency(unit, System.nanoTime() - command.getSubmitted());
+                }
+            }
+        } finally {
+            admission.exit();
+        }
+        publishSnapshot();
+        updateObservers();
+    }
+
+    /**
+     * @param units
+     *            The units of a batch of moves.
+     * @return <code>true</code> iff any of them is a player, so the batch is
+     *         admitted with the priority of a player move.
+     */
+    static boolean anyPlayer(List<? extends Unit> units) {
+        for (Unit unit : units) {
+            if (unit instanceof Player) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @param batch
+     *            A batch of queued moves.
+     * @return <code>true</code> iff any of them moves a player, so the batch
+     *         is admitted with the priority of a player move.
+     */
+    static boolean anyPlayerMove(List<MoveCommand> batch) {
+        for (MoveCommand command : batch) {
+            if (command.getUnit() instanceof Player) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Moves the unit into the given direction if possible and handles all
+     * collisions. Must be called while holding the move lock, or the locks of
+     * the regions the unit leaves and enters.
+     *
+     * @param unit
+     *            The unit to move.
+     * @param direction
+     *            The direction to move the unit in.
+     * @return <code>true</code> iff the unit moved.
+     */
+    private boolean applyMove(Unit unit, Direction direction) {
+        worldVersion.incrementAndGet();
+        Square location = unit.getSquare();
+        RewindBuffer moves = history;
+        if (moves != null) {
+            recordMove(moves, unit, location);
+        }
+        unit.setDirection(direction);
+        Square destination = location.getSquareAt(direction);
+
+        if (!destination.isAccessibleTo(unit)) {
+            recordChange(unit, ImmutableList.<Unit>of(), -1);
+            return false;
+        }
+        List<Unit> occupants = destination.getOccupants();
+        unit.occupy(destination);
+        events.publish(EventType.MOVE, unit, null, destination.getX(), destination.getY());
+        boolean unitAlive = isLivingPlayer(unit);
+        int eaten = -1;
+        for (Unit occupant : occupants) {
+            eaten = Math.max(eaten, collide(unit, occupant, destination));
+        }
+        if (unitAlive && !isLivingPlayer(unit)) {
+            events.publish(EventType.DEATH, unit, ((Player) unit).getKiller(),
+                destination.getX(), destination.getY());
+        }
+        recordChange(unit, occupants, eaten);
+        return true;
+    }
+
+    /**
+     * Records the effect of a move for the next snapshot, once the move is
+     * complete and while still holding its locks, so snapshots only show
+     * whole moves and never have to look at the board.
+     *
+     * @param unit
+     *            The unit that moved.
+     * @param occupants
+     *            The units it collided with.
+     * @param pellet
+     *            The index of the pellet it ate, or -1.
+     */
+    private void recordChange(Unit unit, List<Unit> occupants, int pellet) {
+        List<Unit> candidates = new ArrayList<>(occupants.size() + 1);
+        candidates.add(unit);
+        candidates.addAll(occupants);
+        List<Unit> involved = new ArrayList<>(candidates.size());
+        int[] indices = new int[candidates.size()];
+        for (Unit candidate : candidates) {
+            Integer index = snapshotIndex(candidate);
+            if (index != null) {
+                indices[involved.size()] = index;
+                involved.add(candidate);
+            }
+        }
+        changes.add(BoardSnapshot.Change.of(board.getWidth(), pellet,
+            Arrays.copyOf(indices, involved.size()), involved));
+    }
+
+    /**
+     * @param unit
+     *            A unit.
+     * @return The index of the unit in a snapshot: <code>i</code> for the
+     *         i-th player, <code>-i - 1</code> for the i-th NPC, or
+     *         <code>null</code> if the unit is neither.
+     */
+    private Integer snapshotIndex(Unit unit) {
+        if (unit instanceof Player) {
+            return playerIndices.get(unit);
+        }
+        int npc = npcIndex(unit);
+        if (npc < 0) {
+            return null;
+        }
+        return -npc - 1;
+    }
+
+    /**
+     * Handles the collision of a unit that moved with a unit on its new
+     * square, and keeps track of the pellets eaten and players killed.
+     *
+     * @param unit
+     *            The unit that moved.
+     * @param occupant
+     *            The unit it collided with.
+     * @param square
+     *            The square they are on.
+     * @return The index of the pellet that was eaten, or -1.
+     */
+    private int collide(Unit unit, Unit occupant, Square square) {
+        boolean occupantAlive = isLivingPlayer(occupant);
+        RewindBuffer moves = history;
+        if (moves != null) {
+            recordPlayer(moves, occupant);
+        }
+        collisions.collide(unit, occupant);
+        events.publish(EventType.COLLISION, unit, occupant, square.getX(), square.getY());
+        int eaten = -1;
+        if (occupant instanceof Pellet && !occupant.hasSquare()) {
+            pelletCount.decrementAndGet();
+            eaten = snapshot.getPelletIndex(square);
+            if (moves != null) {
+                moves.pellet(eaten);
+            }
+            events.publish(EventType.PELLET_EATEN, unit, occupant, square.getX(),
+                square.getY());
+        }
+        if (occupantAlive && !isLivingPlayer(occupant)) {
+            events.publish(EventType.DEATH, occupant, unit, square.getX(), square.getY());
+        }
+        return eaten;
+    }
+
+    /**
+     * Records the start of a move.
+     *
+     * @param moves
+     *            The history to record in.
+     * @param unit
+     *            The unit that moves.
+     * @param location
+     *            The square it is leaving.
+     */
+    private void recordMove(RewindBuffer moves, Unit unit, Square location) {
+        boolean player = unit instanceof Player;
+        int index;
+        if (player) {
+            index = playerIndices.get(unit);
+        } else {
+            index = npcIndex(unit);
+        }
+        moves.move(player, index, location.getY() * board.getWidth() + location.getX(),
+            unit.getDirection(), clock.nanoTime());
+        recordPlayer(moves, unit);
+    }
+
+    /**
+     * Records the state of a player before a move changes it.
+     *
+     * @param moves
+     *            The history to record in.
+     * @param unit
+     *            The unit involved in the move, which may be a player.
+     */
+    private void recordPlayer(RewindBuffer moves, Unit unit) {
+        if (unit instanceof Player) {
+            Player player = (Player) unit;
+            moves.player(playerIndices.get(player), player.getScore(), player.isAlive(),
+                npcIndex(player.getKiller()));
+        }
+    }
+
+    /**
+     * @param unit
+     *            A unit, or <code>null</code>.
+     * @return The index of the unit in the list of NPCs, or -1 if it is not
+     *         an NPC of this level.
+     */
+    private int npcIndex(Unit unit) {
+        Integer index = npcIndices.get(unit);
+        if (index == null) {
+            return -1;
+        }
+        return index;
+    }
+
+    /**
+     * @param unit
+     *            A unit.
+     * @return <code>true</code> iff the unit is a player that is alive.
+     */
+    private static boolean isLivingPlayer(Unit unit) {
+        return unit instanceof Player && ((Player) unit).isAlive();
+    }
+
+    /**
+     * Starts or resumes this level, allowing movement and (re)starting the
+     * NPCs.
+     */
+    public void start() {
+        synchronized (startStopLock) {
+            assert !disposed;
+            if (isInProgress()) {
+                return;
+            }
+            if (commandQueue != null) {
+                commandQueue.start();
+            }
+            npcScheduler.start();
+            started = true;
+            inProgress = true;
+            updateObservers();
+        }
+    }
+
+    /**
+     * Stops or pauses this level, no longer allowing any movement on the board
+     * and pausing all NPCs. The threads moving the NPCs and applying queued
+     * moves are kept, so the level can be resumed cheaply, and every NPC
+     * resumes with the time it still had to wait for its next move.
+     */
+    public void stop() {
+        synchronized (startStopLock) {
+            if (!isInProgress()) {
+                return;
+            }
+            npcScheduler.stop();
+            inProgress = false;
+        }
+    }
+
+    /**
+     * Stops this level for good and releases all threads it uses. The level
+     * can not be started again afterwards.
+     */
+    public void dispose() {
+        synchronized (startStopLock) {
+            stop();
+            npcScheduler.shutdown();
+            if (commandQueue != null) {
+                commandQueue.stop();
+            }
+            disposed = true;
+        }
+    }
+
+    /**
+     * Returns whether this level is in progress, i.e. whether moves can be made
+     * on the board.
+     *
+     * @return <code>true</code> iff this level is in progress.
+     */
+    public boolean isInProgress() {
+        return inProgress;
+    }
+
+    /**
+     * Updates the observers about the state of this level.
+     */
+    private void updateObservers() {
+        if (!isAnyPlayerAlive()) {
+            for (LevelObserver observer : observers) {
+                observer.levelLost();
+            }
         }
+        if (remainingPellets() == 0) {
+            for (LevelObserver observer : observers) {
+                observer.levelWon();
+            }
+        }
+    }
+
+    /**
+     * Returns <code>true</code> iff at least one of the players in this level
+     * is alive.
+     *
+     * @return <code>true</code> if at least one of the registered players is
+     *         alive.
+     */
+    public boolean isAnyPlayerAlive() {
+        return !livingPlayers.isEmpty();
+    }
+
+    /**
+     * @return The amount of registered players that are alive.
+     */
+    public int getLivingPlayerCount() {
+        return livingPlayers.size();
+    }
+
+    /**
+     * Counts the pellets remaining on the board.
+     *
+     * @return The amount of pellets remaining on the board.
+     */
+    public int remainingPellets() {
+        int pellets = pelletCount.get();
+        assert pellets >= 0;
+        return pellets;
     }
 
     /**
@@ -5,6 +5,7 @@ import java.util.Map;
 import java.util.Optional;
 
 import jpacman.npc.Ghost;
+import jpacman.npc.WorldQuery;
 import jpacman.points.PointCalculator;
 import jpacman.sprite.PacManSprites;
 import jpacman.sprite.Sprite;
@@ -144,7 +145,7 @@ public class LevelFactory {
         }
 
         @Override
-        public Optional<Direction> nextAiMove() {
+        public Optional<Direction> nextAiMove(WorldQuery world) {
             return Optional.empty();
         }
     }
@@ -0,0 +1,475 @@
+package jpacman.level;
+
+import java.util.Arrays;
+import java.util.List;
+
+import jpacman.board.Board;
+import jpacman.board.Direction;
+import jpacman.board.Square;
+import jpacman.board.Unit;
+import jpacman.npc.Ghost;
+import jpacman.sprite.Sprite;
+
+/**
+ * An independent copy of the dynamic state of a level, for bots and ghosts
+ * that want to try out moves before making them. A fork plays by the rules
+ * of the level: units cannot enter walls, players eat the pellets they meet
+ * and die when they meet a ghost. Points are the values of the pellets, as
+ * with the default point calculator.
+ *
+ * <p>
+ * A fork is not a level. It shares everything that never changes with the
+ * level it came from (which cells are walls, where every direction leads and
+ * where the pellets started) and keeps the rest in a few small arrays: the
+ * cell and direction of every unit, the score, life and killer of every
+ * player, and a bitmap of the pellets. Forking a fork copies these arrays,
+ * except for the pellet bitmap, which is shared until either copy eats a
+ * pellet. Forks cost a few hundred bytes and can be made by the thousands.
+ * </p>
+ *
+ * <p>
+ * Units are numbered like in a {@link BoardSnapshot}: the players in order
+ * of registration, then the ghosts. A fork must be used by one thread at a
+ * time, but different forks of the same level can be used concurrently.
+ * </p>
+ */
+public final class LevelFork {
+
+    /**
+     * The amount of directions.
+     */
+    private static final int DIRECTIONS = Direction.values().length;
+
+    /**
+     * Marks a unit off the board, a player without killer or a cell without
+     * pellet.
+     */
+    private static final int NONE = -1;
+
+    /**
+     * The parts of a level that never change, shared by all of its forks.
+     */
+    static final class Topology {
+
+        /**
+         * A unit that belongs to nobody, used to find out which squares no
+         * unit can ever enter.
+         */
+        private static final Unit PROBE = new Unit() {
+            @Override
+            public Sprite getSprite() {
+                return null;
+            }
+        };
+
+        /**
+         * The width of the board.
+         */
+        private final int width;
+
+        /**
+         * Per cell and direction, the cell a unit moving that way ends up on,
+         * or -1 if it cannot go there.
+         */
+        private final int[] neighbours;
+
+        /**
+         * Per cell, the index of the pellet that started on it, or -1.
+         */
+        private final int[] pelletSlots;
+
+        /**
+         * Per pellet, its value in points.
+         */
+        private final int[] pelletValues;
+
+        /**
+         * Finds the neighbours of every cell and the pellets of a level.
+         *
+         * @param board
+         *            The board of the level.
+         * @param snapshot
+         *            A snapshot of the level, to find the pellets.
+         */
+        Topology(Board board, BoardSnapshot snapshot) {
+            this.width = board.getWidth();
+            this.neighbours = new int[width * board.getHeight() * DIRECTIONS];
+            for (int y = 0; y < board.getHeight(); y++) {
+                for (int x = 0; x < width; x++) {
+                    Square square = board.squareAt(x, y);
+                    for (Direction direction : Direction.values()) {
+                        Square next = square.getSquareAt(direction);
+                        int cell = NONE;
+                        if (next.isAccessibleTo(PROBE)) {
+                            cell = next.getY() * width + next.getX();
+                        }
+                        neighbours[(y * width + x) * DIRECTIONS + direction.ordinal()] = cell;
+                    }
+                }
+            }
+            this.pelletSlots = new int[width * board.getHeight()];
+            Arrays.fill(pelletSlots, NONE);
+            this.pelletValues = new int[snapshot.getPelletSlots()];
+            for (int i = 0; i < pelletValues.length; i++) {
+                pelletSlots[snapshot.getPelletY(i) * width + snapshot.getPelletX(i)] = i;
+                pelletValues[i] = snapshot.getPellet(i).getValue();
+            }
+        }
+
+        /**
+         * @param unit
+         *            A unit.
+         * @return The cell the unit is on, or -1 if it is not on the board.
+         */
+        int cellOf(Unit unit) {
+            if (!unit.hasSquare()) {
+                return NONE;
+            }
+            return unit.getSquare().getY() * width + unit.getSquare().getX();
+        }
+    }
+
+    /**
+     * The parts of the level that never change.
+     */
+    private final Topology topology;
+
+    /**
+     * The amount of players, which come first among the units.
+     */
+    private final int playerCount;
+
+    /**
+     * Per unit, the cell it is on, or -1.
+     */
+    private final int[] cells;
+
+    /**
+     * Per unit, the ordinal of the direction it is facing.
+     */
+    private final byte[] directions;
+
+    /**
+     * Per player, the score.
+     */
+    private final int[] scores;
+
+    /**
+     * Per player, whether it is alive.
+     */
+    private final boolean[] alive;
+
+    /**
+     * Per player, the unit index of the ghost that killed it, or -1.
+     */
+    private final int[] killers;
+
+    /**
+     * Per pellet, one bit that is set while it is on the board.
+     */
+    private long[] pellets;
+
+    /**
+     * <code>true</code> iff another fork may be reading the pellet bitmap,
+     * so it has to be copied before it changes.
+     */
+    private boolean pelletsShared;
+
+    /**
+     * The amount of pellets on the board.
+     */
+    private int remainingPellets;
+
+    /**
+     * Copies the state of a level. The caller makes sure no unit moves.
+     *
+     * @param topology
+     *            The parts of the level that never change.
+     * @param players
+     *            The players of the level.
+     * @param ghosts
+     *            The ghosts of the level.
+     * @param snapshot
+     *            A snapshot of the level, to find the pellets.
+     */
+    LevelFork(Topology topology, List<Player> players, List<Ghost> ghosts,
+              BoardSnapshot snapshot) {
+        this.topology = topology;
+        this.playerCount = players.size();
+        int units = playerCount + ghosts.size();
+        this.cells = new int[units];
+        this.directions = new byte[units];
+        this.scores = new int[playerCount];
+        this.alive = new boolean[playerCount];
+        this.killers = new int[playerCount];
+        for (int i = 0; i < units; i++) {
+            Unit unit = unitAt(players, ghosts, i);
+            cells[i] = topology.cellOf(unit);
+            directions[i] = (byte) unit.getDirection().ordinal();
+        }
+        for (int i = 0; i < playerCount; i++) {
+            Player player = players.get(i);
+            scores[i] = player.getScore();
+            alive[i] = player.isAlive();
+            killers[i] = NONE;
+            if (player.getKiller() != null) {
+                killers[i] = playerCount + ghosts.indexOf(player.getKiller());
+            }
+        }
+        this.pellets = new long[(snapshot.getPelletSlots() + Long.SIZE - 1) / Long.SIZE];
+        copyPellets(snapshot);
+    }
+
+    /**
+     * Sets the bits of the pellets that are on the board.
+     *
+     * @param snapshot
+     *            A snapshot of the level, to find the pellets.
+     */
+    private void copyPellets(BoardSnapshot snapshot) {
+        for (int i = 0; i < snapshot.getPelletSlots(); i++) {
+            if (snapshot.getPellet(i).hasSquare()) {
+                pellets[i / Long.SIZE] |= 1L << i;
+                remainingPellets++;
+            }
+        }
+    }
+
+    /**
+     * Copies another fork, sharing its pellet bitmap.
+     *
+     * @param original
+     *            The fork to copy.
+     */
+    private LevelFork(LevelFork original) {
+        this.topology = original.topology;
+        this.playerCount = original.playerCount;
+        this.cells = original.cells.clone();
+        this.directions = original.directions.clone();
+        this.scores = original.scores.clone();
+        this.alive = original.alive.clone();
+        this.killers = original.killers.clone();
+        this.pellets = original.pellets;
+        this.pelletsShared = true;
+        this.remainingPellets = original.remainingPellets;
+    }
+
+    /**
+     * @param players
+     *            The players.
+     * @param ghosts
+     *            The ghosts.
+     * @param unit
+     *            The index of a unit.
+     * @return The player or ghost with the given index.
+     */
+    private static Unit unitAt(List<Player> players, List<Ghost> ghosts, int unit) {
+        if (unit < players.size()) {
+            return players.get(unit);
+        }
+        return ghosts.get(unit - players.size());
+    }
+
+    /**
+     * Makes an independent copy of this fork.
+     *
+     * @return The copy.
+     */
+    public LevelFork fork() {
+        pelletsShared = true;
+        return new LevelFork(this);
+    }
+
+    /**
+     * @return The amount of players and ghosts.
+     */
+    public int getUnitCount() {
+        return cells.length;
+    }
+
+    /**
+     * @return The amount of players, which come first among the units.
+     */
+    public int getPlayerCount() {
+        return playerCount;
+    }
+
+    /**
+     * @param unit
+     *            The index of a unit.
+     * @return <code>true</code> iff the unit is on the board.
+     */
+    public boolean hasSquare(int unit) {
+        return cells[unit] != NONE;
+    }
+
+    /**
+     * @param unit
+     *            The index of a unit on the board.
+     * @return The x position of the unit.
+     */
+    public int getX(int unit) {
+        assert hasSquare(unit);
+        return cells[unit] % topology.width;
+    }
+
+    /**
+     * @param unit
+     *            The index of a unit on the board.
+     * @return The y position of the unit.
+     */
+    public int getY(int unit) {
+        assert hasSquare(unit);
+        return cells[unit] / topology.width;
+    }
+
+    /**
+     * @param unit
+     *            The index of a unit.
+     * @return The direction the unit is facing.
+     */
+    public Direction getDirection(int unit) {
+        return Direction.values()[directions[unit]];
+    }
+
+    /**
+     * @param player
+     *            The index of a player.
+     * @return The score of the player.
+     */
+    public int getScore(int player) {
+        return scores[player];
+    }
+
+    /**
+     * @param player
+     *            The index of a player.
+     * @return <code>true</code> iff the player is alive.
+     */
+    public boolean isAlive(int player) {
+        return alive[player];
+    }
+
+    /**
+     * @param player
+     *            The index of a player.
+     * @return The unit index of the ghost that killed the player, or -1.
+     */
+    public int getKiller(int player) {
+        return killers[player];
+    }
+
+    /**
+     * @param x
+     *            The x position of a square.
+     * @param y
+     *            The y position of a square.
+     * @return <code>true</code> iff there is a pellet on the square.
+     */
+    public boolean isPelletAt(int x, int y) {
+        int pellet = topology.pelletSlots[y * topology.width + x];
+        return pellet != NONE && (pellets[pellet / Long.SIZE] & (1L << pellet)) != 0;
+    }
+
+    /**
+     * @return The amount of pellets on the board.
+     */
+    public int remainingPellets() {
+        return remainingPellets;
+    }
+
+    /**
+     * @return <code>true</code> iff a player is alive and there are pellets
+     *         left, just like a level that is in progress.
+     */
+    public boolean isInProgress() {
+        if (remainingPellets == 0) {
+            return false;
+        }
+        for (boolean living : alive) {
+            if (living) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Moves a unit one square, if it can go there, and handles what it meets
+     * there. Nothing moves once the game in this fork is over.
+     *
+     * @param unit
+     *            The index of a unit on the board.
+     * @param direction
+     *            The direction to move in.
+     * @return <code>true</code> iff the unit moved.
+     */
+    public boolean move(int unit, Direction direction) {
+        assert hasSquare(unit);
+        assert direction != null;
+
+        if (!isInProgress()) {
+            return false;
+        }
+        directions[unit] = (byte) direction.ordinal();
+        int destination = topology.neighbours[cells[unit] * DIRECTIONS + direction.ordinal()];
+        if (destination == NONE) {
+            return false;
+        }
+        cells[unit] = destination;
+        if (unit < playerCount) {
+            eatPellet(unit, destination);
+            for (int ghost = playerCount; ghost < cells.length; ghost++) {
+                if (cells[ghost] == destination) {
+                    kill(unit, ghost);
+                }
+            }
+        } else {
+            for (int player = 0; player < playerCount; player++) {
+                if (cells[player] == destination) {
+                    kill(player, unit);
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Lets a player eat the pellet on a cell, if there is one.
+     *
+     * @param player
+     *            The index of the player.
+     * @param cell
+     *            The cell the player entered.
+     */
+    private void eatPellet(int player, int cell) {
+        int pellet = topology.pelletSlots[cell];
+        if (pellet == NONE) {
+            return;
+        }
+        long bit = 1L << pellet;
+        if ((pellets[pellet / Long.SIZE] & bit) == 0) {
+            return;
+        }
+        if (pelletsShared) {
+            pellets = pellets.clone();
+            pelletsShared = false;
+        }
+        pellets[pellet / Long.SIZE] &= ~bit;
+        remainingPellets--;
+        scores[player] += topology.pelletValues[pellet];
+    }
+
+    /**
+     * Kills a player.
+     *
+     * @param player
+     *            The index of the player.
+     * @param ghost
+     *            The index of the ghost it met.
+     */
+    private void kill(int player, int ghost) {
+        alive[player] = false;
+        killers[player] = ghost;
+    }
+}
@@ -0,0 +1,130 @@
+package jpacman.level;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.function.Supplier;
+
+/**
+ * A pool of ready levels of the same map, for running many games one after
+ * the other without parsing the map and creating its squares, pellets,
+ * ghosts and sprites every time. Levels returned to the pool are
+ * {@link Level#reset() reset}, and handed out again by the next
+ * {@link #acquire()}.
+ *
+ * <p>
+ * The players registered on a level stay registered when it is reset, so a
+ * game for a pooled level should reuse them, see
+ * {@link jpacman.game.GameFactory#createSinglePlayerGame(LevelPool,
+ * jpacman.points.PointCalculator)}.
+ * </p>
+ */
+public class LevelPool {
+
+    /**
+     * Creates new levels of the map.
+     */
+    private final Supplier<Level> factory;
+
+    /**
+     * The maximum amount of levels kept in the pool.
+     */
+    private final int capacity;
+
+    /**
+     * The levels waiting to be used.
+     */
+    private final Deque<Level> idle;
+
+    /**
+     * The amount of levels created by this pool.
+     */
+    private int created;
+
+    /**
+     * Creates a new, empty pool.
+     *
+     * @param factory
+     *            Creates new levels of the map, e.g. by parsing it.
+     * @param capacity
+     *            The maximum amount of levels kept in the pool. Levels
+     *            returned to a full pool are disposed.
+     */
+    public LevelPool(Supplier<Level> factory, int capacity) {
+        assert factory != null;
+        assert capacity > 0;
+
+        this.factory = factory;
+        this.capacity = capacity;
+        this.idle = new ArrayDeque<>(capacity);
+    }
+
+    /**
+     * Creates levels until the pool is full, so that later games do not have
+     * to wait for them.
+     */
+    public synchronized void fill() {
+        while (idle.size() < capacity) {
+            idle.push(create());
+        }
+    }
+
+    /**
+     * Takes a level from the pool, or creates a new one if the pool is
+     * empty.
+     *
+     * @return A level in its initial state.
+     */
+    public Level acquire() {
+        synchronized (this) {
+            if (!idle.isEmpty()) {
+                return idle.pop();
+            }
+        }
+        return create();
+    }
+
+    /**
+     * Resets a level and returns it to the pool. If the pool is full the
+     * level is disposed instead.
+     *
+     * @param level
+     *            A level acquired from this pool, that is no longer used.
+     */
+    public void release(Level level) {
+        assert level != null;
+
+        level.reset();
+        synchronized (this) {
+            if (idle.size() < capacity) {
+                idle.push(level);
+                return;
+            }
+        }
+        level.dispose();
+    }
+
+    /**
+     * @return The amount of levels waiting to be used.
+     */
+    public synchronized int getIdleCount() {
+        return idle.size();
+    }
+
+    /**
+     * @return The amount of levels created by this pool so far.
+     */
+    public synchronized int getCreatedCount() {
+        return created;
+    }
+
+    /**
+     * @return A new level.
+     */
+    private Level create() {
+        Level level = factory.get();
+        synchronized (this) {
+            created++;
+        }
+        return level;
+    }
+}
@@ -0,0 +1,303 @@
+package jpacman.level;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+
+import jpacman.board.Board;
+import jpacman.board.Direction;
+import jpacman.board.Square;
+import jpacman.board.Unit;
+import jpacman.npc.Ghost;
+
+/**
+ * Writes the dynamic state of a level into a compact binary form, and reads
+ * it back into a level made from the same map. The state consists of the
+ * position and direction of every unit, the score, life and killer of every
+ * player, the time every NPC still has to wait for its next move, the pellets
+ * still on the board and the state of the random generators.
+ *
+ * <p>
+ * The state is written to and read from a {@link ByteBuffer} at its current
+ * position, without any intermediate copies, so it can go straight into a
+ * direct or memory mapped buffer. All values are fixed size: a header of six
+ * ints (magic, width, height, players, ghosts, pellets), then per player its
+ * cell, direction, score, life and killer, per ghost its cell, direction and
+ * remaining delay, the pellet bitmap and finally the random generators: their
+ * amount and the state of the generator of every ghost.
+ * Cells are numbered row by row, -1 meaning off the board.
+ * </p>
+ */
+final class LevelState {
+
+    /**
+     * Identifies a level state, "JPM" and a version number.
+     */
+    static final int MAGIC = 0x4A504D01;
+
+    /**
+     * The size of the header in bytes.
+     */
+    private static final int HEADER_SIZE = 6 * Integer.BYTES;
+
+    /**
+     * The size of the state of a player in bytes.
+     */
+    private static final int PLAYER_SIZE = 3 * Integer.BYTES + 2;
+
+    /**
+     * The size of the state of a ghost in bytes.
+     */
+    private static final int GHOST_SIZE = Integer.BYTES + 1 + Long.BYTES;
+
+    /**
+     * Marks a value that is absent: a unit off the board, a player without
+     * killer or a unit without direction.
+     */
+    private static final int NONE = -1;
+
+    /**
+     * Utility class.
+     */
+    private LevelState() {
+    }
+
+    /**
+     * @param players
+     *            The amount of players.
+     * @param ghosts
+     *            The amount of ghosts.
+     * @param pellets
+     *            The amount of pellets the level started with.
+     * @param generators
+     *            The amount of longs of random generator state.
+     * @return The size of the state in bytes.
+     */
+    static int size(int players, int ghosts, int pellets, int generators) {
+        return HEADER_SIZE + players * PLAYER_SIZE + ghosts * GHOST_SIZE
+            + words(pellets) * Long.BYTES + Integer.BYTES + generators * Long.BYTES;
+    }
+
+    /**
+     * Writes the state of a level. The caller makes sure no unit moves.
+     *
+     * @param level
+     *            The level.
+     * @param delays
+     *            Per NPC, the time it still has to wait for its next move.
+     * @param out
+     *            The buffer to write to, with enough space remaining.
+     */
+    static void write(Level level, long[] delays, ByteBuffer out) {
+        Board board = level.getBoard();
+        List<Player> players = level.registeredPlayers();
+        List<Ghost> ghosts = level.npcs();
+        BoardSnapshot snapshot = level.getSnapshot();
+        out.putInt(MAGIC).putInt(board.getWidth()).putInt(board.getHeight())
+            .putInt(players.size()).putInt(ghosts.size()).putInt(snapshot.getPelletSlots());
+        for (Player player : players) {
+            putUnit(out, board, player);
+            out.putInt(player.getScore());
+            byte alive = 0;
+            if (player.isAlive()) {
+                alive = 1;
+            }
+            out.put(alive);
+            out.putInt(ghosts.indexOf(player.getKiller()));
+        }
+        for (int i = 0; i < ghosts.size(); i++) {
+            putUnit(out, board, ghosts.get(i));
+            out.putLong(delays[i]);
+        }
+        writePellets(out, snapshot);
+        out.putInt(ghosts.size());
+        for (Ghost ghost : ghosts) {
+            out.putLong(ghost.getRandom().getState());
+        }
+    }
+
+    /**
+     * Writes a bitmap of the pellets that are on the board.
+     *
+     * @param out
+     *            The buffer to write to.
+     * @param snapshot
+     *            A snapshot of the level, to find the pellets.
+     */
+    private static void writePellets(ByteBuffer out, BoardSnapshot snapshot) {
+        int pellets = snapshot.getPelletSlots();
+        for (int word = 0; word < words(pellets); word++) {
+            long bits = 0L;
+            for (int pellet = word * Long.SIZE; pellet < Math.min(pellets, (word + 1) * Long.SIZE);
+                 pellet++) {
+                if (snapshot.getPellet(pellet).hasSquare()) {
+                    bits |= 1L << pellet;
+                }
+            }
+            out.putLong(bits);
+        }
+    }
+
+    /**
+     * Reads the state of a level written by {@link #write(Level, ByteBuffer)}
+     * into a level made from the same map, with the same amount of players
+     * registered. The caller makes sure no unit moves, and passes the delays
+     * of the NPCs on to their scheduler.
+     *
+     * @param level
+     *            The level to restore.
+     * @param in
+     *            The buffer to read from.
+     * @return Per NPC, the time it still has to wait for its next move.
+     * @throws IllegalArgumentException
+     *             If the state does not belong to a level like this one.
+     */
+    static long[] read(Level level, ByteBuffer in) {
+        Board board = level.getBoard();
+        List<Player> players = level.registeredPlayers();
+        List<Ghost> ghosts = level.npcs();
+        BoardSnapshot snapshot = level.getSnapshot();
+        if (in.getInt() != MAGIC || in.getInt() != board.getWidth()
+            || in.getInt() != board.getHeight() || in.getInt() != players.size()
+            || in.getInt() != ghosts.size() || in.getInt() != snapshot.getPelletSlots()) {
+            throw new IllegalArgumentException("State does not match this level");
+        }
+        for (Player player : players) {
+            readPlayer(in, board, player, ghosts);
+        }
+        long[] delays = new long[ghosts.size()];
+        for (int i = 0; i < ghosts.size(); i++) {
+            readUnit(in, board, ghosts.get(i));
+            delays[i] = in.getLong();
+        }
+        readPellets(in, snapshot);
+        readGenerators(in, ghosts);
+        return delays;
+    }
+
+    /**
+     * Restores the random generators of the ghosts. A state without them,
+     * or with a different amount, leaves the generators as they are.
+     *
+     * @param in
+     *            The buffer to read from.
+     * @param ghosts
+     *            The ghosts of the level.
+     */
+    private static void readGenerators(ByteBuffer in, List<Ghost> ghosts) {
+        int generators = in.getInt();
+        if (generators != ghosts.size()) {
+            in.position(in.position() + generators * Long.BYTES);
+            return;
+        }
+        for (Ghost ghost : ghosts) {
+            ghost.getRandom().setState(in.getLong());
+        }
+    }
+
+    /**
+     * Reads the state of a player.
+     *
+     * @param in
+     *            The buffer to read from.
+     * @param board
+     *            The board of the level.
+     * @param player
+     *            The player.
+     * @param ghosts
+     *            The ghosts of the level, one of which may be the killer.
+     */
+    private static void readPlayer(ByteBuffer in, Board board, Player player,
+                                   List<Ghost> ghosts) {
+        readUnit(in, board, player);
+        player.addPoints(in.getInt() - player.getScore());
+        boolean alive = in.get() != 0;
+        if (player.isAlive() != alive) {
+            player.setAlive(alive);
+        }
+        int killer = in.getInt();
+        player.setKiller(null);
+        if (killer != NONE) {
+            player.setKiller(ghosts.get(killer));
+        }
+    }
+
+    /**
+     * Puts the pellets that are present in the state on the board, and takes
+     * the others off.
+     *
+     * @param in
+     *            The buffer to read the pellet bitmap from.
+     * @param snapshot
+     *            A snapshot of the level, to find the pellets.
+     */
+    private static void readPellets(ByteBuffer in, BoardSnapshot snapshot) {
+        int pellets = snapshot.getPelletSlots();
+        for (int word = 0; word < words(pellets); word++) {
+            long bits = in.getLong();
+            for (int pellet = word * Long.SIZE; pellet < Math.min(pellets, (word + 1) * Long.SIZE);
+                 pellet++) {
+                Pellet unit = snapshot.getPellet(pellet);
+                boolean present = (bits & (1L << pellet)) != 0;
+                if (present && !unit.hasSquare()) {
+                    unit.occupy(snapshot.getPelletSquare(pellet));
+                } else if (!present && unit.hasSquare()) {
+                    unit.leaveSquare();
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes the position and direction of a unit.
+     *
+     * @param out
+     *            The buffer to write to.
+     * @param board
+     *            The board of the level.
+     * @param unit
+     *            The unit.
+     */
+    private static void putUnit(ByteBuffer out, Board board, Unit unit) {
+        int cell = NONE;
+        if (unit.hasSquare()) {
+            Square square = unit.getSquare();
+            cell = square.getY() * board.getWidth() + square.getX();
+        }
+        out.putInt(cell);
+        out.put((byte) unit.getDirection().ordinal());
+    }
+
+    /**
+     * Reads the position and direction of a unit, and moves it there.
+     *
+     * @param in
+     *            The buffer to read from.
+     * @param board
+     *            The board of the level.
+     * @param unit
+     *            The unit.
+     */
+    private static void readUnit(ByteBuffer in, Board board, Unit unit) {
+        int cell = in.getInt();
+        if (cell == NONE) {
+            if (unit.hasSquare()) {
+                unit.leaveSquare();
+            }
+        } else {
+            Square square = board.squareAt(cell % board.getWidth(), cell / board.getWidth());
+            if (!unit.hasSquare() || unit.getSquare() != square) {
+                unit.occupy(square);
+            }
+        }
+        unit.setDirection(Direction.values()[in.get()]);
+    }
+
+    /**
+     * @param bits
+     *            An amount of bits.
+     * @return The amount of longs needed to store them.
+     */
+    private static int words(int bits) {
+        return (bits + Long.SIZE - 1) / Long.SIZE;
+    }
+}
@@ -0,0 +1,105 @@
+package jpacman.level;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Admits moves to a level one at a time, players before NPCs. A move of a
+ * player that has to wait is admitted as soon as the move in progress ends,
+ * before any NPC move that was waiting as well, however many there are. An
+ * NPC move is only admitted while no player move waits.
+ *
+ * <p>
+ * A monitor gives no such guarantee: when it is released, any of the
+ * waiting threads may get it, so with many NPCs a player could wait for
+ * several NPC moves in a row.
+ * </p>
+ */
+final class MoveAdmission {
+
+    /**
+     * Guards the state below.
+     */
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /**
+     * Signalled when a waiting player move may be admitted.
+     */
+    private final Condition playerTurn = lock.newCondition();
+
+    /**
+     * Signalled when a waiting NPC move may be admitted.
+     */
+    private final Condition npcTurn = lock.newCondition();
+
+    /**
+     * The amount of NPC moves that waited for a player move.
+     */
+    private final AtomicLong preempted = new AtomicLong();
+
+    /**
+     * The amount of player moves waiting to be admitted.
+     */
+    private int waitingPlayers;
+
+    /**
+     * <code>true</code> iff a move was admitted and has not ended yet.
+     */
+    private boolean occupied;
+
+    /**
+     * Waits until a move may start.
+     *
+     * @param player
+     *            <code>true</code> for a move of a player, <code>false</code>
+     *            for a move of NPCs.
+     */
+    void enter(boolean player) {
+        lock.lock();
+        try {
+            if (player) {
+                waitingPlayers++;
+                while (occupied) {
+                    playerTurn.awaitUninterruptibly();
+                }
+                waitingPlayers--;
+            } else {
+                if (waitingPlayers > 0) {
+                    preempted.incrementAndGet();
+                }
+                while (occupied || waitingPlayers > 0) {
+                    npcTurn.awaitUninterruptibly();
+                }
+            }
+            occupied = true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Ends the move that was admitted last, admitting the next one.
+     */
+    void exit() {
+        lock.lock();
+        try {
+            assert occupied;
+            occupied = false;
+            if (waitingPlayers > 0) {
+                playerTurn.signal();
+            } else {
+                npcTurn.signal();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return The amount of NPC moves that had to wait for a player move.
+     */
+    long getPreempted() {
+        return preempted.get();
+    }
+}
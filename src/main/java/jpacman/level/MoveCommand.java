@@ -0,0 +1,96 @@
+package jpacman.level;
+
+import java.util.concurrent.CompletableFuture;
+
+import jpacman.board.Direction;
+import jpacman.board.Unit;
+
+/**
+ * A move that was submitted to a level and waits to be applied.
+ */
+final class MoveCommand {
+
+    /**
+     * The unit to move.
+     */
+    private final Unit unit;
+
+    /**
+     * The direction to move the unit in.
+     */
+    private final Direction direction;
+
+    /**
+     * The time the move was submitted, from {@link System#nanoTime()}.
+     */
+    private final long submitted;
+
+    /**
+     * The future completed once the move was applied.
+     */
+    private final CompletableFuture<Boolean> result = new CompletableFuture<>();
+
+    /**
+     * <code>true</code> iff the unit moved.
+     */
+    private boolean moved;
+
+    /**
+     * Creates a new move.
+     *
+     * @param unit
+     *            The unit to move.
+     * @param direction
+     *            The direction to move the unit in.
+     * @param submitted
+     *            The time the move was submitted, in nanoseconds.
+     */
+    MoveCommand(Unit unit, Direction direction, long submitted) {
+        this.unit = unit;
+        this.direction = direction;
+        this.submitted = submitted;
+    }
+
+    /**
+     * @return The unit to move.
+     */
+    Unit getUnit() {
+        return unit;
+    }
+
+    /**
+     * @return The direction to move the unit in.
+     */
+    Direction getDirection() {
+        return direction;
+    }
+
+    /**
+     * @return The time the move was submitted, in nanoseconds.
+     */
+    long getSubmitted() {
+        return submitted;
+    }
+
+    /**
+     * @return The future completed once the move was applied.
+     */
+    CompletableFuture<Boolean> getResult() {
+        return result;
+    }
+
+    /**
+     * @return <code>true</code> iff the unit moved.
+     */
+    boolean isMoved() {
+        return moved;
+    }
+
+    /**
+     * @param moved
+     *            <code>true</code> iff the unit moved.
+     */
+    void setMoved(boolean moved) {
+        this.moved = moved;
+    }
+}
@@ -0,0 +1,235 @@
+package jpacman.level;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import jpacman.board.Direction;
+import jpacman.board.Unit;
+
+/**
+ * A queue of moves that are applied to a level by a single simulation thread.
+ * Any thread can submit moves without blocking; the simulation thread takes
+ * them from the queue in batches and applies each batch while holding the
+ * move lock only once, so the lock is no longer contended by the user
+ * interface and the NPC threads.
+ *
+ * <p>
+ * The queue is bounded: when more than {@link #CAPACITY} moves are waiting,
+ * new moves of NPCs are refused, so a move is never applied long after it
+ * was submitted. Batches are bounded as well, so the snapshot of the level
+ * is published at least every {@link #BATCH_SIZE} moves.
+ * </p>
+ *
+ * <p>
+ * Moves of players go before all waiting moves of NPCs, so input is applied
+ * with the next batch however busy the NPCs are.
+ * </p>
+ */
+final class MoveCommandQueue {
+
+    /**
+     * The maximum amount of moves applied in one batch.
+     */
+    static final int BATCH_SIZE = 64;
+
+    /**
+     * The maximum amount of moves waiting to be applied.
+     */
+    static final int CAPACITY = 1024;
+
+    /**
+     * The level the moves are applied to.
+     */
+    private final Level level;
+
+    /**
+     * The moves of NPCs waiting to be applied.
+     */
+    private final Queue<MoveCommand> commands = new ConcurrentLinkedQueue<>();
+
+    /**
+     * The moves of players waiting to be applied, which go before the moves
+     * of NPCs.
+     */
+    private final Queue<MoveCommand> playerCommands = new ConcurrentLinkedQueue<>();
+
+    /**
+     * The amount of moves waiting to be applied.
+     */
+    private final AtomicInteger pending = new AtomicInteger();
+
+    /**
+     * <code>true</code> iff the simulation thread is about to park or parked.
+     */
+    private final AtomicBoolean idle = new AtomicBoolean();
+
+    /**
+     * The running simulation thread, or <code>null</code>.
+     */
+    private volatile Worker worker;
+
+    /**
+     * Creates a new queue for a level.
+     *
+     * @param level
+     *            The level to apply the moves to.
+     */
+    MoveCommandQueue(Level level) {
+        this.level = level;
+    }
+
+    /**
+     * Submits a move.
+     *
+     * @param unit
+     *            The unit to move.
+     * @param direction
+     *            The direction to move the unit in.
+     * @return A future completed with <code>true</code> once the unit moved,
+     *         or with <code>false</code> if it could not move or the move was
+     *         refused because the queue is full of NPC moves or the level
+     *         is not in progress.
+     */
+    CompletableFuture<Boolean> submit(Unit unit, Direction direction) {
+        MoveCommand command = new MoveCommand(unit, direction, System.nanoTime());
+        boolean player = unit instanceof Player;
+        if (pending.incrementAndGet() > CAPACITY && !player) {
+            pending.decrementAndGet();
+            command.getResult().complete(false);
+            return command.getResult();
+        }
+        if (player) {
+            playerCommands.add(command);
+        } else {
+            commands.add(command);
+        }
+        Worker current = worker;
+        if (current != null && idle.compareAndSet(true, false)) {
+            LockSupport.unpark(current.thread);
+        }
+        return command.getResult();
+    }
+
+    /**
+     * Starts the simulation thread, unless it is running already.
+     */
+    void start() {
+        if (worker != null) {
+            return;
+        }
+        Worker next = new Worker();
+        worker = next;
+        next.thread.start();
+    }
+
+    /**
+     * Stops the simulation thread. It finishes its current batch and refuses
+     * all moves still waiting, unless a new thread was started in the
+     * meantime. Does not wait for the thread to end, so it can
+     * be called from the simulation thread itself.
+     */
+    void stop() {
+        Worker current = worker;
+        worker = null;
+        if (current != null) {
+            current.running = false;
+            LockSupport.unpark(current.thread);
+        }
+    }
+
+    /**
+     * Takes the next batch of waiting moves, those of players first.
+     *
+     * @return The moves, at most {@link #BATCH_SIZE}.
+     */
+    private List<MoveCommand> nextBatch() {
+        List<MoveCommand> batch = new ArrayList<>();
+        take(playerCommands, batch);
+        take(commands, batch);
+        pending.addAndGet(-batch.size());
+        return batch;
+    }
+
+    /**
+     * Moves waiting moves to a batch until the batch is full.
+     *
+     * @param from
+     *            The waiting moves.
+     * @param batch
+     *            The batch.
+     */
+    private static void take(Queue<MoveCommand> from, List<MoveCommand> batch) {
+        while (batch.size() < BATCH_SIZE) {
+            MoveCommand command = from.poll();
+            if (command == null) {
+                return;
+            }
+            batch.add(command);
+        }
+    }
+
+    /**
+     * Refuses all waiting moves.
+     */
+    private void refuseAll() {
+        List<MoveCommand> batch = nextBatch();
+        while (!batch.isEmpty()) {
+            for (MoveCommand command : batch) {
+                command.getResult().complete(false);
+            }
+            batch = nextBatch();
+        }
+    }
+
+    /**
+     * A simulation thread.
+     */
+    private final class Worker implements Runnable {
+
+        /**
+         * The thread running this worker.
+         */
+        private final Thread thread;
+
+        /**
+         * <code>false</code> once this worker has to stop.
+         */
+        private volatile boolean running = true;
+
+        /**
+         * Creates a new worker with a daemon thread.
+         */
+        Worker() {
+            this.thread = new Thread(this, "level-simulation");
+            thread.setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            while (running) {
+                List<MoveCommand> batch = nextBatch();
+                if (batch.isEmpty()) {
+                    idle.set(true);
+                    if (commands.isEmpty() && playerCommands.isEmpty() && running) {
+                        LockSupport.park(this);
+                    }
+                    idle.set(false);
+                } else {
+                    level.applyMoves(batch);
+                    for (MoveCommand command : batch) {
+                        command.getResult().complete(command.isMoved());
+                    }
+                }
+            }
+            if (worker == null) {
+                refuseAll();
+            }
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package jpacman.level;
+
+/**
+ * Decides when the NPCs of a level move. A scheduler can be started and
+ * stopped any number of times; it keeps its threads while it is stopped, and
+ * every NPC continues where it left off, so pausing and resuming a level is
+ * cheap. Its threads are only released when it is shut down.
+ */
+interface NpcScheduler {
+
+    /**
+     * Starts or resumes moving the NPCs. The first move of every NPC is due
+     * after half its interval, later moves after the time that remained when
+     * the scheduler was stopped.
+     */
+    void start();
+
+    /**
+     * Stops moving the NPCs, remembering for each NPC how long it had to wait
+     * for its next move. Moves already being made are finished.
+     */
+    void stop();
+
+    /**
+     * Stops moving the NPCs for good and releases all threads.
+     */
+    void shutdown();
+
+    /**
+     * @param npc
+     *            The index of an NPC.
+     * @return The time the NPC still has to wait for its next move in
+     *         nanoseconds, or -1 if the scheduler was never started.
+     */
+    long getRemainingDelay(int npc);
+
+    /**
+     * Changes the time an NPC has to wait for its next move.
+     *
+     * @param npc
+     *            The index of an NPC.
+     * @param delay
+     *            The time to wait in nanoseconds, or -1 to wait half an
+     *            interval after the next start.
+     */
+    void setRemainingDelay(int npc, long delay);
+}
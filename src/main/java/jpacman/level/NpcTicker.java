@@ -0,0 +1,251 @@
+package jpacman.level;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import jpacman.clock.GameClock;
+import jpacman.metrics.LatencyHistogram;
+import jpacman.npc.Ghost;
+
+/**
+ * Moves the NPCs of a level in ticks. Every tick, the NPCs whose move is due
+ * decide on their next move in parallel, after which the level applies all
+ * those moves one after the other, in the order of the NPCs. An expensive AI
+ * therefore no longer delays the moves of the other NPCs, and the outcome
+ * of a tick does not depend on which AI happened to finish first. Ticks and
+ * intervals are measured by the clock of the level.
+ *
+ * <p>
+ * The ticker and AI threads are created when the ticker is first started and
+ * kept until it is shut down.
+ * </p>
+ */
+final class NpcTicker implements NpcScheduler {
+
+    /**
+     * The level the NPCs are on.
+     */
+    private final Level level;
+
+    /**
+     * The NPCs, in the order their moves are applied.
+     */
+    private final List<Ghost> npcs;
+
+    /**
+     * The time between ticks in milliseconds.
+     */
+    private final long tickInterval;
+
+    /**
+     * Per NPC, the time its next move is due by the clock of the level, or
+     * while stopped, the time it still has to wait in nanoseconds, -1 if
+     * it was never started.
+     */
+    private final long[] due;
+
+    /**
+     * The time it took the AIs to decide, per tick.
+     */
+    private final LatencyHistogram decisionTime = new LatencyHistogram();
+
+    /**
+     * The thread running the ticks, or <code>null</code> before the first
+     * start.
+     */
+    private ScheduledExecutorService ticker;
+
+    /**
+     * The threads running the AIs, or <code>null</code> before the first
+     * start.
+     */
+    private ExecutorService deciders;
+
+    /**
+     * The repeating tick, or <code>null</code> while stopped.
+     */
+    private GameClock.Timer ticking;
+
+    /**
+     * The amount of times the delays were set from outside, so a tick can
+     * tell that the delays it is about to replace were restored meanwhile.
+     */
+    private long restores;
+
+    /**
+     * Creates a new ticker.
+     *
+     * @param level
+     *            The level the NPCs are on.
+     * @param npcs
+     *            The NPCs, in the order their moves are applied.
+     * @param tickInterval
+     *            The time between ticks in milliseconds.
+     */
+    NpcTicker(Level level, List<Ghost> npcs, long tickInterval) {
+        assert tickInterval > 0;
+
+        this.level = level;
+        this.npcs = npcs;
+        this.tickInterval = tickInterval;
+        this.due = new long[npcs.size()];
+        Arrays.fill(due, -1L);
+    }
+
+    @Override
+    public synchronized void start() {
+        if (ticking != null) {
+            return;
+        }
+        for (int i = 0; i < npcs.size(); i++) {
+            if (due[i] < 0) {
+                due[i] = TimeUnit.MILLISECONDS.toNanos(npcs.get(i).getInterval() / 2);
+            }
+        }
+        if (ticker == null) {
+            deciders = Executors.newFixedThreadPool(
+                Runtime.getRuntime().availableProcessors(), daemonThreads("npc-ai-"));
+            ticker = Executors.newSingleThreadScheduledExecutor(daemonThreads("npc-ticker-"));
+        }
+        GameClock clock = level.getClock();
+        long now = clock.nanoTime();
+        for (int i = 0; i < npcs.size(); i++) {
+            due[i] += now;
+        }
+        ticking = clock.scheduleAtFixedRate(ticker, this::tick, tickInterval,
+            TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (ticking == null) {
+            return;
+        }
+        ticking.cancel();
+        ticking = null;
+        long now = level.getClock().nanoTime();
+        for (int i = 0; i < npcs.size(); i++) {
+            due[i] = Math.max(0L, due[i] - now);
+        }
+    }
+
+    @Override
+    public synchronized void shutdown() {
+        stop();
+        if (ticker != null) {
+            ticker.shutdownNow();
+            deciders.shutdownNow();
+        }
+    }
+
+    @Override
+    public synchronized long getRemainingDelay(int npc) {
+        if (ticking == null) {
+            return due[npc];
+        }
+        return Math.max(0L, due[npc] - level.getClock().nanoTime());
+    }
+
+    @Override
+    public synchronized void setRemainingDelay(int npc, long delay) {
+        restores++;
+        if (ticking == null || delay < 0) {
+            due[npc] = delay;
+            return;
+        }
+        due[npc] = level.getClock().nanoTime() + delay;
+    }
+
+    /**
+     * @return The time it took the AIs to decide, per tick.
+     */
+    LatencyHistogram getDecisionTime() {
+        return decisionTime;
+    }
+
+    /**
+     * Moves all NPCs whose move is due, and schedules their next move. If the
+     * moves stopped the ticker, their next moves are due a full interval
+     * after it is started again.
+     *
+     * <p>
+     * The NPCs to move are determined while holding the monitor of this
+     * ticker, but the level is called without it: the moves may end the game
+     * and stop the level, which stops this ticker in turn, and the level may
+     * ask for the delays while holding its move lock.
+     * </p>
+     */
+    private void tick() {
+        long now;
+        int[] moving;
+        long[] late;
+        long tickRestores;
+        synchronized (this) {
+            if (ticking == null) {
+                return;
+            }
+            now = level.getClock().nanoTime();
+            moving = new int[npcs.size()];
+            late = new long[npcs.size()];
+            int count = 0;
+            for (int i = 0; i < npcs.size(); i++) {
+                if (due[i] - now <= 0) {
+                    moving[count] = i;
+                    late[count] = now - due[i];
+                    count++;
+                }
+            }
+            if (count == 0) {
+                return;
+            }
+            moving = Arrays.copyOf(moving, count);
+            tickRestores = restores;
+        }
+        level.tickNpcs(moving, late, deciders, decisionTime);
+        reschedule(moving, now, tickRestores);
+    }
+
+    /**
+     * Schedules the next moves of the NPCs that just moved, unless their
+     * delays were restored while they moved.
+     *
+     * @param moved
+     *            The NPCs that moved.
+     * @param now
+     *            The time of the tick in which they moved.
+     * @param tickRestores
+     *            The amount of restores when the tick started.
+     */
+    private synchronized void reschedule(int[] moved, long now, long tickRestores) {
+        if (restores != tickRestores) {
+            return;
+        }
+        long start = now;
+        if (ticking == null) {
+            start = 0L;
+        }
+        for (int npc : moved) {
+            due[npc] = start + TimeUnit.MILLISECONDS.toNanos(npcs.get(npc).getInterval());
+        }
+    }
+
+    /**
+     * @param prefix
+     *            The prefix of the names of the threads.
+     * @return A factory of numbered daemon threads.
+     */
+    private static ThreadFactory daemonThreads(String prefix) {
+        AtomicInteger count = new AtomicInteger();
+        return task -> {
+            Thread thread = new Thread(task, prefix + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,247 @@
+package jpacman.level;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import jpacman.board.Direction;
+import jpacman.metrics.LatencyHistogram;
+import jpacman.npc.Ghost;
+
+/**
+ * Decides the moves of the NPCs of a level while keeping an eye on the
+ * time: how late every move runs compared to when it was scheduled, and how
+ * long the AI of the NPC takes to decide.
+ *
+ * <p>
+ * As long as both stay within their budgets, an NPC moves as its AI tells
+ * it. A move that runs late, or follows an AI decision that took too long,
+ * is made without the AI: an NPC near a player keeps going the way its AI
+ * last told it to, if it still can, and an NPC far from all players moves
+ * randomly. The move after that tries the AI again. The AI time of a level
+ * under load is thereby at least halved, which keeps the moves of all NPCs
+ * close to their schedule.
+ * </p>
+ *
+ * <p>
+ * Without budgets, which is the default, the watchdog only measures.
+ * </p>
+ */
+public final class NpcWatchdog {
+
+    /**
+     * The level the NPCs are on.
+     */
+    private final Level level;
+
+    /**
+     * The NPCs to move.
+     */
+    private final List<Ghost> npcs;
+
+    /**
+     * How late the moves ran.
+     */
+    private final LatencyHistogram lateness = new LatencyHistogram();
+
+    /**
+     * How long the AIs took to decide.
+     */
+    private final LatencyHistogram aiTime = new LatencyHistogram();
+
+    /**
+     * The amount of moves that ran later than the budget allows.
+     */
+    private final AtomicLong lateMoves = new AtomicLong();
+
+    /**
+     * The amount of AI decisions that took longer than the budget allows.
+     */
+    private final AtomicLong aiOverruns = new AtomicLong();
+
+    /**
+     * The amount of moves that repeated the last AI decision.
+     */
+    private final AtomicLong reusedMoves = new AtomicLong();
+
+    /**
+     * The amount of moves that skipped the AI for a distant NPC.
+     */
+    private final AtomicLong skippedMoves = new AtomicLong();
+
+    /**
+     * Per NPC, the time its last AI decision took in nanoseconds. Only used
+     * by the thread moving the NPC.
+     */
+    private final long[] lastAiTime;
+
+    /**
+     * Per NPC, the direction its AI last decided on, or <code>null</code>.
+     * Only used by the thread moving the NPC.
+     */
+    private final Direction[] lastDirection;
+
+    /**
+     * The time a move may run late, in nanoseconds.
+     */
+    private volatile long latenessBudget = Long.MAX_VALUE;
+
+    /**
+     * The time an AI may take to decide, in nanoseconds.
+     */
+    private volatile long aiBudget = Long.MAX_VALUE;
+
+    /**
+     * The distance to the nearest player, in squares, beyond which an NPC
+     * is far away.
+     */
+    private volatile int farDistance = Integer.MAX_VALUE;
+
+    /**
+     * Creates a watchdog without budgets.
+     *
+     * @param level
+     *            The level the NPCs are on.
+     * @param npcs
+     *            The NPCs to move.
+     */
+    NpcWatchdog(Level level, List<Ghost> npcs) {
+        this.level = level;
+        this.npcs = npcs;
+        this.lastAiTime = new long[npcs.size()];
+        this.lastDirection = new Direction[npcs.size()];
+    }
+
+    /**
+     * Sets the budgets beyond which NPCs move without their AI.
+     *
+     * @param late
+     *            The time a move may run late.
+     * @param decision
+     *            The time an AI may take to decide.
+     * @param unit
+     *            The unit of both times.
+     */
+    public void setBudget(long late, long decision, TimeUnit unit) {
+        assert late >= 0 && decision >= 0;
+        latenessBudget = unit.toNanos(late);
+        aiBudget = unit.toNanos(decision);
+    }
+
+    /**
+     * Sets the distance beyond which an NPC that is over budget moves
+     * randomly rather than repeating its last decision.
+     *
+     * @param squares
+     *            The distance to the nearest player, in squares along the
+     *            board.
+     */
+    public void setFarDistance(int squares) {
+        assert squares >= 0;
+        farDistance = squares;
+    }
+
+    /**
+     * Decides the next move of an NPC.
+     *
+     * @param npc
+     *            The index of the NPC.
+     * @param late
+     *            How late the move runs compared to its schedule, in
+     *            nanoseconds.
+     * @return The direction to move in, or <code>null</code> if the NPC
+     *         cannot move.
+     */
+    Direction nextMove(int npc, long late) {
+        lateness.record(late);
+        boolean tooLate = late > latenessBudget;
+        if (tooLate) {
+            lateMoves.incrementAndGet();
+        }
+        Ghost ghost = npcs.get(npc);
+        if (tooLate || lastAiTime[npc] > aiBudget) {
+            lastAiTime[npc] = 0L;
+            if (isFar(ghost)) {
+                skippedMoves.incrementAndGet();
+                return ghost.fallbackMove(null);
+            }
+            reusedMoves.incrementAndGet();
+            return ghost.fallbackMove(lastDirection[npc]);
+        }
+        long start = System.nanoTime();
+        Optional<Direction> decision = ghost.nextAiMove(level.worldQuery());
+        long time = System.nanoTime() - start;
+        aiTime.record(time);
+        lastAiTime[npc] = time;
+        if (time > aiBudget) {
+            aiOverruns.incrementAndGet();
+        }
+        lastDirection[npc] = decision.orElse(null);
+        return decision.orElseGet(() -> ghost.fallbackMove(null));
+    }
+
+    /**
+     * Measures the distance with the world query of the level, so that in
+     * tick mode all NPCs share one search of the board rather than each
+     * going over all players.
+     *
+     * @param ghost
+     *            An NPC on the board.
+     * @return <code>true</code> iff no player can be reached within the far
+     *         distance of the NPC.
+     */
+    private boolean isFar(Ghost ghost) {
+        int limit = farDistance;
+        if (limit == Integer.MAX_VALUE) {
+            return false;
+        }
+        int distance = level.worldQuery().distanceToNearest(Player.class, ghost.getSquare());
+        return distance < 0 || distance > limit;
+    }
+
+    /**
+     * @return How late the moves of the NPCs ran, in nanoseconds.
+     */
+    public LatencyHistogram getLateness() {
+        return lateness;
+    }
+
+    /**
+     * @return How long the AIs of the NPCs took to decide, in nanoseconds.
+     */
+    public LatencyHistogram getAiTime() {
+        return aiTime;
+    }
+
+    /**
+     * @return The amount of moves that ran later than the budget allows.
+     */
+    public long getLateMoves() {
+        return lateMoves.get();
+    }
+
+    /**
+     * @return The amount of AI decisions that took longer than the budget
+     *         allows.
+     */
+    public long getAiOverruns() {
+        return aiOverruns.get();
+    }
+
+    /**
+     * @return The amount of moves that repeated the last AI decision,
+     *         because the NPC was over budget.
+     */
+    public long getReusedMoves() {
+        return reusedMoves.get();
+    }
+
+    /**
+     * @return The amount of moves of distant NPCs that skipped the AI,
+     *         because the NPC was over budget.
+     */
+    public long getSkippedMoves() {
+        return skippedMoves.get();
+    }
+}
@@ -1,6 +1,8 @@
 package jpacman.level;
 
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import jpacman.sprite.AnimatedSprite;
 import jpacman.sprite.Sprite;
@@ -39,6 +41,11 @@ public class Player extends Unit {
      */
     private Unit killer;
 
+    /**
+     * The observers notified when the score or state of this player changes.
+     */
+    private final List<PlayerObserver> observers = new CopyOnWriteArrayList<>();
+
     /**
      * Creates a new player with a score of 0 points.
      *
@@ -55,6 +62,29 @@ public class Player extends Unit {
         deathSprite.setAnimating(false);
     }
 
+    /**
+     * Adds an observer that will be notified when the score of this player
+     * changes or it dies or comes back alive. Observers are notified on the
+     * thread that changed the player.
+     *
+     * @param observer
+     *            The observer that will be notified.
+     */
+    public void addObserver(PlayerObserver observer) {
+        assert observer != null;
+        observers.add(observer);
+    }
+
+    /**
+     * Removes an observer if it was listed.
+     *
+     * @param observer
+     *            The observer to be removed.
+     */
+    public void removeObserver(PlayerObserver observer) {
+        observers.remove(observer);
+    }
+
     /**
      * Returns whether this player is alive or not.
      *
@@ -80,7 +110,11 @@ public class Player extends Unit {
         if (!isAlive) {
             deathSprite.restart();
         }
+        boolean changed = alive != isAlive;
         this.alive = isAlive;
+        if (changed) {
+            updateObservers();
+        }
     }
 
     /**
@@ -127,5 +161,32 @@ public class Player extends Unit {
      */
     public void addPoints(int points) {
         score += points;
+        if (points != 0) {
+            updateObservers();
+        }
+    }
+
+    /**
+     * Notifies the observers that this player changed.
+     */
+    private void updateObservers() {
+        for (PlayerObserver observer : observers) {
+            observer.playerChanged(this);
+        }
+    }
+
+    /**
+     * An observer that will be notified when the score of a player changes or
+     * it dies or comes back alive.
+     */
+    public interface PlayerObserver {
+
+        /**
+         * The score of the player changed, or it died or came back alive.
+         *
+         * @param player
+         *            The player that changed.
+         */
+        void playerChanged(Player player);
     }
 }
@@ -0,0 +1,116 @@
+package jpacman.level;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+import jpacman.board.Square;
+
+/**
+ * Locks for the regions of a board. The board is divided into square tiles,
+ * each with its own lock, so moves in different parts of the board can be
+ * made at the same time. A move locks the tiles of the square it leaves and
+ * the square it enters, always in the order of their index, so two moves can
+ * never wait for each other.
+ */
+final class RegionLocks {
+
+    /**
+     * The width and height of a tile, in squares.
+     */
+    private final int tileSize;
+
+    /**
+     * The amount of tiles in a row.
+     */
+    private final int columns;
+
+    /**
+     * The lock of every tile, row by row.
+     */
+    private final ReentrantLock[] locks;
+
+    /**
+     * Creates the locks for a board.
+     *
+     * @param width
+     *            The width of the board.
+     * @param height
+     *            The height of the board.
+     * @param tileSize
+     *            The width and height of a tile, in squares.
+     */
+    RegionLocks(int width, int height, int tileSize) {
+        assert tileSize > 0;
+
+        this.tileSize = tileSize;
+        this.columns = Math.max(1, (width + tileSize - 1) / tileSize);
+        int rows = Math.max(1, (height + tileSize - 1) / tileSize);
+        this.locks = new ReentrantLock[columns * rows];
+        for (int i = 0; i < locks.length; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * @param square
+     *            A square of the board.
+     * @return The index of the tile the square is in.
+     */
+    int regionOf(Square square) {
+        return square.getY() / tileSize * columns + square.getX() / tileSize;
+    }
+
+    /**
+     * @return The amount of tiles.
+     */
+    int getRegionCount() {
+        return locks.length;
+    }
+
+    /**
+     * Locks two tiles, lowest index first.
+     *
+     * @param first
+     *            The index of a tile.
+     * @param second
+     *            The index of another tile, or the same one.
+     */
+    void lock(int first, int second) {
+        locks[Math.min(first, second)].lock();
+        if (first != second) {
+            locks[Math.max(first, second)].lock();
+        }
+    }
+
+    /**
+     * Unlocks two tiles locked by {@link #lock(int, int)}.
+     *
+     * @param first
+     *            The index of a tile.
+     * @param second
+     *            The index of another tile, or the same one.
+     */
+    void unlock(int first, int second) {
+        if (first != second) {
+            locks[Math.max(first, second)].unlock();
+        }
+        locks[Math.min(first, second)].unlock();
+    }
+
+    /**
+     * Locks all tiles, lowest index first.
+     */
+    void lockAll() {
+        for (ReentrantLock lock : locks) {
+            lock.lock();
+        }
+    }
+
+    /**
+     * Unlocks all tiles locked by {@link #lockAll()}.
+     */
+    void unlockAll() {
+        for (int i = locks.length - 1; i >= 0; i--) {
+            locks[i].unlock();
+        }
+    }
+}
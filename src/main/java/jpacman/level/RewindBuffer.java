@@ -0,0 +1,317 @@
+package jpacman.level;
+
+import jpacman.board.Direction;
+
+/**
+ * A bounded history of the changes made by the moves on a level, to step
+ * back to any of the recent moves. Every move is a tick. A move is recorded
+ * as one change holding the unit, the cell and direction it came from and
+ * the pellet it ate, if any, followed by one change per player it met,
+ * holding the score, life and killer the player had before.
+ *
+ * <p>
+ * The changes are kept in a ring of preallocated arrays, so recording never
+ * allocates and the memory used never grows: once the ring is full, every
+ * new change overwrites the oldest one. The buffer is not thread safe; the
+ * level only records and rewinds while holding its move lock.
+ * </p>
+ */
+final class RewindBuffer {
+
+    /**
+     * A move of a player.
+     */
+    private static final byte PLAYER_MOVE = 0;
+
+    /**
+     * A move of an NPC.
+     */
+    private static final byte NPC_MOVE = 1;
+
+    /**
+     * The state of a player before a move.
+     */
+    private static final byte PLAYER_STATE = 2;
+
+    /**
+     * Undoes the changes of the moves that are rewound.
+     */
+    interface Undo {
+
+        /**
+         * Moves a unit back.
+         *
+         * @param player
+         *            <code>true</code> for a player, <code>false</code> for
+         *            an NPC.
+         * @param unit
+         *            The index of the player or NPC.
+         * @param cell
+         *            The cell it came from.
+         * @param direction
+         *            The direction it was facing.
+         * @param pellet
+         *            The index of the pellet it ate, or -1.
+         */
+        void move(boolean player, int unit, int cell, Direction direction, int pellet);
+
+        /**
+         * Restores the state of a player.
+         *
+         * @param player
+         *            The index of the player.
+         * @param score
+         *            The score the player had.
+         * @param alive
+         *            Whether the player was alive.
+         * @param killer
+         *            The index of the NPC that had killed the player, or -1.
+         */
+        void player(int player, int score, boolean alive, int killer);
+    }
+
+    /**
+     * The amount of changes kept.
+     */
+    private final int capacity;
+
+    /**
+     * Per change, the tick it belongs to.
+     */
+    private final long[] ticks;
+
+    /**
+     * Per change, the time of the move in nanoseconds.
+     */
+    private final long[] times;
+
+    /**
+     * Per change, what it records.
+     */
+    private final byte[] kinds;
+
+    /**
+     * Per change, the index of the player or NPC.
+     */
+    private final int[] units;
+
+    /**
+     * Per move, the cell the unit came from. Per player state, the score.
+     */
+    private final int[] values;
+
+    /**
+     * Per move, the ordinal of the direction the unit was facing. Per player
+     * state, 1 if the player was alive.
+     */
+    private final byte[] flags;
+
+    /**
+     * Per move, the pellet eaten or -1. Per player state, the killer or -1.
+     */
+    private final int[] others;
+
+    /**
+     * The number of the first change that is kept.
+     */
+    private long first;
+
+    /**
+     * The number of the next change.
+     */
+    private long next;
+
+    /**
+     * The current tick.
+     */
+    private long tick;
+
+    /**
+     * Creates an empty buffer, at tick 0.
+     *
+     * @param capacity
+     *            The amount of changes to keep.
+     */
+    RewindBuffer(int capacity) {
+        assert capacity > 0;
+        this.capacity = capacity;
+        this.ticks = new long[capacity];
+        this.times = new long[capacity];
+        this.kinds = new byte[capacity];
+        this.units = new int[capacity];
+        this.values = new int[capacity];
+        this.flags = new byte[capacity];
+        this.others = new int[capacity];
+    }
+
+    /**
+     * @return The current tick: the amount of moves made since recording
+     *         started, minus the ones rewound.
+     */
+    long getTick() {
+        return tick;
+    }
+
+    /**
+     * @return The oldest tick that can still be rewound to.
+     */
+    long getOldestTick() {
+        if (first == next) {
+            return tick;
+        }
+        int slot = slot(first);
+        if (kinds[slot] == PLAYER_STATE) {
+            return ticks[slot];
+        }
+        return ticks[slot] - 1;
+    }
+
+    /**
+     * @param nanoTime
+     *            A time of the clock of the level, in nanoseconds.
+     * @return The tick the level was at, at that time, or the oldest tick
+     *         if that is later.
+     */
+    long getTickAt(long nanoTime) {
+        for (long change = next - 1; change >= first; change--) {
+            int slot = slot(change);
+            if (kinds[slot] != PLAYER_STATE && times[slot] - nanoTime <= 0L) {
+                return Math.max(ticks[slot], getOldestTick());
+            }
+        }
+        return getOldestTick();
+    }
+
+    /**
+     * Records the start of a move, the next tick.
+     *
+     * @param player
+     *            <code>true</code> for a player, <code>false</code> for an
+     *            NPC.
+     * @param unit
+     *            The index of the player or NPC.
+     * @param cell
+     *            The cell it is leaving.
+     * @param direction
+     *            The direction it was facing.
+     * @param time
+     *            The time of the move by the clock of the level.
+     */
+    void move(boolean player, int unit, int cell, Direction direction, long time) {
+        tick++;
+        byte kind = NPC_MOVE;
+        if (player) {
+            kind = PLAYER_MOVE;
+        }
+        int slot = add(kind, unit, cell, (byte) direction.ordinal(), -1);
+        times[slot] = time;
+    }
+
+    /**
+     * Records that the current move ate a pellet.
+     *
+     * @param pellet
+     *            The index of the pellet.
+     */
+    void pellet(int pellet) {
+        for (long change = next - 1; change >= first && ticks[slot(change)] == tick; change--) {
+            int slot = slot(change);
+            if (kinds[slot] != PLAYER_STATE) {
+                others[slot] = pellet;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Records the state of a player the current move involves, before the
+     * move changes it.
+     *
+     * @param player
+     *            The index of the player.
+     * @param score
+     *            The score of the player.
+     * @param alive
+     *            Whether the player is alive.
+     * @param killer
+     *            The index of the NPC that killed the player, or -1.
+     */
+    void player(int player, int score, boolean alive, int killer) {
+        byte living = 0;
+        if (alive) {
+            living = 1;
+        }
+        add(PLAYER_STATE, player, score, living, killer);
+    }
+
+    /**
+     * Adds a change, overwriting the oldest one if the ring is full.
+     *
+     * @param kind
+     *            What the change records.
+     * @param unit
+     *            The index of the player or NPC.
+     * @param value
+     *            The cell or score.
+     * @param flag
+     *            The direction or life.
+     * @param other
+     *            The pellet or killer.
+     * @return The slot of the change.
+     */
+    private int add(byte kind, int unit, int value, byte flag, int other) {
+        if (next - first == capacity) {
+            first++;
+        }
+        int slot = slot(next);
+        next++;
+        ticks[slot] = tick;
+        kinds[slot] = kind;
+        units[slot] = unit;
+        values[slot] = value;
+        flags[slot] = flag;
+        others[slot] = other;
+        return slot;
+    }
+
+    /**
+     * Undoes all changes after a tick, newest first, and forgets them.
+     *
+     * @param target
+     *            The tick to go back to, between the oldest and the current
+     *            tick.
+     * @param undo
+     *            Undoes the changes.
+     */
+    void rewind(long target, Undo undo) {
+        assert target >= getOldestTick() && target <= tick;
+        while (next > first && ticks[slot(next - 1)] > target) {
+            next--;
+            int slot = slot(next);
+            if (kinds[slot] == PLAYER_STATE) {
+                undo.player(units[slot], values[slot], flags[slot] != 0, others[slot]);
+            } else {
+                undo.move(kinds[slot] == PLAYER_MOVE, units[slot], values[slot],
+                    Direction.values()[flags[slot]], others[slot]);
+            }
+        }
+        tick = target;
+    }
+
+    /**
+     * Forgets all changes, e.g. after the level was changed other than by
+     * moves. The current tick becomes the oldest one.
+     */
+    void clear() {
+        first = next;
+    }
+
+    /**
+     * @param change
+     *            The number of a change.
+     * @return The index in the arrays of the change.
+     */
+    private int slot(long change) {
+        return (int) (change % capacity);
+    }
+}
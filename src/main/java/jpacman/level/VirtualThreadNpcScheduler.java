@@ -0,0 +1,274 @@
+package jpacman.level;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import jpacman.board.Direction;
+import jpacman.clock.GameClock;
+import jpacman.npc.Ghost;
+
+/**
+ * Moves every NPC of a level on a thread of its own, which simply sleeps
+ * until the next move is due. Meant for virtual threads, which cost next to
+ * nothing while they sleep, so that a JVM can host many levels without a
+ * pool of platform threads per level.
+ *
+ * <p>
+ * The threads are started the first time the scheduler starts and wait on
+ * a condition of their own while it is stopped. They do not hold a monitor while waiting,
+ * so virtual threads never pin their carrier thread. The threads sleep for
+ * as long as the clock of the level takes to reach the next move.
+ * </p>
+ */
+final class VirtualThreadNpcScheduler implements NpcScheduler {
+
+    /**
+     * The level the NPCs are on.
+     */
+    private final Level level;
+
+    /**
+     * The NPCs to move.
+     */
+    private final List<Ghost> npcs;
+
+    /**
+     * Creates the threads moving the NPCs.
+     */
+    private final ThreadFactory threadFactory;
+
+    /**
+     * Guards the state below.
+     */
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /**
+     * Per NPC, signalled when the scheduler starts, stops or shuts down, or
+     * the delay of the NPC changes. A condition each, so changing the delay
+     * of one NPC wakes only the thread moving it.
+     */
+    private final Condition[] changed;
+
+    /**
+     * Per NPC, while running, the time its next move is due, by the clock of
+     * the level.
+     */
+    private final long[] due;
+
+    /**
+     * Per NPC, while stopped, the time it still has to wait in nanoseconds,
+     * or -1 if it never moved.
+     */
+    private final long[] remaining;
+
+    /**
+     * The threads moving the NPCs, empty until the first start.
+     */
+    private final List<Thread> threads = new ArrayList<>();
+
+    /**
+     * <code>true</code> iff the NPCs should move.
+     */
+    private boolean active;
+
+    /**
+     * <code>true</code> iff the scheduler was shut down.
+     */
+    private boolean terminated;
+
+    /**
+     * Creates a new scheduler.
+     *
+     * @param level
+     *            The level the NPCs are on.
+     * @param npcs
+     *            The NPCs to move.
+     * @param threadFactory
+     *            Creates the threads moving the NPCs, preferably virtual.
+     */
+    VirtualThreadNpcScheduler(Level level, List<Ghost> npcs, ThreadFactory threadFactory) {
+        this.level = level;
+        this.npcs = npcs;
+        this.threadFactory = threadFactory;
+        this.due = new long[npcs.size()];
+        this.remaining = new long[npcs.size()];
+        Arrays.fill(remaining, -1L);
+        this.changed = new Condition[npcs.size()];
+        for (int i = 0; i < changed.length; i++) {
+            changed[i] = lock.newCondition();
+        }
+    }
+
+    @Override
+    public void start() {
+        lock.lock();
+        try {
+            if (active || terminated) {
+                return;
+            }
+            active = true;
+            long now = level.getClock().nanoTime();
+            for (int i = 0; i < npcs.size(); i++) {
+                due[i] = now + delay(i, remaining[i]);
+            }
+            if (threads.isEmpty()) {
+                for (int i = 0; i < npcs.size(); i++) {
+                    int npc = i;
+                    Thread thread = threadFactory.newThread(() -> loop(npc));
+                    threads.add(thread);
+                    thread.start();
+                }
+            }
+            signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void stop() {
+        lock.lock();
+        try {
+            if (!active) {
+                return;
+            }
+            active = false;
+            long now = level.getClock().nanoTime();
+            for (int i = 0; i < npcs.size(); i++) {
+                remaining[i] = Math.max(0L, due[i] - now);
+            }
+            signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void shutdown() {
+        lock.lock();
+        try {
+            stop();
+            terminated = true;
+            signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public long getRemainingDelay(int npc) {
+        lock.lock();
+        try {
+            if (active) {
+                return Math.max(0L, due[npc] - level.getClock().nanoTime());
+            }
+            return remaining[npc];
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void setRemainingDelay(int npc, long delay) {
+        lock.lock();
+        try {
+            remaining[npc] = delay;
+            if (active) {
+                due[npc] = level.getClock().nanoTime() + delay(npc, delay);
+                changed[npc].signal();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Wakes the threads of all NPCs. The lock must be held.
+     */
+    private void signalAll() {
+        for (Condition condition : changed) {
+            condition.signal();
+        }
+    }
+
+    /**
+     * @param npc
+     *            The index of an NPC.
+     * @param delay
+     *            The time it has to wait, or -1 if it never moved.
+     * @return The time it has to wait, in nanoseconds.
+     */
+    private long delay(int npc, long delay) {
+        if (delay < 0) {
+            return TimeUnit.MILLISECONDS.toNanos(npcs.get(npc).getInterval() / 2);
+        }
+        return delay;
+    }
+
+    /**
+     * Moves an NPC whenever its move is due, until the scheduler shuts
+     * down.
+     *
+     * @param npc
+     *            The index of the NPC.
+     */
+    private void loop(int npc) {
+        try {
+            while (true) {
+                long late = awaitMove(npc);
+                if (late < 0) {
+                    return;
+                }
+                Direction direction = level.getWatchdog().nextMove(npc, late);
+                if (direction != null) {
+                    level.move(npcs.get(npc), direction);
+                }
+                long interval = TimeUnit.MILLISECONDS.toNanos(npcs.get(npc).getInterval());
+                lock.lock();
+                try {
+                    remaining[npc] = interval;
+                    due[npc] = level.getClock().nanoTime() + interval;
+                } finally {
+                    lock.unlock();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Sleeps until the next move of an NPC is due while the scheduler runs.
+     *
+     * @param npc
+     *            The index of the NPC.
+     * @return How late the move is in nanoseconds, or -1 if the scheduler
+     *         shut down.
+     * @throws InterruptedException
+     *             If the thread was interrupted.
+     */
+    private long awaitMove(int npc) throws InterruptedException {
+        lock.lock();
+        try {
+            while (!terminated) {
+                GameClock clock = level.getClock();
+                long wait = due[npc] - clock.nanoTime();
+                if (!active) {
+                    changed[npc].await();
+                } else if (wait > 0) {
+                    changed[npc].awaitNanos(clock.toRealNanos(wait));
+                } else {
+                    return -wait;
+                }
+            }
+            return -1L;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
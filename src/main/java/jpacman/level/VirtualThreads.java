@@ -0,0 +1,111 @@
+package jpacman.level;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Creates virtual threads when the JVM supports them (Java 21 and later),
+ * while the game itself is built for Java 8. The support is detected once,
+ * by looking up <code>Thread.ofVirtual()</code>.
+ *
+ * <p>
+ * Virtual threads are cheap to create and to keep blocked, so code running
+ * on them can simply sleep between actions instead of sharing a scheduled
+ * pool. That makes it feasible to give every NPC, and every game hosted in
+ * the JVM, a thread of its own.
+ * </p>
+ */
+public final class VirtualThreads {
+
+    /**
+     * The <code>Thread.ofVirtual()</code> method, or <code>null</code>.
+     */
+    private static final Method OF_VIRTUAL;
+
+    /**
+     * The <code>Thread.Builder.name(String, long)</code> method, or
+     * <code>null</code>.
+     */
+    private static final Method NAME;
+
+    /**
+     * The <code>Thread.Builder.factory()</code> method, or <code>null</code>.
+     */
+    private static final Method FACTORY;
+
+    static {
+        Method ofVirtual = null;
+        Method name = null;
+        Method factory = null;
+        try {
+            Class<?> builder = Class.forName("java.lang.Thread$Builder");
+            ofVirtual = Thread.class.getMethod("ofVirtual");
+            name = builder.getMethod("name", String.class, long.class);
+            factory = builder.getMethod("factory");
+        } catch (ReflectiveOperationException e) {
+            ofVirtual = null;
+            name = null;
+            factory = null;
+        }
+        OF_VIRTUAL = ofVirtual;
+        NAME = name;
+        FACTORY = factory;
+    }
+
+    /**
+     * Utility class.
+     */
+    private VirtualThreads() {
+    }
+
+    /**
+     * @return <code>true</code> iff this JVM supports virtual threads.
+     */
+    public static boolean isAvailable() {
+        return OF_VIRTUAL != null;
+    }
+
+    /**
+     * Creates a factory of virtual threads, named with a prefix followed by a
+     * number.
+     *
+     * @param prefix
+     *            The prefix of the thread names.
+     * @return The factory.
+     * @throws UnsupportedOperationException
+     *             If this JVM does not support virtual threads.
+     */
+    public static ThreadFactory newThreadFactory(String prefix) {
+        if (!isAvailable()) {
+            throw new UnsupportedOperationException("Virtual threads need Java 21 or later");
+        }
+        try {
+            Object builder = NAME.invoke(OF_VIRTUAL.invoke(null), prefix, 1L);
+            return (ThreadFactory) FACTORY.invoke(builder);
+        } catch (ReflectiveOperationException e) {
+            throw new UnsupportedOperationException("Could not create virtual threads", e);
+        }
+    }
+
+    /**
+     * Creates a factory of virtual threads if this JVM supports them, or of
+     * platform daemon threads otherwise, named with a prefix followed by a
+     * number.
+     *
+     * @param prefix
+     *            The prefix of the thread names.
+     * @return The factory.
+     */
+    public static ThreadFactory newThreadFactoryOrPlatform(String prefix) {
+        if (isAvailable()) {
+            return newThreadFactory(prefix);
+        }
+        AtomicInteger count = new AtomicInteger();
+        return task -> {
+            Thread thread = new Thread(task, prefix + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
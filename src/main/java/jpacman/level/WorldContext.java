@@ -0,0 +1,285 @@
+package jpacman.level;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import jpacman.board.Board;
+import jpacman.board.Direction;
+import jpacman.board.Square;
+import jpacman.board.Unit;
+import jpacman.npc.Ghost;
+import jpacman.npc.WorldQuery;
+
+/**
+ * The answers to the questions of ghost AIs for one state of a level,
+ * shared by all ghosts deciding on that state. Where the nearest player is
+ * and how far away, is computed once per type of unit asked for, as a
+ * distance field over the whole board, rather than by a search per ghost.
+ * The squares ahead of units are computed once per unit and distance.
+ *
+ * <p>
+ * A context is created by the level in tick mode, when a ghost asks a
+ * question after the board changed, and answers are computed on first use.
+ * All ghosts deciding in a tick therefore share one context. It is safe to
+ * use from several threads at once, as ghosts deciding in parallel do.
+ * </p>
+ */
+final class WorldContext implements WorldQuery {
+
+    /**
+     * The amount of directions.
+     */
+    private static final int DIRECTIONS = Direction.values().length;
+
+    /**
+     * The board of the level.
+     */
+    private final Grid grid;
+
+    /**
+     * The version of the level this context belongs to.
+     */
+    private final long version;
+
+    /**
+     * The players of the level.
+     */
+    private final List<Player> players;
+
+    /**
+     * The NPCs of the level.
+     */
+    private final List<Ghost> npcs;
+
+    /**
+     * Per type of unit asked for, the distances to the nearest unit.
+     */
+    private final ConcurrentMap<Class<?>, DistanceField> fields = new ConcurrentHashMap<>();
+
+    /**
+     * The amount of distance fields computed for this context.
+     */
+    private final AtomicInteger fieldsComputed = new AtomicInteger();
+
+    /**
+     * Per distance and unit, the square that far ahead of the unit.
+     */
+    private final ConcurrentMap<Integer, ConcurrentMap<Unit, Square>> ahead =
+        new ConcurrentHashMap<>();
+
+    /**
+     * Creates a new context.
+     *
+     * @param grid
+     *            The board of the level.
+     * @param version
+     *            The version of the level.
+     * @param players
+     *            The players of the level.
+     * @param npcs
+     *            The NPCs of the level.
+     */
+    WorldContext(Grid grid, long version, List<Player> players, List<Ghost> npcs) {
+        this.grid = grid;
+        this.version = version;
+        this.players = players;
+        this.npcs = npcs;
+    }
+
+    /**
+     * @return The version of the level this context belongs to.
+     */
+    long getVersion() {
+        return version;
+    }
+
+    /**
+     * @return The amount of distance fields computed for this context so
+     *         far, at most one per type of unit asked for.
+     */
+    int getFieldsComputed() {
+        return fieldsComputed.get();
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>
+     * Like a search of the board, this finds players whether they are alive
+     * or not. Units other than players and NPCs are searched for directly.
+     * </p>
+     */
+    @Override
+    public <T extends Unit> T findNearest(Class<T> type, Square from) {
+        if (!isKnown(type)) {
+            return WorldQuery.direct().findNearest(type, from);
+        }
+        return type.cast(field(type).nearest[grid.cellOf(from)]);
+    }
+
+    @Override
+    public int distanceToNearest(Class<? extends Unit> type, Square from) {
+        if (!isKnown(type)) {
+            return WorldQuery.direct().distanceToNearest(type, from);
+        }
+        return field(type).distances[grid.cellOf(from)];
+    }
+
+    @Override
+    public Square squaresAheadOf(Unit unit, int amount) {
+        return ahead.computeIfAbsent(amount, key -> new ConcurrentHashMap<>())
+            .computeIfAbsent(unit, key -> key.squaresAheadOf(amount));
+    }
+
+    /**
+     * @param type
+     *            A type of unit.
+     * @return <code>true</code> iff all units of the type are players or
+     *         NPCs.
+     */
+    private static boolean isKnown(Class<? extends Unit> type) {
+        return Player.class.isAssignableFrom(type) || Ghost.class.isAssignableFrom(type);
+    }
+
+    /**
+     * @param type
+     *            A type of players or NPCs.
+     * @return The distances to the nearest unit of the type.
+     */
+    private DistanceField field(Class<? extends Unit> type) {
+        return fields.computeIfAbsent(type, key -> {
+            fieldsComputed.incrementAndGet();
+            return new DistanceField(grid, sources(key));
+        });
+    }
+
+    /**
+     * @param type
+     *            A type of players or NPCs.
+     * @return The units of the type on the board.
+     */
+    private List<Unit> sources(Class<?> type) {
+        List<Unit> sources = new ArrayList<>();
+        for (Player player : players) {
+            if (type.isInstance(player) && player.hasSquare()) {
+                sources.add(player);
+            }
+        }
+        for (Ghost npc : npcs) {
+            if (type.isInstance(npc) && npc.hasSquare()) {
+                sources.add(npc);
+            }
+        }
+        return sources;
+    }
+
+    /**
+     * The squares of a board and their neighbours regardless of terrain,
+     * which never change and are shared by all contexts of a level.
+     */
+    static final class Grid {
+
+        /**
+         * The width of the board.
+         */
+        private final int width;
+
+        /**
+         * Per cell and direction, the cell next to it in that direction.
+         */
+        private final int[] neighbours;
+
+        /**
+         * Finds the neighbours of every square of a board.
+         *
+         * @param board
+         *            The board.
+         */
+        Grid(Board board) {
+            this.width = board.getWidth();
+            this.neighbours = new int[width * board.getHeight() * DIRECTIONS];
+            for (int y = 0; y < board.getHeight(); y++) {
+                for (int x = 0; x < width; x++) {
+                    Square square = board.squareAt(x, y);
+                    for (Direction direction : Direction.values()) {
+                        neighbours[cellOf(square) * DIRECTIONS + direction.ordinal()] =
+                            cellOf(square.getSquareAt(direction));
+                    }
+                }
+            }
+        }
+
+        /**
+         * @param square
+         *            A square of the board.
+         * @return The cell of the square.
+         */
+        int cellOf(Square square) {
+            return square.getY() * width + square.getX();
+        }
+
+        /**
+         * @return The amount of cells.
+         */
+        int size() {
+            return neighbours.length / DIRECTIONS;
+        }
+    }
+
+    /**
+     * Per square of a board, the nearest of some units and the distance to
+     * it, found by a single breadth first search from all units at once.
+     */
+    private static final class DistanceField {
+
+        /**
+         * Per cell, the distance to the nearest unit, or -1 if there is
+         * none.
+         */
+        private final int[] distances;
+
+        /**
+         * Per cell, the nearest unit, or <code>null</code>.
+         */
+        private final Unit[] nearest;
+
+        /**
+         * Computes the field.
+         *
+         * @param grid
+         *            The board.
+         * @param sources
+         *            The units to measure the distance to.
+         */
+        DistanceField(Grid grid, List<Unit> sources) {
+            this.distances = new int[grid.size()];
+            this.nearest = new Unit[grid.size()];
+            Arrays.fill(distances, -1);
+            int[] queue = new int[grid.size()];
+            int tail = 0;
+            for (Unit unit : sources) {
+                int cell = grid.cellOf(unit.getSquare());
+                if (distances[cell] < 0) {
+                    distances[cell] = 0;
+                    nearest[cell] = unit;
+                    queue[tail++] = cell;
+                }
+            }
+            for (int head = 0; head < tail; head++) {
+                int cell = queue[head];
+                for (int d = 0; d < DIRECTIONS; d++) {
+                    int next = grid.neighbours[cell * DIRECTIONS + d];
+                    if (distances[next] < 0) {
+                        distances[next] = distances[cell] + 1;
+                        nearest[next] = nearest[cell];
+                        queue[tail++] = next;
+                    }
+                }
+            }
+        }
+    }
+}
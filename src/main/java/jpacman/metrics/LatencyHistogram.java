@@ -0,0 +1,126 @@
+package jpacman.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A histogram of latencies that can be recorded from many threads at once
+ * without locking. Latencies are counted in buckets of powers of two
+ * nanoseconds, so percentiles are accurate to within a factor of two, which
+ * is plenty to tell a responsive game from a sluggish one.
+ */
+public final class LatencyHistogram {
+
+    /**
+     * The amount of buckets, one for every possible bit length of a
+     * <code>long</code>.
+     */
+    private static final int BUCKETS = Long.SIZE;
+
+    /**
+     * The percentile covering all latencies.
+     */
+    private static final double ALL = 100.0;
+
+    /**
+     * Per bucket, the amount of latencies recorded in it. Bucket
+     * <code>i</code> holds latencies of at least <code>2^(i-1)</code> and below
+     * <code>2^i</code> nanoseconds.
+     */
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+    /**
+     * The total amount of recorded latencies.
+     */
+    private final AtomicLong count = new AtomicLong();
+
+    /**
+     * The largest recorded latency.
+     */
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * Records a latency.
+     *
+     * @param nanos
+     *            The latency in nanoseconds, negative values count as 0.
+     */
+    public void record(long nanos) {
+        long latency = Math.max(0L, nanos);
+        counts.incrementAndGet(BUCKETS - Long.numberOfLeadingZeros(latency));
+        count.incrementAndGet();
+        max.accumulateAndGet(latency, Math::max);
+    }
+
+    /**
+     * @return The amount of recorded latencies.
+     */
+    public long getCount() {
+        return count.get();
+    }
+
+    /**
+     * @return The largest recorded latency in nanoseconds.
+     */
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * Estimates a percentile of the recorded latencies.
+     *
+     * @param percentile
+     *            The percentile, between 0 and 100, e.g. 99.9.
+     * @return An upper bound of the latency in nanoseconds below which the
+     *         given percentage of the latencies fall, at most twice the actual
+     *         value, or 0 if nothing was recorded.
+     */
+    public long getPercentile(double percentile) {
+        assert percentile >= 0 && percentile <= ALL;
+        long total = count.get();
+        if (total == 0) {
+            return 0L;
+        }
+        long rank = (long) Math.ceil(total * percentile / ALL);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= rank && seen > 0) {
+                return Math.min(upperBound(i), max.get());
+            }
+        }
+        return max.get();
+    }
+
+    /**
+     * @param bucket
+     *            The index of a bucket.
+     * @return The largest latency counted in the bucket.
+     */
+    private static long upperBound(int bucket) {
+        if (bucket == BUCKETS - 1) {
+            return Long.MAX_VALUE;
+        }
+        return (1L << bucket) - 1;
+    }
+
+    /**
+     * Forgets all recorded latencies.
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts.set(i, 0L);
+        }
+        count.set(0L);
+        max.set(0L);
+    }
+
+    @Override
+    public String toString() {
+        final int p50 = 50;
+        final int p99 = 99;
+        final double p999 = 99.9;
+        return String.format("n=%d p50=%dns p99=%dns p99.9=%dns max=%dns", getCount(),
+            getPercentile(p50), getPercentile(p99), getPercentile(p999), getMax());
+    }
+}
@@ -0,0 +1,38 @@
+package jpacman.npc;
+
+import jpacman.board.Square;
+import jpacman.board.Unit;
+import jpacman.npc.ghost.Navigation;
+
+/**
+ * Answers the questions of ghost AIs by searching the board anew for every
+ * question.
+ */
+final class DirectWorldQuery implements WorldQuery {
+
+    /**
+     * The only instance, as it has no state.
+     */
+    static final WorldQuery INSTANCE = new DirectWorldQuery();
+
+    /**
+     * Use {@link #INSTANCE}.
+     */
+    private DirectWorldQuery() {
+    }
+
+    @Override
+    public <T extends Unit> T findNearest(Class<T> type, Square from) {
+        return type.cast(Navigation.findNearest(type, from));
+    }
+
+    @Override
+    public int distanceToNearest(Class<? extends Unit> type, Square from) {
+        return Navigation.distanceToNearest(type, from);
+    }
+
+    @Override
+    public Square squaresAheadOf(Unit unit, int amount) {
+        return unit.squaresAheadOf(amount);
+    }
+}
@@ -3,13 +3,15 @@ package jpacman.npc;
 import jpacman.board.Direction;
 import jpacman.board.Square;
 import jpacman.board.Unit;
+import jpacman.random.RandomStream;
 import jpacman.sprite.Sprite;
 
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
 
 /**
  * A non-player unit.
@@ -32,6 +34,27 @@ public abstract class Ghost extends Unit {
      */
     private final int intervalVariation;
 
+    /**
+     * The random numbers of this ghost, for its intervals and random moves.
+     */
+    private volatile RandomStream random = new RandomStream(RandomStream.randomSeed());
+
+    /**
+     * The path found by the last search and how far this ghost followed it,
+     * or <code>null</code> before the first search.
+     */
+    private volatile PathMemo memo;
+
+    /**
+     * The amount of decisions that reused the path of an earlier one.
+     */
+    private final AtomicLong pathHits = new AtomicLong();
+
+    /**
+     * The amount of decisions that searched for a path.
+     */
+    private final AtomicLong pathSearches = new AtomicLong();
+
     /**
      * Calculates the next move for this unit and returns the direction to move
      * in.
@@ -51,7 +74,21 @@ public abstract class Ghost extends Unit {
      * @return an optional containing the move or empty if the current state of the game
      * makes the ai move impossible
      */
-    public abstract Optional<Direction> nextAiMove();
+    public Optional<Direction> nextAiMove() {
+        return nextAiMove(WorldQuery.direct());
+    }
+
+    /**
+     * Tries to calculate a move based on the behaviour of the npc, asking
+     * the given query about the world rather than searching the board
+     * itself, so ghosts deciding on the same board share the work.
+     *
+     * @param world
+     *            The answers to questions about the world.
+     * @return an optional containing the move or empty if the current state of the game
+     * makes the ai move impossible
+     */
+    public abstract Optional<Direction> nextAiMove(WorldQuery world);
 
     /**
      * Creates a new ghost.
@@ -66,6 +103,53 @@ public abstract class Ghost extends Unit {
         this.moveInterval = moveInterval;
     }
 
+    /**
+     * Gives the rest of the shortest path from the square of this ghost to a
+     * target. The path found by the last search is reused for as long as the
+     * target stays the same and this ghost stays on it: after every step
+     * taken along the path the rest of it is still a shortest path, so only
+     * a new target, or a step off the path, takes a new search.
+     *
+     * @param target
+     *            The square to go to.
+     * @param search
+     *            Finds the shortest path from the square of this ghost to
+     *            the target, or <code>null</code> if there is none.
+     * @return The directions to go in, in order, or <code>null</code> if the
+     *         target cannot be reached.
+     */
+    protected final List<Direction> pathTo(Square target, Supplier<List<Direction>> search) {
+        Square square = getSquare();
+        PathMemo last = memo;
+        PathMemo next = null;
+        if (last != null) {
+            next = last.follow(square, target);
+        }
+        if (next == null) {
+            pathSearches.incrementAndGet();
+            next = new PathMemo(target, search.get(), 0, square);
+        } else {
+            pathHits.incrementAndGet();
+        }
+        memo = next;
+        return next.remaining();
+    }
+
+    /**
+     * @return The amount of decisions that reused the path of an earlier
+     *         decision instead of searching.
+     */
+    public long getPathHits() {
+        return pathHits.get();
+    }
+
+    /**
+     * @return The amount of decisions that searched for a path.
+     */
+    public long getPathSearches() {
+        return pathSearches.get();
+    }
+
     @Override
     public Sprite getSprite() {
         return sprites.get(getDirection());
@@ -77,7 +161,47 @@ public abstract class Ghost extends Unit {
      * @return The suggested delay between moves in milliseconds.
      */
     public long getInterval() {
-        return this.moveInterval + new Random().nextInt(this.intervalVariation);
+        if (intervalVariation <= 0) {
+            return moveInterval;
+        }
+        return this.moveInterval + random.nextInt(this.intervalVariation);
+    }
+
+    /**
+     * Replaces the random numbers of this ghost, typically by a stream
+     * derived from the seed of its level so its game can be reproduced.
+     *
+     * @param stream
+     *            The random numbers to use from now on.
+     */
+    public void setRandom(RandomStream stream) {
+        assert stream != null;
+        this.random = stream;
+    }
+
+    /**
+     * @return The random numbers of this ghost.
+     */
+    public RandomStream getRandom() {
+        return random;
+    }
+
+    /**
+     * Determines a move without consulting the AI, for when there is no time
+     * for it: the preferred direction if the ghost can go that way, or a
+     * random direction otherwise.
+     *
+     * @param preferred
+     *            The direction to keep going in, e.g. the last one the AI
+     *            decided on, or <code>null</code>.
+     * @return The direction to move in, or <code>null</code> if the ghost is
+     * shut in by inaccessible squares.
+     */
+    public Direction fallbackMove(Direction preferred) {
+        if (preferred != null && getSquare().getSquareAt(preferred).isAccessibleTo(this)) {
+            return preferred;
+        }
+        return randomMove();
     }
 
     /**
@@ -97,7 +221,88 @@ public abstract class Ghost extends Unit {
         if (directions.isEmpty()) {
             return null;
         }
-        int i = new Random().nextInt(directions.size());
+        int i = random.nextInt(directions.size());
         return directions.get(i);
     }
+
+    /**
+     * A path found by a search, and the part of it a ghost followed since.
+     */
+    private static final class PathMemo {
+
+        /**
+         * The square the path leads to.
+         */
+        private final Square target;
+
+        /**
+         * The directions of the path, or <code>null</code> if the target
+         * could not be reached.
+         */
+        private final List<Direction> path;
+
+        /**
+         * The index of the next direction to go in.
+         */
+        private final int index;
+
+        /**
+         * The square the next direction is taken from.
+         */
+        private final Square square;
+
+        /**
+         * Creates a new memo.
+         *
+         * @param target
+         *            The square the path leads to.
+         * @param path
+         *            The directions of the path, or <code>null</code>.
+         * @param index
+         *            The index of the next direction to go in.
+         * @param square
+         *            The square the next direction is taken from.
+         */
+        PathMemo(Square target, List<Direction> path, int index, Square square) {
+            this.target = target;
+            this.path = path;
+            this.index = index;
+            this.square = square;
+        }
+
+        /**
+         * Follows the path to where the ghost is now.
+         *
+         * @param current
+         *            The square the ghost is on.
+         * @param goal
+         *            The square the ghost wants to go to.
+         * @return The memo for the square of the ghost, or <code>null</code>
+         *         if the goal changed or the ghost left the path.
+         */
+        PathMemo follow(Square current, Square goal) {
+            if (!target.equals(goal)) {
+                return null;
+            }
+            if (square.equals(current)) {
+                return this;
+            }
+            if (path != null && index < path.size()
+                && square.getSquareAt(path.get(index)).equals(current)) {
+                return new PathMemo(target, path, index + 1, current);
+            }
+            return null;
+        }
+
+        /**
+         * @return The directions left to go in, or <code>null</code> if the
+         *         target could not be reached.
+         */
+        List<Direction> remaining() {
+            if (path == null) {
+                return null;
+            }
+            return path.subList(index, path.size());
+        }
+    }
 }
@@ -0,0 +1,60 @@
+package jpacman.npc;
+
+import jpacman.board.Square;
+import jpacman.board.Unit;
+
+/**
+ * The questions the AIs of ghosts ask about the world, like where the
+ * nearest player is. A level answers them from a context it computes once
+ * per state of the board and shares with all its ghosts, so that the work
+ * no longer grows with the amount of ghosts asking. Outside a level the
+ * {@link #direct()} implementation searches the board on every question.
+ */
+public interface WorldQuery {
+
+    /**
+     * Finds the nearest unit of a type, searching the board in all
+     * directions regardless of terrain.
+     *
+     * @param type
+     *            The type of unit to search for.
+     * @param from
+     *            The square to search from.
+     * @param <T>
+     *            The type of unit searched for.
+     * @return The nearest unit of the type, or <code>null</code> if there is
+     *         none.
+     */
+    <T extends Unit> T findNearest(Class<T> type, Square from);
+
+    /**
+     * Measures the distance to the nearest unit of a type, regardless of
+     * terrain.
+     *
+     * @param type
+     *            The type of unit to search for.
+     * @param from
+     *            The square to measure from.
+     * @return The distance in squares, or -1 if there is no such unit.
+     */
+    int distanceToNearest(Class<? extends Unit> type, Square from);
+
+    /**
+     * Determines the square a number of squares ahead of a unit, in the
+     * direction it is facing.
+     *
+     * @param unit
+     *            The unit.
+     * @param amount
+     *            The amount of squares to look ahead.
+     * @return The square that far ahead.
+     */
+    Square squaresAheadOf(Unit unit, int amount);
+
+    /**
+     * @return A query that searches the board anew for every question.
+     */
+    static WorldQuery direct() {
+        return DirectWorldQuery.INSTANCE;
+    }
+}
@@ -9,6 +9,7 @@ import jpacman.board.Square;
 import jpacman.board.Unit;
 import jpacman.level.Player;
 import jpacman.npc.Ghost;
+import jpacman.npc.WorldQuery;
 import jpacman.sprite.Sprite;
 
 /**
@@ -79,19 +80,20 @@ public class Blinky extends Ghost {
      * </p>
      */
     @Override
-    public Optional<Direction> nextAiMove() {
+    public Optional<Direction> nextAiMove(WorldQuery world) {
         assert hasSquare();
 
         // TODO Blinky should patrol his corner every once in a while
         // TODO Implement his actual behaviour instead of simply chasing.
-        Unit nearest = Navigation.findNearest(Player.class, getSquare());
+        Unit nearest = world.findNearest(Player.class, getSquare());
         if (nearest == null) {
             return Optional.empty();
         }
         assert nearest.hasSquare();
         Square target = nearest.getSquare();
 
-        List<Direction> path = Navigation.shortestPath(getSquare(), target, this);
+        List<Direction> path = pathTo(target,
+            () -> Navigation.shortestPath(getSquare(), target, this));
         if (path != null && !path.isEmpty()) {
             return Optional.ofNullable(path.get(0));
         }
@@ -10,6 +10,7 @@ import jpacman.board.Square;
 import jpacman.board.Unit;
 import jpacman.level.Player;
 import jpacman.npc.Ghost;
+import jpacman.npc.WorldQuery;
 import jpacman.sprite.Sprite;
 
 /**
@@ -91,17 +92,18 @@ public class Clyde extends Ghost {
      * </p>
      */
     @Override
-    public Optional<Direction> nextAiMove() {
+    public Optional<Direction> nextAiMove(WorldQuery world) {
         assert hasSquare(); //Test
 
-        Unit nearest = Navigation.findNearest(Player.class, getSquare()); //Type unit,
+        Unit nearest = world.findNearest(Player.class, getSquare()); //Type unit,
         if (nearest == null) {
             return Optional.empty();
         }
         assert nearest.hasSquare(); //Test
         Square target = nearest.getSquare();
 
-        List<Direction> path = Navigation.shortestPath(getSquare(), target, this);
+        List<Direction> path = pathTo(target,
+            () -> Navigation.shortestPath(getSquare(), target, this));
         if (path != null && !path.isEmpty()) {
             Direction direction = path.get(0);
             if (path.size() <= SHYNESS) {
@@ -5,6 +5,7 @@ import jpacman.board.Square;
 import jpacman.board.Unit;
 import jpacman.level.Player;
 import jpacman.npc.Ghost;
+import jpacman.npc.WorldQuery;
 import jpacman.sprite.Sprite;
 
 import java.util.List;
@@ -82,17 +83,17 @@ public class Inky extends Ghost {
      * </p>
      */
     @Override
-    public Optional<Direction> nextAiMove() {
+    public Optional<Direction> nextAiMove(WorldQuery world) {
         assert hasSquare();
-        Unit blinky = Navigation.findNearest(Blinky.class, getSquare());
-        Unit player = Navigation.findNearest(Player.class, getSquare());
+        Unit blinky = world.findNearest(Blinky.class, getSquare());
+        Unit player = world.findNearest(Player.class, getSquare());
 
         if (blinky == null || player == null) {
             return Optional.empty();
         }
 
         assert player.hasSquare();
-        Square playerDestination = player.squaresAheadOf(SQUARES_AHEAD);
+        Square playerDestination = world.squaresAheadOf(player, SQUARES_AHEAD);
 
         List<Direction> firstHalf = Navigation.shortestPath(blinky.getSquare(),
             playerDestination, null);
@@ -102,8 +103,8 @@ public class Inky extends Ghost {
         }
 
         Square destination = followPath(firstHalf, playerDestination);
-        List<Direction> path = Navigation.shortestPath(getSquare(),
-            destination, this);
+        List<Direction> path = pathTo(destination,
+            () -> Navigation.shortestPath(getSquare(), destination, this));
 
         if (path != null && !path.isEmpty()) {
             return Optional.ofNullable(path.get(0));
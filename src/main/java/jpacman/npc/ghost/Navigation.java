@@ -1,8 +1,12 @@
 package jpacman.npc.ghost;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Queue;
 import java.util.Set;
 
 import jpacman.board.Board;
@@ -45,11 +49,11 @@ public final class Navigation {
             return new ArrayList<>();
         }
 
-        List<Node> targets = new ArrayList<>();
+        Queue<Node> targets = new ArrayDeque<>();
         Set<Square> visited = new HashSet<>();
         targets.add(new Node(null, from, null));
         while (!targets.isEmpty()) {
-            Node node = targets.remove(0);
+            Node node = targets.remove();
             Square square = node.getSquare();
             if (square.equals(to)) {
                 return node.getPath();
@@ -60,7 +64,7 @@ public final class Navigation {
         return null;
     }
 
-    private static void addNewTargets(Unit traveller, List<Node> targets,
+    private static void addNewTargets(Unit traveller, Queue<Node> targets,
                                       Set<Square> visited, Node node, Square square) {
         for (Direction direction : Direction.values()) {
             Square target = square.getSquareAt(direction);
@@ -74,7 +78,8 @@ public final class Navigation {
     /**
      * Finds the nearest unit of the given type and returns its location. This
      * method will perform a breadth first search starting from the given
-     * square.
+     * square, so the time it takes depends on the distance to the nearest
+     * unit, not on the amount of units of the type on the board.
      *
      * @param type
      *            The type of unit to search for.
@@ -85,22 +90,22 @@ public final class Navigation {
      */
     public static Unit findNearest(Class<? extends Unit> type,
                                              Square currentLocation) {
-        List<Square> toDo = new ArrayList<>();
-        Set<Square> visited = new HashSet<>();
+        Queue<Square> toDo = new ArrayDeque<>();
+        Set<Square> seen = new HashSet<>();
 
         toDo.add(currentLocation);
+        seen.add(currentLocation);
 
         while (!toDo.isEmpty()) {
-            Square square = toDo.remove(0);
+            Square square = toDo.remove();
             Unit unit = findUnit(type, square);
             if (unit != null) {
                 assert unit.hasSquare();
                 return unit;
             }
-            visited.add(square);
             for (Direction direction : Direction.values()) {
                 Square newTarget = square.getSquareAt(direction);
-                if (!visited.contains(newTarget) && !toDo.contains(newTarget)) {
+                if (seen.add(newTarget)) {
                     toDo.add(newTarget);
                 }
             }
@@ -108,6 +113,40 @@ public final class Navigation {
         return null;
     }
 
+    /**
+     * Measures the distance to the nearest unit of the given type, with the
+     * same breadth first search as {@link #findNearest(Class, Square)}.
+     *
+     * @param type
+     *            The type of unit to search for.
+     * @param currentLocation
+     *            The starting location for the search.
+     * @return The distance in squares, or -1 if no such unit could be found.
+     */
+    public static int distanceToNearest(Class<? extends Unit> type,
+                                        Square currentLocation) {
+        Queue<Square> toDo = new ArrayDeque<>();
+        Map<Square, Integer> distances = new HashMap<>();
+
+        toDo.add(currentLocation);
+        distances.put(currentLocation, 0);
+
+        while (!toDo.isEmpty()) {
+            Square square = toDo.remove();
+            int distance = distances.get(square);
+            if (findUnit(type, square) != null) {
+                return distance;
+            }
+            for (Direction direction : Direction.values()) {
+                Square newTarget = square.getSquareAt(direction);
+                if (distances.putIfAbsent(newTarget, distance + 1) == null) {
+                    toDo.add(newTarget);
+                }
+            }
+        }
+        return -1;
+    }
+
     /**
      *  Finds a subtype of Unit in a level.
      *  This method is very useful for finding the ghosts in the parsed map.
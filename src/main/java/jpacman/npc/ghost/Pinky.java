@@ -9,6 +9,7 @@ import jpacman.board.Square;
 import jpacman.board.Unit;
 import jpacman.level.Player;
 import jpacman.npc.Ghost;
+import jpacman.npc.WorldQuery;
 import jpacman.sprite.Sprite;
 
 /**
@@ -88,17 +89,18 @@ public class Pinky extends Ghost {
      * </p>
      */
     @Override
-    public Optional<Direction> nextAiMove() {
+    public Optional<Direction> nextAiMove(WorldQuery world) {
         assert hasSquare();
 
-        Unit player = Navigation.findNearest(Player.class, getSquare());
+        Unit player = world.findNearest(Player.class, getSquare());
         if (player == null) {
             return Optional.empty();
         }
         assert player.hasSquare();
-        Square destination = player.squaresAheadOf(SQUARES_AHEAD);
+        Square destination = world.squaresAheadOf(player, SQUARES_AHEAD);
 
-        List<Direction> path = Navigation.shortestPath(getSquare(), destination, this);
+        List<Direction> path = pathTo(destination,
+            () -> Navigation.shortestPath(getSquare(), destination, this));
         if (path != null && !path.isEmpty()) {
             return Optional.ofNullable(path.get(0));
         }
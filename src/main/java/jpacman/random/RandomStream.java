@@ -0,0 +1,147 @@
+package jpacman.random;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * A seedable stream of pseudo-random numbers that can be split into
+ * independent streams, using the SplitMix64 generator. The whole state is
+ * one long, so a stream costs nothing to create, can be stored with the
+ * state of a level and be restored exactly.
+ *
+ * <p>
+ * Everything in a level that is random draws from a stream of its own,
+ * split from one stream seeded by the level. Given the same seed, every
+ * unit therefore makes the same random choices in the same order, however
+ * the threads deciding for the units are scheduled. A stream is not
+ * thread safe; it is used by one thread at a time.
+ * </p>
+ */
+public final class RandomStream {
+
+    /**
+     * The amount the state advances by per number, the odd number closest to
+     * 2^64 divided by the golden ratio.
+     */
+    private static final long GAMMA = 0x9e3779b97f4a7c15L;
+
+    /**
+     * The first multiplier of the mixing function.
+     */
+    private static final long MIX1 = 0xbf58476d1ce4e5b9L;
+
+    /**
+     * The second multiplier of the mixing function.
+     */
+    private static final long MIX2 = 0x94d049bb133111ebL;
+
+    /**
+     * The first shift of the mixing function.
+     */
+    private static final int SHIFT1 = 30;
+
+    /**
+     * The second shift of the mixing function.
+     */
+    private static final int SHIFT2 = 27;
+
+    /**
+     * The third shift of the mixing function.
+     */
+    private static final int SHIFT3 = 31;
+
+    /**
+     * The shift that leaves the 31 high bits of a long.
+     */
+    private static final int INT_SHIFT = 33;
+
+    /**
+     * The state of the generator.
+     */
+    private long state;
+
+    /**
+     * Creates a new stream.
+     *
+     * @param seed
+     *            The seed; streams with the same seed give the same numbers.
+     */
+    public RandomStream(long seed) {
+        this.state = seed;
+    }
+
+    /**
+     * @return A seed that differs from run to run, for when a game need not
+     *         be reproducible.
+     */
+    public static long randomSeed() {
+        return ThreadLocalRandom.current().nextLong();
+    }
+
+    /**
+     * @return The next pseudo-random long.
+     */
+    public long nextLong() {
+        state += GAMMA;
+        return mix(state);
+    }
+
+    /**
+     * Gives a pseudo-random number between 0 (inclusive) and a bound
+     * (exclusive), every number equally likely.
+     *
+     * @param bound
+     *            The bound, larger than 0.
+     * @return The next pseudo-random number below the bound.
+     */
+    public int nextInt(int bound) {
+        assert bound > 0;
+        int bits;
+        int value;
+        do {
+            bits = (int) (nextLong() >>> INT_SHIFT);
+            value = bits % bound;
+        } while (bits - value + (bound - 1) < 0);
+        return value;
+    }
+
+    /**
+     * Creates a new stream from this one, whose numbers are not related to
+     * the numbers this stream gives. Advances this stream by one number.
+     *
+     * @return The new stream.
+     */
+    public RandomStream split() {
+        return new RandomStream(mix(nextLong()));
+    }
+
+    /**
+     * @return The state of this stream, to restore later.
+     */
+    public long getState() {
+        return state;
+    }
+
+    /**
+     * Puts this stream back in an earlier state, so it gives the same
+     * numbers again.
+     *
+     * @param restored
+     *            A state returned by {@link #getState()}.
+     */
+    public void setState(long restored) {
+        this.state = restored;
+    }
+
+    /**
+     * Scrambles the bits of a value.
+     *
+     * @param value
+     *            The value.
+     * @return The scrambled value.
+     */
+    private static long mix(long value) {
+        long z = (value ^ (value >>> SHIFT1)) * MIX1;
+        z = (z ^ (z >>> SHIFT2)) * MIX2;
+        return z ^ (z >>> SHIFT3);
+    }
+}
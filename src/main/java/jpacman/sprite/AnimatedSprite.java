@@ -2,9 +2,12 @@ package jpacman.sprite;
 
 import java.awt.Graphics;
 
+import jpacman.clock.GameClock;
+
 /**
  * Animated sprite, renders the frame depending on the time of requesting the
- * draw.
+ * draw. The frames themselves are held by a shared {@link Animation}, an
+ * animated sprite merely keeps track of its own playback.
  *
  * @author Jeroen Roosen 
  */
@@ -16,19 +19,14 @@ public class AnimatedSprite implements Sprite {
     private static final Sprite END_OF_LOOP = new EmptySprite();
 
     /**
-     * The animation itself, in frames.
-     */
-    private final Sprite[] animationFrames;
-
-    /**
-     * The delay between frames.
+     * The (shared) animation being played.
      */
-    private final int animationDelay;
+    private final Animation animation;
 
     /**
-     * Whether is animation should be looping or not.
+     * The clock the animation follows.
      */
-    private final boolean looping;
+    private final GameClock clock;
 
     /**
      * The index of the current frame.
@@ -41,7 +39,7 @@ public class AnimatedSprite implements Sprite {
     private boolean animating;
 
     /**
-     * The {@link System#currentTimeMillis()} stamp of the last update.
+     * The time of the clock of the last update, in milliseconds.
      */
     private long lastUpdate;
 
@@ -73,15 +71,49 @@ public class AnimatedSprite implements Sprite {
      *            Whether or not this sprite is animating from the start.
      */
     public AnimatedSprite(Sprite[] frames, int delay, boolean loop, boolean isAnimating) {
-        assert frames.length > 0;
+        this(new Animation(frames, delay, loop), isAnimating);
+    }
+
+    /**
+     * Creates a new sprite playing a (shared) animation.
+     *
+     * @param animation
+     *            The animation to play.
+     * @param isAnimating
+     *            Whether or not this sprite is animating from the start.
+     */
+    public AnimatedSprite(Animation animation, boolean isAnimating) {
+        this(animation, isAnimating, GameClock.system());
+    }
 
-        this.animationFrames = frames.clone();
-        this.animationDelay = delay;
-        this.looping = loop;
+    /**
+     * Creates a new sprite playing a (shared) animation at the pace of a
+     * clock.
+     *
+     * @param animation
+     *            The animation to play.
+     * @param isAnimating
+     *            Whether or not this sprite is animating from the start.
+     * @param clock
+     *            The clock the animation follows.
+     */
+    public AnimatedSprite(Animation animation, boolean isAnimating, GameClock clock) {
+        assert animation != null;
+        assert clock != null;
+
+        this.animation = animation;
         this.animating = isAnimating;
+        this.clock = clock;
 
         this.current = 0;
-        this.lastUpdate = System.currentTimeMillis();
+        this.lastUpdate = clock.currentTimeMillis();
+    }
+
+    /**
+     * @return The animation played by this sprite.
+     */
+    public Animation getAnimation() {
+        return animation;
     }
 
     /**
@@ -89,8 +121,8 @@ public class AnimatedSprite implements Sprite {
      */
     private Sprite currentSprite() {
         Sprite result = END_OF_LOOP;
-        if (current < animationFrames.length) {
-            result = animationFrames[current];
+        if (current < animation.getFrameCount()) {
+            result = animation.getFrame(current);
         }
         assert result != null;
         return result;
@@ -112,7 +144,7 @@ public class AnimatedSprite implements Sprite {
      */
     public void restart() {
         this.current = 0;
-        this.lastUpdate = System.currentTimeMillis();
+        this.lastUpdate = clock.currentTimeMillis();
         setAnimating(true);
     }
 
@@ -129,17 +161,19 @@ public class AnimatedSprite implements Sprite {
     }
 
     /**
-     * Updates the current frame index depending on the current system time.
+     * Updates the current frame index depending on the current time of the
+     * clock.
      */
     private void update() {
-        long now = System.currentTimeMillis();
+        long now = clock.currentTimeMillis();
         if (animating) {
+            int frames = animation.getFrameCount();
             while (lastUpdate < now) {
-                lastUpdate += animationDelay;
+                lastUpdate += animation.getDelay();
                 current++;
-                if (looping) {
-                    current %= animationFrames.length;
-                } else if (current == animationFrames.length) {
+                if (animation.isLooping()) {
+                    current %= frames;
+                } else if (current == frames) {
                     animating = false;
                 }
             }
@@ -0,0 +1,76 @@
+package jpacman.sprite;
+
+/**
+ * An immutable sequence of animation frames. A single animation can be shared
+ * by any number of {@link AnimatedSprite}s, each of which only keeps track of
+ * its own playback position.
+ */
+public final class Animation {
+
+    /**
+     * The animation itself, in frames.
+     */
+    private final Sprite[] frames;
+
+    /**
+     * The delay between frames.
+     */
+    private final int delay;
+
+    /**
+     * Whether this animation should be looping or not.
+     */
+    private final boolean looping;
+
+    /**
+     * Creates a new animation.
+     *
+     * @param frames
+     *            The frames of this animation.
+     * @param delay
+     *            The delay between frames.
+     * @param loop
+     *            Whether or not this animation should be looping.
+     */
+    public Animation(Sprite[] frames, int delay, boolean loop) {
+        assert frames.length > 0;
+
+        this.frames = frames.clone();
+        this.delay = delay;
+        this.looping = loop;
+    }
+
+    /**
+     * @return The amount of frames in this animation.
+     */
+    public int getFrameCount() {
+        return frames.length;
+    }
+
+    /**
+     * Returns the frame at the given index.
+     *
+     * @param index
+     *            The index of the frame, starting at 0.
+     * @return The frame at the given index.
+     */
+    public Sprite getFrame(int index) {
+        assert index >= 0 && index < frames.length;
+        return frames[index];
+    }
+
+    /**
+     * @return The delay between frames in milliseconds.
+     */
+    public int getDelay() {
+        return delay;
+    }
+
+    /**
+     * @return <code>true</code> iff this animation starts over after its last
+     *         frame.
+     */
+    public boolean isLooping() {
+        return looping;
+    }
+}
@@ -1,8 +1,13 @@
 package jpacman.sprite;
 
 import java.io.IOException;
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
 
 import jpacman.PacmanConfigurationException;
 import jpacman.board.Direction;
@@ -51,29 +56,74 @@ public class PacManSprites extends SpriteStore {
      */
     private static final int ANIMATION_DELAY = 200;
 
+    /**
+     * The Pac-Man sprite sheet.
+     */
+    private static final String PACMAN_RESOURCE = "/sprite/pacman.png";
+
+    /**
+     * The dying Pac-Man sprite sheet.
+     */
+    private static final String DEATH_RESOURCE = "/sprite/dead.png";
+
+    /**
+     * The wall sprite.
+     */
+    private static final String WALL_RESOURCE = "/sprite/wall.png";
+
+    /**
+     * The ground sprite.
+     */
+    private static final String GROUND_RESOURCE = "/sprite/floor.png";
+
+    /**
+     * The pellet sprite.
+     */
+    private static final String PELLET_RESOURCE = "/sprite/pellet.png";
+
+    /**
+     * The frames for every direction of every directional sprite sheet, cut
+     * only once per sheet and shared by all units using them.
+     */
+    private final Map<String, Map<Direction, Animation>> directionAnimations =
+        new ConcurrentHashMap<>();
+
+    /**
+     * The frames of the dying Pac-Man, or <code>null</code> if they have not
+     * been cut yet.
+     */
+    private Animation deathAnimation;
+
     /**
      * @return A map of animated Pac-Man sprites for all directions.
      */
     public Map<Direction, Sprite> getPacmanSprites() {
-        return directionSprite("/sprite/pacman.png", PACMAN_ANIMATION_FRAMES);
+        return directionSprite(PACMAN_RESOURCE, PACMAN_ANIMATION_FRAMES);
     }
 
     /**
      * @return The animation of a dying Pac-Man.
      */
     public AnimatedSprite getPacManDeathAnimation() {
-        String resource = "/sprite/dead.png";
-
-        Sprite baseImage = loadSprite(resource);
-        AnimatedSprite animation = createAnimatedSprite(baseImage, PACMAN_DEATH_FRAMES,
-            ANIMATION_DELAY, false);
-        animation.setAnimating(false);
+        return new AnimatedSprite(deathAnimation(), false, getClock());
+    }
 
-        return animation;
+    /**
+     * @return The shared frames of a dying Pac-Man, cut on first use.
+     */
+    private synchronized Animation deathAnimation() {
+        if (deathAnimation == null) {
+            Sprite baseImage = loadSprite(DEATH_RESOURCE);
+            deathAnimation = createAnimation(baseImage, PACMAN_DEATH_FRAMES,
+                ANIMATION_DELAY, false);
+        }
+        return deathAnimation;
     }
 
     /**
-     * Returns a new map with animations for all directions.
+     * Returns a new map with animations for all directions. The frames are
+     * shared with all other sprites of the same resource, only the playback
+     * state is new.
      *
      * @param resource
      *            The resource name of the sprite.
@@ -82,19 +132,38 @@ public class PacManSprites extends SpriteStore {
      * @return The animated sprite facing the given direction.
      */
     private Map<Direction, Sprite> directionSprite(String resource, int frames) {
-        Map<Direction, Sprite> sprite = new HashMap<>();
+        Map<Direction, Sprite> sprite = new EnumMap<>(Direction.class);
+
+        Map<Direction, Animation> animations = directionAnimations.computeIfAbsent(
+            resource, key -> directionAnimations(key, frames));
+        for (Map.Entry<Direction, Animation> entry : animations.entrySet()) {
+            sprite.put(entry.getKey(), new AnimatedSprite(entry.getValue(), true, getClock()));
+        }
+
+        return sprite;
+    }
+
+    /**
+     * Cuts a directional sprite sheet into looping animations.
+     *
+     * @param resource
+     *            The resource name of the sprite.
+     * @param frames
+     *            The number of frames in this sprite.
+     * @return The animation for every direction.
+     */
+    private Map<Direction, Animation> directionAnimations(String resource, int frames) {
+        Map<Direction, Animation> animations = new EnumMap<>(Direction.class);
 
         Sprite baseImage = loadSprite(resource);
         for (int i = 0; i < DIRECTIONS.length; i++) {
             Sprite directionSprite = baseImage.split(0, i * SPRITE_SIZE, frames
                 * SPRITE_SIZE, SPRITE_SIZE);
-            AnimatedSprite animation = createAnimatedSprite(directionSprite,
-                frames, ANIMATION_DELAY, true);
-            animation.setAnimating(true);
-            sprite.put(DIRECTIONS[i], animation);
+            animations.put(DIRECTIONS[i], createAnimation(directionSprite,
+                frames, ANIMATION_DELAY, true));
         }
 
-        return sprite;
+        return animations;
     }
 
     /**
@@ -107,30 +176,73 @@ public class PacManSprites extends SpriteStore {
     public Map<Direction, Sprite> getGhostSprite(GhostColor color) {
         assert color != null;
 
-        String resource = "/sprite/ghost_" + color.name().toLowerCase()
-            + ".png";
-        return directionSprite(resource, GHOST_ANIMATION_FRAMES);
+        return directionSprite(ghostResource(color), GHOST_ANIMATION_FRAMES);
+    }
+
+    /**
+     * @param color
+     *            The colour of the ghost.
+     * @return The resource name of the ghost sprite sheet.
+     */
+    private static String ghostResource(GhostColor color) {
+        return "/sprite/ghost_" + color.name().toLowerCase() + ".png";
     }
 
     /**
      * @return The sprite for the wall.
      */
     public Sprite getWallSprite() {
-        return loadSprite("/sprite/wall.png");
+        return loadSprite(WALL_RESOURCE);
     }
 
     /**
      * @return The sprite for the ground.
      */
     public Sprite getGroundSprite() {
-        return loadSprite("/sprite/floor.png");
+        return loadSprite(GROUND_RESOURCE);
     }
 
     /**
      * @return The sprite for the
      */
     public Sprite getPelletSprite() {
-        return loadSprite("/sprite/pellet.png");
+        return loadSprite(PELLET_RESOURCE);
+    }
+
+    /**
+     * Decodes every sprite used by the game in parallel and cuts all
+     * animations, so that the first frame can be drawn without loading
+     * anything. Calling this method is optional, sprites that were not
+     * preloaded are loaded on first use.
+     */
+    public void preload() {
+        List<String> resources = new ArrayList<>();
+        resources.add(PACMAN_RESOURCE);
+        resources.add(DEATH_RESOURCE);
+        resources.add(WALL_RESOURCE);
+        resources.add(GROUND_RESOURCE);
+        resources.add(PELLET_RESOURCE);
+        for (GhostColor color : GhostColor.values()) {
+            resources.add(ghostResource(color));
+        }
+        try {
+            preload(resources);
+        } catch (IOException e) {
+            throw new PacmanConfigurationException("Unable to preload sprites", e);
+        }
+
+        List<CompletableFuture<?>> cuts = new ArrayList<>();
+        cuts.add(CompletableFuture.runAsync(this::deathAnimation));
+        cuts.add(CompletableFuture.runAsync(() -> directionSprite(PACMAN_RESOURCE,
+            PACMAN_ANIMATION_FRAMES)));
+        for (GhostColor color : GhostColor.values()) {
+            cuts.add(CompletableFuture.runAsync(() -> getGhostSprite(color)));
+        }
+        try {
+            CompletableFuture.allOf(cuts.toArray(new CompletableFuture<?>[0])).join();
+        } catch (CompletionException e) {
+            throw new PacmanConfigurationException("Unable to preload sprites", e.getCause());
+        }
     }
 
     /**
@@ -5,11 +5,19 @@ import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import java.awt.image.BufferedImage;
 import java.io.IOException;
 import java.io.InputStream;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
 
 import javax.imageio.ImageIO;
 
+import jpacman.clock.GameClock;
+
 /**
  * Utility to load {@link Sprite}s.
  *
@@ -19,21 +27,48 @@ public class SpriteStore {
 
     /**
      * We only need to load images once, so we keep track
-     * of them in a hash map.
+     * of them in a hash map. Every resource maps to the (possibly still
+     * running) load of its image, so concurrent requests for the same
+     * resource wait for a single load instead of decoding it twice.
+     */
+    private final ConcurrentMap<String, Future<Sprite>> spriteMap;
+
+    /**
+     * The clock the animated sprites created from now on follow.
      */
-    private final Map<String, Sprite> spriteMap;
+    private volatile GameClock clock = GameClock.system();
 
     /**
      * Create a new sprite store.
      */
     public SpriteStore() {
-        spriteMap = new HashMap<>();
+        spriteMap = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Lets the animated sprites created from now on follow another clock,
+     * so they keep pace with a game running faster or slower than real time.
+     *
+     * @param gameClock
+     *            The clock.
+     */
+    public void setClock(GameClock gameClock) {
+        assert gameClock != null;
+        clock = gameClock;
+    }
+
+    /**
+     * @return The clock the animated sprites created from now on follow.
+     */
+    public GameClock getClock() {
+        return clock;
     }
 
     /**
      * Loads a sprite from a resource on the class path.
      * Sprites are loaded once, and then stored in the store
-     * so that they can be efficiently retrieved.
+     * so that they can be efficiently retrieved. This method is safe to call
+     * from multiple threads.
      *
      * @param resource
      *            The resource path.
@@ -42,12 +77,71 @@ public class SpriteStore {
      *             When the resource could not be loaded.
      */
     public Sprite loadSprite(String resource) throws IOException {
-        Sprite result = spriteMap.get(resource);
+        Future<Sprite> result = spriteMap.get(resource);
         if (result == null) {
-            result = loadSpriteFromResource(resource);
-            spriteMap.put(resource, result);
+            FutureTask<Sprite> load = new FutureTask<>(() -> loadSpriteFromResource(resource));
+            result = spriteMap.putIfAbsent(resource, load);
+            if (result == null) {
+                result = load;
+                load.run();
+            }
+        }
+        try {
+            return result.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while loading " + resource, e);
+        } catch (ExecutionException e) {
+            // Failed loads are not remembered, a later attempt may succeed.
+            spriteMap.remove(resource, result);
+            throw asIOException(e.getCause());
+        }
+    }
+
+    /**
+     * Loads all given resources in parallel, so that later calls to
+     * {@link #loadSprite(String)} can return them without decoding.
+     *
+     * @param resources
+     *            The resource paths to load.
+     * @throws IOException
+     *             When any of the resources could not be loaded.
+     */
+    public void preload(Collection<String> resources) throws IOException {
+        CompletableFuture<?>[] loads = resources.stream()
+            .map(resource -> CompletableFuture.runAsync(() -> {
+                try {
+                    loadSprite(resource);
+                } catch (IOException e) {
+                    throw new CompletionException(e);
+                }
+            }))
+            .toArray(CompletableFuture[]::new);
+        try {
+            CompletableFuture.allOf(loads).join();
+        } catch (CompletionException e) {
+            throw asIOException(e.getCause());
         }
-        return result;
+    }
+
+    /**
+     * Rethrows unchecked causes of a failed load and wraps the checked ones.
+     *
+     * @param cause
+     *            The cause of the failure.
+     * @return The cause as an IOException.
+     */
+    private static IOException asIOException(Throwable cause) {
+        if (cause instanceof IOException) {
+            return (IOException) cause;
+        }
+        if (cause instanceof RuntimeException) {
+            throw (RuntimeException) cause;
+        }
+        if (cause instanceof Error) {
+            throw (Error) cause;
+        }
+        return new IOException(cause);
     }
 
     /**
@@ -88,6 +182,25 @@ public class SpriteStore {
      */
     public AnimatedSprite createAnimatedSprite(Sprite baseImage, int frames,
                                                int delay, boolean loop) {
+        return new AnimatedSprite(createAnimation(baseImage, frames, delay, loop), false,
+            clock);
+    }
+
+    /**
+     * Cuts a base image into the frames of a new {@link Animation}. The
+     * resulting animation can be shared by any number of sprites.
+     *
+     * @param baseImage
+     *            The base image to convert into an animation.
+     * @param frames
+     *            The amount of frames of the animation.
+     * @param delay
+     *            The delay between frames.
+     * @param loop
+     *            Whether this is a looping animation or not.
+     * @return The animation.
+     */
+    public Animation createAnimation(Sprite baseImage, int frames, int delay, boolean loop) {
         assert baseImage != null;
         assert frames > 0;
 
@@ -99,7 +212,7 @@ public class SpriteStore {
                 baseImage.getHeight());
         }
 
-        return new AnimatedSprite(animation, delay, loop);
+        return new Animation(animation, delay, loop);
     }
 
 }
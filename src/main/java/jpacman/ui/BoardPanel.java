@@ -1,18 +1,17 @@
 package jpacman.ui;
 
-import java.awt.Color;
 import java.awt.Dimension;
 import java.awt.Graphics;
 
 import javax.swing.JPanel;
 
 import jpacman.board.Board;
-import jpacman.board.Square;
-import jpacman.board.Unit;
 import jpacman.game.Game;
+import jpacman.level.BoardSnapshot;
 
 /**
- * Panel displaying a game.
+ * Panel displaying a game. The panel draws the latest snapshot published by
+ * the level, so painting never waits for or interferes with moving units.
  *
  * @author Jeroen Roosen 
  *
@@ -24,22 +23,28 @@ class BoardPanel extends JPanel {
      */
     private static final long serialVersionUID = 1L;
 
-    /**
-     * The background colour of the board.
-     */
-    private static final Color BACKGROUND_COLOR = Color.BLACK;
-
     /**
      * The size (in pixels) of a square on the board. The initial size of this
      * panel will scale to fit a board with square of this size.
      */
-    private static final int SQUARE_SIZE = 16;
+    private static final int SQUARE_SIZE = BoardRenderer.SQUARE_SIZE;
 
     /**
      * The game to display.
      */
     private final Game game;
 
+    /**
+     * The renderer drawing the board.
+     */
+    private final BoardRenderer renderer;
+
+    /**
+     * The camera following the player, or <code>null</code> if the whole
+     * board is scaled to fit the panel.
+     */
+    private final Camera camera;
+
     /**
      * Creates a new board panel that will display the provided game.
      *
@@ -47,16 +52,39 @@ class BoardPanel extends JPanel {
      *            The game to display.
      */
     BoardPanel(Game game) {
+        this(game, null);
+    }
+
+    /**
+     * Creates a new board panel that will display the provided game. If a
+     * viewport is given and the board is larger than it, the panel only shows
+     * the part of the board around the player and scrolls along with it.
+     *
+     * @param game
+     *            The game to display.
+     * @param viewport
+     *            The maximum amount of columns (width) and rows (height) to
+     *            show at once, or <code>null</code> to show the whole board.
+     */
+    BoardPanel(Game game, Dimension viewport) {
         super();
         assert game != null;
         this.game = game;
+        this.renderer = new BoardRenderer();
 
         Board board = game.getLevel().getBoard();
 
-        int w = board.getWidth() * SQUARE_SIZE;
-        int h = board.getHeight() * SQUARE_SIZE;
+        int columns = board.getWidth();
+        int rows = board.getHeight();
+        if (viewport == null) {
+            this.camera = null;
+        } else {
+            this.camera = new Camera(columns * SQUARE_SIZE, rows * SQUARE_SIZE);
+            columns = Math.min(columns, viewport.width);
+            rows = Math.min(rows, viewport.height);
+        }
 
-        Dimension size = new Dimension(w, h);
+        Dimension size = new Dimension(columns * SQUARE_SIZE, rows * SQUARE_SIZE);
         setMinimumSize(size);
         setPreferredSize(size);
     }
@@ -64,57 +92,33 @@ class BoardPanel extends JPanel {
     @Override
     public void paint(Graphics g) {
         assert g != null;
-        render(game.getLevel().getBoard(), g, getSize());
-    }
-
-    /**
-     * Renders the board on the given graphics context to the given dimensions.
-     *
-     * @param board
-     *            The board to render.
-     * @param graphics
-     *            The graphics context to draw on.
-     * @param window
-     *            The dimensions to scale the rendered board to.
-     */
-    private void render(Board board, Graphics graphics, Dimension window) {
-        int cellW = window.width / board.getWidth();
-        int cellH = window.height / board.getHeight();
-
-        graphics.setColor(BACKGROUND_COLOR);
-        graphics.fillRect(0, 0, window.width, window.height);
-
-        for (int y = 0; y < board.getHeight(); y++) {
-            for (int x = 0; x < board.getWidth(); x++) {
-                int cellX = x * cellW;
-                int cellY = y * cellH;
-                Square square = board.squareAt(x, y);
-                render(square, graphics, cellX, cellY, cellW, cellH);
-            }
+        BoardSnapshot snapshot = game.getLevel().getSnapshot();
+        Dimension window = getSize();
+        if (camera == null) {
+            renderer.render(snapshot, g, window);
+            return;
         }
+        int player = followedPlayer(snapshot);
+        if (player >= 0) {
+            camera.follow(snapshot.getX(player) * SQUARE_SIZE + SQUARE_SIZE / 2,
+                snapshot.getY(player) * SQUARE_SIZE + SQUARE_SIZE / 2,
+                window.width, window.height);
+        }
+        renderer.render(snapshot, g, window, camera.getX(), camera.getY());
     }
 
     /**
-     * Renders a single square on the given graphics context on the specified
-     * rectangle.
-     *
-     * @param square
-     *            The square to render.
-     * @param graphics
-     *            The graphics context to draw on.
-     * @param x
-     *            The x position to start drawing.
-     * @param y
-     *            The y position to start drawing.
-     * @param width
-     *            The width of this square (in pixels.)
-     * @param height
-     *            The height of this square (in pixels.)
+     * @param snapshot
+     *            The snapshot to look in.
+     * @return The index of the first player that is on the board, or -1 if
+     *         there is none.
      */
-    private void render(Square square, Graphics graphics, int x, int y, int width, int height) {
-        square.getSprite().draw(graphics, x, y, width, height);
-        for (Unit unit : square.getOccupants()) {
-            unit.getSprite().draw(graphics, x, y, width, height);
+    private static int followedPlayer(BoardSnapshot snapshot) {
+        for (int i = 0; i < snapshot.getUnitCount(); i++) {
+            if (snapshot.getKind(i) == BoardSnapshot.Kind.PLAYER && snapshot.isOnBoard(i)) {
+                return i;
+            }
         }
+        return -1;
     }
 }
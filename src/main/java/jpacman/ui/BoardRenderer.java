@@ -0,0 +1,153 @@
+package jpacman.ui;
+
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.Graphics;
+import java.awt.Rectangle;
+
+import jpacman.board.Board;
+import jpacman.level.BoardSnapshot;
+
+/**
+ * Draws a {@link BoardSnapshot} of a level onto a graphics context, using the
+ * sprites of the squares and units. The renderer keeps no state, so a single
+ * renderer can be shared by any number of panels and off-screen images.
+ * Snapshots are drawn rather than the squares of the board, because other
+ * threads may be moving units on the board at the same time.
+ */
+public class BoardRenderer {
+
+    /**
+     * The size (in pixels) of a square on the board when it is drawn at its
+     * natural size.
+     */
+    public static final int SQUARE_SIZE = 16;
+
+    /**
+     * The background colour of the board.
+     */
+    private static final Color BACKGROUND_COLOR = Color.BLACK;
+
+    /**
+     * The amount of squares rendered beyond each edge of a region, so units
+     * entering the view are already drawn.
+     */
+    private static final int MARGIN = 1;
+
+    /**
+     * Renders a snapshot of a level on the given graphics context to the
+     * given dimensions.
+     *
+     * @param snapshot
+     *            The snapshot to render.
+     * @param graphics
+     *            The graphics context to draw on.
+     * @param window
+     *            The dimensions to scale the rendered board to.
+     */
+    public void render(BoardSnapshot snapshot, Graphics graphics, Dimension window) {
+        Board board = snapshot.getBoard();
+        graphics.setColor(BACKGROUND_COLOR);
+        graphics.fillRect(0, 0, window.width, window.height);
+        render(snapshot, graphics, new Rectangle(0, 0, board.getWidth(), board.getHeight()),
+            window.width / board.getWidth(), window.height / board.getHeight());
+    }
+
+    /**
+     * Renders a region of a snapshot of a level at its natural size, visiting
+     * only the squares that are (nearly) in view.
+     *
+     * @param snapshot
+     *            The snapshot to render.
+     * @param graphics
+     *            The graphics context to draw on.
+     * @param window
+     *            The dimensions of the view.
+     * @param left
+     *            The left edge of the view on the board, in pixels.
+     * @param top
+     *            The top edge of the view on the board, in pixels.
+     */
+    public void render(BoardSnapshot snapshot, Graphics graphics, Dimension window,
+                       int left, int top) {
+        graphics.setColor(BACKGROUND_COLOR);
+        graphics.fillRect(0, 0, window.width, window.height);
+
+        Board board = snapshot.getBoard();
+        int firstColumn = Math.max(0, left / SQUARE_SIZE - MARGIN);
+        int firstRow = Math.max(0, top / SQUARE_SIZE - MARGIN);
+        int lastColumn = Math.min(board.getWidth() - 1,
+            (left + window.width) / SQUARE_SIZE + MARGIN);
+        int lastRow = Math.min(board.getHeight() - 1,
+            (top + window.height) / SQUARE_SIZE + MARGIN);
+
+        graphics.translate(-left, -top);
+        try {
+            render(snapshot, graphics, new Rectangle(firstColumn, firstRow,
+                lastColumn - firstColumn + 1, lastRow - firstRow + 1), SQUARE_SIZE, SQUARE_SIZE);
+        } finally {
+            graphics.translate(left, top);
+        }
+    }
+
+    /**
+     * Renders the squares, pellets and units of a snapshot that are in a
+     * region of the board: squares first, then on every square its pellet,
+     * ghosts and players. Only the squares in the region are visited.
+     *
+     * @param snapshot
+     *            The snapshot to render.
+     * @param graphics
+     *            The graphics context to draw on.
+     * @param region
+     *            The columns and rows to render.
+     * @param cellW
+     *            The width of a square (in pixels.)
+     * @param cellH
+     *            The height of a square (in pixels.)
+     */
+    private void render(BoardSnapshot snapshot, Graphics graphics, Rectangle region,
+                        int cellW, int cellH) {
+        Board board = snapshot.getBoard();
+        for (int y = region.y; y < region.y + region.height; y++) {
+            for (int x = region.x; x < region.x + region.width; x++) {
+                board.squareAt(x, y).getSprite().draw(graphics, x * cellW, y * cellH,
+                    cellW, cellH);
+            }
+        }
+        for (int y = region.y; y < region.y + region.height; y++) {
+            for (int x = region.x; x < region.x + region.width; x++) {
+                renderContents(snapshot, graphics, x, y, cellW, cellH);
+            }
+        }
+    }
+
+    /**
+     * Renders the pellet and units on one square of a snapshot, ghosts
+     * before players.
+     *
+     * @param snapshot
+     *            The snapshot to render.
+     * @param graphics
+     *            The graphics context to draw on.
+     * @param x
+     *            The column of the square.
+     * @param y
+     *            The row of the square.
+     * @param cellW
+     *            The width of a square (in pixels.)
+     * @param cellH
+     *            The height of a square (in pixels.)
+     */
+    private void renderContents(BoardSnapshot snapshot, Graphics graphics, int x, int y,
+                                int cellW, int cellH) {
+        int pellet = snapshot.getPelletAt(x, y);
+        if (pellet >= 0 && snapshot.isPelletPresent(pellet)) {
+            snapshot.getPelletSprite(pellet).draw(graphics, x * cellW, y * cellH, cellW, cellH);
+        }
+        for (int n = snapshot.getUnitCountAt(x, y) - 1; n >= 0; n--) {
+            snapshot.getSprite(snapshot.getUnitAt(x, y, n)).draw(graphics, x * cellW,
+                y * cellH, cellW, cellH);
+        }
+    }
+}
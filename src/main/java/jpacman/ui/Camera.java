@@ -0,0 +1,133 @@
+package jpacman.ui;
+
+/**
+ * A camera looking at a part of a board that is larger than the window. The
+ * camera glides towards the unit it follows, so that the view scrolls smoothly
+ * instead of jumping a full square at a time.
+ *
+ * All positions are in pixels, with 0,0 being the top-left corner of the
+ * board.
+ */
+class Camera {
+
+    /**
+     * The part of the remaining distance covered in every frame.
+     */
+    private static final double SMOOTHING = 0.25;
+
+    /**
+     * Below this distance (in pixels) the camera snaps onto its target.
+     */
+    private static final double SNAP_DISTANCE = 0.5;
+
+    /**
+     * The width of the board in pixels.
+     */
+    private final int boardWidth;
+
+    /**
+     * The height of the board in pixels.
+     */
+    private final int boardHeight;
+
+    /**
+     * The current left edge of the view.
+     */
+    private double x;
+
+    /**
+     * The current top edge of the view.
+     */
+    private double y;
+
+    /**
+     * <code>true</code> iff the camera has not been aimed at anything yet.
+     */
+    private boolean unplaced;
+
+    /**
+     * Creates a new camera for a board of the given size.
+     *
+     * @param boardWidth
+     *            The width of the board in pixels.
+     * @param boardHeight
+     *            The height of the board in pixels.
+     */
+    Camera(int boardWidth, int boardHeight) {
+        this.boardWidth = boardWidth;
+        this.boardHeight = boardHeight;
+        this.unplaced = true;
+    }
+
+    /**
+     * Moves the camera one frame towards centering the view on the given
+     * point. The view never leaves the board. The first call places the
+     * camera directly.
+     *
+     * @param targetX
+     *            The x position (in pixels) to center on.
+     * @param targetY
+     *            The y position (in pixels) to center on.
+     * @param viewWidth
+     *            The width of the view in pixels.
+     * @param viewHeight
+     *            The height of the view in pixels.
+     */
+    void follow(int targetX, int targetY, int viewWidth, int viewHeight) {
+        double goalX = clamp(targetX - viewWidth / 2.0, boardWidth - viewWidth);
+        double goalY = clamp(targetY - viewHeight / 2.0, boardHeight - viewHeight);
+        if (unplaced) {
+            x = goalX;
+            y = goalY;
+            unplaced = false;
+            return;
+        }
+        x = approach(x, goalX);
+        y = approach(y, goalY);
+    }
+
+    /**
+     * Keeps a coordinate between 0 and its maximum.
+     *
+     * @param value
+     *            The coordinate.
+     * @param max
+     *            The largest allowed value, if negative the board is smaller
+     *            than the view and the coordinate becomes 0.
+     * @return The clamped coordinate.
+     */
+    private static double clamp(double value, double max) {
+        return Math.max(0, Math.min(value, max));
+    }
+
+    /**
+     * Takes a step from the current position towards the goal.
+     *
+     * @param current
+     *            The current position.
+     * @param goal
+     *            The desired position.
+     * @return The next position.
+     */
+    private static double approach(double current, double goal) {
+        double distance = goal - current;
+        if (Math.abs(distance) < SNAP_DISTANCE) {
+            return goal;
+        }
+        return current + distance * SMOOTHING;
+    }
+
+    /**
+     * @return The left edge of the view in pixels.
+     */
+    int getX() {
+        return (int) Math.round(x);
+    }
+
+    /**
+     * @return The top edge of the view in pixels.
+     */
+    int getY() {
+        return (int) Math.round(y);
+    }
+}
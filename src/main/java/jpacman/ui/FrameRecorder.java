@@ -0,0 +1,210 @@
+package jpacman.ui;
+
+import java.awt.Dimension;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import jpacman.board.Board;
+import jpacman.level.Level;
+
+/**
+ * Captures a level into off-screen images, without the need for a display.
+ * Frames are drawn with the same {@link BoardRenderer} as the on-screen
+ * panel, into a small pool of reusable images, and handed to a background
+ * encoder thread that writes them to a {@link FrameSink}.
+ *
+ * <p>
+ * Capturing never waits for the encoder: when all images are still being
+ * encoded the frame is dropped instead, so a recorder cannot slow down the
+ * game it records. Every recorder has its own images and encoder, so frames
+ * of many concurrently running games can be captured in parallel.
+ * </p>
+ */
+public class FrameRecorder {
+
+    /**
+     * The time to wait for pending frames when closing, in seconds.
+     */
+    private static final long CLOSE_TIMEOUT = 60L;
+
+    /**
+     * The level being recorded.
+     */
+    private final Level level;
+
+    /**
+     * The renderer drawing the frames.
+     */
+    private final BoardRenderer renderer;
+
+    /**
+     * The size of every frame in pixels.
+     */
+    private final Dimension size;
+
+    /**
+     * The images that are not being encoded at the moment.
+     */
+    private final BlockingQueue<BufferedImage> freeImages;
+
+    /**
+     * The destination of the frames.
+     */
+    private final FrameSink sink;
+
+    /**
+     * The thread writing frames to the sink.
+     */
+    private final ExecutorService encoder;
+
+    /**
+     * The amount of frames dropped because no image was available.
+     */
+    private final AtomicInteger dropped = new AtomicInteger();
+
+    /**
+     * The index of the next captured frame.
+     */
+    private int nextFrame;
+
+    /**
+     * The first failure of the encoder, or <code>null</code>.
+     */
+    private volatile IOException failure;
+
+    /**
+     * Creates a new recorder drawing every square at its natural size.
+     *
+     * @param level
+     *            The level to record.
+     * @param sink
+     *            The destination of the frames.
+     * @param buffers
+     *            The amount of images that may be waiting for the encoder at
+     *            the same time.
+     */
+    public FrameRecorder(Level level, FrameSink sink, int buffers) {
+        assert level != null;
+        assert sink != null;
+        assert buffers > 0;
+
+        this.level = level;
+        this.sink = sink;
+        Board board = level.getBoard();
+        this.renderer = new BoardRenderer();
+        this.size = new Dimension(board.getWidth() * BoardRenderer.SQUARE_SIZE,
+            board.getHeight() * BoardRenderer.SQUARE_SIZE);
+        this.freeImages = new ArrayBlockingQueue<>(buffers);
+        for (int i = 0; i < buffers; i++) {
+            freeImages.add(new BufferedImage(size.width, size.height,
+                BufferedImage.TYPE_INT_RGB));
+        }
+        this.encoder = Executors.newSingleThreadExecutor(task -> {
+            Thread thread = new Thread(task, "frame-encoder");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Draws the latest snapshot of the level and queues it for encoding.
+     * Frames should be captured from one thread at a time.
+     *
+     * @return <code>true</code> if the frame was captured, or
+     *         <code>false</code> if it was dropped because the encoder is
+     *         behind.
+     * @throws IllegalStateException
+     *             If the recorder was closed.
+     */
+    public boolean capture() {
+        if (encoder.isShutdown()) {
+            throw new IllegalStateException("The recorder is closed");
+        }
+        BufferedImage image = freeImages.poll();
+        if (image == null) {
+            dropped.incrementAndGet();
+            return false;
+        }
+        Graphics2D graphics = image.createGraphics();
+        try {
+            renderer.render(level.getSnapshot(), graphics, size);
+        } finally {
+            graphics.dispose();
+        }
+        int index = nextFrame;
+        try {
+            encoder.execute(() -> encode(index, image));
+        } catch (RejectedExecutionException e) {
+            freeImages.add(image);
+            throw new IllegalStateException("The recorder is closed", e);
+        }
+        nextFrame++;
+        return true;
+    }
+
+    /**
+     * Writes a frame to the sink and returns its image to the pool.
+     *
+     * @param index
+     *            The number of the frame.
+     * @param image
+     *            The image of the frame.
+     */
+    private void encode(int index, BufferedImage image) {
+        try {
+            if (failure == null) {
+                sink.write(index, image);
+            }
+        } catch (IOException e) {
+            failure = e;
+        } finally {
+            freeImages.add(image);
+        }
+    }
+
+    /**
+     * @return The amount of frames that were dropped so far.
+     */
+    public int getDroppedFrames() {
+        return dropped.get();
+    }
+
+    /**
+     * @return The size of the frames in pixels.
+     */
+    public Dimension getFrameSize() {
+        return new Dimension(size);
+    }
+
+    /**
+     * Waits for all captured frames to be written and closes the sink.
+     *
+     * @throws IOException
+     *             When any of the frames could not be written, or the
+     *             encoder did not finish in time.
+     */
+    public void close() throws IOException {
+        encoder.shutdown();
+        try {
+            if (!encoder.awaitTermination(CLOSE_TIMEOUT, TimeUnit.SECONDS)) {
+                throw new IOException("Timed out writing frames");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while writing frames", e);
+        } finally {
+            sink.close();
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+}
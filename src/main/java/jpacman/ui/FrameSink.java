@@ -0,0 +1,33 @@
+package jpacman.ui;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+
+/**
+ * Destination of the frames captured by a {@link FrameRecorder}. Frames are
+ * written one at a time, in the order they were captured, from the
+ * recorder's encoder thread.
+ */
+public interface FrameSink {
+
+    /**
+     * Writes a single frame. The image is reused for later frames once this
+     * method returns, so implementations must not hold on to it.
+     *
+     * @param index
+     *            The number of the frame, starting at 0.
+     * @param frame
+     *            The image of the frame.
+     * @throws IOException
+     *             When the frame could not be written.
+     */
+    void write(int index, BufferedImage frame) throws IOException;
+
+    /**
+     * Finishes the sequence, after the last frame was written.
+     *
+     * @throws IOException
+     *             When the sequence could not be finished.
+     */
+    void close() throws IOException;
+}
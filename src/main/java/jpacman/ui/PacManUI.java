@@ -2,6 +2,7 @@ package jpacman.ui;
 
 import java.awt.BorderLayout;
 import java.awt.Container;
+import java.awt.Dimension;
 import java.util.Map;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
@@ -11,6 +12,7 @@ import javax.swing.JFrame;
 import javax.swing.JPanel;
 import javax.swing.WindowConstants;
 
+import jpacman.clock.GameClock;
 import jpacman.game.Game;
 
 /**
@@ -50,6 +52,22 @@ public class PacManUI extends JFrame {
      */
     private final BoardPanel boardPanel;
 
+    /**
+     * The game being played.
+     */
+    private final transient Game game;
+
+    /**
+     * The thread drawing the frames, or <code>null</code> before the start.
+     */
+    private transient ScheduledExecutorService frames;
+
+    /**
+     * The repeating task drawing the frames, or <code>null</code> before the
+     * start.
+     */
+    private transient GameClock.Timer frameTimer;
+
     /**
      * Creates a new UI for a JPacman game.
      *
@@ -67,12 +85,38 @@ public class PacManUI extends JFrame {
     public PacManUI(final Game game, final Map<String, Action> buttons,
                     final Map<Integer, Action> keyMappings,
                     ScorePanel.ScoreFormatter scoreFormatter) {
+        this(game, buttons, keyMappings, scoreFormatter, null);
+    }
+
+    /**
+     * Creates a new UI for a JPacman game.
+     *
+     * @param game
+     *            The game to play.
+     * @param buttons
+     *            The map of caption-to-action entries that will appear as
+     *            buttons on the interface.
+     * @param keyMappings
+     *            The map of keyCode-to-action entries that will be added as key
+     *            listeners to the interface.
+     * @param scoreFormatter
+     *            The formatter used to display the current score.
+     * @param viewport
+     *            The maximum amount of columns and rows of the board shown at
+     *            once, following the player, or <code>null</code> to show the
+     *            whole board.
+     */
+    public PacManUI(final Game game, final Map<String, Action> buttons,
+                    final Map<Integer, Action> keyMappings,
+                    ScorePanel.ScoreFormatter scoreFormatter,
+                    Dimension viewport) {
         super("JPacman 2019111413");
         assert game != null;
         assert buttons != null;
         assert keyMappings != null;
 
         setDefaultCloseOperation(WindowConstants.EXIT_ON_CLOSE);
+        this.game = game;
 
         PacKeyListener keys = new PacKeyListener(keyMappings);
         addKeyListener(keys);
@@ -84,7 +128,7 @@ public class PacManUI extends JFrame {
             scorePanel.setScoreFormatter(scoreFormatter);
         }
 
-        boardPanel = new BoardPanel(game);
+        boardPanel = new BoardPanel(game, viewport);
 
         Container contentPanel = getContentPane();
         contentPanel.setLayout(new BorderLayout());
@@ -97,19 +141,37 @@ public class PacManUI extends JFrame {
 
     /**
      * Starts the "engine", the thread that redraws the interface at set
-     * intervals.
+     * intervals of the clock of the level. Swing coalesces repaints, so a
+     * clock running faster than real time does not flood the screen.
      */
     public void start() {
         setVisible(true);
-        ScheduledExecutorService service = Executors.newSingleThreadScheduledExecutor();
-        service.scheduleAtFixedRate(this::nextFrame, 0, FRAME_INTERVAL, TimeUnit.MILLISECONDS);
+        frames = Executors.newSingleThreadScheduledExecutor();
+        frames.execute(this::nextFrame);
+        frameTimer = game.getLevel().getClock().scheduleAtFixedRate(frames, this::nextFrame,
+            FRAME_INTERVAL, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Closes the frame, stops drawing it and stops observing the players.
+     */
+    @Override
+    public void dispose() {
+        if (frameTimer != null) {
+            frameTimer.cancel();
+        }
+        if (frames != null) {
+            frames.shutdownNow();
+        }
+        scorePanel.dispose();
+        super.dispose();
     }
 
     /**
-     * Draws the next frame, i.e. refreshes the scores and game.
+     * Draws the next frame, i.e. redraws the game. The scores update
+     * themselves when they change.
      */
     private void nextFrame() {
         boardPanel.repaint();
-        scorePanel.refresh();
     }
 }
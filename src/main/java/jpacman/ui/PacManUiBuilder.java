@@ -1,5 +1,6 @@
 package jpacman.ui;
 
+import java.awt.Dimension;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.Map;
@@ -44,6 +45,12 @@ public class PacManUiBuilder {
      */
     private ScoreFormatter scoreFormatter = null;
 
+    /**
+     * The maximum part of the board shown at once, or <code>null</code> to
+     * show the whole board.
+     */
+    private Dimension viewport = null;
+
     /**
      * Creates a new Pac-Man UI builder without any mapped keys or buttons.
      */
@@ -67,7 +74,7 @@ public class PacManUiBuilder {
             addStartButton(game);
             addStopButton(game);
         }
-        return new PacManUI(game, buttons, keyMappings, scoreFormatter);
+        return new PacManUI(game, buttons, keyMappings, scoreFormatter, viewport);
     }
 
     /**
@@ -156,4 +163,23 @@ public class PacManUiBuilder {
         this.scoreFormatter = scoreFormatter;
         return this;
     }
+
+    /**
+     * Limits the visible part of the board. Boards larger than the viewport
+     * are shown through a camera that follows the player, and only the
+     * squares in view are rendered.
+     *
+     * @param columns
+     *            The maximum amount of columns shown at once.
+     * @param rows
+     *            The maximum amount of rows shown at once.
+     *
+     * @return The builder.
+     */
+    public PacManUiBuilder withViewport(int columns, int rows) {
+        assert columns > 0;
+        assert rows > 0;
+        this.viewport = new Dimension(columns, rows);
+        return this;
+    }
 }
@@ -0,0 +1,48 @@
+package jpacman.ui;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+
+import javax.imageio.ImageIO;
+
+/**
+ * Writes every frame as a separate PNG file, named
+ * <code>frame-00000.png</code>, <code>frame-00001.png</code> and so on.
+ */
+public class PngFrameSink implements FrameSink {
+
+    /**
+     * The directory the frames are written to.
+     */
+    private final File directory;
+
+    /**
+     * Creates a new sink writing into the given directory, which is created
+     * if it does not exist yet.
+     *
+     * @param directory
+     *            The directory to write the frames to.
+     * @throws IOException
+     *             When the directory could not be created.
+     */
+    public PngFrameSink(File directory) throws IOException {
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Unable to create " + directory);
+        }
+        this.directory = directory;
+    }
+
+    @Override
+    public void write(int index, BufferedImage frame) throws IOException {
+        File file = new File(directory, String.format("frame-%05d.png", index));
+        if (!ImageIO.write(frame, "png", file)) {
+            throw new IOException("No PNG writer available for " + file);
+        }
+    }
+
+    @Override
+    public void close() {
+        // every frame is a file of its own, nothing left to do.
+    }
+}
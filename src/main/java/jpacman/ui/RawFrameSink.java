@@ -0,0 +1,87 @@
+package jpacman.ui;
+
+import java.awt.image.BufferedImage;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Writes all frames into a single stream of uncompressed pixels, which is
+ * far cheaper to produce than PNG. The stream starts with the width and the
+ * height of the frames as two big-endian ints, followed by every frame as
+ * rows of 3-byte RGB pixels.
+ */
+public class RawFrameSink implements FrameSink {
+
+    /**
+     * The amount of bytes written per pixel.
+     */
+    private static final int BYTES_PER_PIXEL = 3;
+
+    /**
+     * Bits to shift for the red component of a packed pixel.
+     */
+    private static final int RED_SHIFT = 16;
+
+    /**
+     * Bits to shift for the green component of a packed pixel.
+     */
+    private static final int GREEN_SHIFT = 8;
+
+    /**
+     * The stream receiving the frames.
+     */
+    private final DataOutputStream output;
+
+    /**
+     * Scratch buffer holding the pixels of one row.
+     */
+    private int[] row;
+
+    /**
+     * Scratch buffer holding the bytes of one row.
+     */
+    private byte[] bytes;
+
+    /**
+     * Creates a new sink writing to the given stream. The stream is closed
+     * when the sink is.
+     *
+     * @param output
+     *            The stream to write to.
+     */
+    public RawFrameSink(OutputStream output) {
+        this.output = new DataOutputStream(new BufferedOutputStream(output));
+    }
+
+    @Override
+    public void write(int index, BufferedImage frame) throws IOException {
+        int width = frame.getWidth();
+        int height = frame.getHeight();
+        if (row == null) {
+            output.writeInt(width);
+            output.writeInt(height);
+            row = new int[width];
+            bytes = new byte[width * BYTES_PER_PIXEL];
+        }
+        assert row.length == width;
+
+        for (int y = 0; y < height; y++) {
+            frame.getRGB(0, y, width, 1, row, 0, width);
+            for (int x = 0; x < width; x++) {
+                int pixel = row[x];
+                int offset = x * BYTES_PER_PIXEL;
+                bytes[offset] = (byte) (pixel >> RED_SHIFT);
+                bytes[offset + 1] = (byte) (pixel >> GREEN_SHIFT);
+                bytes[offset + 2] = (byte) pixel;
+            }
+            output.write(bytes);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        output.close();
+    }
+}
@@ -4,9 +4,13 @@ import java.awt.GridLayout;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import javax.swing.JLabel;
 import javax.swing.JPanel;
+import javax.swing.SwingUtilities;
 
 import jpacman.level.Player;
 
@@ -14,10 +18,16 @@ import jpacman.level.Player;
  * A panel consisting of a column for each player, with the numbered players on
  * top and their respective scores underneath.
  *
+ * <p>
+ * The panel observes the players and only updates the labels of players whose
+ * score or state changed. Changes are collected and applied in a single batch
+ * on the event dispatch thread, however often they happen.
+ * </p>
+ *
  * @author Jeroen Roosen 
  *
  */
-public class ScorePanel extends JPanel {
+public class ScorePanel extends JPanel implements Player.PlayerObserver {
 
     /**
      * Default serialisation ID.
@@ -27,7 +37,18 @@ public class ScorePanel extends JPanel {
     /**
      * The map of players and the labels their scores are on.
      */
-    private final Map<Player, JLabel> scoreLabels;
+    private final Map<Player, ScoreLabel> scoreLabels;
+
+    /**
+     * The players that changed since their labels were last updated.
+     */
+    private final transient Set<Player> changed = ConcurrentHashMap.newKeySet();
+
+    /**
+     * <code>true</code> iff an update of the changed labels is waiting on the
+     * event dispatch thread.
+     */
+    private final AtomicBoolean updatePending = new AtomicBoolean();
 
     /**
      * The default way in which the score is shown.
@@ -57,24 +78,54 @@ public class ScorePanel extends JPanel {
         }
         scoreLabels = new LinkedHashMap<>();
         for (Player player : players) {
-            JLabel scoreLabel = new JLabel("0", JLabel.CENTER);
+            ScoreLabel scoreLabel = new ScoreLabel();
             scoreLabels.put(player, scoreLabel);
-            add(scoreLabel);
+            add(scoreLabel.label);
+        }
+        refresh();
+        for (Player player : players) {
+            player.addObserver(this);
         }
     }
 
     /**
-     * Refreshes the scores of the players.
+     * Stops observing the players, so they no longer keep this panel
+     * reachable once its frame is gone.
      */
-    protected void refresh() {
-        for (Map.Entry<Player, JLabel> entry : scoreLabels.entrySet()) {
-            Player player = entry.getKey();
-            String score = "";
-            if (!player.isAlive()) {
-                score = "You died. ";
+    public void dispose() {
+        for (Player player : scoreLabels.keySet()) {
+            player.removeObserver(this);
+        }
+    }
+
+    @Override
+    public void playerChanged(Player player) {
+        changed.add(player);
+        if (updatePending.compareAndSet(false, true)) {
+            SwingUtilities.invokeLater(this::updateChanged);
+        }
+    }
+
+    /**
+     * Updates the labels of the players that changed since the last update.
+     */
+    private void updateChanged() {
+        updatePending.set(false);
+        for (Player player : changed) {
+            changed.remove(player);
+            ScoreLabel scoreLabel = scoreLabels.get(player);
+            if (scoreLabel != null) {
+                scoreLabel.update(player);
             }
-            score += scoreFormatter.format(player);
-            entry.getValue().setText(score);
+        }
+    }
+
+    /**
+     * Refreshes the scores of all players.
+     */
+    protected void refresh() {
+        for (Map.Entry<Player, ScoreLabel> entry : scoreLabels.entrySet()) {
+            entry.getValue().update(entry.getKey());
         }
     }
 
@@ -98,5 +149,68 @@ public class ScorePanel extends JPanel {
     public void setScoreFormatter(ScoreFormatter scoreFormatter) {
         assert scoreFormatter != null;
         this.scoreFormatter = scoreFormatter;
+        for (ScoreLabel scoreLabel : scoreLabels.values()) {
+            scoreLabel.invalidate();
+        }
+        refresh();
+    }
+
+    /**
+     * The label showing the score of a single player, which remembers the
+     * state it shows so the text is only formatted and set when it changes.
+     */
+    private final class ScoreLabel {
+
+        /**
+         * The label the score is on.
+         */
+        private final JLabel label = new JLabel("0", JLabel.CENTER);
+
+        /**
+         * The text on the label, or <code>null</code> if it has to be
+         * formatted again.
+         */
+        private String text;
+
+        /**
+         * The score the text was formatted for.
+         */
+        private int score;
+
+        /**
+         * Whether the player was alive when the text was formatted.
+         */
+        private boolean alive;
+
+        /**
+         * Updates the label if the score or state of the player differs from
+         * what it shows.
+         *
+         * @param player
+         *            The player to show.
+         */
+        void update(Player player) {
+            int currentScore = player.getScore();
+            boolean currentlyAlive = player.isAlive();
+            if (text != null && score == currentScore && alive == currentlyAlive) {
+                return;
+            }
+            String formatted = "";
+            if (!currentlyAlive) {
+                formatted = "You died. ";
+            }
+            formatted += scoreFormatter.format(player);
+            score = currentScore;
+            alive = currentlyAlive;
+            text = formatted;
+            label.setText(formatted);
+        }
+
+        /**
+         * Forgets the formatted text, so the next update sets it again.
+         */
+        void invalidate() {
+            text = null;
+        }
     }
 }
@@ -0,0 +1,247 @@
+package jpacman.ui;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import jpacman.board.Board;
+import jpacman.board.Unit;
+import jpacman.level.BoardSnapshot;
+import jpacman.level.Level;
+import jpacman.sprite.Sprite;
+
+/**
+ * Draws a level as text on an ANSI terminal, using the characters of the map
+ * files: <code>#</code> for walls, <code>.</code> for pellets, <code>P</code>
+ * for players and <code>G</code> for ghosts.
+ *
+ * <p>
+ * The renderer remembers what the terminal shows. Every frame only the cells
+ * that changed are written, preceded by a cursor move unless the cursor is
+ * already in place. Frames are drawn from the latest snapshot of the level,
+ * never from the squares themselves. Instead of inspecting the whole board
+ * every frame, it only inspects the cells that differ between the snapshot
+ * it drew last and the latest one. The work per frame therefore hardly
+ * depends on the size of the board, and nothing is missed, whether the
+ * level changed by moves or was reset or restored in between frames.
+ * </p>
+ *
+ * <p>
+ * To watch a game, call {@link #render(Appendable)} at a steady rate and
+ * write the result to the terminal, e.g. <code>System.out</code>.
+ * </p>
+ */
+public class TerminalRenderer {
+
+    /**
+     * The character starting an ANSI escape sequence.
+     */
+    private static final char ESCAPE = '\u001b';
+
+    /**
+     * Marks a cell of which the terminal contents are unknown.
+     */
+    private static final char UNKNOWN = '\0';
+
+    /**
+     * A unit that belongs to nobody, used to find out which squares no unit
+     * can ever enter.
+     */
+    private static final Unit PROBE = new Unit() {
+        @Override
+        public Sprite getSprite() {
+            return null;
+        }
+    };
+
+    /**
+     * The level to draw.
+     */
+    private final Level level;
+
+    /**
+     * The board of the level.
+     */
+    private final Board board;
+
+    /**
+     * The width of the board.
+     */
+    private final int width;
+
+    /**
+     * The height of the board.
+     */
+    private final int height;
+
+    /**
+     * Per cell (row by row), whether it is a wall. Walls never change.
+     */
+    private final boolean[] walls;
+
+    /**
+     * Per cell (row by row), the character the terminal currently shows.
+     */
+    private final char[] shown;
+
+    /**
+     * The snapshot the terminal shows, or <code>null</code> if none was
+     * drawn yet.
+     */
+    private BoardSnapshot drawn;
+
+    /**
+     * The cell the terminal cursor is on, or -1 if unknown.
+     */
+    private int cursor;
+
+    /**
+     * <code>true</code> iff the next frame has to redraw everything.
+     */
+    private boolean redraw;
+
+    /**
+     * Creates a new renderer for the given level.
+     *
+     * @param level
+     *            The level to draw.
+     */
+    public TerminalRenderer(Level level) {
+        assert level != null;
+
+        this.level = level;
+        this.board = level.getBoard();
+        this.width = board.getWidth();
+        this.height = board.getHeight();
+        this.walls = new boolean[width * height];
+        this.shown = new char[width * height];
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                walls[y * width + x] = !board.squareAt(x, y).isAccessibleTo(PROBE);
+            }
+        }
+        this.redraw = true;
+    }
+
+    /**
+     * Makes the next frame clear the screen and draw every cell again, e.g.
+     * after a new terminal connected.
+     */
+    public void reset() {
+        redraw = true;
+    }
+
+    /**
+     * Writes the escape sequences and characters that bring the terminal up
+     * to date with the level.
+     *
+     * @param out
+     *            The terminal to write to.
+     * @return The amount of cells that were written.
+     * @throws IOException
+     *             When writing to the terminal failed.
+     */
+    public int render(Appendable out) throws IOException {
+        BoardSnapshot snapshot = level.getSnapshot();
+        int written = 0;
+        if (redraw || drawn == null) {
+            out.append(ESCAPE).append("[2J");
+            Arrays.fill(shown, UNKNOWN);
+            cursor = -1;
+            written += refreshRows(out, snapshot, 0, height);
+            redraw = false;
+        } else if (snapshot != drawn) {
+            for (int cell : snapshot.getCellsChangedSince(drawn)) {
+                written += refresh(out, snapshot, cell);
+            }
+        }
+        drawn = snapshot;
+        return written;
+    }
+
+    /**
+     * Brings a band of rows up to date.
+     *
+     * @param out
+     *            The terminal to write to.
+     * @param snapshot
+     *            The snapshot to show.
+     * @param firstRow
+     *            The first row of the band.
+     * @param rows
+     *            The amount of rows in the band.
+     * @return The amount of cells that were written.
+     * @throws IOException
+     *             When writing to the terminal failed.
+     */
+    private int refreshRows(Appendable out, BoardSnapshot snapshot, int firstRow, int rows)
+            throws IOException {
+        int written = 0;
+        int end = (firstRow + rows) * width;
+        for (int cell = firstRow * width; cell < end; cell++) {
+            written += refresh(out, snapshot, cell);
+        }
+        return written;
+    }
+
+    /**
+     * Writes a single cell if it differs from what the terminal shows.
+     *
+     * @param out
+     *            The terminal to write to.
+     * @param snapshot
+     *            The snapshot to show.
+     * @param cell
+     *            The index of the cell, row by row.
+     * @return 1 if the cell was written, 0 otherwise.
+     * @throws IOException
+     *             When writing to the terminal failed.
+     */
+    private int refresh(Appendable out, BoardSnapshot snapshot, int cell) throws IOException {
+        int x = cell % width;
+        int y = cell / width;
+        char glyph = '#';
+        if (!walls[cell]) {
+            glyph = glyph(snapshot, x, y);
+        }
+        if (shown[cell] == glyph) {
+            return 0;
+        }
+        if (cursor != cell) {
+            out.append(ESCAPE).append('[').append(Integer.toString(y + 1)).append(';')
+                .append(Integer.toString(x + 1)).append('H');
+        }
+        out.append(glyph);
+        shown[cell] = glyph;
+        cursor = cell + 1;
+        if (x + 1 == width) {
+            cursor = -1;
+        }
+        return 1;
+    }
+
+    /**
+     * Determines the character for an accessible square: players are shown
+     * over ghosts, ghosts over pellets.
+     *
+     * @param snapshot
+     *            The snapshot to show.
+     * @param x
+     *            The column of the square.
+     * @param y
+     *            The row of the square.
+     * @return The character representing the square.
+     */
+    private static char glyph(BoardSnapshot snapshot, int x, int y) {
+        if (snapshot.getUnitCountAt(x, y) > 0) {
+            if (snapshot.getKind(snapshot.getUnitAt(x, y, 0)) == BoardSnapshot.Kind.PLAYER) {
+                return 'P';
+            }
+            return 'G';
+        }
+        int pellet = snapshot.getPelletAt(x, y);
+        if (pellet >= 0 && snapshot.isPelletPresent(pellet)) {
+            return '.';
+        }
+        return ' ';
+    }
+}
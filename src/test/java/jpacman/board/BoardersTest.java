@@ -43,4 +43,20 @@ public class BoardersTest {
     void BoarderConstrained( int x, int y) {
         assertThat(temp.withinBorders(x, y)).isEqualTo(( x <= rows && y <=columns));
     }
+
+    /**
+     * Every square knows where it is on the board.
+     * @param x Horizontal coordinate of the square.
+     * @param y Vertical coordinate of the square.
+     */
+    @ParameterizedTest
+    @CsvSource({
+            "0, 0",
+            "3, 5",
+            "7, 6"
+    })
+    void squareKnowsPosition(int x, int y) {
+        assertThat(temp.squareAt(x, y).getX()).isEqualTo(x);
+        assertThat(temp.squareAt(x, y).getY()).isEqualTo(y);
+    }
 }
@@ -0,0 +1,158 @@
+package jpacman.clock;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Verifies running scheduled tasks by advancing a clock by hand, and
+ * scaling the system time.
+ */
+@SuppressWarnings("magicnumber")
+class ManualClockTest {
+
+    /**
+     * The threads the tasks are scheduled for, which never run them.
+     */
+    private final ScheduledExecutorService executor =
+        Executors.newSingleThreadScheduledExecutor();
+
+    /**
+     * The clock under test.
+     */
+    private final ManualClock clock = new ManualClock();
+
+    /**
+     * The times of the clock at which the tasks ran, in milliseconds.
+     */
+    private final List<Long> runs = new ArrayList<>();
+
+    /**
+     * Releases the thread.
+     */
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Tasks run in the order of their times, with the clock set to the time
+     * they were due, and only once the clock gets there.
+     */
+    @Test
+    void runsDueTasksInOrder() {
+        clock.schedule(executor, this::record, 30L, TimeUnit.MILLISECONDS);
+        clock.scheduleAtFixedRate(executor, this::record, 20L, TimeUnit.MILLISECONDS);
+
+        clock.advance(10L, TimeUnit.MILLISECONDS);
+        assertThat(runs).isEmpty();
+        clock.advance(60L, TimeUnit.MILLISECONDS);
+
+        assertThat(runs).containsExactly(20L, 30L, 40L, 60L);
+        assertThat(clock.currentTimeMillis()).isEqualTo(70L);
+    }
+
+    /**
+     * Cancelled tasks, and tasks of threads that were shut down, no longer
+     * run.
+     */
+    @Test
+    void skipsCancelledTasks() {
+        GameClock.Timer once = clock.schedule(executor, this::record, 5L,
+            TimeUnit.MILLISECONDS);
+        clock.scheduleAtFixedRate(executor, this::record, 10L, TimeUnit.MILLISECONDS);
+
+        assertThat(once.cancel()).isTrue();
+        clock.advance(15L, TimeUnit.MILLISECONDS);
+        executor.shutdownNow();
+        clock.advance(30L, TimeUnit.MILLISECONDS);
+
+        assertThat(runs).containsExactly(10L);
+        assertThat(once.cancel()).isFalse();
+    }
+
+    /**
+     * A scaled clock runs at a multiple of real time, also after changing
+     * its rate, and shortens the real delays accordingly.
+     *
+     * @throws InterruptedException
+     *             If interrupted while waiting.
+     */
+    @Test
+    void scalesSystemTime() throws InterruptedException {
+        ScaledClock scaled = new ScaledClock(100.0);
+        long start = scaled.currentTimeMillis();
+        Thread.sleep(20L);
+        scaled.setRate(0.5);
+        long warped = scaled.currentTimeMillis() - start;
+
+        assertThat(warped).isGreaterThanOrEqualTo(2000L);
+        assertThat(scaled.toRealNanos(1000L)).isEqualTo(2000L);
+        assertThat(scaled.currentTimeMillis()).isGreaterThanOrEqualTo(start + warped);
+    }
+
+    /**
+     * A task repeating at a fixed rate on a scaled clock follows a change of
+     * the rate, also for the run it is already waiting for.
+     *
+     * @throws InterruptedException
+     *             If interrupted while waiting.
+     */
+    @Test
+    void repeatingTasksFollowRate() throws InterruptedException {
+        ScaledClock scaled = new ScaledClock(1.0);
+        CountDownLatch ran = new CountDownLatch(3);
+        scaled.scheduleAtFixedRate(executor, ran::countDown, 10L, TimeUnit.SECONDS);
+
+        scaled.setRate(10_000.0);
+
+        assertThat(ran.await(5L, TimeUnit.SECONDS)).isTrue();
+    }
+
+    /**
+     * Only clocks that can change speed keep track of their repeating
+     * tasks, and they forget a task once it is cancelled or its threads are
+     * shut down.
+     *
+     * @throws InterruptedException
+     *             If interrupted while waiting.
+     */
+    @Test
+    void forgetsStoppedRepeatingTasks() throws InterruptedException {
+        GameClock.Timer system = GameClock.system().scheduleAtFixedRate(executor, () -> { },
+            1L, TimeUnit.HOURS);
+        assertThat(GameClock.system().getTrackedTimers()).isZero();
+        system.cancel();
+
+        ScaledClock scaled = new ScaledClock(1.0);
+        GameClock.Timer cancelled = scaled.scheduleAtFixedRate(executor, () -> { },
+            1L, TimeUnit.HOURS);
+        ScheduledExecutorService other = Executors.newSingleThreadScheduledExecutor();
+        CountDownLatch ran = new CountDownLatch(1);
+        scaled.scheduleAtFixedRate(other, () -> {
+            other.shutdown();
+            ran.countDown();
+        }, 1L, TimeUnit.MILLISECONDS);
+        assertThat(scaled.getTrackedTimers()).isEqualTo(2);
+
+        cancelled.cancel();
+        assertThat(ran.await(5L, TimeUnit.SECONDS)).isTrue();
+        assertThat(other.awaitTermination(5L, TimeUnit.SECONDS)).isTrue();
+        assertThat(scaled.getTrackedTimers()).isZero();
+    }
+
+    /**
+     * Records the current time of the clock.
+     */
+    private void record() {
+        runs.add(clock.currentTimeMillis());
+    }
+}
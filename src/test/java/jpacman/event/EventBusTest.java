@@ -0,0 +1,113 @@
+package jpacman.event;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.util.concurrent.Uninterruptibles;
+import jpacman.board.Unit;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+/**
+ * Verifies that events published by several threads reach every consumer.
+ */
+@SuppressWarnings("magicnumber")
+class EventBusTest {
+
+    /**
+     * The amount of events every producer publishes, more than fit the ring.
+     */
+    private static final int EVENTS = 1000;
+
+    /**
+     * Two producers publish concurrently. The consumer sees every event that
+     * was not dropped, each producer's events in order.
+     *
+     * @param waitStrategy
+     *            The way the consumers wait.
+     * @throws InterruptedException
+     *             If interrupted while waiting.
+     */
+    @ParameterizedTest
+    @EnumSource(WaitStrategy.class)
+    void allEventsDelivered(WaitStrategy waitStrategy) throws InterruptedException {
+        EventBus bus = new EventBus(64);
+        Unit first = mock(Unit.class);
+        Unit second = mock(Unit.class);
+        List<Integer> fromFirst = new ArrayList<>();
+        List<Integer> fromSecond = new ArrayList<>();
+        EventBus.Subscription subscription = bus.subscribe((event, sequence, endOfBatch) -> {
+            if (event.getUnit() == first) {
+                fromFirst.add(event.getX());
+            } else {
+                fromSecond.add(event.getX());
+            }
+        }, waitStrategy);
+
+        Thread producer = new Thread(() -> publish(bus, first));
+        producer.start();
+        publish(bus, second);
+        producer.join();
+
+        long published = 2L * EVENTS - bus.getDroppedEvents();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (subscription.getNextSequence() < published && System.nanoTime() < deadline) {
+            Thread.sleep(1L);
+        }
+        subscription.close();
+        assertThat(subscription.getNextSequence()).isEqualTo(published);
+        assertThat(fromFirst.size() + fromSecond.size()).isEqualTo((int) published);
+        assertThat(fromFirst).isSorted();
+        assertThat(fromSecond).isSorted();
+    }
+
+    /**
+     * A producer does not wait for a consumer that is a full ring behind, but
+     * drops and counts the events that do not fit.
+     *
+     * @throws InterruptedException
+     *             If interrupted while waiting.
+     */
+    @Test
+    void dropsEventsForStalledConsumer() throws InterruptedException {
+        EventBus bus = new EventBus(64);
+        CountDownLatch stalled = new CountDownLatch(1);
+        CountDownLatch resume = new CountDownLatch(1);
+        EventBus.Subscription subscription = bus.subscribe((event, sequence, endOfBatch) -> {
+            stalled.countDown();
+            Uninterruptibles.awaitUninterruptibly(resume);
+        }, WaitStrategy.BLOCKING);
+        Unit unit = mock(Unit.class);
+        assertThat(bus.publish(EventType.MOVE, unit, null, 0, 0)).isTrue();
+        assertThat(stalled.await(5, TimeUnit.SECONDS)).isTrue();
+
+        for (int i = 1; i < 64 + 10; i++) {
+            bus.publish(EventType.MOVE, unit, null, i, 0);
+        }
+
+        assertThat(bus.getDroppedEvents()).isEqualTo(10L);
+        assertThat(bus.publish(EventType.MOVE, unit, null, 0, 0)).isFalse();
+        resume.countDown();
+        subscription.close();
+    }
+
+    /**
+     * Publishes numbered move events.
+     *
+     * @param bus
+     *            The bus to publish on.
+     * @param unit
+     *            The unit that moves.
+     */
+    private static void publish(EventBus bus, Unit unit) {
+        for (int i = 0; i < EVENTS; i++) {
+            bus.publish(EventType.MOVE, unit, null, i, 0);
+        }
+    }
+}
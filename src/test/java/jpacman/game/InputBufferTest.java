@@ -0,0 +1,214 @@
+package jpacman.game;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import com.google.common.collect.Lists;
+import jpacman.board.Board;
+import jpacman.board.BoardFactory;
+import jpacman.board.Direction;
+import jpacman.board.Square;
+import jpacman.level.Level;
+import jpacman.level.LevelFactory;
+import jpacman.level.MapParser;
+import jpacman.level.Player;
+import jpacman.level.PlayerFactory;
+import jpacman.npc.ghost.GhostFactory;
+import jpacman.points.PointCalculator;
+import jpacman.sprite.PacManSprites;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Verifies buffering and coalescing the input of a player.
+ */
+@SuppressWarnings("magicnumber")
+class InputBufferTest {
+
+    /**
+     * The level the game is played on.
+     */
+    private Level level;
+
+    /**
+     * The game being played.
+     */
+    private Game game;
+
+    /**
+     * The player of the game.
+     */
+    private Player player;
+
+    /**
+     * The buffer under test, ticked by hand.
+     */
+    private InputBuffer input;
+
+    /**
+     * Starts a game on a corridor with a side passage south of the third
+     * square.
+     */
+    @BeforeEach
+    void setUp() {
+        PacManSprites sprites = new PacManSprites();
+        MapParser parser = new MapParser(
+            new LevelFactory(sprites, new GhostFactory(sprites), mock(PointCalculator.class)),
+            new BoardFactory(sprites));
+        level = parser.parseMap(Lists.newArrayList(
+            "#P    #.#",
+            "### #####",
+            "#########"));
+        game = new GameFactory(new PlayerFactory(sprites))
+            .createSinglePlayerGame(level, mock(PointCalculator.class));
+        player = game.getPlayers().get(0);
+        input = new InputBuffer(game, 10L);
+        game.start();
+    }
+
+    /**
+     * Releases the threads of the level.
+     */
+    @AfterEach
+    void tearDown() {
+        game.dispose();
+    }
+
+    /**
+     * Presses only take effect on the next tick, and only the latest press
+     * since the previous tick counts.
+     */
+    @Test
+    void coalescesPressesBetweenTicks() {
+        input.press(player, Direction.NORTH);
+        input.press(player, Direction.WEST);
+        input.press(player, Direction.EAST);
+        input.press(player, Direction.EAST);
+        assertThat(player.getSquare()).isSameAs(square(1, 0));
+
+        input.tick();
+        input.tick();
+
+        assertThat(player.getSquare()).isSameAs(square(2, 0));
+        assertThat(input.getCoalesced()).isEqualTo(3L);
+        assertThat(input.getLatency().getCount()).isEqualTo(1L);
+    }
+
+    /**
+     * Without turn buffering a blocked direction only turns the player.
+     */
+    @Test
+    void appliesBlockedDirectionRightAway() {
+        input.press(player, Direction.SOUTH);
+        input.tick();
+        input.tick();
+
+        assertThat(player.getSquare()).isSameAs(square(1, 0));
+        assertThat(player.getDirection()).isEqualTo(Direction.SOUTH);
+    }
+
+    /**
+     * A buffered turn keeps the player going until the turn is possible.
+     */
+    @Test
+    void turnsWhenPossible() {
+        input.setTurnWhenPossible(5);
+        input.press(player, Direction.SOUTH);
+
+        input.tick();
+        assertThat(player.getSquare()).isSameAs(square(2, 0));
+        input.tick();
+        assertThat(player.getSquare()).isSameAs(square(3, 0));
+        input.tick();
+        assertThat(player.getSquare()).isSameAs(square(3, 1));
+        input.tick();
+
+        assertThat(player.getSquare()).isSameAs(square(3, 1));
+        assertThat(input.getLatency().getCount()).isEqualTo(1L);
+    }
+
+    /**
+     * A buffered turn is given up after its ticks, turning the player in
+     * place.
+     */
+    @Test
+    void givesUpTurnAfterTicks() {
+        input.setTurnWhenPossible(1);
+        input.press(player, Direction.NORTH);
+
+        input.tick();
+        input.tick();
+
+        assertThat(player.getSquare()).isSameAs(square(2, 0));
+        assertThat(player.getDirection()).isEqualTo(Direction.NORTH);
+    }
+
+    /**
+     * Once enabled on the game, the input is applied by the buffer's own
+     * thread.
+     *
+     * @throws InterruptedException
+     *             If interrupted while waiting.
+     */
+    @Test
+    void appliesInputWhileGameRuns() throws InterruptedException {
+        InputBuffer running = game.enableInputBuffer(5L);
+        running.press(player, Direction.EAST);
+
+        for (int i = 0; i < 500 && running.getLatency().getCount() == 0; i++) {
+            Thread.sleep(10L);
+        }
+        assertThat(player.getSquare()).isSameAs(square(2, 0));
+        game.stop();
+    }
+
+    /**
+     * Disposing of the game also releases the thread of its input buffer.
+     *
+     * @throws InterruptedException
+     *             If interrupted while waiting.
+     */
+    @Test
+    void disposeReleasesThread() throws InterruptedException {
+        Set<Thread> before = inputThreads();
+        game.enableInputBuffer(5L);
+        Set<Thread> started = inputThreads();
+        started.removeAll(before);
+        assertThat(started).hasSize(1);
+
+        game.dispose();
+
+        Thread thread = started.iterator().next();
+        thread.join(5000L);
+        assertThat(thread.isAlive()).isFalse();
+    }
+
+    /**
+     * @return The threads currently applying the input of a game.
+     */
+    private static Set<Thread> inputThreads() {
+        Set<Thread> threads = new HashSet<>();
+        for (Thread thread : Thread.getAllStackTraces().keySet()) {
+            if ("player-input".equals(thread.getName())) {
+                threads.add(thread);
+            }
+        }
+        return threads;
+    }
+
+    /**
+     * @param x
+     *            The column.
+     * @param y
+     *            The row.
+     * @return The square of the board at that position.
+     */
+    private Square square(int x, int y) {
+        Board board = level.getBoard();
+        return board.squareAt(x, y);
+    }
+}
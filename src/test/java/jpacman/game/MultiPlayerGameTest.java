@@ -0,0 +1,165 @@
+package jpacman.game;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+import java.util.Collections;
+import java.util.List;
+
+import com.google.common.collect.Lists;
+import jpacman.board.BoardFactory;
+import jpacman.board.Direction;
+import jpacman.level.Level;
+import jpacman.level.LevelFactory;
+import jpacman.level.MapParser;
+import jpacman.level.Player;
+import jpacman.level.PlayerFactory;
+import jpacman.level.VirtualThreads;
+import jpacman.npc.ghost.GhostFactory;
+import jpacman.points.PointCalculator;
+import jpacman.sprite.PacManSprites;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Verifies a game with thousands of players on one level.
+ */
+@SuppressWarnings("magicnumber")
+class MultiPlayerGameTest {
+
+    /**
+     * The amount of players in the game.
+     */
+    private static final int PLAYERS = 5000;
+
+    /**
+     * The level the game is played on.
+     */
+    private Level level;
+
+    /**
+     * The game under test.
+     */
+    private Game game;
+
+    /**
+     * Creates a game with many players sharing a few start squares, out of
+     * reach of the only pellet.
+     */
+    @BeforeEach
+    void setUp() {
+        PacManSprites sprites = new PacManSprites();
+        MapParser parser = new MapParser(
+            new LevelFactory(sprites, new GhostFactory(sprites), mock(PointCalculator.class)),
+            new BoardFactory(sprites));
+        level = parser.parseMap(Lists.newArrayList(
+            "#P P P  #.#",
+            "#P P P  ###",
+            "###########"));
+        game = new GameFactory(new PlayerFactory(sprites))
+            .createMultiPlayerGame(level, PLAYERS, mock(PointCalculator.class));
+    }
+
+    /**
+     * Releases the threads of the level.
+     */
+    @AfterEach
+    void tearDown() {
+        level.dispose();
+    }
+
+    /**
+     * All players of the game are registered in one go, publishing a single
+     * snapshot after the first one of the level, and the level hands out its
+     * players without copying them.
+     */
+    @Test
+    void registersPlayersAtOnce() {
+        assertThat(level.getSnapshot().getSequence()).isEqualTo(1L);
+        assertThat(level.getSnapshot().getUnitCount()).isEqualTo(PLAYERS);
+        assertThat(level.getPlayers()).isSameAs(level.getPlayers())
+            .containsExactlyElementsOf(game.getPlayers());
+    }
+
+    /**
+     * Every player is registered once and counted as alive.
+     */
+    @Test
+    void registersAllPlayers() {
+        for (Player player : game.getPlayers()) {
+            level.registerPlayer(player);
+        }
+
+        assertThat(level.getPlayers()).hasSize(PLAYERS);
+        assertThat(level.getLivingPlayerCount()).isEqualTo(PLAYERS);
+        assertThat(level.isAnyPlayerAlive()).isTrue();
+    }
+
+    /**
+     * A batch of input moves every player.
+     */
+    @Test
+    void movesAllPlayersAtOnce() {
+        game.start();
+        List<Player> players = game.getPlayers();
+        long sequence = level.getSnapshot().getSequence();
+
+        game.moveAll(players, Collections.nCopies(PLAYERS, Direction.EAST));
+
+        for (Player player : players) {
+            assertThat(player.getDirection()).isEqualTo(Direction.EAST);
+        }
+        assertThat(player(0).getSquare()).isSameAs(level.getBoard().squareAt(2, 0));
+        assertThat(level.getSnapshot().getSequence()).isEqualTo(sequence + 1);
+    }
+
+    /**
+     * The game is lost once the last player dies, and a player that comes
+     * back to life is counted again.
+     */
+    @Test
+    void lostWhenLastPlayerDies() {
+        game.start();
+        List<Player> players = game.getPlayers();
+        for (int i = 1; i < PLAYERS; i++) {
+            players.get(i).setAlive(false);
+        }
+        assertThat(level.getLivingPlayerCount()).isEqualTo(1);
+
+        game.move(player(0), Direction.EAST);
+        assertThat(game.isInProgress()).isTrue();
+
+        player(0).setAlive(false);
+        game.move(player(1), Direction.EAST);
+        assertThat(level.isAnyPlayerAlive()).isFalse();
+        assertThat(game.isInProgress()).isFalse();
+
+        player(7).setAlive(true);
+        assertThat(level.getLivingPlayerCount()).isEqualTo(1);
+    }
+
+    /**
+     * A hosted game runs its NPCs and its input on virtual threads where the
+     * JVM has them, and keeps its platform threads elsewhere.
+     */
+    @Test
+    void virtualThreadsWhereAvailable() {
+        assertThat(game.enableVirtualThreads()).isEqualTo(VirtualThreads.isAvailable());
+        assertThat(game.usesVirtualThreads()).isEqualTo(VirtualThreads.isAvailable());
+
+        game.enableInputBuffer(5L).press(player(0), Direction.EAST);
+        game.start();
+        assertThat(game.isInProgress()).isTrue();
+        game.dispose();
+    }
+
+    /**
+     * @param index
+     *            The index of a player.
+     * @return The player.
+     */
+    private Player player(int index) {
+        return game.getPlayers().get(index);
+    }
+}
@@ -0,0 +1,188 @@
+package jpacman.level;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.google.common.base.Strings;
+import com.google.common.collect.Lists;
+import jpacman.board.BoardFactory;
+import jpacman.board.Direction;
+import jpacman.npc.ghost.GhostFactory;
+import jpacman.points.PointCalculator;
+import jpacman.sprite.PacManSprites;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Verifies the snapshots published by a level.
+ */
+@SuppressWarnings("magicnumber")
+class BoardSnapshotTest {
+
+    /**
+     * The sprites of the game.
+     */
+    private final PacManSprites sprites = new PacManSprites();
+
+    /**
+     * The parser used to create levels.
+     */
+    private MapParser parser;
+
+    /**
+     * Creates the parser.
+     */
+    @BeforeEach
+    void setUp() {
+        parser = new MapParser(
+            new LevelFactory(sprites, new GhostFactory(sprites), mock(PointCalculator.class)),
+            new BoardFactory(sprites));
+    }
+
+    /**
+     * The first snapshot contains all pellets and units, players first.
+     */
+    @Test
+    void initialSnapshot() {
+        Level level = parser.parseMap(Lists.newArrayList("#G.P.#"));
+        level.registerPlayer(new PlayerFactory(sprites).createPacMan());
+
+        BoardSnapshot snapshot = level.getSnapshot();
+        assertThat(snapshot.getUnitCount()).isEqualTo(2);
+        assertThat(snapshot.getKind(0)).isEqualTo(BoardSnapshot.Kind.PLAYER);
+        assertThat(snapshot.getX(0)).isEqualTo(3);
+        assertThat(snapshot.getKind(1)).isEqualTo(BoardSnapshot.Kind.GHOST);
+        assertThat(snapshot.getX(1)).isEqualTo(1);
+        assertThat(snapshot.getPelletSlots()).isEqualTo(2);
+        assertThat(snapshot.remainingPellets()).isEqualTo(2);
+        assertThat(snapshot.getPelletX(0)).isEqualTo(2);
+        assertThat(snapshot.getPelletX(1)).isEqualTo(4);
+    }
+
+    /**
+     * A move publishes a new snapshot and leaves the old one untouched.
+     */
+    @Test
+    void moveEatsPellet() {
+        Level level = parser.parseMap(Lists.newArrayList("#.P.#"));
+        level.registerPlayer(new PlayerFactory(sprites).createPacMan());
+        level.start();
+        BoardSnapshot before = level.getSnapshot();
+
+        level.move(level.getPlayers().get(0), Direction.EAST);
+        level.stop();
+
+        BoardSnapshot after = level.getSnapshot();
+        assertThat(after.getSequence()).isGreaterThan(before.getSequence());
+        assertThat(after.getX(0)).isEqualTo(3);
+        assertThat(after.getDirection(0)).isEqualTo(Direction.EAST);
+        assertThat(after.isPelletPresent(0)).isTrue();
+        assertThat(after.isPelletPresent(1)).isFalse();
+        assertThat(after.remainingPellets()).isEqualTo(1);
+
+        assertThat(before.getX(0)).isEqualTo(2);
+        assertThat(before.isPelletPresent(1)).isTrue();
+        assertThat(before.remainingPellets()).isEqualTo(2);
+    }
+
+    /**
+     * A move into a wall leaves the unit where it is, but turns it.
+     */
+    @Test
+    void blockedMoveTurnsUnit() {
+        Level level = parser.parseMap(Lists.newArrayList("#P.#"));
+        Player player = new PlayerFactory(sprites).createPacMan();
+        level.registerPlayer(player);
+        level.start();
+
+        level.move(player, Direction.WEST);
+        level.stop();
+
+        BoardSnapshot snapshot = level.getSnapshot();
+        assertThat(snapshot.isOnBoard(0)).isTrue();
+        assertThat(snapshot.getX(0)).isEqualTo(1);
+        assertThat(snapshot.getDirection(0)).isEqualTo(Direction.WEST);
+        assertThat(snapshot.isPelletPresent(0)).isTrue();
+    }
+
+    /**
+     * Units and pellets beyond the first chunks keep their places while
+     * others move.
+     */
+    @Test
+    void largeLevel() {
+        String ghosts = Strings.repeat("G", 150);
+        Level level = parser.parseMap(Lists.newArrayList(
+            "#" + ghosts + Strings.repeat(" ", 951) + "#",
+            "#" + Strings.repeat(".", 1100) + "P#"));
+        Player player = new PlayerFactory(sprites).createPacMan();
+        level.registerPlayer(player);
+        level.start();
+
+        level.move(player, Direction.WEST);
+        level.stop();
+
+        BoardSnapshot snapshot = level.getSnapshot();
+        assertThat(snapshot.getUnitCount()).isEqualTo(151);
+        assertThat(snapshot.getX(0)).isEqualTo(1100);
+        assertThat(snapshot.getKind(130)).isEqualTo(BoardSnapshot.Kind.GHOST);
+        assertThat(snapshot.getX(130)).isEqualTo(130);
+        assertThat(snapshot.getY(130)).isZero();
+        assertThat(snapshot.isPelletPresent(1098)).isTrue();
+        assertThat(snapshot.isPelletPresent(1099)).isFalse();
+        assertThat(snapshot.remainingPellets()).isEqualTo(1099);
+    }
+
+    /**
+     * The units on a square can be found without looking at the others,
+     * players first.
+     */
+    @Test
+    void indexesUnitsBySquare() {
+        Level level = parser.parseMap(Lists.newArrayList("#GP.#"));
+        Player player = new PlayerFactory(sprites).createPacMan();
+        level.registerPlayer(player);
+        level.start();
+
+        level.move(player, Direction.WEST);
+        level.stop();
+
+        BoardSnapshot snapshot = level.getSnapshot();
+        assertThat(snapshot.getUnitCountAt(1, 0)).isEqualTo(2);
+        assertThat(snapshot.getUnitAt(1, 0, 0)).isZero();
+        assertThat(snapshot.getUnitAt(1, 0, 1)).isEqualTo(1);
+        assertThat(snapshot.getUnitCountAt(2, 0)).isZero();
+        assertThat(snapshot.getPelletAt(3, 0)).isZero();
+        assertThat(snapshot.getPelletAt(2, 0)).isEqualTo(-1);
+    }
+
+    /**
+     * Many units on one square keep their order while one of them leaves.
+     */
+    @Test
+    void crowdedSquare() {
+        Level level = parser.parseMap(Lists.newArrayList("#P .#"));
+        PlayerFactory factory = new PlayerFactory(sprites);
+        List<Player> players = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            players.add(factory.createPacMan());
+        }
+        level.registerPlayers(players);
+        level.start();
+
+        level.move(players.get(2), Direction.EAST);
+        level.stop();
+
+        BoardSnapshot snapshot = level.getSnapshot();
+        assertThat(snapshot.getUnitCountAt(1, 0)).isEqualTo(4);
+        assertThat(snapshot.getUnitAt(1, 0, 0)).isZero();
+        assertThat(snapshot.getUnitAt(1, 0, 1)).isEqualTo(1);
+        assertThat(snapshot.getUnitAt(1, 0, 2)).isEqualTo(3);
+        assertThat(snapshot.getUnitAt(1, 0, 3)).isEqualTo(4);
+        assertThat(snapshot.getUnitCountAt(2, 0)).isEqualTo(1);
+        assertThat(snapshot.getUnitAt(2, 0, 0)).isEqualTo(2);
+    }
+}
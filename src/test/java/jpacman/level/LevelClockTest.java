@@ -0,0 +1,95 @@
+package jpacman.level;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.collect.Lists;
+import jpacman.board.BoardFactory;
+import jpacman.clock.ManualClock;
+import jpacman.npc.ghost.GhostFactory;
+import jpacman.points.PointCalculator;
+import jpacman.sprite.PacManSprites;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Verifies that the NPCs of a level move by the clock of the level.
+ */
+@SuppressWarnings("magicnumber")
+class LevelClockTest {
+
+    /**
+     * The level under test.
+     */
+    private Level level;
+
+    /**
+     * The clock of the level.
+     */
+    private final ManualClock clock = new ManualClock();
+
+    /**
+     * Creates a level with two ghosts and a player, by a clock advanced by
+     * hand.
+     */
+    @BeforeEach
+    void setUp() {
+        PacManSprites sprites = new PacManSprites();
+        MapParser parser = new MapParser(
+            new LevelFactory(sprites, new GhostFactory(sprites), mock(PointCalculator.class)),
+            new BoardFactory(sprites));
+        level = parser.parseMap(Lists.newArrayList(
+            "#G    .  G#",
+            "#    P    #",
+            "###########"));
+        level.registerPlayer(new PlayerFactory(sprites).createPacMan());
+        level.setClock(clock);
+    }
+
+    /**
+     * Releases the threads of the level.
+     */
+    @AfterEach
+    void tearDown() {
+        level.dispose();
+    }
+
+    /**
+     * The NPCs only move when the clock is advanced, and have moved by the
+     * time it returns.
+     *
+     * @throws InterruptedException
+     *             If interrupted while waiting.
+     */
+    @Test
+    void npcsMoveWhenClockAdvances() throws InterruptedException {
+        level.start();
+        Thread.sleep(300L);
+        assertThat(level.getSnapshot().getSequence()).isEqualTo(1L);
+
+        clock.advance(1L, TimeUnit.SECONDS);
+
+        assertThat(level.getSnapshot().getSequence()).isGreaterThan(2L);
+    }
+
+    /**
+     * The same holds in tick mode, and pausing keeps the NPCs in place
+     * however far the clock goes.
+     */
+    @Test
+    void ticksWhenClockAdvances() {
+        level.enableTickMode(50L);
+        level.start();
+        clock.advance(1L, TimeUnit.SECONDS);
+        long moved = level.getSnapshot().getSequence();
+        assertThat(moved).isGreaterThan(2L);
+
+        level.stop();
+        clock.advance(1L, TimeUnit.SECONDS);
+
+        assertThat(level.getSnapshot().getSequence()).isEqualTo(moved);
+    }
+}
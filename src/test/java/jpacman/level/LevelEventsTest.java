@@ -0,0 +1,64 @@
+package jpacman.level;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.collect.Lists;
+import jpacman.board.BoardFactory;
+import jpacman.board.Direction;
+import jpacman.event.EventBus;
+import jpacman.event.EventType;
+import jpacman.event.WaitStrategy;
+import jpacman.npc.ghost.GhostFactory;
+import jpacman.points.PointCalculator;
+import jpacman.sprite.PacManSprites;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Verifies the events a level publishes.
+ */
+@SuppressWarnings("magicnumber")
+class LevelEventsTest {
+
+    /**
+     * The time to wait for events, in milliseconds.
+     */
+    private static final long TIMEOUT = 5000L;
+
+    /**
+     * Eating a pellet publishes a move, a collision and an eaten pellet, in
+     * that order.
+     *
+     * @throws InterruptedException
+     *             If interrupted while waiting.
+     */
+    @Test
+    void eatPellet() throws InterruptedException {
+        PacManSprites sprites = new PacManSprites();
+        MapParser parser = new MapParser(
+            new LevelFactory(sprites, new GhostFactory(sprites), mock(PointCalculator.class)),
+            new BoardFactory(sprites));
+        Level level = parser.parseMap(Lists.newArrayList("#P. #"));
+        Player player = new PlayerFactory(sprites).createPacMan();
+        level.registerPlayer(player);
+        List<EventType> types = new CopyOnWriteArrayList<>();
+        EventBus.Subscription subscription = level.getEvents().subscribe(
+            (event, sequence, endOfBatch) -> types.add(event.getType()), WaitStrategy.BLOCKING);
+        level.start();
+
+        level.move(player, Direction.EAST);
+        level.stop();
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(TIMEOUT);
+        while (types.size() < 3 && System.nanoTime() < deadline) {
+            Thread.sleep(1L);
+        }
+        subscription.close();
+        assertThat(types).containsExactly(
+            EventType.MOVE, EventType.COLLISION, EventType.PELLET_EATEN);
+    }
+}
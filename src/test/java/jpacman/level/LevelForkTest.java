@@ -0,0 +1,111 @@
+package jpacman.level;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+import com.google.common.collect.Lists;
+import jpacman.board.BoardFactory;
+import jpacman.board.Direction;
+import jpacman.npc.ghost.GhostFactory;
+import jpacman.points.PointCalculator;
+import jpacman.sprite.PacManSprites;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Verifies that forks of a level follow its rules without affecting it.
+ */
+@SuppressWarnings("magicnumber")
+class LevelForkTest {
+
+    /**
+     * The sprites of the game.
+     */
+    private final PacManSprites sprites = new PacManSprites();
+
+    /**
+     * The parser used to create levels.
+     */
+    private final MapParser parser = new MapParser(
+        new LevelFactory(sprites, new GhostFactory(sprites), mock(PointCalculator.class)),
+        new BoardFactory(sprites));
+
+    /**
+     * The level under test.
+     */
+    private Level level;
+
+    /**
+     * The player on the level.
+     */
+    private Player player;
+
+    /**
+     * Creates a level with a player between pellets and a ghost.
+     */
+    @BeforeEach
+    void setUp() {
+        level = parser.parseMap(Lists.newArrayList(
+            "#P...G#",
+            "#.#####"));
+        player = new PlayerFactory(sprites).createPacMan();
+        level.registerPlayer(player);
+    }
+
+    /**
+     * Moves in a fork eat pellets in the fork only.
+     */
+    @Test
+    void movesOnlyInFork() {
+        LevelFork fork = level.fork();
+
+        assertThat(fork.move(0, Direction.EAST)).isTrue();
+        assertThat(fork.move(0, Direction.NORTH)).isFalse();
+
+        assertThat(fork.getX(0)).isEqualTo(2);
+        assertThat(fork.getDirection(0)).isEqualTo(Direction.NORTH);
+        assertThat(fork.getScore(0)).isEqualTo(10);
+        assertThat(fork.remainingPellets()).isEqualTo(3);
+        assertThat(fork.isPelletAt(2, 0)).isFalse();
+        assertThat(player.getSquare().getX()).isEqualTo(1);
+        assertThat(level.remainingPellets()).isEqualTo(4);
+    }
+
+    /**
+     * Forks of a fork share the pellets until one of them eats one.
+     */
+    @Test
+    void forksAreIndependent() {
+        LevelFork fork = level.fork();
+        LevelFork east = fork.fork();
+        LevelFork south = fork.fork();
+
+        east.move(0, Direction.EAST);
+        south.move(0, Direction.SOUTH);
+
+        assertThat(east.isPelletAt(2, 0)).isFalse();
+        assertThat(east.isPelletAt(1, 1)).isTrue();
+        assertThat(south.isPelletAt(2, 0)).isTrue();
+        assertThat(south.isPelletAt(1, 1)).isFalse();
+        assertThat(fork.remainingPellets()).isEqualTo(4);
+        assertThat(fork.isPelletAt(2, 0)).isTrue();
+    }
+
+    /**
+     * A ghost moving onto a player kills it and ends the game in the fork.
+     */
+    @Test
+    void ghostKillsPlayer() {
+        LevelFork fork = level.fork();
+        fork.move(0, Direction.EAST);
+        fork.move(0, Direction.EAST);
+        fork.move(0, Direction.EAST);
+        fork.move(1, Direction.WEST);
+
+        assertThat(fork.isAlive(0)).isFalse();
+        assertThat(fork.getKiller(0)).isEqualTo(1);
+        assertThat(fork.isInProgress()).isFalse();
+        assertThat(fork.move(0, Direction.WEST)).isFalse();
+        assertThat(player.isAlive()).isTrue();
+    }
+}
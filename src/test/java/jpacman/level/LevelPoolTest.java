@@ -0,0 +1,91 @@
+package jpacman.level;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+import com.google.common.collect.Lists;
+import jpacman.board.BoardFactory;
+import jpacman.board.Direction;
+import jpacman.npc.ghost.GhostFactory;
+import jpacman.points.PointCalculator;
+import jpacman.sprite.PacManSprites;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Verifies resetting levels and reusing them through a pool.
+ */
+@SuppressWarnings("magicnumber")
+class LevelPoolTest {
+
+    /**
+     * The sprites of the game.
+     */
+    private final PacManSprites sprites = new PacManSprites();
+
+    /**
+     * The parser used to create levels.
+     */
+    private final MapParser parser = new MapParser(
+        new LevelFactory(sprites, new GhostFactory(sprites), mock(PointCalculator.class)),
+        new BoardFactory(sprites));
+
+    /**
+     * @return A small level with one player registered.
+     */
+    private Level createLevel() {
+        Level level = parser.parseMap(Lists.newArrayList(
+            "#P...G#",
+            "#######"));
+        level.registerPlayer(new PlayerFactory(sprites).createPacMan());
+        return level;
+    }
+
+    /**
+     * Resetting a level after its player ate pellets and died puts
+     * everything back in place.
+     */
+    @Test
+    void resetRestoresInitialState() {
+        Level level = createLevel();
+        Player player = level.getPlayers().get(0);
+        level.start();
+        level.move(player, Direction.EAST);
+        level.move(player, Direction.EAST);
+        player.addPoints(20);
+        player.setAlive(false);
+        assertThat(level.remainingPellets()).isEqualTo(1);
+
+        level.reset();
+
+        assertThat(level.isInProgress()).isFalse();
+        assertThat(level.remainingPellets()).isEqualTo(3);
+        assertThat(level.getSnapshot().remainingPellets()).isEqualTo(3);
+        assertThat(player.getSquare().getX()).isEqualTo(1);
+        assertThat(player.getDirection()).isEqualTo(Direction.EAST);
+        assertThat(player.getScore()).isZero();
+        assertThat(player.isAlive()).isTrue();
+        assertThat(level.getGhosts().get(0).getSquare().getX()).isEqualTo(5);
+        level.dispose();
+    }
+
+    /**
+     * A released level is handed out again, and levels that do not fit in
+     * the pool are discarded.
+     */
+    @Test
+    void reusesReleasedLevels() {
+        LevelPool pool = new LevelPool(this::createLevel, 1);
+        Level first = pool.acquire();
+        Level second = pool.acquire();
+        first.start();
+
+        pool.release(first);
+        pool.release(second);
+
+        assertThat(pool.getIdleCount()).isEqualTo(1);
+        assertThat(pool.acquire()).isSameAs(first);
+        assertThat(pool.getCreatedCount()).isEqualTo(2);
+        assertThat(first.isInProgress()).isFalse();
+        first.dispose();
+    }
+}
@@ -0,0 +1,137 @@
+package jpacman.level;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.collect.Lists;
+import jpacman.board.BoardFactory;
+import jpacman.clock.ManualClock;
+import jpacman.npc.Ghost;
+import jpacman.npc.ghost.GhostFactory;
+import jpacman.points.PointCalculator;
+import jpacman.sprite.PacManSprites;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Verifies that the seed of a level determines the random choices of its
+ * NPCs.
+ */
+@SuppressWarnings("magicnumber")
+class LevelSeedTest {
+
+    /**
+     * The time between ticks, in milliseconds.
+     */
+    private static final long TICK = 50L;
+
+    /**
+     * The sprites of the game.
+     */
+    private final PacManSprites sprites = new PacManSprites();
+
+    /**
+     * The parser used to create levels.
+     */
+    private final MapParser parser = new MapParser(
+        new LevelFactory(sprites, new GhostFactory(sprites), mock(PointCalculator.class)),
+        new BoardFactory(sprites));
+
+    /**
+     * Two levels with the same seed play the same game in tick mode, and a
+     * level with another seed plays another.
+     */
+    @Test
+    void sameSeedSameGame() {
+        byte[] first = play(42L);
+        byte[] second = play(42L);
+        byte[] other = play(43L);
+
+        assertThat(second).isEqualTo(first);
+        assertThat(other).isNotEqualTo(first);
+    }
+
+    /**
+     * Resetting a level starts its random numbers over.
+     */
+    @Test
+    void resetRepeatsGame() {
+        Level level = createLevel(7L);
+        byte[] first = run(level);
+        level.reset();
+        byte[] second = run(level);
+        level.dispose();
+
+        assertThat(second).isEqualTo(first);
+    }
+
+    /**
+     * The state of a level includes the state of the random numbers of its
+     * NPCs.
+     */
+    @Test
+    void stateRestoresGenerators() {
+        Level level = createLevel(7L);
+        Ghost ghost = level.getGhosts().get(0);
+        ByteBuffer state = ByteBuffer.allocate(level.getStateSize());
+        level.writeState(state);
+        long expected = ghost.getRandom().nextLong();
+
+        state.flip();
+        level.readState(state);
+
+        assertThat(ghost.getRandom().nextLong()).isEqualTo(expected);
+    }
+
+    /**
+     * Plays ten seconds of a level with the given seed.
+     *
+     * @param seed
+     *            The seed of the level.
+     * @return The state of the level afterwards.
+     */
+    private byte[] play(long seed) {
+        Level level = createLevel(seed);
+        byte[] state = run(level);
+        level.dispose();
+        return state;
+    }
+
+    /**
+     * Creates a level in tick mode on a manual clock, whose ghosts only move
+     * randomly, as there are no players to chase.
+     *
+     * @param seed
+     *            The seed of the level.
+     * @return The level.
+     */
+    private Level createLevel(long seed) {
+        Level level = parser.parseMap(Lists.newArrayList(
+            "#G     .    G#",
+            "# .  ##  ### #",
+            "#    G  .   G#",
+            "##############"));
+        level.setSeed(seed);
+        level.setClock(new ManualClock());
+        level.enableTickMode(TICK);
+        return level;
+    }
+
+    /**
+     * Runs a level for ten seconds of its clock.
+     *
+     * @param level
+     *            The level.
+     * @return The state of the level afterwards.
+     */
+    private static byte[] run(Level level) {
+        level.start();
+        ((ManualClock) level.getClock()).advance(10L, TimeUnit.SECONDS);
+        level.stop();
+        ByteBuffer state = ByteBuffer.allocate(level.getStateSize());
+        level.writeState(state);
+        return state.array();
+    }
+}
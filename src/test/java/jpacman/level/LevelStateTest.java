@@ -0,0 +1,124 @@
+package jpacman.level;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.mockito.Mockito.mock;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+
+import com.google.common.collect.Lists;
+import jpacman.board.BoardFactory;
+import jpacman.board.Direction;
+import jpacman.npc.ghost.GhostFactory;
+import jpacman.points.PointCalculator;
+import jpacman.sprite.PacManSprites;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Verifies writing the state of a level and reading it into another one.
+ */
+@SuppressWarnings("magicnumber")
+class LevelStateTest {
+
+    /**
+     * The sprites of the game.
+     */
+    private final PacManSprites sprites = new PacManSprites();
+
+    /**
+     * The parser used to create levels.
+     */
+    private final MapParser parser = new MapParser(
+        new LevelFactory(sprites, new GhostFactory(sprites), mock(PointCalculator.class)),
+        new BoardFactory(sprites));
+
+    /**
+     * @return A small level with one player registered.
+     */
+    private Level createLevel() {
+        Level level = parser.parseMap(Lists.newArrayList(
+            "#P....#",
+            "#.....#",
+            "#######"));
+        level.registerPlayer(new PlayerFactory(sprites).createPacMan());
+        return level;
+    }
+
+    /**
+     * A level read from the state of another level has its player in the
+     * same place, with the same score, and the same pellets left.
+     */
+    @Test
+    void restoresPlayerAndPellets() {
+        Level original = createLevel();
+        Player player = original.getPlayers().get(0);
+        original.start();
+        original.move(player, Direction.EAST);
+        original.move(player, Direction.EAST);
+        original.move(player, Direction.SOUTH);
+        original.stop();
+        player.addPoints(30);
+
+        ByteBuffer state = ByteBuffer.allocate(original.getStateSize());
+        original.writeState(state);
+        assertThat(state.hasRemaining()).isFalse();
+
+        Level copy = createLevel();
+        state.flip();
+        copy.readState(state);
+        Player restored = copy.getPlayers().get(0);
+
+        assertThat(restored.getSquare().getX()).isEqualTo(3);
+        assertThat(restored.getSquare().getY()).isEqualTo(1);
+        assertThat(restored.getDirection()).isEqualTo(Direction.SOUTH);
+        assertThat(restored.getScore()).isEqualTo(30);
+        assertThat(copy.remainingPellets()).isEqualTo(original.remainingPellets());
+        assertThat(copy.getSnapshot().remainingPellets()).isEqualTo(6);
+        assertThat(copy.getSnapshot().getX(0)).isEqualTo(3);
+    }
+
+    /**
+     * A state of a level with another amount of players is refused.
+     */
+    @Test
+    void refusesOtherLevel() {
+        Level original = createLevel();
+        ByteBuffer state = ByteBuffer.allocate(original.getStateSize());
+        original.writeState(state);
+        state.flip();
+
+        Level other = createLevel();
+        other.registerPlayer(new PlayerFactory(sprites).createPacMan());
+
+        assertThatThrownBy(() -> other.readState(state))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    /**
+     * States can be written and read while NPCs keep moving in ticks,
+     * without the level and its ticker waiting for each other.
+     */
+    @Test
+    void stateWhileTicking() {
+        Level level = parser.parseMap(Lists.newArrayList(
+            "#G   G#",
+            "#  P  #",
+            "#######"));
+        level.registerPlayer(new PlayerFactory(sprites).createPacMan());
+        level.enableTickMode(1L);
+        level.start();
+        ByteBuffer state = ByteBuffer.allocate(level.getStateSize());
+
+        assertTimeoutPreemptively(Duration.ofSeconds(10L), () -> {
+            for (int i = 0; i < 500; i++) {
+                state.clear();
+                level.writeState(state);
+                state.flip();
+                level.readState(state);
+            }
+        });
+        level.dispose();
+    }
+}
@@ -0,0 +1,160 @@
+package jpacman.level;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.collect.Lists;
+import jpacman.board.Direction;
+import jpacman.board.Unit;
+import jpacman.npc.Ghost;
+import jpacman.npc.ghost.GhostFactory;
+import jpacman.sprite.PacManSprites;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Verifies that player moves are admitted before NPC moves.
+ */
+@SuppressWarnings("magicnumber")
+class MoveAdmissionTest {
+
+    /**
+     * The time to wait for threads, in milliseconds.
+     */
+    private static final long TIMEOUT = 5000L;
+
+    /**
+     * The admission under test.
+     */
+    private final MoveAdmission admission = new MoveAdmission();
+
+    /**
+     * The order in which the waiting moves were admitted.
+     */
+    private final List<String> admitted = new ArrayList<>();
+
+    /**
+     * A player move arriving after several NPC moves is admitted first.
+     *
+     * @throws InterruptedException
+     *             If interrupted while waiting.
+     */
+    @Test
+    void playerGoesFirst() throws InterruptedException {
+        admission.enter(false);
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            threads.add(waiting("npc", false));
+        }
+        threads.add(waiting("player", true));
+
+        admission.exit();
+        for (Thread thread : threads) {
+            thread.join(TIMEOUT);
+        }
+
+        assertThat(admitted).containsExactly("player", "npc", "npc", "npc");
+        assertThat(admission.getPreempted()).isZero();
+    }
+
+    /**
+     * An NPC move arriving while a player move waits waits as well.
+     *
+     * @throws InterruptedException
+     *             If interrupted while waiting.
+     */
+    @Test
+    void npcWaitsForWaitingPlayer() throws InterruptedException {
+        admission.enter(false);
+        Thread player = waiting("player", true);
+        Thread npc = waiting("npc", false);
+
+        admission.exit();
+        player.join(TIMEOUT);
+        npc.join(TIMEOUT);
+
+        assertThat(admitted).containsExactly("player", "npc");
+        assertThat(admission.getPreempted()).isEqualTo(1L);
+    }
+
+    /**
+     * However many NPC moves wait, every waiting player move is admitted
+     * before all of them, and only the NPC moves arriving while a player
+     * waits count as preempted.
+     *
+     * @throws InterruptedException
+     *             If interrupted while waiting.
+     */
+    @Test
+    void playersBeforeAllWaitingNpcs() throws InterruptedException {
+        admission.enter(false);
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            threads.add(waiting("npc", false));
+        }
+        threads.add(waiting("player", true));
+        threads.add(waiting("npc", false));
+        threads.add(waiting("npc", false));
+        threads.add(waiting("player", true));
+
+        admission.exit();
+        for (Thread thread : threads) {
+            thread.join(TIMEOUT);
+        }
+
+        assertThat(admitted).containsExactly("player", "player",
+            "npc", "npc", "npc", "npc", "npc", "npc", "npc");
+        assertThat(admission.getPreempted()).isEqualTo(2L);
+    }
+
+    /**
+     * A batch of moves gets the priority of a player move if any of its
+     * moves is one, wherever it is in the batch.
+     */
+    @Test
+    void batchPriorityCoversAllMoves() {
+        PacManSprites sprites = new PacManSprites();
+        Player player = new PlayerFactory(sprites).createPacMan();
+        Ghost ghost = new GhostFactory(sprites).createBlinky();
+        List<Unit> mixed = Lists.newArrayList(ghost, player);
+
+        assertThat(Level.anyPlayer(mixed)).isTrue();
+        assertThat(Level.anyPlayer(Lists.reverse(mixed))).isTrue();
+        assertThat(Level.anyPlayer(Lists.newArrayList(ghost))).isFalse();
+        assertThat(Level.anyPlayerMove(Lists.newArrayList(
+            new MoveCommand(ghost, Direction.EAST, 0L),
+            new MoveCommand(player, Direction.WEST, 0L)))).isTrue();
+        assertThat(Level.anyPlayerMove(Lists.newArrayList(
+            new MoveCommand(ghost, Direction.EAST, 0L)))).isFalse();
+    }
+
+    /**
+     * Starts a thread that enters the admission and records its name, and
+     * waits until it blocks.
+     *
+     * @param name
+     *            The name to record.
+     * @param player
+     *            <code>true</code> to enter as a player.
+     * @return The thread.
+     * @throws InterruptedException
+     *             If interrupted while waiting.
+     */
+    private Thread waiting(String name, boolean player) throws InterruptedException {
+        Thread thread = new Thread(() -> {
+            admission.enter(player);
+            synchronized (admitted) {
+                admitted.add(name);
+            }
+            admission.exit();
+        });
+        thread.start();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(TIMEOUT);
+        while (thread.getState() != Thread.State.WAITING && System.nanoTime() < deadline) {
+            Thread.sleep(1L);
+        }
+        return thread;
+    }
+}
@@ -0,0 +1,112 @@
+package jpacman.level;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.collect.Lists;
+import jpacman.board.BoardFactory;
+import jpacman.board.Direction;
+import jpacman.npc.ghost.GhostFactory;
+import jpacman.points.PointCalculator;
+import jpacman.sprite.PacManSprites;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Verifies moves applied by the simulation thread of a level.
+ */
+@SuppressWarnings("magicnumber")
+class MoveCommandQueueTest {
+
+    /**
+     * The level under test, with the command queue enabled.
+     */
+    private Level level;
+
+    /**
+     * The player on the level.
+     */
+    private Player player;
+
+    /**
+     * Creates a level with a single player and no ghosts.
+     */
+    @BeforeEach
+    void setUp() {
+        PacManSprites sprites = new PacManSprites();
+        MapParser parser = new MapParser(
+            new LevelFactory(sprites, new GhostFactory(sprites), mock(PointCalculator.class)),
+            new BoardFactory(sprites));
+        level = parser.parseMap(Lists.newArrayList("#..P..#"));
+        player = new PlayerFactory(sprites).createPacMan();
+        level.registerPlayer(player);
+        level.enableCommandQueue();
+        level.start();
+    }
+
+    /**
+     * Stops the simulation thread.
+     */
+    @AfterEach
+    void tearDown() {
+        level.dispose();
+    }
+
+    /**
+     * A submitted move completes once it was applied.
+     *
+     * @throws Exception
+     *             If the move did not complete in time.
+     */
+    @Test
+    void moveCompletes() throws Exception {
+        assertThat(level.submitMove(player, Direction.EAST).get(1, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(player.getSquare().getX()).isEqualTo(4);
+        assertThat(level.getSnapshot().getX(0)).isEqualTo(4);
+        assertThat(level.getMoveLatency().getCount()).isEqualTo(1);
+    }
+
+    /**
+     * Moves are applied in the order they were submitted, and a blocked move
+     * completes with <code>false</code>.
+     *
+     * @throws Exception
+     *             If the moves did not complete in time.
+     */
+    @Test
+    void movesInOrder() throws Exception {
+        List<CompletableFuture<Boolean>> results = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            results.add(level.submitMove(player, Direction.WEST));
+        }
+        CompletableFuture.allOf(results.toArray(new CompletableFuture<?>[0]))
+            .get(1, TimeUnit.SECONDS);
+
+        assertThat(results.get(0).get()).isTrue();
+        assertThat(results.get(1).get()).isTrue();
+        assertThat(results.get(2).get()).isFalse();
+        assertThat(player.getSquare().getX()).isEqualTo(1);
+        assertThat(player.getScore()).isZero();
+    }
+
+    /**
+     * Moves submitted while the level is stopped are refused.
+     *
+     * @throws Exception
+     *             If the move did not complete in time.
+     */
+    @Test
+    void refusedWhenStopped() throws Exception {
+        level.stop();
+
+        assertThat(level.submitMove(player, Direction.EAST).get(1, TimeUnit.SECONDS)).isFalse();
+        assertThat(player.getSquare().getX()).isEqualTo(3);
+    }
+}
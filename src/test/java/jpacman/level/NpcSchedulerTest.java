@@ -0,0 +1,118 @@
+package jpacman.level;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.collect.Lists;
+import jpacman.board.BoardFactory;
+import jpacman.npc.ghost.GhostFactory;
+import jpacman.points.PointCalculator;
+import jpacman.sprite.PacManSprites;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Verifies that pausing and resuming a level keeps its NPC threads.
+ */
+@SuppressWarnings("magicnumber")
+class NpcSchedulerTest {
+
+    /**
+     * The amount of times the level is paused and resumed.
+     */
+    private static final int CYCLES = 1000;
+
+    /**
+     * The time to wait for the NPCs to move, in milliseconds.
+     */
+    private static final long TIMEOUT = 5000L;
+
+    /**
+     * The level under test, with four ghosts.
+     */
+    private Level level;
+
+    /**
+     * Creates the level.
+     */
+    @BeforeEach
+    void setUp() {
+        PacManSprites sprites = new PacManSprites();
+        MapParser parser = new MapParser(
+            new LevelFactory(sprites, new GhostFactory(sprites), mock(PointCalculator.class)),
+            new BoardFactory(sprites));
+        level = parser.parseMap(Lists.newArrayList(
+            "#G    G#",
+            "#      #",
+            "#G    G#",
+            "########"));
+    }
+
+    /**
+     * Releases the threads of the level.
+     */
+    @AfterEach
+    void tearDown() {
+        level.dispose();
+    }
+
+    /**
+     * Pausing and resuming many times creates no new threads, and the ghosts
+     * keep moving afterwards.
+     *
+     * @throws InterruptedException
+     *             If interrupted while waiting.
+     */
+    @Test
+    void pauseResume() throws InterruptedException {
+        level.start();
+        int threads = npcThreads();
+        for (int i = 0; i < CYCLES; i++) {
+            level.stop();
+            level.start();
+        }
+        assertThat(npcThreads()).isLessThanOrEqualTo(threads + 4);
+
+        long first = level.getSnapshot().getSequence();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(TIMEOUT);
+        while (level.getSnapshot().getSequence() == first && System.nanoTime() < deadline) {
+            Thread.sleep(10L);
+        }
+        assertThat(level.getSnapshot().getSequence()).isGreaterThan(first);
+    }
+
+    /**
+     * Disposing the level ends its NPC threads.
+     *
+     * @throws InterruptedException
+     *             If interrupted while waiting.
+     */
+    @Test
+    void disposeReleasesThreads() throws InterruptedException {
+        int before = npcThreads();
+        level.start();
+        level.dispose();
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(TIMEOUT);
+        while (npcThreads() > before && System.nanoTime() < deadline) {
+            Thread.sleep(10L);
+        }
+        assertThat(npcThreads()).isLessThanOrEqualTo(before);
+    }
+
+    /**
+     * @return The amount of live threads moving NPCs, of any level.
+     */
+    private static int npcThreads() {
+        int count = 0;
+        for (Thread thread : Thread.getAllStackTraces().keySet()) {
+            if (thread.getName().startsWith("npc-") && thread.isAlive()) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,119 @@
+package jpacman.level;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import com.google.common.collect.Lists;
+import jpacman.board.BoardFactory;
+import jpacman.npc.ghost.GhostFactory;
+import jpacman.points.PointCalculator;
+import jpacman.sprite.PacManSprites;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Verifies that NPCs are moved in ticks.
+ */
+@SuppressWarnings("magicnumber")
+class NpcTickerTest {
+
+    /**
+     * The time to wait for the NPCs to move, in milliseconds.
+     */
+    private static final long TIMEOUT = 5000L;
+
+    /**
+     * The ghosts of a level in tick mode keep moving, and the time their AIs
+     * take is recorded.
+     *
+     * @throws InterruptedException
+     *             If interrupted while waiting.
+     */
+    @Test
+    void ghostsMove() throws InterruptedException {
+        PacManSprites sprites = new PacManSprites();
+        MapParser parser = new MapParser(
+            new LevelFactory(sprites, new GhostFactory(sprites), mock(PointCalculator.class)),
+            new BoardFactory(sprites));
+        Level level = parser.parseMap(Lists.newArrayList(
+            "#G    #",
+            "#    G#",
+            "#######"));
+        level.enableTickMode(5L);
+        long first = level.getSnapshot().getSequence();
+        level.start();
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(TIMEOUT);
+        while (level.getSnapshot().getSequence() < first + 2 && System.nanoTime() < deadline) {
+            Thread.sleep(10L);
+        }
+        level.stop();
+
+        assertThat(level.getSnapshot().getSequence()).isGreaterThanOrEqualTo(first + 2);
+        assertThat(level.getNpcDecisionTime().getCount()).isPositive();
+    }
+
+    /**
+     * A tick that ends the game does not keep other threads from stopping
+     * the level while the observers are told.
+     *
+     * @throws InterruptedException
+     *             If interrupted while waiting.
+     */
+    @Test
+    void stopWhileTickEndsGame() throws InterruptedException {
+        PacManSprites sprites = new PacManSprites();
+        MapParser parser = new MapParser(
+            new LevelFactory(sprites, new GhostFactory(sprites), mock(PointCalculator.class)),
+            new BoardFactory(sprites));
+        Level level = parser.parseMap(Lists.newArrayList("#GP#"));
+        level.registerPlayer(new PlayerFactory(sprites).createPacMan());
+        level.enableTickMode(5L);
+        AtomicBoolean stopped = new AtomicBoolean();
+        CountDownLatch lost = new CountDownLatch(1);
+        level.addObserver(stopOnOtherThread(level, stopped, lost));
+        level.start();
+
+        assertThat(lost.await(TIMEOUT, TimeUnit.MILLISECONDS)).isTrue();
+        level.dispose();
+
+        assertThat(stopped).isTrue();
+    }
+
+    /**
+     * @param level
+     *            The level to stop.
+     * @param stopped
+     *            Set when the level was lost, to whether another thread
+     *            managed to stop the level meanwhile.
+     * @param lost
+     *            Counted down when the level was lost.
+     * @return An observer that stops the level on another thread and waits
+     *         for it when the level is lost.
+     */
+    private static Level.LevelObserver stopOnOtherThread(Level level, AtomicBoolean stopped,
+                                                         CountDownLatch lost) {
+        return new Level.LevelObserver() {
+            @Override
+            public void levelWon() {
+                // not possible
+            }
+
+            @Override
+            public void levelLost() {
+                Thread other = new Thread(level::stop);
+                other.start();
+                try {
+                    other.join(TIMEOUT);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                stopped.set(!other.isAlive());
+                lost.countDown();
+            }
+        };
+    }
+}
@@ -0,0 +1,119 @@
+package jpacman.level;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.collect.Lists;
+import jpacman.board.BoardFactory;
+import jpacman.npc.ghost.GhostFactory;
+import jpacman.points.PointCalculator;
+import jpacman.sprite.PacManSprites;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Verifies that NPCs over budget move without their AI.
+ */
+@SuppressWarnings("magicnumber")
+class NpcWatchdogTest {
+
+    /**
+     * The level the ghost is on.
+     */
+    private Level level;
+
+    /**
+     * The watchdog under test.
+     */
+    private NpcWatchdog watchdog;
+
+    /**
+     * Creates a level with a player and a ghost far apart.
+     */
+    @BeforeEach
+    void setUp() {
+        PacManSprites sprites = new PacManSprites();
+        MapParser parser = new MapParser(
+            new LevelFactory(sprites, new GhostFactory(sprites), mock(PointCalculator.class)),
+            new BoardFactory(sprites));
+        level = parser.parseMap(Lists.newArrayList(
+            "#P      G #",
+            "###########"));
+        level.registerPlayer(new PlayerFactory(sprites).createPacMan());
+        watchdog = level.getWatchdog();
+    }
+
+    /**
+     * Releases the threads of the level.
+     */
+    @AfterEach
+    void tearDown() {
+        level.dispose();
+    }
+
+    /**
+     * Without budgets every move asks the AI.
+     */
+    @Test
+    void measuresWithoutBudget() {
+        for (int i = 0; i < 3; i++) {
+            assertThat(watchdog.nextMove(0, TimeUnit.SECONDS.toNanos(1))).isNotNull();
+        }
+
+        assertThat(watchdog.getAiTime().getCount()).isEqualTo(3L);
+        assertThat(watchdog.getLateness().getCount()).isEqualTo(3L);
+        assertThat(watchdog.getLateMoves()).isZero();
+        assertThat(watchdog.getReusedMoves()).isZero();
+    }
+
+    /**
+     * After an AI decision over budget the next move reuses it, and the move
+     * after that asks the AI again.
+     */
+    @Test
+    void reusesDecisionAfterOverrun() {
+        watchdog.setBudget(1L, 0L, TimeUnit.SECONDS);
+
+        watchdog.nextMove(0, 0L);
+        assertThat(watchdog.getAiOverruns()).isEqualTo(1L);
+        assertThat(watchdog.nextMove(0, 0L)).isNotNull();
+        assertThat(watchdog.getReusedMoves()).isEqualTo(1L);
+        watchdog.nextMove(0, 0L);
+
+        assertThat(watchdog.getAiOverruns()).isEqualTo(2L);
+        assertThat(watchdog.getAiTime().getCount()).isEqualTo(2L);
+    }
+
+    /**
+     * A late move of a ghost far from the player skips the AI.
+     */
+    @Test
+    void skipsAiForDistantGhostWhenLate() {
+        watchdog.setBudget(1L, 1L, TimeUnit.MILLISECONDS);
+        watchdog.setFarDistance(3);
+
+        assertThat(watchdog.nextMove(0, TimeUnit.MILLISECONDS.toNanos(5))).isNotNull();
+
+        assertThat(watchdog.getLateMoves()).isEqualTo(1L);
+        assertThat(watchdog.getSkippedMoves()).isEqualTo(1L);
+        assertThat(watchdog.getAiTime().getCount()).isZero();
+    }
+
+    /**
+     * A late move of a ghost near the player keeps the last decision rather
+     * than moving randomly.
+     */
+    @Test
+    void reusesDecisionForNearbyGhostWhenLate() {
+        watchdog.setBudget(1L, 1L, TimeUnit.MILLISECONDS);
+        watchdog.setFarDistance(7);
+
+        assertThat(watchdog.nextMove(0, TimeUnit.MILLISECONDS.toNanos(5))).isNotNull();
+
+        assertThat(watchdog.getSkippedMoves()).isZero();
+        assertThat(watchdog.getReusedMoves()).isEqualTo(1L);
+    }
+}
@@ -0,0 +1,129 @@
+package jpacman.level;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import com.google.common.collect.Lists;
+import jpacman.board.BoardFactory;
+import jpacman.board.Direction;
+import jpacman.npc.ghost.GhostFactory;
+import jpacman.points.PointCalculator;
+import jpacman.sprite.PacManSprites;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Verifies moves made concurrently on a level with region locking.
+ */
+@SuppressWarnings("magicnumber")
+class RegionLockingTest {
+
+    /**
+     * The amount of players, one per row.
+     */
+    private static final int PLAYERS = 4;
+
+    /**
+     * The amount of moves every player makes.
+     */
+    private static final int MOVES = 10;
+
+    /**
+     * The sprites of the game.
+     */
+    private final PacManSprites sprites = new PacManSprites();
+
+    /**
+     * The parser used to create levels.
+     */
+    private final MapParser parser = new MapParser(
+        new LevelFactory(sprites, new GhostFactory(sprites), mock(PointCalculator.class)),
+        new BoardFactory(sprites));
+
+    /**
+     * The level under test.
+     */
+    private Level level;
+
+    /**
+     * The players on the level.
+     */
+    private final List<Player> players = new ArrayList<>();
+
+    /**
+     * Creates a level with a row of pellets for every player, and one extra.
+     */
+    @BeforeEach
+    void setUp() {
+        List<String> map = new ArrayList<>();
+        for (int i = 0; i < PLAYERS; i++) {
+            map.add("#P..........#");
+        }
+        map.add("#...........#");
+        level = parser.parseMap(map);
+        for (int i = 0; i < PLAYERS; i++) {
+            Player player = new PlayerFactory(sprites).createPacMan();
+            level.registerPlayer(player);
+            players.add(player);
+        }
+        level.enableRegionLocking(2);
+    }
+
+    /**
+     * Players moving at the same time in different rows all end up where they
+     * should, and every pellet they ate is counted and published.
+     *
+     * @throws Exception
+     *             If a mover failed.
+     */
+    @Test
+    void concurrentMoves() throws Exception {
+        level.start();
+
+        ExecutorService movers = Executors.newFixedThreadPool(PLAYERS);
+        CountDownLatch go = new CountDownLatch(1);
+        List<Future<?>> done = new ArrayList<>();
+        for (Player player : players) {
+            done.add(movers.submit(() -> {
+                go.await();
+                for (int i = 0; i < MOVES; i++) {
+                    level.move(player, Direction.EAST);
+                }
+                return null;
+            }));
+        }
+        go.countDown();
+        for (Future<?> mover : done) {
+            mover.get();
+        }
+        movers.shutdown();
+        level.stop();
+
+        for (Player player : players) {
+            assertThat(player.getSquare().getX()).isEqualTo(1 + MOVES);
+        }
+        assertThat(level.remainingPellets()).isEqualTo(11);
+        assertThat(level.getSnapshot().remainingPellets()).isEqualTo(11);
+    }
+
+    /**
+     * Squares are assigned to the tile they are in.
+     */
+    @Test
+    void regions() {
+        Level small = parser.parseMap(Lists.newArrayList("#   #", "#   #", "#####"));
+        RegionLocks locks = new RegionLocks(5, 3, 2);
+
+        assertThat(locks.getRegionCount()).isEqualTo(6);
+        assertThat(locks.regionOf(small.getBoard().squareAt(1, 1))).isEqualTo(0);
+        assertThat(locks.regionOf(small.getBoard().squareAt(4, 0))).isEqualTo(2);
+        assertThat(locks.regionOf(small.getBoard().squareAt(3, 2))).isEqualTo(4);
+    }
+}
@@ -0,0 +1,130 @@
+package jpacman.level;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.google.common.collect.Lists;
+import jpacman.board.BoardFactory;
+import jpacman.board.Direction;
+import jpacman.npc.ghost.GhostFactory;
+import jpacman.points.DefaultPointCalculator;
+import jpacman.sprite.PacManSprites;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Verifies rewinding a level to earlier moves.
+ */
+@SuppressWarnings("magicnumber")
+class RewindTest {
+
+    /**
+     * The level under test.
+     */
+    private Level level;
+
+    /**
+     * The player on the level.
+     */
+    private Player player;
+
+    /**
+     * Creates a running level with a row of pellets, recording its moves.
+     */
+    @BeforeEach
+    void setUp() {
+        PacManSprites sprites = new PacManSprites();
+        MapParser parser = new MapParser(
+            new LevelFactory(sprites, new GhostFactory(sprites), new DefaultPointCalculator()),
+            new BoardFactory(sprites));
+        level = parser.parseMap(Lists.newArrayList(
+            "#P.....#",
+            "########"));
+        player = new PlayerFactory(sprites).createPacMan();
+        level.registerPlayer(player);
+        level.enableRewind(8);
+        level.start();
+    }
+
+    /**
+     * Releases the threads of the level.
+     */
+    @AfterEach
+    void tearDown() {
+        level.dispose();
+    }
+
+    /**
+     * Rewinding puts the player back, returns the pellets it ate and takes
+     * away the points it scored.
+     */
+    @Test
+    void undoesMoves() {
+        level.move(player, Direction.EAST);
+        level.move(player, Direction.EAST);
+        level.move(player, Direction.NORTH);
+        level.move(player, Direction.EAST);
+        assertThat(level.getTick()).isEqualTo(4L);
+        assertThat(player.getScore()).isEqualTo(30);
+
+        level.rewind(1L);
+
+        assertThat(level.getTick()).isEqualTo(1L);
+        assertThat(player.getSquare().getX()).isEqualTo(2);
+        assertThat(player.getDirection()).isEqualTo(Direction.EAST);
+        assertThat(player.getScore()).isEqualTo(10);
+        assertThat(level.remainingPellets()).isEqualTo(4);
+        assertThat(level.getSnapshot().getX(0)).isEqualTo(2);
+        assertThat(level.getSnapshot().remainingPellets()).isEqualTo(4);
+
+        level.move(player, Direction.EAST);
+        assertThat(level.getTick()).isEqualTo(2L);
+        assertThat(player.getScore()).isEqualTo(20);
+    }
+
+    /**
+     * Only the most recent moves are kept, and the oldest tick that can be
+     * rewound to advances.
+     */
+    @Test
+    void keepsRecentMoves() {
+        long start = System.nanoTime();
+        for (int i = 0; i < 5; i++) {
+            level.move(player, Direction.EAST);
+        }
+        for (int i = 0; i < 5; i++) {
+            level.move(player, Direction.WEST);
+        }
+
+        assertThat(level.getTick()).isEqualTo(10L);
+        assertThat(level.getOldestTick()).isEqualTo(6L);
+        assertThat(level.getTickAt(start)).isEqualTo(6L);
+        assertThat(level.getTickAt(System.nanoTime())).isEqualTo(10L);
+
+        level.rewind(level.getOldestTick());
+
+        assertThat(player.getSquare().getX()).isEqualTo(5);
+        assertThat(player.getScore()).isEqualTo(50);
+        assertThat(level.remainingPellets()).isZero();
+    }
+
+    /**
+     * A level that does not record its moves says so, rather than failing
+     * with a null pointer.
+     */
+    @Test
+    void rewindNotEnabled() {
+        PacManSprites sprites = new PacManSprites();
+        Level plain = new MapParser(
+            new LevelFactory(sprites, new GhostFactory(sprites), new DefaultPointCalculator()),
+            new BoardFactory(sprites)).parseMap(Lists.newArrayList("#P.#"));
+
+        assertThatThrownBy(plain::getTick).isInstanceOf(IllegalStateException.class)
+            .hasMessageContaining("not enabled");
+        assertThatThrownBy(plain::getOldestTick).isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> plain.getTickAt(0L))
+            .isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> plain.rewind(0L)).isInstanceOf(IllegalStateException.class);
+    }
+}
@@ -0,0 +1,90 @@
+package jpacman.level;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.collect.Lists;
+import jpacman.board.BoardFactory;
+import jpacman.npc.ghost.GhostFactory;
+import jpacman.points.PointCalculator;
+import jpacman.sprite.PacManSprites;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Verifies moving NPCs on a thread each.
+ */
+@SuppressWarnings("magicnumber")
+class VirtualThreadNpcSchedulerTest {
+
+    /**
+     * The time to wait for the NPCs to move, in milliseconds.
+     */
+    private static final long TIMEOUT = 5000L;
+
+    /**
+     * The sprites of the game.
+     */
+    private final PacManSprites sprites = new PacManSprites();
+
+    /**
+     * The parser used to create levels.
+     */
+    private final MapParser parser = new MapParser(
+        new LevelFactory(sprites, new GhostFactory(sprites), mock(PointCalculator.class)),
+        new BoardFactory(sprites));
+
+    /**
+     * The threads created for the NPCs.
+     */
+    private final List<Thread> created = new ArrayList<>();
+
+    /**
+     * Creates the threads for the NPCs, remembering them.
+     */
+    private final ThreadFactory factory = task -> {
+        Thread thread = VirtualThreads.newThreadFactoryOrPlatform("npc-loop-").newThread(task);
+        synchronized (created) {
+            created.add(thread);
+        }
+        return thread;
+    };
+
+    /**
+     * Every NPC gets one thread, which survives pausing, moves the NPC and
+     * ends when the level is disposed.
+     *
+     * @throws InterruptedException
+     *             If interrupted while waiting.
+     */
+    @Test
+    void threadPerNpc() throws InterruptedException {
+        Level level = parser.parseMap(Lists.newArrayList(
+            "#G    G#",
+            "#      #",
+            "########"));
+        level.useThreadPerNpc(factory);
+        for (int i = 0; i < 100; i++) {
+            level.start();
+            level.stop();
+        }
+        level.start();
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(TIMEOUT);
+        while (level.getSnapshot().getSequence() < 2 && System.nanoTime() < deadline) {
+            Thread.sleep(10L);
+        }
+        assertThat(level.getSnapshot().getSequence()).isGreaterThanOrEqualTo(2L);
+        assertThat(created).hasSize(2);
+
+        level.dispose();
+        for (Thread thread : created) {
+            thread.join(TIMEOUT);
+            assertThat(thread.isAlive()).isFalse();
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package jpacman.level;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+import java.io.IOException;
+import java.util.List;
+
+import com.google.common.collect.Lists;
+import jpacman.board.Board;
+import jpacman.board.BoardFactory;
+import jpacman.board.Direction;
+import jpacman.board.Square;
+import jpacman.npc.Ghost;
+import jpacman.npc.WorldQuery;
+import jpacman.npc.ghost.GhostFactory;
+import jpacman.points.PointCalculator;
+import jpacman.sprite.PacManSprites;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Verifies the answers shared by the ghost AIs of a level in tick mode,
+ * and how often they are computed.
+ */
+@SuppressWarnings("magicnumber")
+class WorldContextTest {
+
+    /**
+     * The sprites of the game.
+     */
+    private final PacManSprites sprites = new PacManSprites();
+
+    /**
+     * The parser used to create levels.
+     */
+    private final MapParser parser = new MapParser(
+        new LevelFactory(sprites, new GhostFactory(sprites), mock(PointCalculator.class)),
+        new BoardFactory(sprites));
+
+    /**
+     * From every square, the shared answers name the same nearest player at
+     * the same distance as a search of the board.
+     */
+    @Test
+    void sameAnswersAsSearch() {
+        Level level = tickLevel(
+            "#G    #",
+            "#  ##P#",
+            "#     #",
+            "#######");
+        level.registerPlayer(new PlayerFactory(sprites).createPacMan());
+        WorldQuery shared = level.worldQuery();
+        WorldQuery direct = WorldQuery.direct();
+
+        Board board = level.getBoard();
+        for (int x = 0; x < board.getWidth(); x++) {
+            for (int y = 0; y < board.getHeight(); y++) {
+                Square square = board.squareAt(x, y);
+                assertThat(shared.findNearest(Player.class, square))
+                    .isSameAs(direct.findNearest(Player.class, square));
+                assertThat(shared.distanceToNearest(Player.class, square))
+                    .isEqualTo(direct.distanceToNearest(Player.class, square));
+                assertThat(shared.distanceToNearest(Ghost.class, square))
+                    .isEqualTo(direct.distanceToNearest(Ghost.class, square));
+            }
+        }
+    }
+
+    /**
+     * Without players there is no nearest player.
+     */
+    @Test
+    void noPlayers() {
+        Level level = tickLevel("#G  #", "#####");
+        Square square = level.getBoard().squareAt(2, 0);
+
+        assertThat(level.worldQuery().findNearest(Player.class, square)).isNull();
+        assertThat(level.worldQuery().distanceToNearest(Player.class, square)).isEqualTo(-1);
+    }
+
+    /**
+     * The answers are shared until a unit moves.
+     */
+    @Test
+    void sharedUntilMove() {
+        Level level = tickLevel("#P  #", "#####");
+        Player player = new PlayerFactory(sprites).createPacMan();
+        level.registerPlayer(player);
+        WorldQuery before = level.worldQuery();
+        assertThat(level.worldQuery()).isSameAs(before);
+
+        level.start();
+        level.move(player, Direction.EAST);
+        level.dispose();
+
+        WorldQuery after = level.worldQuery();
+        assertThat(after).isNotSameAs(before);
+        assertThat(after.findNearest(Player.class, level.getBoard().squareAt(3, 0)))
+            .isSameAs(player);
+    }
+
+    /**
+     * However many ghosts decide in a tick, a distance field is computed
+     * once per type asked for, players and Blinky for Inky, for that state
+     * of the board, and once more after a unit moved.
+     *
+     * @throws IOException
+     *             If the board could not be read.
+     */
+    @Test
+    void oneFieldPerState() throws IOException {
+        Level level = parser.parseMap("/board.txt");
+        Player player = new PlayerFactory(sprites).createPacMan();
+        level.registerPlayer(player);
+        level.enableTickMode(50L);
+        List<Ghost> ghosts = level.getGhosts();
+        assertThat(ghosts.size()).isGreaterThan(1);
+
+        WorldContext before = decideAll(level, ghosts);
+        assertThat(decideAll(level, ghosts)).isSameAs(before);
+        assertThat(before.getFieldsComputed()).isEqualTo(2);
+
+        level.start();
+        level.move(player, Direction.EAST);
+        level.stop();
+        WorldContext after = decideAll(level, ghosts);
+        level.dispose();
+
+        assertThat(after).isNotSameAs(before);
+        assertThat(after.getVersion()).isGreaterThan(before.getVersion());
+        assertThat(after.getFieldsComputed()).isEqualTo(2);
+        assertThat(before.getFieldsComputed()).isEqualTo(2);
+    }
+
+    /**
+     * Without tick mode every question is a search of its own, as a unit
+     * may move between any two decisions.
+     */
+    @Test
+    void directOutsideTickMode() {
+        Level level = parser.parseMap(Lists.newArrayList("#G P#", "#####"));
+
+        assertThat(level.worldQuery()).isSameAs(WorldQuery.direct());
+    }
+
+    /**
+     * Like a search of the board, the shared answers find dead players.
+     */
+    @Test
+    void findsDeadPlayers() {
+        Level level = tickLevel("#G  P#", "######");
+        Player player = new PlayerFactory(sprites).createPacMan();
+        level.registerPlayer(player);
+        player.setAlive(false);
+        Square square = level.getBoard().squareAt(1, 0);
+
+        assertThat(level.worldQuery().findNearest(Player.class, square)).isSameAs(player);
+        assertThat(WorldQuery.direct().findNearest(Player.class, square)).isSameAs(player);
+        assertThat(level.worldQuery().distanceToNearest(Player.class, square)).isEqualTo(3);
+    }
+
+    /**
+     * Lets every ghost decide once on the shared answers of a level.
+     *
+     * @param level
+     *            The level.
+     * @param ghosts
+     *            The ghosts of the level.
+     * @return The shared answers they decided on.
+     */
+    private static WorldContext decideAll(Level level, List<Ghost> ghosts) {
+        WorldContext world = (WorldContext) level.worldQuery();
+        for (Ghost ghost : ghosts) {
+            assertThat(ghost.nextAiMove(level.worldQuery())).isNotNull();
+        }
+        return world;
+    }
+
+    /**
+     * @param map
+     *            The rows of the map.
+     * @return A level in tick mode, which shares the answers of its ghosts.
+     */
+    private Level tickLevel(String... map) {
+        Level level = parser.parseMap(Lists.newArrayList(map));
+        level.enableTickMode(50L);
+        return level;
+    }
+}
@@ -0,0 +1,54 @@
+package jpacman.metrics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Verifies the percentiles of a latency histogram.
+ */
+@SuppressWarnings("magicnumber")
+class LatencyHistogramTest {
+
+    /**
+     * An empty histogram reports no latency.
+     */
+    @Test
+    void empty() {
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        assertThat(histogram.getCount()).isZero();
+        assertThat(histogram.getPercentile(99)).isZero();
+    }
+
+    /**
+     * Percentiles are within a factor of two of the recorded values.
+     */
+    @Test
+    void percentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 0; i < 99; i++) {
+            histogram.record(1000L);
+        }
+        histogram.record(1_000_000L);
+
+        assertThat(histogram.getCount()).isEqualTo(100);
+        assertThat(histogram.getPercentile(50)).isBetween(1000L, 2000L);
+        assertThat(histogram.getPercentile(99)).isBetween(1000L, 2000L);
+        assertThat(histogram.getPercentile(99.9)).isEqualTo(1_000_000L);
+        assertThat(histogram.getMax()).isEqualTo(1_000_000L);
+    }
+
+    /**
+     * Resetting forgets everything.
+     */
+    @Test
+    void reset() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(5L);
+        histogram.reset();
+
+        assertThat(histogram.getCount()).isZero();
+        assertThat(histogram.getMax()).isZero();
+    }
+}
@@ -0,0 +1,155 @@
+package jpacman.npc.ghost;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.collect.Lists;
+import jpacman.board.BoardFactory;
+import jpacman.board.Direction;
+import jpacman.clock.ManualClock;
+import jpacman.level.Level;
+import jpacman.level.LevelFactory;
+import jpacman.level.Player;
+import jpacman.level.PlayerFactory;
+import jpacman.npc.Ghost;
+import jpacman.points.DefaultPointCalculator;
+import jpacman.sprite.PacManSprites;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Verifies that ghosts reuse the path of an earlier decision while its
+ * inputs stay the same, and counts the searches saved in a game.
+ */
+@SuppressWarnings("magicnumber")
+class PathMemoTest {
+
+    /**
+     * The time between ticks of the game played, in milliseconds.
+     */
+    private static final long TICK = 50L;
+
+    /**
+     * The time of the game played, in seconds.
+     */
+    private static final long GAME_TIME = 60L;
+
+    /**
+     * The seed of the game played.
+     */
+    private static final long SEED = 42L;
+
+    /**
+     * The sprites of the game.
+     */
+    private final PacManSprites sprites = new PacManSprites();
+
+    /**
+     * The parser used to create levels.
+     */
+    private GhostMapParser parser;
+
+    /**
+     * The player of the level.
+     */
+    private Player pacman;
+
+    /**
+     * Creates the parser and the player.
+     */
+    @BeforeEach
+    void setUp() {
+        GhostFactory ghostFactory = new GhostFactory(sprites);
+        parser = new GhostMapParser(
+            new LevelFactory(sprites, ghostFactory, new DefaultPointCalculator()),
+            new BoardFactory(sprites), ghostFactory);
+        pacman = new PlayerFactory(sprites).createPacMan();
+    }
+
+    /**
+     * A ghost following its path does not search again until the target
+     * moves.
+     */
+    @Test
+    void reusesPathUntilTargetMoves() {
+        Level level = parser.parseMap(Lists.newArrayList(
+            "##########",
+            "#P      A#",
+            "##########"));
+        level.registerPlayer(pacman);
+        Blinky blinky = Navigation.findUnitInBoard(Blinky.class, level.getBoard());
+
+        assertThat(blinky.nextAiMove()).contains(Direction.WEST);
+        assertThat(blinky.nextAiMove()).contains(Direction.WEST);
+        blinky.occupy(blinky.getSquare().getSquareAt(Direction.WEST));
+        assertThat(blinky.nextAiMove()).contains(Direction.WEST);
+        assertThat(blinky.getPathSearches()).isEqualTo(1L);
+        assertThat(blinky.getPathHits()).isEqualTo(2L);
+
+        pacman.occupy(pacman.getSquare().getSquareAt(Direction.EAST));
+        assertThat(blinky.nextAiMove()).contains(Direction.WEST);
+        assertThat(blinky.getPathSearches()).isEqualTo(2L);
+    }
+
+    /**
+     * A ghost that leaves its path searches again.
+     */
+    @Test
+    void searchesAgainOffPath() {
+        Level level = parser.parseMap(Lists.newArrayList(
+            "##########",
+            "#P      A#",
+            "#        #",
+            "##########"));
+        level.registerPlayer(pacman);
+        Blinky blinky = Navigation.findUnitInBoard(Blinky.class, level.getBoard());
+
+        blinky.nextAiMove();
+        blinky.occupy(blinky.getSquare().getSquareAt(Direction.SOUTH));
+        assertThat(blinky.nextAiMove()).isPresent();
+
+        assertThat(blinky.getPathSearches()).isEqualTo(2L);
+        assertThat(blinky.getPathHits()).isZero();
+    }
+
+    /**
+     * Plays a minute of the default board in tick mode on a manual clock,
+     * with the player going back and forth and starting over when caught.
+     * Some decisions reuse a path, so fewer decisions search than are made;
+     * without the memo every decision searched.
+     *
+     * @throws IOException
+     *             If the board could not be read.
+     */
+    @Test
+    void savesSearchesInGame() throws IOException {
+        Level level = parser.parseMap("/board.txt");
+        level.registerPlayer(pacman);
+        level.setSeed(SEED);
+        ManualClock clock = new ManualClock();
+        level.setClock(clock);
+        level.enableTickMode(TICK);
+        level.start();
+        for (long second = 0; second < GAME_TIME; second++) {
+            if (!pacman.isAlive()) {
+                level.reset();
+                level.start();
+            }
+            level.move(pacman, Direction.EAST);
+            clock.advance(1L, TimeUnit.SECONDS);
+            level.move(pacman, Direction.WEST);
+        }
+        level.dispose();
+
+        long hits = 0L;
+        long searches = 0L;
+        for (Ghost ghost : level.getGhosts()) {
+            hits += ghost.getPathHits();
+            searches += ghost.getPathSearches();
+        }
+        assertThat(hits).isPositive();
+        assertThat(searches).isPositive().isLessThan(hits + searches);
+    }
+}
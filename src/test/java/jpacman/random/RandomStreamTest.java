@@ -0,0 +1,56 @@
+package jpacman.random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Verifies seeding, splitting and restoring random streams.
+ */
+@SuppressWarnings("magicnumber")
+class RandomStreamTest {
+
+    /**
+     * Streams with the same seed give the same numbers, also after being
+     * split the same way.
+     */
+    @Test
+    void sameSeedSameNumbers() {
+        RandomStream first = new RandomStream(42L);
+        RandomStream second = new RandomStream(42L);
+        RandomStream firstChild = first.split();
+        RandomStream secondChild = second.split();
+
+        for (int i = 0; i < 100; i++) {
+            assertThat(second.nextLong()).isEqualTo(first.nextLong());
+            assertThat(secondChild.nextInt(10)).isEqualTo(firstChild.nextInt(10));
+        }
+    }
+
+    /**
+     * Numbers below a bound cover the whole range and nothing else.
+     */
+    @Test
+    void nextIntStaysBelowBound() {
+        RandomStream stream = new RandomStream(1L);
+        boolean[] seen = new boolean[3];
+        for (int i = 0; i < 1000; i++) {
+            seen[stream.nextInt(3)] = true;
+        }
+        assertThat(seen).containsOnly(true);
+    }
+
+    /**
+     * A restored stream gives the same numbers again.
+     */
+    @Test
+    void restoresState() {
+        RandomStream stream = new RandomStream(5L);
+        long state = stream.getState();
+        long expected = stream.nextLong();
+
+        stream.setState(state);
+
+        assertThat(stream.nextLong()).isEqualTo(expected);
+    }
+}
@@ -0,0 +1,81 @@
+package jpacman.sprite;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Map;
+
+import jpacman.board.Direction;
+import jpacman.npc.ghost.GhostColor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Verifies that units share their animation frames but not their playback.
+ */
+@SuppressWarnings("magicnumber")
+class PacManSpritesTest {
+
+    /**
+     * The sprite store under test.
+     */
+    private PacManSprites sprites;
+
+    /**
+     * Creates a fresh sprite store.
+     */
+    @BeforeEach
+    void setUp() {
+        sprites = new PacManSprites();
+    }
+
+    /**
+     * Two ghosts of the same colour play the same frames.
+     */
+    @Test
+    void ghostsShareFrames() {
+        AnimatedSprite first = (AnimatedSprite) sprites.getGhostSprite(GhostColor.RED)
+            .get(Direction.NORTH);
+        AnimatedSprite second = (AnimatedSprite) sprites.getGhostSprite(GhostColor.RED)
+            .get(Direction.NORTH);
+
+        assertThat(first).isNotSameAs(second);
+        assertThat(first.getAnimation()).isSameAs(second.getAnimation());
+    }
+
+    /**
+     * Ghosts of different colours do not share frames.
+     */
+    @Test
+    void coloursDoNotShareFrames() {
+        AnimatedSprite red = (AnimatedSprite) sprites.getGhostSprite(GhostColor.RED)
+            .get(Direction.WEST);
+        AnimatedSprite cyan = (AnimatedSprite) sprites.getGhostSprite(GhostColor.CYAN)
+            .get(Direction.WEST);
+
+        assertThat(red.getAnimation()).isNotSameAs(cyan.getAnimation());
+    }
+
+    /**
+     * Every direction of Pac-Man has its own animation.
+     */
+    @Test
+    void pacmanHasAllDirections() {
+        Map<Direction, Sprite> pacman = sprites.getPacmanSprites();
+
+        assertThat(pacman).containsOnlyKeys(Direction.values());
+        assertThat(((AnimatedSprite) pacman.get(Direction.EAST)).getAnimation().getFrameCount())
+            .isEqualTo(4);
+    }
+
+    /**
+     * Dying players share the frames, but each die on their own time.
+     */
+    @Test
+    void deathAnimationShared() {
+        AnimatedSprite first = sprites.getPacManDeathAnimation();
+        AnimatedSprite second = sprites.getPacManDeathAnimation();
+
+        assertThat(first.getAnimation()).isSameAs(second.getAnimation());
+        assertThat(first.getAnimation().isLooping()).isFalse();
+    }
+}
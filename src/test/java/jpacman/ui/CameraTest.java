@@ -0,0 +1,72 @@
+package jpacman.ui;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Verifies how the camera follows its target over a large board.
+ */
+@SuppressWarnings("magicnumber")
+class CameraTest {
+
+    /**
+     * A camera over a board of 1000 by 800 pixels.
+     */
+    private Camera camera;
+
+    /**
+     * Creates the camera.
+     */
+    @BeforeEach
+    void setUp() {
+        camera = new Camera(1000, 800);
+    }
+
+    /**
+     * The first frame centers the view directly on the target.
+     */
+    @Test
+    void firstFrameCenters() {
+        camera.follow(500, 400, 200, 100);
+        assertThat(camera.getX()).isEqualTo(400);
+        assertThat(camera.getY()).isEqualTo(350);
+    }
+
+    /**
+     * The view never shows anything beyond the edges of the board.
+     */
+    @Test
+    void staysOnBoard() {
+        camera.follow(10, 790, 200, 100);
+        assertThat(camera.getX()).isEqualTo(0);
+        assertThat(camera.getY()).isEqualTo(700);
+    }
+
+    /**
+     * A board smaller than the view is shown from its top-left corner.
+     */
+    @Test
+    void smallBoard() {
+        Camera small = new Camera(50, 50);
+        small.follow(25, 25, 200, 100);
+        assertThat(small.getX()).isEqualTo(0);
+        assertThat(small.getY()).isEqualTo(0);
+    }
+
+    /**
+     * When the target moves, the camera glides towards it instead of jumping.
+     */
+    @Test
+    void glidesTowardsTarget() {
+        camera.follow(500, 400, 200, 100);
+        camera.follow(580, 400, 200, 100);
+        assertThat(camera.getX()).isBetween(401, 479);
+
+        for (int frame = 0; frame < 50; frame++) {
+            camera.follow(580, 400, 200, 100);
+        }
+        assertThat(camera.getX()).isEqualTo(480);
+    }
+}
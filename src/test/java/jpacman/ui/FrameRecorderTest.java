@@ -0,0 +1,155 @@
+package jpacman.ui;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import com.google.common.collect.Lists;
+import jpacman.board.BoardFactory;
+import jpacman.level.Level;
+import jpacman.level.LevelFactory;
+import jpacman.level.MapParser;
+import jpacman.npc.ghost.GhostFactory;
+import jpacman.points.PointCalculator;
+import jpacman.sprite.PacManSprites;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Verifies capturing levels into off-screen frames.
+ */
+@SuppressWarnings("magicnumber")
+class FrameRecorderTest {
+
+    /**
+     * A small level with walls, pellets and a ghost.
+     */
+    private Level level;
+
+    /**
+     * Parses the level.
+     */
+    @BeforeEach
+    void setUp() {
+        PacManSprites sprites = new PacManSprites();
+        MapParser parser = new MapParser(
+            new LevelFactory(sprites, new GhostFactory(sprites), mock(PointCalculator.class)),
+            new BoardFactory(sprites));
+        level = parser.parseMap(Lists.newArrayList(
+            "#####",
+            "#.G.#",
+            "#####"));
+    }
+
+    /**
+     * Every captured frame reaches the sink, in order and at full size.
+     *
+     * @throws IOException
+     *             when the frames could not be written.
+     */
+    @Test
+    void capturesFrames() throws IOException {
+        List<Integer> written = new ArrayList<>();
+        FrameSink sink = new FrameSink() {
+            @Override
+            public void write(int index, BufferedImage frame) {
+                assertThat(frame.getWidth()).isEqualTo(5 * BoardRenderer.SQUARE_SIZE);
+                assertThat(frame.getHeight()).isEqualTo(3 * BoardRenderer.SQUARE_SIZE);
+                written.add(index);
+            }
+
+            @Override
+            public void close() {
+                // nothing to close
+            }
+        };
+        FrameRecorder recorder = new FrameRecorder(level, sink, 2);
+        int captured = 0;
+        for (int i = 0; i < 5; i++) {
+            if (recorder.capture()) {
+                captured++;
+            }
+        }
+        recorder.close();
+
+        assertThat(written).hasSize(captured);
+        for (int i = 0; i < written.size(); i++) {
+            assertThat(written.get(i)).isEqualTo(i);
+        }
+        assertThat(captured + recorder.getDroppedFrames()).isEqualTo(5);
+    }
+
+    /**
+     * Capturing does not wait for a slow encoder, but drops the frame.
+     *
+     * @throws Exception
+     *             when the frames could not be written.
+     */
+    @Test
+    void dropsWhenEncoderIsBusy() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        FrameSink slowSink = new FrameSink() {
+            @Override
+            public void write(int index, BufferedImage frame) throws IOException {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    throw new IOException(e);
+                }
+            }
+
+            @Override
+            public void close() {
+                // nothing to close
+            }
+        };
+        FrameRecorder recorder = new FrameRecorder(level, slowSink, 1);
+
+        assertThat(recorder.capture()).isTrue();
+        assertThat(recorder.capture()).isFalse();
+        assertThat(recorder.getDroppedFrames()).isEqualTo(1);
+
+        release.countDown();
+        recorder.close();
+    }
+
+    /**
+     * The raw format consists of a small header and three bytes per pixel.
+     *
+     * @throws IOException
+     *             when the frames could not be written.
+     */
+    @Test
+    void rawFormat() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        FrameRecorder recorder = new FrameRecorder(level, new RawFrameSink(bytes), 1);
+        recorder.capture();
+        recorder.close();
+
+        int pixels = 5 * 3 * BoardRenderer.SQUARE_SIZE * BoardRenderer.SQUARE_SIZE;
+        assertThat(bytes.size()).isEqualTo(2 * Integer.BYTES + 3 * pixels);
+    }
+
+    /**
+     * A closed recorder refuses to capture.
+     *
+     * @throws IOException
+     *             when the frames could not be written.
+     */
+    @Test
+    void refusesCaptureAfterClose() throws IOException {
+        FrameRecorder recorder = new FrameRecorder(level,
+            new RawFrameSink(new ByteArrayOutputStream()), 1);
+        recorder.close();
+
+        assertThatThrownBy(recorder::capture).isInstanceOf(IllegalStateException.class);
+        assertThat(recorder.getDroppedFrames()).isZero();
+    }
+}
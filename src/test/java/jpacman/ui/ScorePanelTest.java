@@ -0,0 +1,141 @@
+package jpacman.ui;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.swing.JLabel;
+import javax.swing.SwingUtilities;
+
+import com.google.common.collect.Lists;
+import jpacman.level.Player;
+import jpacman.level.PlayerFactory;
+import jpacman.sprite.PacManSprites;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Verifies that the score panel follows the players without polling.
+ */
+@SuppressWarnings("magicnumber")
+class ScorePanelTest {
+
+    /**
+     * The first player.
+     */
+    private Player first;
+
+    /**
+     * The second player.
+     */
+    private Player second;
+
+    /**
+     * The amount of times a score was formatted.
+     */
+    private final AtomicInteger formatted = new AtomicInteger();
+
+    /**
+     * The panel under test.
+     */
+    private ScorePanel panel;
+
+    /**
+     * Creates a panel for two players, with a formatter counting its calls.
+     */
+    @BeforeEach
+    void setUp() {
+        PlayerFactory factory = new PlayerFactory(new PacManSprites());
+        first = factory.createPacMan();
+        second = factory.createPacMan();
+        panel = new ScorePanel(Lists.newArrayList(first, second));
+        panel.setScoreFormatter(player -> {
+            formatted.incrementAndGet();
+            return Integer.toString(player.getScore());
+        });
+        formatted.set(0);
+    }
+
+    /**
+     * Scoring updates the label of that player only, once for all changes
+     * made before the event dispatch thread got to it.
+     *
+     * @throws Exception
+     *             If the event dispatch thread could not be reached.
+     */
+    @Test
+    void scoreChange() throws Exception {
+        SwingUtilities.invokeAndWait(() -> {
+            first.addPoints(10);
+            first.addPoints(5);
+        });
+        flush();
+
+        assertThat(scoreLabel(0).getText()).isEqualTo("15");
+        assertThat(scoreLabel(1).getText()).isEqualTo("0");
+        assertThat(formatted.get()).isEqualTo(1);
+    }
+
+    /**
+     * Dying updates the label.
+     *
+     * @throws Exception
+     *             If the event dispatch thread could not be reached.
+     */
+    @Test
+    void death() throws Exception {
+        second.setAlive(false);
+        flush();
+
+        assertThat(scoreLabel(1).getText()).isEqualTo("You died. 0");
+    }
+
+    /**
+     * Refreshing without changes formats nothing.
+     */
+    @Test
+    void refreshUnchanged() {
+        panel.refresh();
+        panel.refresh();
+
+        assertThat(formatted.get()).isEqualTo(0);
+    }
+
+    /**
+     * A disposed panel no longer follows the players.
+     *
+     * @throws Exception
+     *             If the event dispatch thread could not be reached.
+     */
+    @Test
+    void disposeStopsObserving() throws Exception {
+        panel.dispose();
+        first.addPoints(10);
+        flush();
+
+        assertThat(scoreLabel(0).getText()).isEqualTo("0");
+        assertThat(formatted.get()).isEqualTo(0);
+    }
+
+    /**
+     * Waits until all pending updates ran on the event dispatch thread.
+     *
+     * @throws InterruptedException
+     *             If interrupted while waiting.
+     * @throws InvocationTargetException
+     *             Never.
+     */
+    private static void flush() throws InterruptedException, InvocationTargetException {
+        SwingUtilities.invokeAndWait(() -> { });
+    }
+
+    /**
+     * @param index
+     *            The index of the player.
+     * @return The label showing the score of that player.
+     */
+    private JLabel scoreLabel(int index) {
+        return (JLabel) panel.getComponent(2 + index);
+    }
+}
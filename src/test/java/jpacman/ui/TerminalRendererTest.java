@@ -0,0 +1,150 @@
+package jpacman.ui;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import com.google.common.collect.Lists;
+import jpacman.board.BoardFactory;
+import jpacman.board.Direction;
+import jpacman.clock.ManualClock;
+import jpacman.level.Level;
+import jpacman.level.LevelFactory;
+import jpacman.level.MapParser;
+import jpacman.npc.ghost.GhostFactory;
+import jpacman.points.PointCalculator;
+import jpacman.sprite.PacManSprites;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Verifies that the terminal renderer only writes what changed.
+ */
+@SuppressWarnings("magicnumber")
+class TerminalRendererTest {
+
+    /**
+     * The level to draw.
+     */
+    private Level level;
+
+    /**
+     * The renderer under test.
+     */
+    private TerminalRenderer renderer;
+
+    /**
+     * Creates a level with a ghost and some pellets.
+     */
+    @BeforeEach
+    void setUp() {
+        PacManSprites sprites = new PacManSprites();
+        MapParser parser = new MapParser(
+            new LevelFactory(sprites, new GhostFactory(sprites), mock(PointCalculator.class)),
+            new BoardFactory(sprites));
+        level = parser.parseMap(Lists.newArrayList(
+            "#G  .#",
+            "######"));
+        renderer = new TerminalRenderer(level);
+    }
+
+    /**
+     * The first frame clears the screen and draws every cell.
+     *
+     * @throws IOException
+     *             never.
+     */
+    @Test
+    void firstFrameDrawsAll() throws IOException {
+        StringBuilder out = new StringBuilder();
+        assertThat(renderer.render(out)).isEqualTo(12);
+        assertThat(out.toString()).isEqualTo(
+            "\u001b[2J\u001b[1;1H#G  .#\u001b[2;1H######");
+    }
+
+    /**
+     * Nothing is written when nothing changed.
+     *
+     * @throws IOException
+     *             never.
+     */
+    @Test
+    void unchangedFrameIsEmpty() throws IOException {
+        renderer.render(new StringBuilder());
+        StringBuilder out = new StringBuilder();
+        assertThat(renderer.render(out)).isEqualTo(0);
+        assertThat(out.toString()).isEmpty();
+    }
+
+    /**
+     * A moving ghost only rewrites the cell it left and the one it entered,
+     * without moving the cursor in between.
+     *
+     * @throws IOException
+     *             never.
+     */
+    @Test
+    void movedGhost() throws IOException {
+        level.setClock(new ManualClock());
+        level.enableTickMode(50L);
+        level.start();
+        renderer.render(new StringBuilder());
+        level.move(level.getGhosts().get(0), Direction.EAST);
+        level.stop();
+
+        StringBuilder out = new StringBuilder();
+        assertThat(renderer.render(out)).isEqualTo(2);
+        assertThat(out.toString()).isEqualTo("\u001b[1;2H G");
+    }
+
+    /**
+     * A pellet put back by restoring the level is drawn in the next frame,
+     * although no unit moved.
+     *
+     * @throws IOException
+     *             never.
+     */
+    @Test
+    void restoredPellet() throws IOException {
+        ByteBuffer withPellet = ByteBuffer.allocate(level.getStateSize());
+        level.writeState(withPellet);
+        withPellet.flip();
+        level.getBoard().squareAt(4, 0).getOccupants().get(0).leaveSquare();
+        ByteBuffer withoutPellet = ByteBuffer.allocate(level.getStateSize());
+        level.writeState(withoutPellet);
+        withoutPellet.flip();
+        level.readState(withoutPellet);
+        renderer.render(new StringBuilder());
+
+        level.readState(withPellet);
+
+        StringBuilder out = new StringBuilder();
+        renderer.render(out);
+        assertThat(out.toString()).isEqualTo("\u001b[1;5H.");
+    }
+
+    /**
+     * Resetting the level between frames leaves no stale cells behind.
+     *
+     * @throws IOException
+     *             never.
+     */
+    @Test
+    void resetBetweenFrames() throws IOException {
+        level.setClock(new ManualClock());
+        level.enableTickMode(50L);
+        level.start();
+        level.move(level.getGhosts().get(0), Direction.EAST);
+        level.move(level.getGhosts().get(0), Direction.EAST);
+        level.stop();
+        renderer.render(new StringBuilder());
+
+        level.reset();
+
+        StringBuilder out = new StringBuilder();
+        assertThat(renderer.render(out)).isEqualTo(2);
+        assertThat(out.toString()).isEqualTo("\u001b[1;2HG\u001b[1;4H ");
+    }
+}